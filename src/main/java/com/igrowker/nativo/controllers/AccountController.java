@@ -3,15 +3,14 @@ package com.igrowker.nativo.controllers;
 import com.igrowker.nativo.dtos.account.AddAmountAccountDto;
 import com.igrowker.nativo.dtos.account.ResponseOtherAccountDto;
 import com.igrowker.nativo.dtos.account.ResponseSelfAccountDto;
-import com.igrowker.nativo.dtos.account.ResponseTransactionDto;
-import com.igrowker.nativo.dtos.payment.ResponseRecordPayment;
+import com.igrowker.nativo.dtos.account.ResponseTransactionPageDto;
 import com.igrowker.nativo.services.AccountService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RequiredArgsConstructor
 @RestController
@@ -42,23 +41,38 @@ public class AccountController {
     }
 
     @GetMapping("historial/todo")
-    public ResponseEntity<List<ResponseTransactionDto>> getAll(){
-        List<ResponseTransactionDto> result = accountService.getAll();
+    public ResponseEntity<ResponseTransactionPageDto> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size){
+        ResponseTransactionPageDto result = accountService.getAll(cursor, size);
         return ResponseEntity.ok(result);
     }
 
     @GetMapping("historial/estado/{status}")
-    public ResponseEntity<List<ResponseTransactionDto>> getAllStatus(@PathVariable String status){
-        List<ResponseTransactionDto> result = accountService.getAllStatus(status);
+    public ResponseEntity<ResponseTransactionPageDto> getAllStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size){
+        ResponseTransactionPageDto result = accountService.getAllStatus(status, cursor, size);
         return ResponseEntity.ok(result);
     }
 
     @GetMapping("historial/fechas/{fromDate}/{toDate}")
-    public ResponseEntity<List<ResponseTransactionDto>> getAllStatus(@PathVariable String fromDate, @PathVariable String toDate){
-        List<ResponseTransactionDto> result = accountService.getAllBetweenDates(fromDate, toDate);
+    public ResponseEntity<ResponseTransactionPageDto> getAllStatus(
+            @PathVariable String fromDate,
+            @PathVariable String toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size){
+        ResponseTransactionPageDto result = accountService.getAllBetweenDates(fromDate, toDate, cursor, size);
         return ResponseEntity.ok(result);
     }
 
-
-
+    @GetMapping(value = "historial/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportHistory(){
+        StreamingResponseBody result = accountService.exportHistory();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("Content-Disposition", "attachment; filename=\"historial.ndjson\"")
+                .body(result);
+    }
 }
@@ -167,8 +167,37 @@ public class MicrocreditController {
             @ApiResponse(responseCode = "404", content = @Content)
     })
     @GetMapping()
-    public ResponseEntity<List<ResponseMicrocreditGetDto>> getAll() {
-        List<ResponseMicrocreditGetDto> response = microcreditService.getAll();
+    public ResponseEntity<List<ResponseMicrocreditGetDto>> getAll(@Parameter(description = "Número de página, desde 0")
+                                                                  @RequestParam(defaultValue = "0") int page,
+                                                                  @Parameter(description = "Microcréditos por página (máximo 100)")
+                                                                  @RequestParam(defaultValue = "20") int size) {
+        List<ResponseMicrocreditGetDto> response = microcreditService.getAll(page, size);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Microcréditos abiertos a contribuciones",
+            description = "Endpoint que lista los microcréditos pendientes de financiar, ordenados por monto restante, " +
+                    "vencimiento o porcentaje financiado. Se pagina con el cursor devuelto en nextCursor.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de microcréditos obtenida con éxito",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResponseMarketplacePageDto.class))),
+            @ApiResponse(responseCode = "400", content = @Content)
+    })
+    @GetMapping("/marketplace")
+    public ResponseEntity<ResponseMarketplacePageDto> getMarketplace(@Parameter(description = "Criterio de orden", schema = @Schema(allowableValues = {"REMAINING_AMOUNT", "EXPIRATION_DATE", "FUNDING_PERCENTAGE"}))
+                                                                     @RequestParam(defaultValue = "EXPIRATION_DATE") String sort,
+                                                                     @Parameter(description = "Sentido del orden", schema = @Schema(allowableValues = {"ASC", "DESC"}))
+                                                                     @RequestParam(defaultValue = "ASC") String direction,
+                                                                     @Parameter(description = "Cursor de la página anterior")
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @Parameter(description = "Microcréditos por página (máximo 100)")
+                                                                     @RequestParam(defaultValue = "20") int size) {
+        if (!direction.equalsIgnoreCase("ASC") && !direction.equalsIgnoreCase("DESC")) {
+            throw new IllegalArgumentException("Sentido de orden inválido: " + direction + ". Valores posibles: ASC, DESC.");
+        }
+        ResponseMarketplacePageDto response = microcreditService.getMarketplace(MarketplaceSort.from(sort),
+                direction.equalsIgnoreCase("DESC"), cursor, size);
 
         return ResponseEntity.ok(response);
     }
@@ -196,8 +225,12 @@ public class MicrocreditController {
             @ApiResponse(responseCode = "404", content = @Content)
     })
     @GetMapping("/historial-estados/{status}")
-    public ResponseEntity<List<ResponseMicrocreditGetDto>> getMicrocreditsByTransactionStatus(@Parameter(description = "Seleccionar el estado del microcrédito a buscar", required = true, schema = @Schema(allowableValues = {"ACCEPTED", "DENIED", "PENDING", "EXPIRED", "COMPLETED"})) @PathVariable String status) {
-        List<ResponseMicrocreditGetDto> response = microcreditService.getMicrocreditsByTransactionStatus(status);
+    public ResponseEntity<List<ResponseMicrocreditGetDto>> getMicrocreditsByTransactionStatus(@Parameter(description = "Seleccionar el estado del microcrédito a buscar", required = true, schema = @Schema(allowableValues = {"ACCEPTED", "DENIED", "PENDING", "EXPIRED", "COMPLETED"})) @PathVariable String status,
+                                                                                              @Parameter(description = "Número de página, desde 0")
+                                                                                              @RequestParam(defaultValue = "0") int page,
+                                                                                              @Parameter(description = "Microcréditos por página (máximo 100)")
+                                                                                              @RequestParam(defaultValue = "20") int size) {
+        List<ResponseMicrocreditGetDto> response = microcreditService.getMicrocreditsByTransactionStatus(status, page, size);
 
         return ResponseEntity.ok(response);
     }
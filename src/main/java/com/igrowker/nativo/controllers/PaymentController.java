@@ -12,13 +12,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RequiredArgsConstructor
 @RestController
@@ -29,7 +35,9 @@ public class PaymentController {
     private final PaymentService paymentService;
 
     @Operation(summary = "Crear un nuevo QR de pago.",
-            description = "Endpoint que permite crear un QR para ser cobrado por el usuario autenticado.")
+            description = "Endpoint que permite crear un QR para ser cobrado por el usuario autenticado. " +
+                    "Con format=PNG (por defecto) la respuesta trae qrUrl; con SVG, MATRIX o PAYLOAD el QR viaja en qr " +
+                    "para que el cliente lo dibuje.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "QR creado con éxito.",
                     content = @Content(mediaType = "application/json",
@@ -39,8 +47,9 @@ public class PaymentController {
     })
     @PostMapping("/crear-qr")
     public ResponseEntity<ResponsePaymentDto> generateQr(
-            @RequestBody @Valid RequestPaymentDto requestPaymentDto) {
-        ResponsePaymentDto result = paymentService.createQr(requestPaymentDto);
+            @RequestBody @Valid RequestPaymentDto requestPaymentDto,
+            @RequestParam(defaultValue = "PNG") String format) {
+        ResponsePaymentDto result = paymentService.createQr(requestPaymentDto, QrFormat.from(format));
         return ResponseEntity.ok(result);
     }
 
@@ -166,4 +175,29 @@ public class PaymentController {
         ResponsePaymentDto result = paymentService.createQrId(requestPaymentDto);
         return ResponseEntity.ok(result);
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Imagen del QR de un pago pendiente",
+            description = "Devuelve el PNG del QR con ETag fuerte; mientras el pago siga pendiente se puede cachear hasta su vencimiento.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Imagen del QR",
+                    content = @Content(mediaType = MediaType.IMAGE_PNG_VALUE)),
+            @ApiResponse(responseCode = "304", description = "La imagen no cambió", content = @Content),
+            @ApiResponse(responseCode = "404", description = "El QR no existe o ya no está vigente", content = @Content)
+    })
+    @GetMapping(value = "/qr/{id}", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getQrImage(@PathVariable String id, WebRequest request) {
+        ResponseQrImageDto qr = paymentService.getQrImage(id);
+        String eTag = "\"" + qr.contentHash() + "\"";
+        long maxAge = Math.max(0, Duration.between(LocalDateTime.now(), qr.expiresAt()).getSeconds());
+        CacheControl cacheControl = CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePrivate();
+
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.IMAGE_PNG)
+                .body(qr.image());
+    }
+}
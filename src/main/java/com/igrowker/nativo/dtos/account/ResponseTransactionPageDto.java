@@ -0,0 +1,8 @@
+package com.igrowker.nativo.dtos.account;
+
+import java.util.List;
+
+public record ResponseTransactionPageDto(
+        List<ResponseTransactionDto> transactions,
+        String nextCursor
+) {}
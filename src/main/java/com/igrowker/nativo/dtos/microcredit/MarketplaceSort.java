@@ -0,0 +1,20 @@
+package com.igrowker.nativo.dtos.microcredit;
+
+/**
+ * Criterio de orden del listado de microcréditos abiertos a contribuciones.
+ */
+public enum MarketplaceSort {
+    REMAINING_AMOUNT,
+    EXPIRATION_DATE,
+    FUNDING_PERCENTAGE;
+
+    public static MarketplaceSort from(String value) {
+        for (MarketplaceSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Orden inválido: " + value +
+                ". Valores posibles: REMAINING_AMOUNT, EXPIRATION_DATE, FUNDING_PERCENTAGE.");
+    }
+}
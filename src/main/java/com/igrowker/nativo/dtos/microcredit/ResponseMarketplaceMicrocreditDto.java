@@ -0,0 +1,18 @@
+package com.igrowker.nativo.dtos.microcredit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ResponseMarketplaceMicrocreditDto(
+        String id,
+        String borrowerAccountId,
+        String title,
+        String description,
+        BigDecimal amount,
+        BigDecimal remainingAmount,
+        BigDecimal fundingPercentage,
+        BigDecimal interestRate,
+        LocalDateTime createdDate,
+        LocalDateTime expirationDate
+) {
+}
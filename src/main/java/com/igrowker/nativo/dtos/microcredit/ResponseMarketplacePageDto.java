@@ -0,0 +1,9 @@
+package com.igrowker.nativo.dtos.microcredit;
+
+import java.util.List;
+
+public record ResponseMarketplacePageDto(
+        List<ResponseMarketplaceMicrocreditDto> microcredits,
+        String nextCursor
+) {
+}
@@ -0,0 +1,21 @@
+package com.igrowker.nativo.dtos.payment;
+
+/**
+ * Formato en que se entrega el QR al crear un pago. PNG se sirve como imagen desde /api/pagos/qr/{id}; el resto viaja
+ * en la respuesta y no se rasteriza en el servidor.
+ */
+public enum QrFormat {
+    PNG,
+    SVG,
+    MATRIX,
+    PAYLOAD;
+
+    public static QrFormat from(String value) {
+        for (QrFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Formato de QR inválido: " + value + ". Valores posibles: PNG, SVG, MATRIX, PAYLOAD.");
+    }
+}
@@ -1,6 +1,7 @@
 package com.igrowker.nativo.dtos.payment;
 
 import com.igrowker.nativo.entities.TransactionStatus;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 public record RequestProcessPaymentDto(
@@ -9,6 +10,8 @@ public record RequestProcessPaymentDto(
         @NotNull(message = "El id de cuenta del cliente es obligatorio.")
         String senderAccount,
         @NotNull(message = "El status del pago es obligatorio.")
-        String transactionStatus
+        String transactionStatus,
+        @NotBlank(message = "El contenido del QR es obligatorio.")
+        String qr
 ) {
 }
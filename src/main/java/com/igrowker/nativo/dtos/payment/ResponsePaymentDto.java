@@ -9,6 +9,8 @@ public record ResponsePaymentDto(
         String receiverSurname,
         BigDecimal amount,
         String description,
+        String qrUrl,
+        QrFormat qrFormat,
         String qr
 ) {
 }
@@ -0,0 +1,10 @@
+package com.igrowker.nativo.dtos.payment;
+
+import java.time.LocalDateTime;
+
+public record ResponseQrImageDto(
+        byte[] image,
+        String contentHash,
+        LocalDateTime expiresAt
+) {
+}
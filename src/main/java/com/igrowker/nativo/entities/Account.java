@@ -11,7 +11,11 @@ import java.math.BigDecimal;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "accounts")
+@Table(name = "accounts",
+        indexes = {
+                @Index(name = "idx_accounts_account_number", columnList = "account_number", unique = true),
+                @Index(name = "idx_accounts_user_id", columnList = "user_id")
+        })
 public class Account {
 
     @Id
@@ -0,0 +1,59 @@
+package com.igrowker.nativo.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento de una cuenta (pago, donación o contribución) con nombres y cuentas ya resueltos. Cada transacción tiene
+ * una fila por cuenta participante, así el historial se lee por {@code ownerAccountId} sin ORs ni joins.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "account_activity",
+        indexes = {
+                @Index(name = "idx_account_activity_owner_date", columnList = "owner_account_id, creation_date, id"),
+                @Index(name = "idx_account_activity_owner_status_date", columnList = "owner_account_id, status, creation_date, id"),
+                @Index(name = "idx_account_activity_source", columnList = "source_id")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_account_activity_owner_source",
+                columnNames = {"owner_account_id", "source_id"}))
+public class AccountActivity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "owner_account_id", nullable = false)
+    private String ownerAccountId;
+
+    @Column(name = "source_id", nullable = false)
+    private String sourceId;
+
+    private String transaction;
+
+    @Column(length = 1000)
+    private BigDecimal amount;
+
+    private String senderName;
+    private String senderSurname;
+    private String senderAccount;
+
+    private String receiverName;
+    private String receiverSurname;
+    private String receiverAccount;
+
+    @Column(name = "creation_date")
+    private LocalDateTime creationDate;
+
+    private LocalDateTime endDate;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionStatus status;
+}
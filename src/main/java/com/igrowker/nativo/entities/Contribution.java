@@ -12,7 +12,12 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "contributions")
+@Table(name = "contributions",
+        indexes = {
+                @Index(name = "idx_contributions_lender_created", columnList = "lender_account_id, created_date"),
+                @Index(name = "idx_contributions_status_created", columnList = "transaction_status, created_date"),
+                @Index(name = "idx_contributions_microcredit", columnList = "microcredit_id")
+        })
 public class Contribution {
 
     @Id
@@ -9,7 +9,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "donations")
+@Table(name = "donations",
+        indexes = {
+                @Index(name = "idx_donations_donor_created", columnList = "account_id_donor, created_at"),
+                @Index(name = "idx_donations_beneficiary_created", columnList = "account_id_beneficiary, created_at"),
+                @Index(name = "idx_donations_status_created", columnList = "status, created_at")
+        })
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -0,0 +1,37 @@
+package com.igrowker.nativo.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Primera respuesta de un request con Idempotency-Key. El id y el hash del cuerpo son SHA-256 en Base64 URL; mientras
+ * el request original está en curso {@code status} es nulo y {@code expiresAt} marca hasta cuándo está reservada.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "idempotency_keys",
+        indexes = {
+                @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+        })
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 43)
+    private String id;
+
+    @Column(length = 43, nullable = false)
+    private String requestHash;
+
+    private Integer status;
+    private String contentType;
+    private byte[] body;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
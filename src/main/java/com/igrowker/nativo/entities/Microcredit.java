@@ -4,16 +4,30 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// Los agregados y el estado se escriben también con UPDATE guardados; @DynamicUpdate evita que guardar una copia
+// leída antes reescriba columnas que no cambió.
 @Entity
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "microcredits")
+@DynamicUpdate
+@Table(name = "microcredits",
+        indexes = {
+                @Index(name = "idx_microcredits_created", columnList = "created_date, id"),
+                @Index(name = "idx_microcredits_status_created", columnList = "transaction_status, created_date, id"),
+                @Index(name = "idx_microcredits_borrower_created", columnList = "borrower_account_id, created_date"),
+                @Index(name = "idx_microcredits_borrower_status", columnList = "borrower_account_id, transaction_status"),
+                @Index(name = "idx_microcredits_status_expiration", columnList = "transaction_status, expiration_date"),
+                @Index(name = "idx_microcredits_expiration", columnList = "expiration_date")
+        })
 public class Microcredit {
 
     @Id
@@ -55,6 +69,29 @@ public class Microcredit {
     @OneToMany(mappedBy = "microcredit")
     private List<Contribution> contributions;
 
+    // Agregados de las contribuciones, mantenidos en la misma sentencia que las registra o las liquida, para no cargar
+    // la colección al calcular montos. MicrocreditCounterChecker los recalcula y corrige si se desvían.
+    // El default de la columna cubre las filas que ya existían cuando se agregó; hasta que MicrocreditCounterChecker
+    // las recalcula al arrancar valen 0 en lugar de NULL.
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer contributionCount = 0;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private BigDecimal contributedTotal = BigDecimal.ZERO;
+
+    // Capital más interés de las contribuciones todavía no devueltas.
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private BigDecimal totalOwed = BigDecimal.ZERO;
+
+    // Lo que se devuelve por una contribución: capital más interés redondeado a centavos, igual que total_owed.
+    public BigDecimal owedFor(BigDecimal contributionAmount) {
+        BigDecimal interest = contributionAmount.multiply(interestRate).divide(BigDecimal.valueOf(100));
+        return contributionAmount.add(interest.setScale(2, RoundingMode.HALF_UP));
+    }
+
     @PrePersist
     protected void onCreate() {
         this.createdDate = LocalDateTime.now();
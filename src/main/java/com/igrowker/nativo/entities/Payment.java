@@ -12,7 +12,13 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "payments")
+@Table(name = "payments",
+        indexes = {
+                @Index(name = "idx_payments_sender_date", columnList = "sender_account, transaction_date"),
+                @Index(name = "idx_payments_receiver_date", columnList = "receiver_account, transaction_date"),
+                @Index(name = "idx_payments_sender_status", columnList = "sender_account, transaction_status"),
+                @Index(name = "idx_payments_status_date", columnList = "transaction_status, transaction_date")
+        })
 public class Payment {
 
     @Id
@@ -37,9 +43,6 @@ public class Payment {
     @Column(length=1000)
     private String description;
 
-    @Column(length=10000)
-    private String qr;
-
     @PrePersist
     public void onCreate(){
         this.transactionDate = LocalDateTime.now();
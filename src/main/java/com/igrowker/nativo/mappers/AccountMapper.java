@@ -2,12 +2,21 @@ package com.igrowker.nativo.mappers;
 
 import com.igrowker.nativo.dtos.account.ResponseOtherAccountDto;
 import com.igrowker.nativo.dtos.account.ResponseSelfAccountDto;
+import com.igrowker.nativo.dtos.account.ResponseTransactionDto;
 import com.igrowker.nativo.entities.Account;
+import com.igrowker.nativo.entities.AccountActivity;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface AccountMapper {
 
     ResponseSelfAccountDto accountToResponseSelfDto (Account account);
     ResponseOtherAccountDto accountToResponseOtherDto (Account account);
+
+    @Mapping(target = "id", source = "sourceId")
+    ResponseTransactionDto activityToTransactionDto (AccountActivity accountActivity);
+    List<ResponseTransactionDto> activitiesToTransactionDtos (List<AccountActivity> accountActivities);
 }
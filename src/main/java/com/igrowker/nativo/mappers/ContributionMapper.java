@@ -3,6 +3,7 @@ package com.igrowker.nativo.mappers;
 import com.igrowker.nativo.dtos.contribution.RequestContributionDto;
 import com.igrowker.nativo.dtos.contribution.ResponseContributionDto;
 import com.igrowker.nativo.entities.Contribution;
+import com.igrowker.nativo.repositories.projections.ContributionSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -18,5 +19,9 @@ public interface ContributionMapper {
     @Mapping(source = "borrowerFullname", target = "borrowerFullname")
     ResponseContributionDto responseContributionDto(Contribution contribution, String lenderFullname, String borrowerFullname);
 
+    @Mapping(source = "lenderFullname", target = "lenderFullname")
+    @Mapping(source = "borrowerFullname", target = "borrowerFullname")
+    ResponseContributionDto summaryToResponseDto(ContributionSummary contribution, String lenderFullname, String borrowerFullname);
+
     List<ResponseContributionDto> contributionListToResponseRecordList(List<Contribution> contributionList);
 }
@@ -2,12 +2,15 @@ package com.igrowker.nativo.mappers;
 
 import com.igrowker.nativo.dtos.contribution.ResponseContributionDto;
 import com.igrowker.nativo.dtos.microcredit.RequestMicrocreditDto;
+import com.igrowker.nativo.dtos.microcredit.ResponseMarketplaceMicrocreditDto;
 import com.igrowker.nativo.dtos.microcredit.ResponseMicrocreditDto;
 import com.igrowker.nativo.dtos.microcredit.ResponseMicrocreditGetDto;
 import com.igrowker.nativo.entities.Microcredit;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
 
 @Mapper(componentModel = "spring")
@@ -22,4 +25,18 @@ public interface MicrocreditMapper {
     @Mapping(source = "contribution.microcredit.id", target = "microcreditId")
     @Mapping(source = "contribution.microcredit.expirationDate", target = "expiredDateMicrocredit")
     List<ResponseMicrocreditGetDto> microcreditListToResponseRecordList(List<Microcredit> microcreditList);
+
+    @Mapping(target = "fundingPercentage", expression = "java(MicrocreditMapper.fundingPercentage(microcredit))")
+    ResponseMarketplaceMicrocreditDto marketplaceDto(Microcredit microcredit);
+
+    // Porcentaje del monto solicitado que ya fue aportado, con dos decimales.
+    static BigDecimal fundingPercentage(Microcredit microcredit) {
+        BigDecimal amount = microcredit.getAmount();
+        if (amount == null || amount.signum() <= 0 || microcredit.getRemainingAmount() == null) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return amount.subtract(microcredit.getRemainingAmount())
+                .multiply(BigDecimal.valueOf(100))
+                .divide(amount, 2, RoundingMode.HALF_UP);
+    }
 }
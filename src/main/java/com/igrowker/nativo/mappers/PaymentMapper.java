@@ -2,6 +2,7 @@ package com.igrowker.nativo.mappers;
 
 import com.igrowker.nativo.dtos.payment.*;
 import com.igrowker.nativo.entities.Payment;
+import com.igrowker.nativo.repositories.projections.PaymentSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -13,7 +14,10 @@ public interface PaymentMapper {
     Payment requestDtoToPayment(RequestPaymentDto requestPaymentDto);
 
     @Mapping(source = "accountNumber", target = "receiverAccount")
-    ResponsePaymentDto paymentToResponseDto(Payment payment, String accountNumber);
+    @Mapping(target = "qrUrl", expression = "java(qrFormat == QrFormat.PNG ? PaymentMapper.qrUrl(payment.getId()) : null)")
+    @Mapping(source = "qrFormat", target = "qrFormat")
+    @Mapping(source = "qr", target = "qr")
+    ResponsePaymentDto paymentToResponseDto(Payment payment, String accountNumber, QrFormat qrFormat, String qr);
 
     Payment requestProcessDtoToPayment(RequestProcessPaymentDto requestProcessPaymentDto);
 
@@ -25,5 +29,13 @@ public interface PaymentMapper {
     @Mapping(source = "receiverAccountNumber", target = "receiverAccount")
     ResponseRecordPayment paymentToResponseRecord(Payment payment, String senderAccountNumber, String receiverAccountNumber);
 
+    @Mapping(source = "senderAccountNumber", target = "senderAccount")
+    @Mapping(source = "receiverAccountNumber", target = "receiverAccount")
+    ResponseRecordPayment summaryToResponseRecord(PaymentSummary payment, String senderAccountNumber, String receiverAccountNumber);
+
     Payment demodayDtoToPayment(DemodayDtoRequestPayment requestPaymentDto);
+
+    static String qrUrl(String paymentId) {
+        return "/api/pagos/qr/" + paymentId;
+    }
 }
@@ -0,0 +1,58 @@
+package com.igrowker.nativo.repositories;
+
+import com.igrowker.nativo.entities.AccountActivity;
+import com.igrowker.nativo.entities.TransactionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface AccountActivityRepository extends JpaRepository<AccountActivity, String> {
+
+    List<AccountActivity> findBySourceId(String sourceId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AccountActivity a SET a.status = :status WHERE a.sourceId IN :sourceIds")
+    int updateStatusBySourceIdIn(@Param("sourceIds") Collection<String> sourceIds, @Param("status") TransactionStatus status);
+
+    // Cursor del lado del servidor para la exportación completa; se consume dentro de una transacción.
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT a FROM AccountActivity a WHERE a.ownerAccountId = :idAccount ORDER BY a.creationDate DESC, a.id DESC")
+    Stream<AccountActivity> streamByOwnerAccountId(@Param("idAccount") String idAccount);
+
+    // Keyset: filas posteriores al cursor (creationDate, id) en orden descendente.
+    @Query("SELECT a FROM AccountActivity a WHERE a.ownerAccountId = :idAccount " +
+            "AND a.creationDate >= :fromDate AND a.creationDate < :toDate " +
+            "AND (a.creationDate < :cursorDate OR (a.creationDate = :cursorDate AND a.id < :cursorId)) " +
+            "ORDER BY a.creationDate DESC, a.id DESC")
+    List<AccountActivity> findPageBetweenDates(@Param("idAccount") String idAccount,
+                                               @Param("fromDate") LocalDateTime fromDate,
+                                               @Param("toDate") LocalDateTime toDate,
+                                               @Param("cursorDate") LocalDateTime cursorDate,
+                                               @Param("cursorId") String cursorId,
+                                               Pageable pageable);
+
+    @Query("SELECT a FROM AccountActivity a WHERE a.ownerAccountId = :idAccount AND a.status = :status " +
+            "AND (a.creationDate < :cursorDate OR (a.creationDate = :cursorDate AND a.id < :cursorId)) " +
+            "ORDER BY a.creationDate DESC, a.id DESC")
+    List<AccountActivity> findPageByStatus(@Param("idAccount") String idAccount,
+                                           @Param("status") TransactionStatus status,
+                                           @Param("cursorDate") LocalDateTime cursorDate,
+                                           @Param("cursorId") String cursorId,
+                                           Pageable pageable);
+}
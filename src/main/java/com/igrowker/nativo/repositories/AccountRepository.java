@@ -21,6 +21,22 @@ public interface AccountRepository extends JpaRepository<Account, String> {
     @Query("UPDATE Account a SET a.amount = a.amount - :amount WHERE a.id = :accountId")
     void deductBalance(@Param("accountId") String accountId, @Param("amount") BigDecimal amount);
 
+    // Movimientos de saldo en un único UPDATE, sin leer la cuenta: no hay read-modify-write que pueda perder
+    // actualizaciones. Devuelven las filas afectadas; el débito condicionado afecta 0 si no alcanzan los fondos.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.amount = a.amount - :amount WHERE a.id = :accountId " +
+            "AND a.amount - COALESCE(a.reservedAmount, 0) >= :amount")
+    int debitIfAvailable(@Param("accountId") String accountId, @Param("amount") BigDecimal amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.amount = a.amount + :amount WHERE a.id = :accountId")
+    int addToBalance(@Param("accountId") String accountId, @Param("amount") BigDecimal amount);
+
+    // Reserva (delta positivo) o libera (negativo) fondos sin reescribir el saldo cargado antes.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.reservedAmount = COALESCE(a.reservedAmount, 0) + :delta WHERE a.id = :accountId")
+    int addToReserved(@Param("accountId") String accountId, @Param("delta") BigDecimal delta);
+
    @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
     Optional<Account> findAccountByNumberAccount(@Param("accountNumber") Long accountNumber);
 }
@@ -2,46 +2,86 @@ package com.igrowker.nativo.repositories;
 
 import com.igrowker.nativo.entities.Contribution;
 import com.igrowker.nativo.entities.TransactionStatus;
+import com.igrowker.nativo.repositories.projections.ContributionSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ContributionRepository extends JpaRepository<Contribution, String> {
 
-    List<Contribution> findAllByLenderAccountId(String lenderAccountId);
+    String SUMMARY = "SELECT c.id AS id, c.lenderAccountId AS lenderAccountId, m.id AS microcreditId, " +
+            "m.borrowerAccountId AS borrowerAccountId, c.amount AS amount, c.createdDate AS createdDate, " +
+            "m.expirationDate AS expiredDateMicrocredit, c.transactionStatus AS transactionStatus " +
+            "FROM Contribution c JOIN c.microcredit m ";
 
-    List<Contribution> findByTransactionStatusAndLenderAccountId(TransactionStatus enumStatus, String id);
+    @Query(SUMMARY + "WHERE c.lenderAccountId = :lenderAccountId")
+    List<ContributionSummary> findAllByLenderAccountId(@Param("lenderAccountId") String lenderAccountId);
 
-    @Query("SELECT c FROM Contribution c WHERE (c.lenderAccountId = :idAccount) " +
+    @Query(SUMMARY + "WHERE c.transactionStatus = :status AND c.lenderAccountId = :lenderAccountId")
+    List<ContributionSummary> findByTransactionStatusAndLenderAccountId(@Param("status") TransactionStatus enumStatus,
+                                                                        @Param("lenderAccountId") String id);
+
+    @Query(SUMMARY + "WHERE c.lenderAccountId = :idAccount " +
             "AND c.createdDate >= :startDate AND c.createdDate < :endDate")
-    List<Contribution> findContributionsBetweenDates(@Param("idAccount") String idAccount,
+    List<ContributionSummary> findContributionsBetweenDates(@Param("idAccount") String idAccount,
                                                      @Param("startDate") LocalDateTime startDate,
                                                      @Param("endDate") LocalDateTime endDate);
 
-    List<Contribution> findByTransactionStatus(TransactionStatus enumStatus);
+    @Query(SUMMARY + "WHERE c.transactionStatus = :status")
+    List<ContributionSummary> findByTransactionStatus(@Param("status") TransactionStatus enumStatus);
+
+    @Query(SUMMARY)
+    List<ContributionSummary> findAllSummaries();
 
-    @Query("SELECT c FROM Contribution c JOIN c.microcredit m WHERE c.lenderAccountId = :idAccount OR m.borrowerAccountId = :idAccount")
+    // Rama del prestamista por idx_contributions_lender_created; rama del prestatario partiendo de sus microcréditos.
+    @Query(value = "SELECT c.* FROM contributions c WHERE c.lender_account_id = :idAccount " +
+            "UNION ALL " +
+            "SELECT c.* FROM microcredits m JOIN contributions c ON c.microcredit_id = m.id " +
+            "WHERE m.borrower_account_id = :idAccount AND c.lender_account_id IS DISTINCT FROM :idAccount " +
+            "ORDER BY created_date DESC", nativeQuery = true)
     List<Contribution> findContributionsByAccount(@Param("idAccount") String idAccount);
 
-    @Query("SELECT c FROM Contribution c JOIN c.microcredit m WHERE (c.lenderAccountId = :idAccount OR m.borrowerAccountId = :idAccount) AND c.transactionStatus = :status")
+    @Query(value = "SELECT c.* FROM contributions c WHERE c.lender_account_id = :idAccount " +
+            "AND c.transaction_status = :#{#status.name()} " +
+            "UNION ALL " +
+            "SELECT c.* FROM microcredits m JOIN contributions c ON c.microcredit_id = m.id " +
+            "WHERE m.borrower_account_id = :idAccount AND c.lender_account_id IS DISTINCT FROM :idAccount " +
+            "AND c.transaction_status = :#{#status.name()} " +
+            "ORDER BY created_date DESC", nativeQuery = true)
     List<Contribution> findContributionsByStatus(@Param("idAccount") String idAccount, @Param("status") TransactionStatus status);
 
-    @Query("SELECT c FROM Contribution c JOIN c.microcredit m " +
-            "WHERE (c.lenderAccountId = :idAccount OR m.borrowerAccountId = :idAccount) " +
-            "AND (c.createdDate BETWEEN :fromDate AND :toDate " +
-            "OR m.expirationDate BETWEEN :fromDate AND :toDate " +
-            "OR m.createdDate BETWEEN :fromDate AND :toDate)")
+    @Query(value = "SELECT c.* FROM contributions c JOIN microcredits m ON m.id = c.microcredit_id " +
+            "WHERE c.lender_account_id = :idAccount " +
+            "AND (c.created_date BETWEEN :fromDate AND :toDate " +
+            "OR m.expiration_date BETWEEN :fromDate AND :toDate " +
+            "OR m.created_date BETWEEN :fromDate AND :toDate) " +
+            "UNION ALL " +
+            "SELECT c.* FROM microcredits m JOIN contributions c ON c.microcredit_id = m.id " +
+            "WHERE m.borrower_account_id = :idAccount AND c.lender_account_id IS DISTINCT FROM :idAccount " +
+            "AND (c.created_date BETWEEN :fromDate AND :toDate " +
+            "OR m.expiration_date BETWEEN :fromDate AND :toDate " +
+            "OR m.created_date BETWEEN :fromDate AND :toDate) " +
+            "ORDER BY created_date DESC", nativeQuery = true)
     List<Contribution> findContributionsByDateRange(@Param("idAccount") String idAccount,
                                                     @Param("fromDate") LocalDateTime fromDate,
                                                     @Param("toDate") LocalDateTime toDate);
 
-    @Query("SELECT c FROM Contribution c WHERE (c.lenderAccountId = :lenderAccountId) " +
+    @Query(SUMMARY + "WHERE c.lenderAccountId = :lenderAccountId " +
             "AND c.createdDate >= :startDate AND c.createdDate < :endDate AND c.transactionStatus = :status")
-    List<Contribution> findContributionsByDateAndTransactionStatus(String lenderAccountId, LocalDateTime startDate,
-                                                                   LocalDateTime endDate, TransactionStatus status);
+    List<ContributionSummary> findContributionsByDateAndTransactionStatus(String lenderAccountId, LocalDateTime startDate,
+                                                                          LocalDateTime endDate, TransactionStatus status);
+
+    List<Contribution> findByMicrocreditIdAndTransactionStatusNot(String microcreditId, TransactionStatus status);
+
+    // Un único UPDATE para las contribuciones liquidadas, en lugar de un save por contribución.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Contribution c SET c.transactionStatus = :status WHERE c.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<String> ids, @Param("status") TransactionStatus status);
 }
@@ -21,14 +21,29 @@ public interface DonationRepository extends JpaRepository<Donation,String> {
 
     Optional<List<Donation>> findAllByAccountIdBeneficiary(String accountIdBeneficiary);
 
-    @Query("SELECT d FROM Donation d WHERE d.accountIdDonor = :idAccount OR d.accountIdBeneficiary = :idAccount")
+    // Una rama UNION ALL por rol (donante o beneficiario) para usar el índice de cada columna.
+    @Query(value = "SELECT d.* FROM donations d WHERE d.account_id_donor = :idAccount " +
+            "UNION ALL " +
+            "SELECT d.* FROM donations d WHERE d.account_id_beneficiary = :idAccount " +
+            "AND d.account_id_donor IS DISTINCT FROM :idAccount " +
+            "ORDER BY update_at DESC", nativeQuery = true)
     List<Donation> findDonationsByAccount(@Param("idAccount") String idAccount);
 
-    @Query("SELECT d FROM Donation d WHERE (d.accountIdDonor = :idAccount OR d.accountIdBeneficiary = :idAccount) AND d.status = :status")
+    @Query(value = "SELECT d.* FROM donations d WHERE d.account_id_donor = :idAccount " +
+            "AND d.status = :#{#status.name()} " +
+            "UNION ALL " +
+            "SELECT d.* FROM donations d WHERE d.account_id_beneficiary = :idAccount " +
+            "AND d.account_id_donor IS DISTINCT FROM :idAccount AND d.status = :#{#status.name()} " +
+            "ORDER BY update_at DESC", nativeQuery = true)
     List<Donation> findDonationsByStatus(@Param("idAccount") String idAccount, @Param("status") TransactionStatus status);
 
-    @Query("SELECT d FROM Donation d WHERE (d.accountIdDonor = :idAccount OR d.accountIdBeneficiary = :idAccount) " +
-            "AND (d.createdAt BETWEEN :fromDate AND :toDate OR d.updateAt BETWEEN :fromDate AND :toDate)")
+    @Query(value = "SELECT d.* FROM donations d WHERE d.account_id_donor = :idAccount " +
+            "AND (d.created_at BETWEEN :fromDate AND :toDate OR d.update_at BETWEEN :fromDate AND :toDate) " +
+            "UNION ALL " +
+            "SELECT d.* FROM donations d WHERE d.account_id_beneficiary = :idAccount " +
+            "AND d.account_id_donor IS DISTINCT FROM :idAccount " +
+            "AND (d.created_at BETWEEN :fromDate AND :toDate OR d.update_at BETWEEN :fromDate AND :toDate) " +
+            "ORDER BY update_at DESC", nativeQuery = true)
     List<Donation> findDonationsByDateRange(@Param("idAccount") String idAccount,
                                                       @Param("fromDate") LocalDateTime fromDate,
                                                       @Param("toDate") LocalDateTime toDate);
@@ -0,0 +1,42 @@
+package com.igrowker.nativo.repositories;
+
+import com.igrowker.nativo.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Reserva la clave en un solo statement: inserta el registro en curso o recupera uno vencido.
+    // Devuelve 0 si la clave ya tiene una respuesta vigente o la está procesando otra instancia.
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (id, request_hash, expires_at) " +
+            "VALUES (:id, :requestHash, :expiresAt) " +
+            "ON CONFLICT (id) DO UPDATE SET request_hash = EXCLUDED.request_hash, status = NULL, " +
+            "content_type = NULL, body = NULL, expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at <= :now", nativeQuery = true)
+    int claim(@Param("id") String id, @Param("requestHash") String requestHash,
+              @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.contentType = :contentType, r.body = :body, " +
+            "r.expiresAt = :expiresAt WHERE r.id = :id")
+    int complete(@Param("id") String id, @Param("status") int status, @Param("contentType") String contentType,
+                 @Param("body") byte[] body, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status IS NULL")
+    int release(@Param("id") String id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
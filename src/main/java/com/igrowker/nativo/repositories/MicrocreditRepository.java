@@ -3,12 +3,17 @@ package com.igrowker.nativo.repositories;
 import com.igrowker.nativo.entities.Microcredit;
 
 import com.igrowker.nativo.entities.TransactionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,7 +36,84 @@ public interface MicrocreditRepository extends JpaRepository<Microcredit, String
 
     List<Microcredit> findByTransactionStatus(TransactionStatus transactionStatus);
 
+    // Listados paginados en dos pasos: primero los ids de la página (LIMIT/OFFSET en la base) y después esos
+    // microcréditos con sus contribuciones. Paginar directamente con un fetch de la colección obliga a Hibernate
+    // a traer todas las filas y cortar la página en memoria.
+    @Query("SELECT m.id FROM Microcredit m ORDER BY m.createdDate DESC, m.id DESC")
+    List<String> findPageIds(Pageable pageable);
+
+    @Query("SELECT m.id FROM Microcredit m WHERE m.transactionStatus = :status ORDER BY m.createdDate DESC, m.id DESC")
+    List<String> findPageIdsByTransactionStatus(@Param("status") TransactionStatus status, Pageable pageable);
+
+    @EntityGraph(attributePaths = "contributions")
+    @Query("SELECT m FROM Microcredit m WHERE m.id IN :ids ORDER BY m.createdDate DESC, m.id DESC")
+    List<Microcredit> findWithContributionsByIdIn(@Param("ids") List<String> ids);
+
     Optional<Microcredit> findByBorrowerAccountIdAndTransactionStatus(String borrowerAccountId, TransactionStatus transactionStatus);
 
+    // Descuenta la contribución del monto restante sólo si el microcrédito sigue PENDING y el monto alcanza; al
+    // completarse pasa a ACCEPTED en la misma sentencia, que también suma la contribución a los agregados. Postgres
+    // evalúa el CASE con el valor previo de la fila. Devuelve 0 si otra contribución se adelantó o el monto ya no alcanza.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE microcredits SET remaining_amount = remaining_amount - :amount, " +
+            "transaction_status = CASE WHEN remaining_amount = :amount THEN 'ACCEPTED' ELSE transaction_status END, " +
+            "contribution_count = COALESCE(contribution_count, 0) + 1, " +
+            "contributed_total = COALESCE(contributed_total, 0) + :amount, " +
+            "total_owed = COALESCE(total_owed, 0) + :amount + ROUND(:amount * interest_rate / 100, 2) " +
+            "WHERE id = :id AND transaction_status = 'PENDING' AND :amount > 0 AND remaining_amount >= :amount",
+            nativeQuery = true)
+    int fundPending(@Param("id") String id, @Param("amount") BigDecimal amount);
+
+    // Transiciones de estado guardadas: sólo cambian la fila si sigue en alguno de los estados esperados y la dejan
+    // bloqueada hasta el commit, así un proceso que trabaja con una copia vieja no pisa lo que otro ya resolvió.
+    // Devuelven 0 si la transición no aplicó.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Microcredit m SET m.transactionStatus = :to WHERE m.id = :id AND m.transactionStatus IN :from")
+    int transitionStatus(@Param("id") String id, @Param("from") Collection<TransactionStatus> from,
+                         @Param("to") TransactionStatus to);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Microcredit m SET m.transactionStatus = :to WHERE m.id = :id AND m.transactionStatus IN :from " +
+            "AND COALESCE(m.contributionCount, 0) = 0")
+    int transitionStatusIfUnfunded(@Param("id") String id, @Param("from") Collection<TransactionStatus> from,
+                                   @Param("to") TransactionStatus to);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Microcredit m SET m.totalOwed = COALESCE(m.totalOwed, 0) - :amount WHERE m.id = :id")
+    int reduceTotalOwed(@Param("id") String id, @Param("amount") BigDecimal amount);
+
+    // Paga con lo congelado de un microcrédito vencido; afecta 0 filas si lo congelado no alcanza.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Microcredit m SET m.frozenAmount = m.frozenAmount - :amount, " +
+            "m.pendingAmount = m.pendingAmount - :amount WHERE m.id = :id AND m.frozenAmount >= :amount")
+    int releaseFrozenAmount(@Param("id") String id, @Param("amount") BigDecimal amount);
+
     List<Microcredit> findByExpirationDateBeforeAndTransactionStatusNotIn(LocalDateTime today, List<TransactionStatus> expired);
+
+    // Microcréditos cuyos agregados no coinciden con sus contribuciones, bloqueados en orden de id. Contribuir y
+    // liquidar actualizan primero la fila del microcrédito, así que mientras dure el bloqueo ninguna de las dos puede
+    // cambiar sus contribuciones y el recálculo siguiente, en otra sentencia, ve todo lo confirmado hasta ese momento.
+    @Query(value = "SELECT m.id FROM microcredits m WHERE " +
+            "m.contribution_count IS DISTINCT FROM (SELECT COUNT(*) FROM contributions c WHERE c.microcredit_id = m.id) " +
+            "OR m.contributed_total IS DISTINCT FROM (SELECT COALESCE(SUM(c.amount), 0) FROM contributions c " +
+            "WHERE c.microcredit_id = m.id) " +
+            "OR m.total_owed IS DISTINCT FROM (SELECT COALESCE(SUM(c.amount + ROUND(c.amount * m.interest_rate / 100, 2)), 0) " +
+            "FROM contributions c WHERE c.microcredit_id = m.id AND c.transaction_status IS DISTINCT FROM 'COMPLETED') " +
+            "ORDER BY m.id FOR UPDATE", nativeQuery = true)
+    List<String> lockIdsWithStaleContributionCounters();
+
+    // Recalcula los agregados de los microcréditos indicados desde contributions y corrige sólo las filas que no
+    // coinciden; devuelve cuántas corrigió.
+    @Modifying
+    @Query(value = "UPDATE microcredits m SET contribution_count = agg.contribution_count, " +
+            "contributed_total = agg.contributed_total, total_owed = agg.total_owed " +
+            "FROM (SELECT mc.id, COUNT(c.id) AS contribution_count, COALESCE(SUM(c.amount), 0) AS contributed_total, " +
+            "COALESCE(SUM(CASE WHEN c.transaction_status = 'COMPLETED' THEN 0 " +
+            "ELSE c.amount + ROUND(c.amount * mc.interest_rate / 100, 2) END), 0) AS total_owed " +
+            "FROM microcredits mc LEFT JOIN contributions c ON c.microcredit_id = mc.id " +
+            "WHERE mc.id IN (:ids) GROUP BY mc.id) agg " +
+            "WHERE m.id = agg.id AND (m.contribution_count IS DISTINCT FROM agg.contribution_count " +
+            "OR m.contributed_total IS DISTINCT FROM agg.contributed_total " +
+            "OR m.total_owed IS DISTINCT FROM agg.total_owed)", nativeQuery = true)
+    int repairContributionCounters(@Param("ids") Collection<String> ids);
 }
@@ -2,45 +2,101 @@ package com.igrowker.nativo.repositories;
 
 import com.igrowker.nativo.entities.Payment;
 import com.igrowker.nativo.entities.TransactionStatus;
+import com.igrowker.nativo.repositories.projections.PaymentSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, String> {
 
-    @Query("SELECT p FROM Payment p WHERE p.senderAccount = :idAccount OR p.receiverAccount = :idAccount")
-    List<Payment> findPaymentsByAccount(@Param("idAccount") String idAccount);
+    // Columnas de PaymentSummary; los alias van entre comillas para que Postgres no los pase a minúsculas.
+    String SUMMARY_COLUMNS = "p.id AS \"id\", p.sender_name AS \"senderName\", " +
+            "p.sender_surname AS \"senderSurname\", p.sender_account AS \"senderAccount\", " +
+            "p.receiver_name AS \"receiverName\", p.receiver_surname AS \"receiverSurname\", " +
+            "p.receiver_account AS \"receiverAccount\", p.amount AS \"amount\", " +
+            "p.description AS \"description\", p.transaction_date AS \"transactionDate\", " +
+            "p.transaction_status AS \"transactionStatus\"";
+    String SUMMARY = "SELECT p.id AS id, p.senderName AS senderName, p.senderSurname AS senderSurname, " +
+            "p.senderAccount AS senderAccount, p.receiverName AS receiverName, p.receiverSurname AS receiverSurname, " +
+            "p.receiverAccount AS receiverAccount, p.amount AS amount, p.description AS description, " +
+            "p.transactionDate AS transactionDate, p.transactionStatus AS transactionStatus FROM Payment p ";
 
-    @Query("SELECT p FROM Payment p WHERE (p.senderAccount = :idAccount OR p.receiverAccount = :idAccount) AND p.transactionStatus = :status")
-    List<Payment> findPaymentsByStatus(@Param("idAccount") String idAccount, @Param("status") TransactionStatus status);
+    // Las consultas por cuenta se parten en dos ramas UNION ALL para que cada una use su índice (emisor o receptor).
+    // La rama del receptor descarta los pagos a uno mismo, que ya trae la del emisor.
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM payments p WHERE p.sender_account = :idAccount " +
+            "UNION ALL " +
+            "SELECT " + SUMMARY_COLUMNS + " FROM payments p WHERE p.receiver_account = :idAccount " +
+            "AND p.sender_account IS DISTINCT FROM :idAccount " +
+            "ORDER BY \"transactionDate\" DESC", nativeQuery = true)
+    List<PaymentSummary> findPaymentsByAccount(@Param("idAccount") String idAccount);
 
-    @Query("SELECT p FROM Payment p WHERE (p.senderAccount = :idAccount OR p.receiverAccount = :idAccount) " +
-            "AND p.transactionDate >= :startDate AND p.transactionDate < :endDate")
-    List<Payment> findPaymentsByTransactionDate(@Param("idAccount") String idAccount,
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM payments p WHERE p.sender_account = :idAccount " +
+            "AND p.transaction_status = :#{#status.name()} " +
+            "UNION ALL " +
+            "SELECT " + SUMMARY_COLUMNS + " FROM payments p WHERE p.receiver_account = :idAccount " +
+            "AND p.sender_account IS DISTINCT FROM :idAccount AND p.transaction_status = :#{#status.name()} " +
+            "ORDER BY \"transactionDate\" DESC", nativeQuery = true)
+    List<PaymentSummary> findPaymentsByStatus(@Param("idAccount") String idAccount, @Param("status") TransactionStatus status);
+
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM payments p WHERE p.sender_account = :idAccount " +
+            "AND p.transaction_date >= :startDate AND p.transaction_date < :endDate " +
+            "UNION ALL " +
+            "SELECT " + SUMMARY_COLUMNS + " FROM payments p WHERE p.receiver_account = :idAccount " +
+            "AND p.sender_account IS DISTINCT FROM :idAccount " +
+            "AND p.transaction_date >= :startDate AND p.transaction_date < :endDate " +
+            "ORDER BY \"transactionDate\" DESC", nativeQuery = true)
+    List<PaymentSummary> findPaymentsByTransactionDate(@Param("idAccount") String idAccount,
                                                     @Param("startDate") LocalDateTime startDate,
                                                     @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT p FROM Payment p WHERE (p.senderAccount = :idAccount OR p.receiverAccount = :idAccount) " +
-            "AND p.transactionDate >= :startDate AND p.transactionDate < :endDate")
-    List<Payment> findPaymentsBetweenDates(@Param("idAccount") String idAccount,
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM payments p WHERE p.sender_account = :idAccount " +
+            "AND p.transaction_date >= :startDate AND p.transaction_date < :endDate " +
+            "UNION ALL " +
+            "SELECT " + SUMMARY_COLUMNS + " FROM payments p WHERE p.receiver_account = :idAccount " +
+            "AND p.sender_account IS DISTINCT FROM :idAccount " +
+            "AND p.transaction_date >= :startDate AND p.transaction_date < :endDate " +
+            "ORDER BY \"transactionDate\" DESC", nativeQuery = true)
+    List<PaymentSummary> findPaymentsBetweenDates(@Param("idAccount") String idAccount,
                                            @Param("startDate") LocalDateTime startDate,
                                            @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT p FROM Payment p WHERE p.senderAccount = :idAccount")
-    List<Payment> findPaymentsAsClient(@Param("idAccount") String idAccount);
+    @Query(SUMMARY + "WHERE p.senderAccount = :idAccount")
+    List<PaymentSummary> findPaymentsAsClient(@Param("idAccount") String idAccount);
 
-    @Query("SELECT p FROM Payment p WHERE p.receiverAccount = :idAccount")
-    List<Payment> findPaymentsAsSeller(@Param("idAccount") String idAccount);
+    @Query(SUMMARY + "WHERE p.receiverAccount = :idAccount")
+    List<PaymentSummary> findPaymentsAsSeller(@Param("idAccount") String idAccount);
 
-    @Query("SELECT p FROM Payment p WHERE p.senderAccount = :idAccount AND p.transactionStatus = 'PENDING'")
-    List<Payment> findPendingPaymentsBySender(@Param("idAccount") String idAccount);
+    @Query(SUMMARY + "WHERE p.senderAccount = :idAccount AND p.transactionStatus = 'PENDING'")
+    List<PaymentSummary> findPendingPaymentsBySender(@Param("idAccount") String idAccount);
 
     Optional<Payment> findById(String id);
+
+    // Transiciones compare-and-set: solo actualizan si el pago sigue PENDING y devuelven las filas afectadas.
+    // Con dos pagadores concurrentes el segundo UPDATE espera el lock de la fila y, al ver el estado nuevo, afecta 0.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.transactionStatus = :status, p.senderName = :senderName, " +
+            "p.senderSurname = :senderSurname, p.senderAccount = :senderAccount " +
+            "WHERE p.id = :id AND p.transactionStatus = 'PENDING'")
+    int settlePending(@Param("id") String id, @Param("status") TransactionStatus status,
+                      @Param("senderName") String senderName, @Param("senderSurname") String senderSurname,
+                      @Param("senderAccount") String senderAccount);
+
+    // Pendientes con el QR ya vencido, bloqueados; SKIP LOCKED deja afuera los que un pagador está procesando.
+    @Query(value = "SELECT p.id FROM payments p WHERE p.transaction_status = 'PENDING' " +
+            "AND p.transaction_date < :issuedBefore ORDER BY p.id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<String> lockStalePendingIds(@Param("issuedBefore") LocalDateTime issuedBefore, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.transactionStatus = 'EXPIRED' WHERE p.id IN :ids AND p.transactionStatus = 'PENDING'")
+    int expireByIdIn(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,20 @@
+package com.igrowker.nativo.repositories.projections;
+
+import com.igrowker.nativo.entities.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Contribución con los datos del microcrédito que necesitan los listados, sin cargar el microcrédito completo.
+ */
+public interface ContributionSummary {
+    String getId();
+    String getLenderAccountId();
+    String getMicrocreditId();
+    String getBorrowerAccountId();
+    BigDecimal getAmount();
+    LocalDateTime getCreatedDate();
+    LocalDateTime getExpiredDateMicrocredit();
+    TransactionStatus getTransactionStatus();
+}
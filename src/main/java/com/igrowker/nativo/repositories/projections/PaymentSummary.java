@@ -0,0 +1,24 @@
+package com.igrowker.nativo.repositories.projections;
+
+import com.igrowker.nativo.entities.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columnas de un pago que usan los listados del historial: id, emisor y receptor (nombre, apellido y cuenta), monto,
+ * descripción, fecha y estado.
+ */
+public interface PaymentSummary {
+    String getId();
+    String getSenderName();
+    String getSenderSurname();
+    String getSenderAccount();
+    String getReceiverName();
+    String getReceiverSurname();
+    String getReceiverAccount();
+    BigDecimal getAmount();
+    String getDescription();
+    LocalDateTime getTransactionDate();
+    TransactionStatus getTransactionStatus();
+}
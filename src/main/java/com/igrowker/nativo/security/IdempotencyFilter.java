@@ -0,0 +1,280 @@
+package com.igrowker.nativo.security;
+
+import com.igrowker.nativo.exceptions.InvalidDataException;
+import com.igrowker.nativo.exceptions.ResourceAlreadyExistsException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Header {@code Idempotency-Key} en los endpoints que mueven dinero, después de la autenticación. La primera respuesta
+ * se guarda por usuario, ruta y clave; los reintentos la reciben tal cual, con {@code Idempotent-Replayed: true}, sin
+ * llegar a los servicios. Los duplicados que llegan mientras el original sigue en curso esperan su resultado en vez de
+ * procesarse en paralelo. Las respuestas 5xx y 429 no se guardan: el cliente puede reintentar.
+ */
+@Component
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final IdempotencyStore store;
+    private final boolean enabled;
+    private final Set<String> paths;
+    private final long waitMillis;
+    private final Map<String, CompletableFuture<IdempotencyStore.StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(HandlerExceptionResolver handlerExceptionResolver, IdempotencyStore store,
+                             IdempotencyProperties properties) {
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.store = store;
+        this.enabled = properties.isEnabled();
+        this.paths = Set.copyOf(properties.getPaths());
+        this.waitMillis = properties.getInFlightTimeout().toMillis();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !paths.contains(request.getRequestURI())
+                || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            // Sin usuario no hay a quién asociar la clave; la autorización rechaza el request más adelante.
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(request, response, new InvalidDataException("El header Idempotency-Key debe tener entre 1 y "
+                    + MAX_KEY_LENGTH + " caracteres."));
+            return;
+        }
+
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String id = sha256(String.join("\n", authentication.getName(), request.getRequestURI(), key)
+                .getBytes(StandardCharsets.UTF_8));
+        String requestHash = sha256(body);
+        HttpServletRequest cachedRequest = new CachedBodyRequest(request, body);
+
+        while (true) {
+            IdempotencyStore.StoredResponse stored = store.find(id, LocalDateTime.now());
+            if (stored != null) {
+                replay(request, response, stored, requestHash);
+                return;
+            }
+
+            CompletableFuture<IdempotencyStore.StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<IdempotencyStore.StoredResponse> running = inFlight.putIfAbsent(id, mine);
+            if (running != null) {
+                IdempotencyStore.StoredResponse result = await(running);
+                if (result == null && !running.isDone()) {
+                    reject(request, response, inProgress());
+                    return;
+                }
+                if (result != null) {
+                    replay(request, response, result, requestHash);
+                    return;
+                }
+                // El original no dejó respuesta (5xx, 429 o excepción): este request lo intenta de nuevo.
+                continue;
+            }
+
+            try {
+                process(cachedRequest, response, filterChain, id, requestHash, mine);
+            } finally {
+                inFlight.remove(id, mine);
+                mine.complete(null);
+            }
+            return;
+        }
+    }
+
+    private void process(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String id, String requestHash,
+                         CompletableFuture<IdempotencyStore.StoredResponse> mine) throws ServletException, IOException {
+        if (!store.claim(id, requestHash, LocalDateTime.now())) {
+            // Otra instancia la completó entre la búsqueda y la reserva, o todavía la está procesando.
+            IdempotencyStore.StoredResponse stored = store.find(id, LocalDateTime.now());
+            if (stored != null) {
+                mine.complete(stored);
+                replay(request, response, stored, requestHash);
+            } else {
+                reject(request, response, inProgress());
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper capture = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, capture);
+            int status = capture.getStatus();
+            if (status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                mine.complete(store.complete(id, requestHash, status, capture.getContentType(),
+                        capture.getContentAsByteArray(), LocalDateTime.now()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                store.release(id);
+            }
+        }
+        capture.copyBodyToResponse();
+    }
+
+    private void replay(HttpServletRequest request, HttpServletResponse response,
+                        IdempotencyStore.StoredResponse stored, String requestHash) throws IOException {
+        if (!stored.requestHash().equals(requestHash)) {
+            reject(request, response, new InvalidDataException("La Idempotency-Key ya se usó con un request distinto."));
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.body() != null) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private IdempotencyStore.StoredResponse await(CompletableFuture<IdempotencyStore.StoredResponse> running) {
+        try {
+            return running.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, RuntimeException ex) {
+        handlerExceptionResolver.resolveException(request, response, null, ex);
+    }
+
+    private static ResourceAlreadyExistsException inProgress() {
+        return new ResourceAlreadyExistsException("Hay una solicitud en curso con la misma Idempotency-Key.");
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // El cuerpo ya se leyó para calcular su hash; el resto de la cadena lo vuelve a leer desde memoria.
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // El cuerpo está en memoria: los datos ya están disponibles y el listener puede leerlos de una vez.
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.igrowker.nativo.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+    private boolean enabled = true;
+    // Cuánto se conserva la primera respuesta para repetirla ante reintentos.
+    private Duration ttl = Duration.ofHours(24);
+    // Cuánto queda reservada una clave en curso; si la instancia cae, pasado este tiempo otro request puede tomarla.
+    private Duration inFlightTimeout = Duration.ofSeconds(60);
+    // Máximo de respuestas en el cache en memoria; el resto se lee de la tabla.
+    private int cacheMaxSize = 10000;
+    // Rutas POST exactas que aceptan el header Idempotency-Key.
+    private List<String> paths = new ArrayList<>();
+}
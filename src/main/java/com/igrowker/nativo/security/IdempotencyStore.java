@@ -0,0 +1,98 @@
+package com.igrowker.nativo.security;
+
+import com.igrowker.nativo.repositories.IdempotencyRecordRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Respuestas guardadas por Idempotency-Key: la tabla {@code idempotency_keys} es la fuente de verdad entre instancias
+ * y un cache en memoria acotado evita leerla en los reintentos que llegan a la misma instancia.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+    private final IdempotencyProperties properties;
+    private final Map<String, StoredResponse> responses = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository repository, IdempotencyProperties properties) {
+        this.repository = repository;
+        this.properties = properties;
+    }
+
+    // Respuesta vigente para la clave, o null si no hay o el request original sigue en curso.
+    public StoredResponse find(String id, LocalDateTime now) {
+        StoredResponse cached = responses.get(id);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            responses.remove(id, cached);
+        }
+        return repository.findById(id)
+                .filter(record -> record.getStatus() != null && record.getExpiresAt().isAfter(now))
+                .map(record -> cache(id, new StoredResponse(record.getRequestHash(), record.getStatus(),
+                        record.getContentType(), record.getBody(), record.getExpiresAt()), now))
+                .orElse(null);
+    }
+
+    public boolean claim(String id, String requestHash, LocalDateTime now) {
+        return repository.claim(id, requestHash, now.plus(properties.getInFlightTimeout()), now) == 1;
+    }
+
+    public StoredResponse complete(String id, String requestHash, int status, String contentType, byte[] body,
+                                   LocalDateTime now) {
+        StoredResponse response = new StoredResponse(requestHash, status, contentType, body,
+                now.plus(properties.getTtl()));
+        repository.complete(id, status, contentType, body, response.expiresAt());
+        return cache(id, response, now);
+    }
+
+    public void release(String id) {
+        repository.release(id);
+    }
+
+    public int size() {
+        return responses.size();
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        responses.values().removeIf(response -> response.isExpired(now));
+        repository.deleteExpired(now);
+    }
+
+    private StoredResponse cache(String id, StoredResponse response, LocalDateTime now) {
+        if (responses.size() >= properties.getCacheMaxSize()) {
+            evict(now);
+        }
+        responses.put(id, response);
+        return response;
+    }
+
+    // Primero descarta las respuestas vencidas; si sigue lleno libera una décima parte para no barrer en cada alta.
+    private void evict(LocalDateTime now) {
+        responses.values().removeIf(response -> response.isExpired(now));
+
+        int maxSize = properties.getCacheMaxSize();
+        int toRemove = responses.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> iterator = responses.keySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    public record StoredResponse(String requestHash, int status, String contentType, byte[] body,
+                                 LocalDateTime expiresAt) {
+        private boolean isExpired(LocalDateTime now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+}
@@ -1,31 +1,66 @@
 package com.igrowker.nativo.security;
 
+import com.igrowker.nativo.entities.Account;
+import com.igrowker.nativo.entities.User;
 import com.igrowker.nativo.exceptions.ExpiredJwtException;
 import com.igrowker.nativo.exceptions.InvalidJwtException;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String ACCOUNT_ID_CLAIM = "accountId";
+    public static final String ACCOUNT_NUMBER_CLAIM = "accountNumber";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private Key signInKey;
+    private JwtParser jwtParser;
+
+    // Claims ya verificados, indexados por el hash SHA-256 del token. Cada entrada vence junto con su token.
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    private record VerifiedToken(Claims claims, long expiresAt) {
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        this.signInKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+    }
+
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -43,6 +78,33 @@ public class JwtService {
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
 
+    public String generateToken(User user, Account account) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ACCOUNT_ID_CLAIM, account.getId());
+        claims.put(ACCOUNT_NUMBER_CLAIM, account.getAccountNumber());
+        return generateToken(claims, user);
+    }
+
+    /**
+     * Construye el principal a partir de los claims del token. Vacío si el token no trae los datos de la cuenta
+     * (tokens emitidos antes de incluirlos), en cuyo caso hay que resolver el usuario contra la base.
+     */
+    public Optional<AuthenticatedUser> extractPrincipal(String token) {
+        Claims claims = extractAllClaims(token);
+        String accountId = claims.get(ACCOUNT_ID_CLAIM, String.class);
+        if (accountId == null) {
+            return Optional.empty();
+        }
+        Number accountNumber = claims.get(ACCOUNT_NUMBER_CLAIM, Number.class);
+
+        return Optional.of(new AuthenticatedUser(
+                claims.get(USER_ID_CLAIM, String.class),
+                accountId,
+                accountNumber == null ? null : accountNumber.longValue(),
+                claims.getSubject()));
+    }
+
     public long getExpirationTime() {
         return jwtExpiration;
     }
@@ -58,39 +120,74 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(userDetails.getUsername())) && !isTokenExpired(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private Claims extractAllClaims(String token) {
+        long now = System.currentTimeMillis();
+        String tokenHash = hash(token);
+
+        VerifiedToken cached = verifiedTokens.get(tokenHash);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached.claims();
+            }
+            verifiedTokens.remove(tokenHash, cached);
+        }
+
+        Claims claims = parseClaims(token);
+        cache(tokenHash, claims, now);
+        return claims;
     }
 
-    private Claims extractAllClaims(String token) {
+    private Claims parseClaims(String token) {
         try {
-            return Jwts
-                    .parserBuilder()
-                    .setSigningKey(getSignInKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (ExpiredJwtException ex) {
+            return jwtParser.parseClaimsJws(token).getBody();
+        } catch (io.jsonwebtoken.ExpiredJwtException | ExpiredJwtException ex) {
             throw new ExpiredJwtException("Token ha expirado");
-        } catch (InvalidJwtException | SignatureException ex) {
+        } catch (JwtException | IllegalArgumentException | InvalidJwtException ex) {
             throw new InvalidJwtException("Token inválido");
         }
     }
 
-    private Key getSignInKey() {
-        return Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey));
+    private void cache(String tokenHash, Claims claims, long now) {
+        if (claims.getExpiration() == null) {
+            return;
+        }
+        if (verifiedTokens.size() >= cacheMaxSize) {
+            evict(now);
+        }
+        verifiedTokens.put(tokenHash, new VerifiedToken(claims, claims.getExpiration().getTime()));
+    }
+
+    // Primero descarta los tokens vencidos; si el cache sigue lleno libera una décima parte para no barrer en cada alta.
+    private void evict(long now) {
+        verifiedTokens.values().removeIf(verifiedToken -> verifiedToken.isExpired(now));
+
+        int toRemove = verifiedTokens.size() - cacheMaxSize + Math.max(1, cacheMaxSize / 10);
+        Iterator<String> iterator = verifiedTokens.keySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 no disponible", ex);
+        }
     }
 }
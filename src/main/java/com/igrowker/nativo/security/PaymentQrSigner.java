@@ -0,0 +1,105 @@
+package com.igrowker.nativo.security;
+
+import com.igrowker.nativo.entities.Payment;
+import com.igrowker.nativo.exceptions.ExpiredTransactionException;
+import com.igrowker.nativo.exceptions.InvalidDataException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Base64;
+
+/**
+ * Firma el contenido de los QR de pago para que pagar-qr pueda descartar QRs adulterados, vencidos o mal formados sin
+ * ir a la base. Formato: {@code PAGO:<id>:<monto>:<cuenta receptora>:<emisión en segundos epoch>:<firma>}, donde la
+ * firma es HMAC-SHA256 de todo lo anterior truncado a 128 bits, en Base64 URL sin relleno.
+ */
+@Service
+public class PaymentQrSigner {
+    public static final long VALIDITY_SECONDS = 10 * 60;
+
+    private static final String PREFIX = "PAGO";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 16;
+    private static final int FIELDS = 6;
+
+    private final ThreadLocal<Mac> macs;
+
+    public PaymentQrSigner(@Value("${payment.qr.secret}") String secret) {
+        SecretKeySpec key = new SecretKeySpec(Base64.getDecoder().decode(secret), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 no disponible", e);
+            }
+        });
+    }
+
+    public String sign(Payment payment) {
+        long issuedAt = payment.getTransactionDate().atZone(ZoneId.systemDefault()).toEpochSecond();
+        String content = PREFIX + ':' + payment.getId() + ':' + payment.getAmount().toPlainString() + ':'
+                + payment.getReceiverAccount() + ':' + issuedAt;
+        return content + ':' + Base64.getUrlEncoder().withoutPadding().encodeToString(signature(content));
+    }
+
+    /**
+     * Valida la firma y la vigencia del QR. Lanza {@link InvalidDataException} si el contenido no es un QR de pago o
+     * fue modificado, y {@link ExpiredTransactionException} si pasaron más de diez minutos desde su emisión.
+     */
+    public QrClaims verify(String token, Instant now) {
+        if (token == null) {
+            throw invalid();
+        }
+        String[] fields = token.split(":", -1);
+        if (fields.length != FIELDS || !PREFIX.equals(fields[0])) {
+            throw invalid();
+        }
+
+        byte[] received;
+        try {
+            received = Base64.getUrlDecoder().decode(fields[5]);
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        String content = token.substring(0, token.lastIndexOf(':'));
+        if (!MessageDigest.isEqual(signature(content), received)) {
+            throw invalid();
+        }
+
+        QrClaims claims;
+        try {
+            claims = new QrClaims(fields[1], new BigDecimal(fields[2]), fields[3],
+                    Instant.ofEpochSecond(Long.parseLong(fields[4])));
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+        if (claims.issuedAt().plusSeconds(VALIDITY_SECONDS).isBefore(now)) {
+            throw new ExpiredTransactionException("El QR no puede ser procesado por exceso en el limite de tiempo. Genere uno nuevo.");
+        }
+        return claims;
+    }
+
+    private byte[] signature(String content) {
+        byte[] full = macs.get().doFinal(content.getBytes(StandardCharsets.UTF_8));
+        byte[] truncated = new byte[SIGNATURE_BYTES];
+        System.arraycopy(full, 0, truncated, 0, SIGNATURE_BYTES);
+        return truncated;
+    }
+
+    private static InvalidDataException invalid() {
+        return new InvalidDataException("El QR no es válido.");
+    }
+
+    public record QrClaims(String paymentId, BigDecimal amount, String receiverAccount, Instant issuedAt) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.igrowker.nativo.security;
+
+import com.igrowker.nativo.exceptions.TooManyRequestsException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket por IP para los requests que traen un token, antes de {@link JwtAuthenticationFilter}. Las políticas de
+ * {@link RateLimitFilter} se aplican con el principal ya armado, así que un flood de tokens inválidos o vencidos (o la
+ * carga del usuario cuando el principal no viaja en el token) no pasaría por ninguna; este bucket lo corta antes de
+ * verificar la firma. Los requests sin token siguen directo: no cuestan nada acá y las rutas públicas tienen sus propias
+ * políticas por IP.
+ */
+@Component
+public class PreAuthenticationRateLimitFilter extends OncePerRequestFilter {
+
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final boolean enabled;
+    private final TokenBucketTable buckets;
+
+    public PreAuthenticationRateLimitFilter(HandlerExceptionResolver handlerExceptionResolver,
+                                            RateLimitProperties properties) {
+        RateLimitProperties.PreAuthentication preAuthentication = properties.getPreAuthentication();
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.enabled = properties.isEnabled() && preAuthentication.isEnabled();
+        this.buckets = new TokenBucketTable(preAuthentication.getCapacity(), preAuthentication.getRefillPerSecond(),
+                properties.getStripes(), properties.getMaxKeys());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String bearerToken = request.getHeader("Authorization");
+        if (enabled && bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            long waitNanos = buckets.tryConsume(request.getRemoteAddr(), System.nanoTime());
+            if (waitNanos > 0) {
+                long retryAfter = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                handlerExceptionResolver.resolveException(request, response, null,
+                        new TooManyRequestsException("Demasiadas solicitudes, intente nuevamente más tarde.", retryAfter));
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,134 @@
+package com.igrowker.nativo.security;
+
+import com.igrowker.nativo.entities.User;
+import com.igrowker.nativo.exceptions.TooManyRequestsException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket por endpoint, justo después de la autenticación. Cada política define su ruta, capacidad, recarga y la
+ * clave del bucket (IP, email o cuenta del usuario autenticado, o un bucket global para cortar carga). Email y cuenta
+ * salen del principal que ya armó {@link JwtAuthenticationFilter}, sin volver a leer el token; sin usuario autenticado
+ * la clave cae a la IP. Se aplican todas las políticas que coinciden con el request y sólo gasta tokens si todas lo
+ * admiten; si alguna no tiene tokens responde 429 con Retry-After. Un flood de tokens inválidos o vencidos lo frena
+ * antes, por IP y sin verificar la firma, {@link PreAuthenticationRateLimitFilter}.
+ * <p>
+ * La IP es {@code getRemoteAddr()}: detrás de un proxy depende de {@code server.forward-headers-strategy=native}, que
+ * toma X-Forwarded-For sólo cuando lo envía un proxy de la red interna.
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String GLOBAL_KEY = "*";
+
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final boolean enabled;
+    private final CompiledPolicy[] policies;
+
+    public RateLimitFilter(HandlerExceptionResolver handlerExceptionResolver, RateLimitProperties properties) {
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.enabled = properties.isEnabled();
+        this.policies = properties.getPolicies().stream()
+                .map(policy -> new CompiledPolicy(policy, properties.getStripes(), properties.getMaxKeys()))
+                .toArray(CompiledPolicy[]::new);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (enabled) {
+            String method = request.getMethod();
+            String uri = request.getRequestURI();
+            long now = System.nanoTime();
+
+            for (int i = 0; i < policies.length; i++) {
+                CompiledPolicy policy = policies[i];
+                if (!policy.matches(method, uri)) {
+                    continue;
+                }
+
+                long waitNanos = policy.buckets.tryConsume(resolveKey(policy.keyType, request), now);
+                if (waitNanos > 0) {
+                    refundPrevious(i, method, uri, request);
+                    long retryAfter = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                    handlerExceptionResolver.resolveException(request, response, null,
+                            new TooManyRequestsException("Demasiadas solicitudes, intente nuevamente más tarde.", retryAfter));
+                    return;
+                }
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    // Devuelve lo tomado por las políticas anteriores: el request rechazado no gasta tokens. Las claves se vuelven a
+    // resolver (dan lo mismo para el mismo request) para que el camino que admite no tenga que guardarlas.
+    private void refundPrevious(int rejected, String method, String uri, HttpServletRequest request) {
+        for (int j = 0; j < rejected; j++) {
+            CompiledPolicy policy = policies[j];
+            if (policy.matches(method, uri)) {
+                policy.buckets.refund(resolveKey(policy.keyType, request));
+            }
+        }
+    }
+
+    // Sin usuario autenticado la clave cae a la IP; la autorización rechaza el request después si la ruta lo exige.
+    private String resolveKey(RateLimitProperties.KeyType keyType, HttpServletRequest request) {
+        if (keyType == RateLimitProperties.KeyType.GLOBAL) {
+            return GLOBAL_KEY;
+        }
+        if (keyType == RateLimitProperties.KeyType.IP) {
+            return request.getRemoteAddr();
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Object principal = authentication == null ? null : authentication.getPrincipal();
+        boolean account = keyType == RateLimitProperties.KeyType.ACCOUNT;
+        String key = null;
+        if (principal instanceof AuthenticatedUser user) {
+            key = account ? user.accountId() : user.email();
+        } else if (principal instanceof User user) {
+            key = account ? user.getAccountId() : user.getEmail();
+        }
+        return key != null ? key : request.getRemoteAddr();
+    }
+
+    private static final class CompiledPolicy {
+        private final String method;
+        private final String path;
+        private final boolean prefix;
+        private final RateLimitProperties.KeyType keyType;
+        private final TokenBucketTable buckets;
+
+        private CompiledPolicy(RateLimitProperties.Policy policy, int stripes, int maxKeys) {
+            String configuredPath = policy.getPath();
+            this.prefix = configuredPath.endsWith("/**");
+            this.path = prefix ? configuredPath.substring(0, configuredPath.length() - 2) : configuredPath;
+            this.method = policy.getMethod() == null || policy.getMethod().isBlank() ? null : policy.getMethod();
+            this.keyType = policy.getKey();
+            this.buckets = new TokenBucketTable(policy.getCapacity(), policy.getRefillPerSecond(), stripes, maxKeys);
+        }
+
+        private boolean matches(String requestMethod, String uri) {
+            if (method != null && !method.equalsIgnoreCase(requestMethod)) {
+                return false;
+            }
+            return prefix ? uri.startsWith(path) : uri.equals(path);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.igrowker.nativo.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // Cantidad de particiones con lock propio; se redondea a potencia de dos.
+    private int stripes = 64;
+    // Máximo de claves distintas por política; al superarlo se descartan los buckets menos usados.
+    private int maxKeys = 50000;
+    private List<Policy> policies = new ArrayList<>();
+    private PreAuthentication preAuthentication = new PreAuthentication();
+
+    public enum KeyType {
+        IP, EMAIL, ACCOUNT, GLOBAL
+    }
+
+    @Getter
+    @Setter
+    public static class Policy {
+        private String name;
+        // Método HTTP; vacío aplica a todos.
+        private String method;
+        // Ruta exacta, o prefijo si termina en "/**".
+        private String path;
+        private KeyType key = KeyType.IP;
+        private int capacity;
+        private double refillPerSecond;
+    }
+
+    // Bucket por IP para los requests con token, antes de validarlo.
+    @Getter
+    @Setter
+    public static class PreAuthentication {
+        private boolean enabled = true;
+        private int capacity = 120;
+        private double refillPerSecond = 20;
+    }
+}
@@ -0,0 +1,113 @@
+package com.igrowker.nativo.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Buckets de una política de rate limit, repartidos en particiones con su propio lock. Cada partición es un LRU acotado,
+ * así la tabla soporta decenas de miles de claves sin crecer sin límite. Consultar un bucket existente no aloca memoria.
+ */
+public class TokenBucketTable {
+    private final Stripe[] stripes;
+    private final int mask;
+    private final double capacity;
+    private final double tokensPerNano;
+
+    public TokenBucketTable(int capacity, double refillPerSecond, int stripeCount, int maxKeys) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        int keysPerStripe = Math.max(1, maxKeys / size);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+        this.mask = size - 1;
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+    }
+
+    /**
+     * Consume un token para la clave. Devuelve 0 si se permitió, o los nanosegundos hasta que haya uno disponible.
+     */
+    public long tryConsume(String key, long nowNanos) {
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, nowNanos);
+                stripe.put(key, bucket);
+            } else {
+                bucket.refill(nowNanos, capacity, tokensPerNano);
+            }
+
+            if (bucket.tokens >= 1d) {
+                bucket.tokens -= 1d;
+                return 0L;
+            }
+            if (tokensPerNano <= 0d) {
+                return Long.MAX_VALUE;
+            }
+            return Math.max(1L, (long) Math.ceil((1d - bucket.tokens) / tokensPerNano));
+        }
+    }
+
+    /**
+     * Devuelve un token tomado con {@link #tryConsume}, sin superar la capacidad. Se usa cuando otra política rechaza
+     * el mismo request: un request rechazado no gasta tokens.
+     */
+    public void refund(String key) {
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket != null) {
+                bucket.tokens = Math.min(capacity, bucket.tokens + 1d);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        private Bucket(double tokens, long nowNanos) {
+            this.tokens = tokens;
+            this.lastRefillNanos = nowNanos;
+        }
+
+        private void refill(long nowNanos, double capacity, double tokensPerNano) {
+            long elapsed = nowNanos - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                lastRefillNanos = nowNanos;
+            }
+        }
+    }
+
+    // LRU por orden de acceso: un bucket descartado vuelve lleno, que es lo mismo que un cliente inactivo.
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private final int maxEntries;
+
+        private Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.igrowker.nativo.security;
+
+public record VerificationEmailEvent(String email, String verificationCode) {
+}
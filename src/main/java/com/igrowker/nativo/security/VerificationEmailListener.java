@@ -0,0 +1,85 @@
+package com.igrowker.nativo.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.concurrent.Executor;
+
+/**
+ * Envía el mail de verificación recién cuando la transacción del alta confirmó, en el executor de mails,
+ * de modo que el registro no retiene la conexión a la base mientras dura el envío SMTP. Si el envío falla, el
+ * reintento se agenda en el {@link TaskScheduler} y vuelve a correr en el executor de mails: ningún hilo queda
+ * dormido durante el backoff.
+ */
+@Slf4j
+@Component
+public class VerificationEmailListener {
+    private static final String SUBJECT = "Verificación de cuenta";
+
+    private final EmailService emailService;
+    private final TaskScheduler taskScheduler;
+    private final Executor mailExecutor;
+
+    @Value("${mail.verification.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${mail.verification.backoff-ms:2000}")
+    private long backoffMillis;
+
+    public VerificationEmailListener(EmailService emailService, TaskScheduler taskScheduler,
+                                     @Qualifier("mailExecutor") Executor mailExecutor) {
+        this.emailService = emailService;
+        this.taskScheduler = taskScheduler;
+        this.mailExecutor = mailExecutor;
+    }
+
+    @Async("mailExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onVerificationEmail(VerificationEmailEvent event) {
+        send(event, buildMessage(event.verificationCode()), 1, backoffMillis);
+    }
+
+    private void send(VerificationEmailEvent event, String htmlMessage, int attempt, long delay) {
+        try {
+            emailService.sendVerificationEmail(event.email(), SUBJECT, htmlMessage);
+            return;
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                log.error("No se pudo enviar el mail de verificación a {} tras {} intentos", event.email(), attempt, e);
+                return;
+            }
+            log.warn("Falló el intento {} de enviar el mail de verificación a {}: {}", attempt, event.email(), e.getMessage());
+        }
+
+        taskScheduler.schedule(() -> {
+            try {
+                mailExecutor.execute(() -> send(event, htmlMessage, attempt + 1, delay * 2));
+            } catch (TaskRejectedException e) {
+                log.error("No se pudo reintentar el mail de verificación a {}: executor de mails lleno", event.email(), e);
+            }
+        }, Instant.now().plusMillis(delay));
+    }
+
+    private String buildMessage(String verificationCode) {
+        return "<html>"
+                + "<body style=\"font-family: Arial, sans-serif;\">"
+                + "<div style=\"background-color: #f5f5f5; padding: 20px;\">"
+                + "<h2 style=\"color: #333;\">¡Bienvenido a Nativo!</h2>"
+                + "<p style=\"font-size: 16px;\">Por favor ingresa el siguiente código debajo para continuar:</p>"
+                + "<div style=\"background-color: #fff; padding: 20px; border-radius: 5px; box-shadow: 0 0 10px rgba(0,0,0,0.1);\">"
+                + "<h3 style=\"color: #333;\">Código de Verificación:</h3>"
+                + "<p style=\"font-size: 18px; font-weight: bold; color: #007bff;\">" + verificationCode + "</p>"
+                + "</div>"
+                + "</div>"
+                + "</body>"
+                + "</html>";
+    }
+}
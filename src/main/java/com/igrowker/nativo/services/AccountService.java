@@ -3,17 +3,17 @@ package com.igrowker.nativo.services;
 import com.igrowker.nativo.dtos.account.AddAmountAccountDto;
 import com.igrowker.nativo.dtos.account.ResponseOtherAccountDto;
 import com.igrowker.nativo.dtos.account.ResponseSelfAccountDto;
-import com.igrowker.nativo.dtos.account.ResponseTransactionDto;
-
-import java.util.List;
+import com.igrowker.nativo.dtos.account.ResponseTransactionPageDto;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface AccountService {
 
     ResponseSelfAccountDto addAmount(AddAmountAccountDto addAmountAccountDto);
     ResponseSelfAccountDto readSelfAccount(String id);
     ResponseOtherAccountDto readOtherAccount(String id);
-    List<ResponseTransactionDto> getAll();
-    List<ResponseTransactionDto> getAllStatus(String status);
-    List<ResponseTransactionDto> getAllBetweenDates(String fromDate, String toDate);
+    ResponseTransactionPageDto getAll(String cursor, int size);
+    ResponseTransactionPageDto getAllStatus(String status, String cursor, int size);
+    ResponseTransactionPageDto getAllBetweenDates(String fromDate, String toDate, String cursor, int size);
+    StreamingResponseBody exportHistory();
 
 }
@@ -20,11 +20,13 @@ public interface MicrocreditService {
 
     List<ResponseMicrocreditGetDto> getMicrocreditsByDateAndStatus(String date, String status);
 
-    List<ResponseMicrocreditGetDto> getAll();
+    List<ResponseMicrocreditGetDto> getAll(int page, int size);
 
     ResponseMicrocreditGetDto getOne(String id);
 
-    List<ResponseMicrocreditGetDto> getMicrocreditsByTransactionStatus(String transactionStatus);
+    List<ResponseMicrocreditGetDto> getMicrocreditsByTransactionStatus(String transactionStatus, int page, int size);
+
+    ResponseMarketplacePageDto getMarketplace(MarketplaceSort sort, boolean descending, String cursor, int size);
 
     BigDecimal totalAmountToPay(Microcredit microcredit);
 
@@ -5,7 +5,7 @@ import com.igrowker.nativo.dtos.payment.*;
 import java.util.List;
 
 public interface PaymentService {
-    ResponsePaymentDto createQr(RequestPaymentDto requestPaymentDto);
+    ResponsePaymentDto createQr(RequestPaymentDto requestPaymentDto, QrFormat format);
     ResponseProcessPaymentDto processPayment(RequestProcessPaymentDto requestProcessPaymentDto);
     List<ResponseRecordPayment> getAllPayments();
     List<ResponseRecordPayment> getPaymentsByStatus(String status);
@@ -16,4 +16,5 @@ public interface PaymentService {
     List<ResponseRecordPayment> getPaymentsByClient(String clientId);
     ResponseRecordPayment getPaymentsById(String id);
     ResponsePaymentDto createQrId(DemodayDtoRequestPayment requestPaymentDto);
+    ResponseQrImageDto getQrImage(String id);
 }
@@ -4,7 +4,9 @@ import com.igrowker.nativo.dtos.account.AddAmountAccountDto;
 import com.igrowker.nativo.dtos.account.ResponseOtherAccountDto;
 import com.igrowker.nativo.dtos.account.ResponseSelfAccountDto;
 import com.igrowker.nativo.dtos.account.ResponseTransactionDto;
+import com.igrowker.nativo.dtos.account.ResponseTransactionPageDto;
 import com.igrowker.nativo.entities.*;
+import com.igrowker.nativo.exceptions.InvalidDataException;
 import com.igrowker.nativo.exceptions.InvalidUserCredentialsException;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
 import com.igrowker.nativo.mappers.AccountMapper;
@@ -12,14 +14,25 @@ import com.igrowker.nativo.repositories.*;
 import com.igrowker.nativo.services.AccountService;
 import com.igrowker.nativo.utils.DateFormatter;
 import com.igrowker.nativo.validations.Validations;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,11 +41,18 @@ public class AccountServiceImpl implements AccountService {
     private final AccountRepository accountRepository;
     private final AccountMapper accountMapper;
     private final Validations validations;
-    private final PaymentRepository paymentRepository;
-    private final ContributionRepository contributionRepository;
-    private final DonationRepository donationRepository;
-    private final UserRepository userRepository;
+    private final AccountActivityRepository accountActivityRepository;
     private final DateFormatter dateFormatter;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    // Filas por tanda de la exportación: coincide con el fetch size del cursor y marca cada cuánto se vacía el contexto.
+    private static final int EXPORT_BATCH_SIZE = 500;
+    // Rango abierto para el historial completo; los timestamps de Postgres admiten estos extremos.
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     @Override
     @Transactional
@@ -40,12 +60,15 @@ public class AccountServiceImpl implements AccountService {
         if (validations.isUserAccountMismatch(addAmountAccountDto.id())) {
             throw new InvalidUserCredentialsException("La cuenta indicada no coincide con el usuario logueado en la aplicación");
         }
+        // Suma relativa en la base: un débito concurrente no se pierde por guardar un saldo leído antes.
+        if (accountRepository.addToBalance(addAmountAccountDto.id(), addAmountAccountDto.amount()) == 0) {
+            throw new ResourceNotFoundException("Account not found");
+        }
         Account account = accountRepository.findById(addAmountAccountDto.id())
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
-        var previousAmount = account.getAmount();
-        account.setAmount(previousAmount.add(addAmountAccountDto.amount()));
-        Account savedAccount = accountRepository.save(account);
-        return accountMapper.accountToResponseSelfDto(savedAccount);
+        // La cuenta puede venir del contexto de persistencia con el saldo previo al UPDATE.
+        entityManager.refresh(account);
+        return accountMapper.accountToResponseSelfDto(account);
     }
 
     @Override
@@ -66,224 +89,106 @@ public class AccountServiceImpl implements AccountService {
     }
 
     @Override
-    public List<ResponseTransactionDto> getAll() {
-        var userAndAccount = validations.getAuthenticatedUserAndAccount();
-        List<Payment> payments = paymentRepository.findPaymentsByAccount(userAndAccount.user.getAccountId());
-        List<Donation> donations = donationRepository.findDonationsByAccount(userAndAccount.user.getAccountId());
-        List<Contribution> contributions = contributionRepository.findContributionsByAccount(userAndAccount.user.getAccountId());
-        List<ResponseTransactionDto> transactions = new ArrayList<>();
-
-        for (Payment payment : payments) {
-            ResponseTransactionDto dto = new ResponseTransactionDto(
-                    payment.getId(),
-                    "Pago",
-                    payment.getAmount(),
-                    payment.getSenderName(),
-                    payment.getSenderSurname(),
-                    payment.getSenderAccount(),
-                    payment.getReceiverName(),
-                    payment.getReceiverSurname(),
-                    payment.getReceiverAccount(),
-                    payment.getTransactionDate(),
-                    null,
-                    payment.getTransactionStatus().toString()
-            );
-            transactions.add(dto);
-        }
-
-        for (Donation donation : donations) {
-            User donor = getUserByAccountNumber(donation.getAccountIdDonor());
-            User beneficiary = getUserByAccountNumber(donation.getAccountIdBeneficiary());
-            ResponseTransactionDto dto = new ResponseTransactionDto(
-                    donation.getId(),
-                    "Donación",
-                    donation.getAmount(),
-                    donation.getAnonymousDonation() ? "Anónimo" : donor.getName(),
-                    donation.getAnonymousDonation() ? "" : donor.getSurname(),
-                    donation.getAccountIdDonor(),
-                    beneficiary.getName(),
-                    beneficiary.getSurname(),
-                    donation.getAccountIdBeneficiary(),
-                    donation.getCreatedAt(),
-                    donation.getUpdateAt(),
-                    donation.getStatus().toString()
-            );
-            transactions.add(dto);
-        }
-
-        for (Contribution contribution : contributions) {
-            User lender = getUserByAccountNumber(contribution.getLenderAccountId());
-            User borrower = getUserByAccountNumber(contribution.getMicrocredit().getBorrowerAccountId());
-            ResponseTransactionDto dto = new ResponseTransactionDto(
-                    contribution.getId(),
-                    "Microcrédito",
-                    contribution.getAmount(),
-                    lender.getName(),
-                    lender.getSurname(),
-                    contribution.getLenderAccountId(),
-                    borrower.getName(),
-                    borrower.getSurname(),
-                    contribution.getMicrocredit().getBorrowerAccountId(),
-                    contribution.getCreatedDate(),
-                    null, // Si no tienes un campo de endDate
-                    contribution.getTransactionStatus().toString()
-            );
-            transactions.add(dto);
-
-        }
-
-        return transactions;
+    public ResponseTransactionPageDto getAll(String cursor, int size) {
+        return getAllBetweenDates(MIN_DATE, MAX_DATE, cursor, size);
     }
 
     @Override
-    public List<ResponseTransactionDto> getAllStatus(String status) {
-        var userAndAccount = validations.getAuthenticatedUserAndAccount();
+    public ResponseTransactionPageDto getAllStatus(String status, String cursor, int size) {
+        String accountId = validations.getAuthenticatedAccountId();
         var enumStatus = validations.statusConvert(status);
-        List<Payment> payments = paymentRepository.findPaymentsByStatus(userAndAccount.user.getAccountId(), enumStatus);
-        List<Donation> donations = donationRepository.findDonationsByStatus(userAndAccount.user.getAccountId(), enumStatus);
-        List<Contribution> contributions = contributionRepository.findContributionsByStatus(userAndAccount.user.getAccountId(), enumStatus);
-        List<ResponseTransactionDto> transactions = new ArrayList<>();
-
-        for (Payment payment : payments) {
-            ResponseTransactionDto dto = new ResponseTransactionDto(
-                    payment.getId(),
-                    "Pago",
-                    payment.getAmount(),
-                    payment.getSenderName(),
-                    payment.getSenderSurname(),
-                    payment.getSenderAccount(),
-                    payment.getReceiverName(),
-                    payment.getReceiverSurname(),
-                    payment.getReceiverAccount(),
-                    payment.getTransactionDate(),
-                    null,
-                    payment.getTransactionStatus().toString()
-            );
-            transactions.add(dto);
-        }
-
-        for (Donation donation : donations) {
-            User donor = getUserByAccountNumber(donation.getAccountIdDonor());
-            User beneficiary = getUserByAccountNumber(donation.getAccountIdBeneficiary());
-            ResponseTransactionDto dto = new ResponseTransactionDto(
-                    donation.getId(),
-                    "Donación",
-                    donation.getAmount(),
-                    donation.getAnonymousDonation() ? "Anónimo" : donor.getName(),
-                    donation.getAnonymousDonation() ? "" : donor.getSurname(),
-                    donation.getAccountIdDonor(),
-                    beneficiary.getName(),
-                    beneficiary.getSurname(),
-                    donation.getAccountIdBeneficiary(),
-                    donation.getCreatedAt(),
-                    donation.getUpdateAt(),
-                    donation.getStatus().toString()
-            );
-            transactions.add(dto);
-        }
-
-        for (Contribution contribution : contributions) {
-            User lender = getUserByAccountNumber(contribution.getLenderAccountId());
-            User borrower = getUserByAccountNumber(contribution.getMicrocredit().getBorrowerAccountId());
-            ResponseTransactionDto dto = new ResponseTransactionDto(
-                    contribution.getId(),
-                    "Microcrédito",
-                    contribution.getAmount(),
-                    lender.getName(),
-                    lender.getSurname(),
-                    contribution.getLenderAccountId(),
-                    borrower.getName(),
-                    borrower.getSurname(),
-                    contribution.getMicrocredit().getBorrowerAccountId(),
-                    contribution.getCreatedDate(),
-                    null, // Si no tienes un campo de endDate
-                    contribution.getTransactionStatus().toString()
-            );
-            transactions.add(dto);
+        ActivityCursor position = ActivityCursor.decode(cursor);
+        List<AccountActivity> activities = accountActivityRepository.findPageByStatus(accountId, enumStatus,
+                position.creationDate(), position.id(), PageRequest.of(0, pageSize(size)));
+        return toPage(activities, pageSize(size));
+    }
 
-        }
+    @Override
+    public ResponseTransactionPageDto getAllBetweenDates(String fromDate, String toDate, String cursor, int size) {
+        List<LocalDateTime> dates = dateFormatter.getDateFromString(fromDate, toDate);
+        return getAllBetweenDates(dates.get(0), dates.get(1), cursor, size);
+    }
 
-        return transactions;
+    private ResponseTransactionPageDto getAllBetweenDates(LocalDateTime fromDate, LocalDateTime toDate, String cursor, int size) {
+        String accountId = validations.getAuthenticatedAccountId();
+        ActivityCursor position = ActivityCursor.decode(cursor);
+        List<AccountActivity> activities = accountActivityRepository.findPageBetweenDates(accountId, fromDate, toDate,
+                position.creationDate(), position.id(), PageRequest.of(0, pageSize(size)));
+        return toPage(activities, pageSize(size));
     }
 
     @Override
-    public List<ResponseTransactionDto> getAllBetweenDates(String fromDate, String toDate) {
-        var userAndAccount = validations.getAuthenticatedUserAndAccount();
-        List<LocalDateTime> dates = dateFormatter.getDateFromString(fromDate, toDate);
-        List<Payment> payments = paymentRepository.findPaymentsBetweenDates(userAndAccount.user.getAccountId(), dates.get(0), dates.get(1));
-        List<Donation> donations = donationRepository.findDonationsByDateRange(userAndAccount.user.getAccountId(), dates.get(0), dates.get(1));
-        List<Contribution> contributions = contributionRepository.findContributionsByDateRange(userAndAccount.user.getAccountId(), dates.get(0), dates.get(1));
-        List<ResponseTransactionDto> transactions = new ArrayList<>();
+    public StreamingResponseBody exportHistory() {
+        // La cuenta se resuelve en el hilo del request; el cuerpo se escribe en un hilo async sin SecurityContext.
+        String accountId = validations.getAuthenticatedAccountId();
+        return outputStream -> writeHistory(accountId, outputStream);
+    }
 
-        for (Payment payment : payments) {
-            ResponseTransactionDto dto = new ResponseTransactionDto(
-                    payment.getId(),
-                    "Pago",
-                    payment.getAmount(),
-                    payment.getSenderName(),
-                    payment.getSenderSurname(),
-                    payment.getSenderAccount(),
-                    payment.getReceiverName(),
-                    payment.getReceiverSurname(),
-                    payment.getReceiverAccount(),
-                    payment.getTransactionDate(),
-                    null,
-                    payment.getTransactionStatus().toString()
-            );
-            transactions.add(dto);
+    /**
+     * Escribe el historial completo como NDJSON, una transacción por línea, leyendo con un cursor del lado del
+     * servidor. Las entidades se sueltan del contexto de persistencia cada tanda para mantener la memoria constante.
+     */
+    void writeHistory(String accountId, OutputStream outputStream) throws IOException {
+        SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(outputStream);
+        try {
+            Integer written = transactionTemplate.execute(status -> {
+                try (Stream<AccountActivity> activities = accountActivityRepository.streamByOwnerAccountId(accountId)) {
+                    int count = 0;
+                    Iterator<AccountActivity> iterator = activities.iterator();
+                    while (iterator.hasNext()) {
+                        writer.write(accountMapper.activityToTransactionDto(iterator.next()));
+                        if (++count % EXPORT_BATCH_SIZE == 0) {
+                            entityManager.clear();
+                            writer.flush();
+                        }
+                    }
+                    return count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            // El separador sólo va entre valores; la última línea también debe terminar en salto de línea.
+            if (written != null && written > 0) {
+                outputStream.write('\n');
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+    }
 
-        for (Donation donation : donations) {
-            User donor = getUserByAccountNumber(donation.getAccountIdDonor());
-            User beneficiary = getUserByAccountNumber(donation.getAccountIdBeneficiary());
-            ResponseTransactionDto dto = new ResponseTransactionDto(
-                    donation.getId(),
-                    "Donación",
-                    donation.getAmount(),
-                    donation.getAnonymousDonation() ? "Anónimo" : donor.getName(),
-                    donation.getAnonymousDonation() ? "" : donor.getSurname(),
-                    donation.getAccountIdDonor(),
-                    beneficiary.getName(),
-                    beneficiary.getSurname(),
-                    donation.getAccountIdBeneficiary(),
-                    donation.getCreatedAt(),
-                    donation.getUpdateAt(),
-                    donation.getStatus().toString()
-            );
-            transactions.add(dto);
+    private ResponseTransactionPageDto toPage(List<AccountActivity> activities, int size) {
+        List<ResponseTransactionDto> transactions = accountMapper.activitiesToTransactionDtos(activities);
+        String nextCursor = null;
+        if (activities.size() == size) {
+            AccountActivity last = activities.get(activities.size() - 1);
+            nextCursor = new ActivityCursor(last.getCreationDate(), last.getId()).encode();
         }
+        return new ResponseTransactionPageDto(transactions, nextCursor);
+    }
 
-        for (Contribution contribution : contributions) {
-            User lender = getUserByAccountNumber(contribution.getLenderAccountId());
-            User borrower = getUserByAccountNumber(contribution.getMicrocredit().getBorrowerAccountId());
-            ResponseTransactionDto dto = new ResponseTransactionDto(
-                    contribution.getId(),
-                    "Microcrédito",
-                    contribution.getAmount(),
-                    lender.getName(),
-                    lender.getSurname(),
-                    contribution.getLenderAccountId(),
-                    borrower.getName(),
-                    borrower.getSurname(),
-                    contribution.getMicrocredit().getBorrowerAccountId(),
-                    contribution.getCreatedDate(),
-                    null, // Si no tienes un campo de endDate
-                    contribution.getTransactionStatus().toString()
-            );
-            transactions.add(dto);
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
 
+    // Posición de la última fila devuelta; sin cursor se arranca desde el final de los tiempos.
+    private record ActivityCursor(LocalDateTime creationDate, String id) {
+
+        static ActivityCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return new ActivityCursor(MAX_DATE, "");
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                return new ActivityCursor(LocalDateTime.parse(parts[0]), parts[1]);
+            } catch (RuntimeException e) {
+                throw new InvalidDataException("Cursor de paginación inválido.");
+            }
         }
 
-        return transactions;
-    }
-
-    private User getUserByAccountNumber(String accountId){
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
-        User user = userRepository.findById(account.getUserId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        return user;
-        //Wiii
+        String encode() {
+            String raw = creationDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
     }
-
 }
@@ -7,20 +7,22 @@ import com.igrowker.nativo.exceptions.InvalidUserCredentialsException;
 import com.igrowker.nativo.exceptions.ResourceAlreadyExistsException;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
 import com.igrowker.nativo.mappers.UserMapper;
+import com.igrowker.nativo.repositories.AccountRepository;
 import com.igrowker.nativo.repositories.UserRepository;
-import com.igrowker.nativo.security.EmailService;
 import com.igrowker.nativo.security.JwtService;
+import com.igrowker.nativo.security.VerificationEmailEvent;
 import com.igrowker.nativo.services.AuthenticationService;
 import com.igrowker.nativo.services.UserService;
 import jakarta.transaction.Transactional;
-import jakarta.mail.MessagingException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -34,14 +36,17 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     private final UserService userService;
     private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
-    private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
+    // BCrypt corre fuera de cualquier transacción: mientras dura el hash el request no retiene una conexión del pool.
+    // Los índices únicos de email y DNI cubren un alta concurrente entre la validación y el INSERT.
     @Override
-    @Transactional
     public ResponseUserNonVerifiedDto signUp(@Valid RequestRegisterDto requestRegisterDto) {
         if (userRepository.findByEmail(requestRegisterDto.email()).isPresent()) {
             throw new ResourceAlreadyExistsException("Ya hay una cuenta asociada con el email " + requestRegisterDto.email() + ".");
@@ -55,22 +60,28 @@ public class AuthenticationServiceImpl implements AuthenticationService {
             throw new InvalidDataException("Debes tener al menos 18 años para registrarte.");
         }
 
+        String encodedPassword = passwordEncoder.encode(requestRegisterDto.password());
+
         User user = userMapper.registerUsertoUser(requestRegisterDto);
-        user.setPassword(passwordEncoder.encode(requestRegisterDto.password()));
+        user.setPassword(encodedPassword);
         user.setVerificationCode(generateVerificationCode());
         user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(15));
         user.setEnabled(false);
         user.setAccountNonExpired(true);
         user.setAccountNonLocked(true);
         user.setCredentialsNonExpired(true);
-        sendVerificationEmail(user);
-        User savedUser = userRepository.save(user);
+        User savedUser = transactionTemplate.execute(status -> {
+            User saved = userRepository.save(user);
+            sendVerificationEmail(saved);
+            return saved;
+        });
 
         return userMapper.userToUserNonVerifiedDTO(savedUser);
     }
 
+    // Sin transacción propia: cada lectura usa una conexión sólo lo que dura la consulta y authenticate() compara el
+    // hash BCrypt sin retener ninguna.
     @Override
-    @Transactional
     public ResponseLoginDto login(RequestLoginDto requestLoginDto) {
         User user = userRepository.findByEmail(requestLoginDto.email()).orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado."));
 
@@ -88,7 +99,9 @@ public class AuthenticationServiceImpl implements AuthenticationService {
             throw new InvalidUserCredentialsException("Email y/o contraseña inválidos.");
         }
 
-        String jwtToken = jwtService.generateToken(user);
+        String jwtToken = accountRepository.findByUserId(user.getId())
+                .map(account -> jwtService.generateToken(user, account))
+                .orElseGet(() -> jwtService.generateToken(user));
         ResponseUserVerifiedDto userDto = userMapper.userToUserVerifiedDTO(user);
 
         return new ResponseLoginDto(user.getId(), user.getAccountId(), jwtToken, jwtService.getExpirationTime(), userDto);
@@ -124,6 +137,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         return userMapper.userToUserVerifiedDTO(savedUser);
     }
 
+    @Transactional
     public ResponseUserNonVerifiedDto resendVerificationCode(String email) {
         Optional<User> optionalUser = userRepository.findByEmail(email);
 
@@ -139,33 +153,15 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
         user.setVerificationCode(generateVerificationCode());
         user.setVerificationCodeExpiresAt(LocalDateTime.now().plusHours(1));
-        sendVerificationEmail(user);
         User savedUser = userRepository.save(user);
+        sendVerificationEmail(savedUser);
 
         return userMapper.userToUserNonVerifiedDTO(savedUser);
     }
 
+    // El mail sale después del commit, en el executor de mails; ver VerificationEmailListener.
     private void sendVerificationEmail(User user) {
-        String subject = "Verificación de cuenta";
-        String verificationCode = user.getVerificationCode();
-        String htmlMessage = "<html>"
-                + "<body style=\"font-family: Arial, sans-serif;\">"
-                + "<div style=\"background-color: #f5f5f5; padding: 20px;\">"
-                + "<h2 style=\"color: #333;\">¡Bienvenido a Nativo!</h2>"
-                + "<p style=\"font-size: 16px;\">Por favor ingresa el siguiente código debajo para continuar:</p>"
-                + "<div style=\"background-color: #fff; padding: 20px; border-radius: 5px; box-shadow: 0 0 10px rgba(0,0,0,0.1);\">"
-                + "<h3 style=\"color: #333;\">Código de Verificación:</h3>"
-                + "<p style=\"font-size: 18px; font-weight: bold; color: #007bff;\">" + verificationCode + "</p>"
-                + "</div>"
-                + "</div>"
-                + "</body>"
-                + "</html>";
-
-        try {
-            emailService.sendVerificationEmail(user.getEmail(), subject, htmlMessage);
-        } catch (MessagingException e) {
-            e.printStackTrace();
-        }
+        eventPublisher.publishEvent(new VerificationEmailEvent(user.getEmail(), user.getVerificationCode()));
     }
 
     private String generateVerificationCode() {
@@ -7,9 +7,13 @@ import com.igrowker.nativo.exceptions.*;
 import com.igrowker.nativo.mappers.ContributionMapper;
 import com.igrowker.nativo.repositories.ContributionRepository;
 import com.igrowker.nativo.repositories.MicrocreditRepository;
+import com.igrowker.nativo.repositories.projections.ContributionSummary;
 import com.igrowker.nativo.services.ContributionService;
+import com.igrowker.nativo.utils.AccountActivityRecorder;
+import com.igrowker.nativo.utils.AccountNameResolver;
 import com.igrowker.nativo.utils.DateFormatter;
 import com.igrowker.nativo.utils.GeneralTransactions;
+import com.igrowker.nativo.utils.MicrocreditMarketplace;
 import com.igrowker.nativo.utils.NotificationService;
 import com.igrowker.nativo.validations.Validations;
 import jakarta.mail.MessagingException;
@@ -19,7 +23,9 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -32,7 +38,10 @@ public class ContributionServiceImpl implements ContributionService {
     private final ContributionMapper contributionMapper;
     private final Validations validations;
     private final GeneralTransactions generalTransactions;
+    private final AccountActivityRecorder activityRecorder;
+    private final AccountNameResolver accountNameResolver;
     private final NotificationService notificationService;
+    private final MicrocreditMarketplace marketplace;
     private final DateFormatter dateFormatter;
 
     @Override
@@ -50,7 +59,7 @@ public class ContributionServiceImpl implements ContributionService {
         Microcredit microcredit = microcreditRepository.findById(requestContributionDto.microcreditId())
                 .orElseThrow(() -> new ResourceNotFoundException("Microcrédito no encontrado"));
 
-        if (microcredit.getAmount().compareTo(BigDecimal.ZERO) < 0) {
+        if (requestContributionDto.amount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new ValidationException("El monto de la contribución debe ser mayor a $ 0.00");
         }
 
@@ -67,20 +76,20 @@ public class ContributionServiceImpl implements ContributionService {
                     " del microcrédito.");
         }
 
-        if (!validations.validateTransactionUserFunds(requestContributionDto.amount())) {
-            throw new ValidationException("Fondos insuficientes");
-        }
-
-        updateRemainingAmount(microcredit, requestContributionDto.amount());
+        microcredit = fundMicrocredit(microcredit, requestContributionDto.amount());
 
         Contribution contribution = contributionMapper.requestDtoToContribution(requestContributionDto);
         contribution.setLenderAccountId(userLender.account.getId());
         contribution.setMicrocredit(microcredit);
         contribution = contributionRepository.save(contribution);
+        activityRecorder.record(contribution);
 
-        generalTransactions.updateBalances(userLenderId, contribution.getMicrocredit().getBorrowerAccountId(), contribution.getAmount());
+        // El débito condicionado reemplaza la validación previa de fondos; si no alcanzan, la transacción se revierte.
+        if (!generalTransactions.transfer(userLenderId, contribution.getMicrocredit().getBorrowerAccountId(), contribution.getAmount())) {
+            throw new ValidationException("Fondos insuficientes");
+        }
 
-        microcredit = microcreditRepository.save(microcredit);
+        marketplace.update(microcredit);
 
         String lenderFullname = validations.fullname(contribution.getLenderAccountId());
         String borrowerFullname = validations.fullname(microcredit.getBorrowerAccountId());
@@ -92,11 +101,9 @@ public class ContributionServiceImpl implements ContributionService {
 
     @Override
     public List<ResponseContributionDto> getAllContributionsByUser() {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
-
-        String lenderAccounId = accountAndUser.account.getId();
+        String lenderAccounId = validations.getAuthenticatedAccountId();
 
-        List<Contribution> contributions = contributionRepository.findAllByLenderAccountId(lenderAccounId);
+        List<ContributionSummary> contributions = contributionRepository.findAllByLenderAccountId(lenderAccounId);
 
         if (contributions.isEmpty()) {
             throw new ResourceNotFoundException("No se encontraron contribuciones.");
@@ -107,12 +114,10 @@ public class ContributionServiceImpl implements ContributionService {
 
     @Override
     public List<ResponseContributionDto> getAllContributionsByUserByStatus(String transactionStatus) {
-        Validations.UserAccountPair userBorrower = validations.getAuthenticatedUserAndAccount();
+        String lenderAccounId = validations.getAuthenticatedAccountId();
         TransactionStatus enumStatus = validations.statusConvert(transactionStatus);
 
-        String lenderAccounId = userBorrower.account.getId();
-
-        List<Contribution> contributions = contributionRepository.findByTransactionStatusAndLenderAccountId(enumStatus,
+        List<ContributionSummary> contributions = contributionRepository.findByTransactionStatusAndLenderAccountId(enumStatus,
                 lenderAccounId);
 
         if (contributions.isEmpty()) {
@@ -124,7 +129,7 @@ public class ContributionServiceImpl implements ContributionService {
 
     @Override
     public List<ResponseContributionDto> getContributionsBetweenDates(String fromDate, String toDate) {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
+        String accountId = validations.getAuthenticatedAccountId();
 
         List<LocalDateTime> elapsedDate = dateFormatter.getDateFromString(fromDate, toDate);
         LocalDateTime startDate = elapsedDate.get(0);
@@ -134,8 +139,8 @@ public class ContributionServiceImpl implements ContributionService {
             throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin.");
         }
 
-        List<Contribution> contributionList = contributionRepository.findContributionsBetweenDates(
-                accountAndUser.account.getId(), startDate, endDate);
+        List<ContributionSummary> contributionList = contributionRepository.findContributionsBetweenDates(
+                accountId, startDate, endDate);
 
         if (contributionList.isEmpty()) {
             throw new ResourceNotFoundException("No se encontraron contribuciones en el rango de fechas proporcionado.");
@@ -146,15 +151,15 @@ public class ContributionServiceImpl implements ContributionService {
 
     @Override
     public List<ResponseContributionDto> getContributionsByDateAndStatus(String date, String transactionStatus) {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
+        String accountId = validations.getAuthenticatedAccountId();
         TransactionStatus enumStatus = validations.statusConvert(transactionStatus);
 
         List<LocalDateTime> elapsedDate = dateFormatter.getDateFromString(date);
         LocalDateTime startDate = elapsedDate.get(0);
         LocalDateTime endDate = elapsedDate.get(1);
 
-        List<Contribution> contributionList = contributionRepository.findContributionsByDateAndTransactionStatus(
-                accountAndUser.account.getId(), startDate, endDate, enumStatus);
+        List<ContributionSummary> contributionList = contributionRepository.findContributionsByDateAndTransactionStatus(
+                accountId, startDate, endDate, enumStatus);
 
         if (contributionList.isEmpty()) {
             throw new ResourceNotFoundException("No posee contribuciones.");
@@ -165,7 +170,7 @@ public class ContributionServiceImpl implements ContributionService {
 
     @Override
     public List<ResponseContributionDto> getAll() {
-        List<Contribution> contributions = contributionRepository.findAll();
+        List<ContributionSummary> contributions = contributionRepository.findAllSummaries();
 
         if (contributions.isEmpty()) {
             throw new ResourceNotFoundException("No se encontraron contribuciones.");
@@ -191,7 +196,7 @@ public class ContributionServiceImpl implements ContributionService {
     @Override
     public List<ResponseContributionDto> getContributionsByTransactionStatus(String transactionStatus) {
         TransactionStatus enumStatus = validations.statusConvert(transactionStatus);
-        List<Contribution> contributions = contributionRepository.findByTransactionStatus(enumStatus);
+        List<ContributionSummary> contributions = contributionRepository.findByTransactionStatus(enumStatus);
 
         if (contributions.isEmpty()) {
             throw new ResourceNotFoundException("No se encontraron contribuciones con el estado especificado.");
@@ -200,35 +205,39 @@ public class ContributionServiceImpl implements ContributionService {
         return mapContributionsToDto(contributions);
     }
 
-    private void updateRemainingAmount(Microcredit microcredit, BigDecimal contributionAmount) {
-        if (microcredit.getTransactionStatus() == TransactionStatus.PENDING) {
-            if (contributionAmount.compareTo(microcredit.getRemainingAmount()) > 0) {
-                throw new ValidationException("El monto de la contribución no puede ser mayor que el monto restante del microcrédito.");
-            }
-
-            BigDecimal remainingAmount = microcredit.getRemainingAmount().subtract(contributionAmount);
-            microcredit.setRemainingAmount(remainingAmount);
-
-            if (remainingAmount.compareTo(BigDecimal.ZERO) == 0) {
-                microcredit.setTransactionStatus(TransactionStatus.ACCEPTED);
-            }
-
-            microcreditRepository.saveAndFlush(microcredit);
-        } else if (microcredit.getTransactionStatus() == TransactionStatus.ACCEPTED) {
-            throw new IllegalStateException("No se puede agregar más dinero a un microcrédito que ya está en estado ACCEPTED.");
-        } else {
-            throw new IllegalStateException("No se puede contribuir en el microcrédito en estado " + microcredit.getTransactionStatus());
+    /**
+     * Descuenta la contribución con un UPDATE condicionado en lugar de leer, restar y guardar: con muchos
+     * contribuyentes a la vez, la fila del microcrédito serializa los descuentos y ninguno puede dejar el monto
+     * restante negativo. Devuelve el microcrédito releído con el monto y estado resultantes.
+     */
+    private Microcredit fundMicrocredit(Microcredit microcredit, BigDecimal contributionAmount) {
+        if (contributionAmount.compareTo(microcredit.getRemainingAmount()) > 0
+                || microcreditRepository.fundPending(microcredit.getId(), contributionAmount) == 0) {
+            throw new ValidationException("El monto de la contribución no puede ser mayor que el monto restante del microcrédito.");
         }
+
+        return microcreditRepository.findById(microcredit.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Microcrédito no encontrado"));
     }
 
-    private List<ResponseContributionDto> mapContributionsToDto(List<Contribution> contributions) {
+    private List<ResponseContributionDto> mapContributionsToDto(List<ContributionSummary> contributions) {
+        Map<String, AccountNameResolver.AccountOwner> owners = accountNameResolver.resolve(participantAccountIds(contributions));
         return contributions.stream()
                 .map(contribution -> {
-                    String lenderFullname = validations.fullname(contribution.getLenderAccountId());
-                    String borrowerFullname = validations.fullname(contribution.getMicrocredit().getBorrowerAccountId());
+                    String lenderFullname = AccountNameResolver.fullname(owners, contribution.getLenderAccountId());
+                    String borrowerFullname = AccountNameResolver.fullname(owners, contribution.getBorrowerAccountId());
 
-                    return contributionMapper.responseContributionDto(contribution, lenderFullname, borrowerFullname);
+                    return contributionMapper.summaryToResponseDto(contribution, lenderFullname, borrowerFullname);
                 })
                 .collect(Collectors.toList());
     }
+
+    private List<String> participantAccountIds(List<ContributionSummary> contributions) {
+        List<String> accountIds = new ArrayList<>();
+        contributions.forEach(contribution -> {
+            accountIds.add(contribution.getLenderAccountId());
+            accountIds.add(contribution.getBorrowerAccountId());
+        });
+        return accountIds;
+    }
 }
@@ -6,23 +6,25 @@ import com.igrowker.nativo.entities.*;
 import com.igrowker.nativo.exceptions.*;
 import com.igrowker.nativo.mappers.ContributionMapper;
 import com.igrowker.nativo.mappers.MicrocreditMapper;
-import com.igrowker.nativo.repositories.AccountRepository;
-import com.igrowker.nativo.repositories.ContributionRepository;
 import com.igrowker.nativo.repositories.MicrocreditRepository;
-import com.igrowker.nativo.repositories.UserRepository;
 import com.igrowker.nativo.services.MicrocreditService;
+import com.igrowker.nativo.utils.AccountNameResolver;
 import com.igrowker.nativo.utils.DateFormatter;
-import com.igrowker.nativo.utils.GeneralTransactions;
+import com.igrowker.nativo.utils.MicrocreditMarketplace;
+import com.igrowker.nativo.utils.MicrocreditSettlement;
 import com.igrowker.nativo.utils.NotificationService;
 import com.igrowker.nativo.validations.Validations;
 import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,12 +35,12 @@ public class MicrocreditServiceImpl implements MicrocreditService {
     private final MicrocreditMapper microcreditMapper;
     private final ContributionMapper contributionMapper;
     private final Validations validations;
-    private final GeneralTransactions generalTransactions;
-    private final AccountRepository accountRepository;
-    private final UserRepository userRepository;
-    private final ContributionRepository contributionRepository;
+    private final AccountNameResolver accountNameResolver;
     private final NotificationService notificationService;
+    private final MicrocreditMarketplace marketplace;
+    private final MicrocreditSettlement settlement;
     private final BigDecimal microcreditLimit = new BigDecimal(500000);
+    private static final int MAX_PAGE_SIZE = 100;
     private final DateFormatter dateFormatter;
 
     @Override
@@ -62,6 +64,7 @@ public class MicrocreditServiceImpl implements MicrocreditService {
         microcredit.setAmountFinal(amountFinal);
         microcredit.setBorrowerAccountId(userBorrower.account.getId());
         microcredit = microcreditRepository.save(microcredit);
+        marketplace.update(microcredit);
 
         notificationService.sendPaymentNotification(
                 userBorrower.user.getEmail(),
@@ -83,7 +86,7 @@ public class MicrocreditServiceImpl implements MicrocreditService {
         Microcredit microcredit = microcreditRepository.findById(microcreditId)
                 .orElseThrow(() -> new ResourceNotFoundException("Microcrédito no encontrado para el usuario"));
 
-        if (validations.isUserAccountMismatch(userBorrower.account.getId())) {
+        if (!userBorrower.account.getId().equals(microcredit.getBorrowerAccountId())) {
             throw new InvalidUserCredentialsException("El usuario no tiene permiso para pagar este microcrédito.");
         }
 
@@ -92,60 +95,22 @@ public class MicrocreditServiceImpl implements MicrocreditService {
                     microcredit.getTransactionStatus().toString().toLowerCase() + ".");
         }
 
-        if (microcredit.getTransactionStatus() == TransactionStatus.PENDING && microcredit.getContributions().isEmpty()) {
+        if (microcredit.getTransactionStatus() == TransactionStatus.PENDING && microcredit.getContributionCount() == 0) {
             throw new DeniedTransactionException("No se puede pagar un microcrédito sin contribuciones.");
         }
 
-        BigDecimal totalAmountToPay = totalAmountToPay(microcredit);
-
-        if (!validations.validateTransactionUserFunds(totalAmountToPay)) {
-            throw new InsufficientFundsException("Fondos insuficientes");
-        }
-
-        List<Contribution> contributions = microcredit.getContributions();
-
-        BigDecimal totalPaidAmount = BigDecimal.ZERO;
-
-        for (Contribution contribution : contributions) {
-            BigDecimal interest = (contribution.getAmount().multiply(microcredit.getInterestRate())).divide(BigDecimal.valueOf(100));
-            BigDecimal totalContributionAmountWithInterest = contribution.getAmount().add(interest);
-
-            generalTransactions.updateBalances(microcredit.getBorrowerAccountId(), contribution.getLenderAccountId(),
-                    totalContributionAmountWithInterest);
-
-            contribution.setTransactionStatus(TransactionStatus.COMPLETED);
-            contributionRepository.save(contribution);
-
-            totalPaidAmount = totalPaidAmount.add(totalContributionAmountWithInterest);
-
-            Account lenderAccount = accountRepository.findById(contribution.getLenderAccountId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Cuenta de contribuyente no encontrada."));
-            User lenderUser = userRepository.findById(lenderAccount.getUserId())
-                    .orElseThrow(() -> new InvalidUserCredentialsException("Usuario de contribuyente no encontrado."));
-
-            notificationService.sendPaymentNotification(lenderUser.getEmail(), (lenderUser.getName() + " " + lenderUser.getSurname()),
-                    contribution.getAmount(), "Devolución cuota microcrédito",
-                    "Te informamos que se ha procesado la devolución de tu contribución al microcrédito con ID: " + microcredit.getId(),
-                    "Gracias por tu participación en nuestro programa de microcréditos. Esperamos seguir contando con tu confianza.");
-        }
-
-        notificationService.sendPaymentNotification(userBorrower.user.getEmail(), (userBorrower.user.getName() + " " + userBorrower.user.getSurname()),
-                totalPaidAmount, "Descuento cuota del microcrédito",
-                "Te informamos que se ha procesado el descuento por el microcrédito con ID: " + microcredit.getId(),
-                "Si no tienes saldo suficiente en la cuenta en este momento, el monto pendiente se deducirá automáticamente en tu próximo ingreso.");
+        // Cierra el microcrédito con un UPDATE condicionado antes de mover dinero, debita una vez, acredita en lote y
+        // avisa después del commit; lanza InsufficientFundsException o DeniedTransactionException.
+        BigDecimal totalPaidAmount = settlement.settle(microcredit, userBorrower.user);
 
-        microcredit.setTransactionStatus(TransactionStatus.COMPLETED);
+        marketplace.update(microcredit);
 
-        Microcredit savedMicrocredit = microcreditRepository.save(microcredit);
-
-        return new ResponseMicrocreditPaymentDto(savedMicrocredit.getId(), totalPaidAmount);
+        return new ResponseMicrocreditPaymentDto(microcredit.getId(), totalPaidAmount);
     }
 
     @Override
     public List<ResponseMicrocreditGetDto> getAllMicrocreditsByUser() {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
-
-        String borrowerAccountId = accountAndUser.account.getId();
+        String borrowerAccountId = validations.getAuthenticatedAccountId();
 
         List<Microcredit> microcreditList = microcreditRepository.findAllByBorrowerAccountId(borrowerAccountId);
 
@@ -153,35 +118,27 @@ public class MicrocreditServiceImpl implements MicrocreditService {
             throw new ResourceNotFoundException("No se encontraron microcréditos.");
         }
 
-        return microcreditList.stream()
-                .map(microcredit -> {
-                    List<ResponseContributionDto> contributionsDto = mapContributionsToDto(microcredit.getContributions());
-
-                    return microcreditMapper.responseMicrocreditGet(microcredit, contributionsDto);
-                })
-                .collect(Collectors.toList());
+        return getResponseMicrocreditGetDtos(microcreditList);
     }
 
     @Override
     public List<ResponseMicrocreditGetDto> getAllMicrocreditsByUserByStatus(String transactionStatus) {
-        Validations.UserAccountPair userBorrower = validations.getAuthenticatedUserAndAccount();
+        String accountId = validations.getAuthenticatedAccountId();
         TransactionStatus enumStatus = validations.statusConvert(transactionStatus);
 
         List<Microcredit> microcredits = microcreditRepository.findByTransactionStatusAndBorrowerAccountId(
-                enumStatus, userBorrower.account.getId());
+                enumStatus, accountId);
 
         if (microcredits.isEmpty()) {
             throw new ResourceNotFoundException("No se encontraron microcréditos para el usuario con el estado especificado.");
         }
 
-        return microcredits.stream()
-                .map(this::getResponseMicrocreditGetDto)
-                .collect(Collectors.toList());
+        return getResponseMicrocreditGetDtos(microcredits);
     }
 
     @Override
     public List<ResponseMicrocreditGetDto> getMicrocreditsBetweenDates(String fromDate, String toDate) {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
+        String accountId = validations.getAuthenticatedAccountId();
 
         List<LocalDateTime> elapsedDate = dateFormatter.getDateFromString(fromDate, toDate);
         LocalDateTime startDate = elapsedDate.get(0);
@@ -192,24 +149,18 @@ public class MicrocreditServiceImpl implements MicrocreditService {
         }
 
         List<Microcredit> microcreditList = microcreditRepository.findMicrocreditsBetweenDates(
-                accountAndUser.account.getId(), startDate, endDate);
+                accountId, startDate, endDate);
 
         if (microcreditList.isEmpty()) {
             throw new ResourceNotFoundException("No posee microcréditos solicitados");
         }
 
-        return microcreditList.stream()
-                .map(microcredit -> {
-                    List<ResponseContributionDto> contributionsDto = mapContributionsToDto(microcredit.getContributions());
-
-                    return microcreditMapper.responseMicrocreditGet(microcredit, contributionsDto);
-                })
-                .collect(Collectors.toList());
+        return getResponseMicrocreditGetDtos(microcreditList);
     }
 
     @Override
     public List<ResponseMicrocreditGetDto> getMicrocreditsByDateAndStatus(String date, String transactionStatus) {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
+        String accountId = validations.getAuthenticatedAccountId();
         TransactionStatus enumStatus = validations.statusConvert(transactionStatus);
 
         List<LocalDateTime> elapsedDate = dateFormatter.getDateFromString(date);
@@ -217,25 +168,19 @@ public class MicrocreditServiceImpl implements MicrocreditService {
         LocalDateTime endDate = elapsedDate.get(1);
 
         List<Microcredit> microcreditList = microcreditRepository.findMicrocreditsByDateAndTransactionStatus(
-                accountAndUser.account.getId(), startDate, endDate, enumStatus);
+                accountId, startDate, endDate, enumStatus);
 
         if (microcreditList.isEmpty()) {
             throw new ResourceNotFoundException("No posee microcréditos solicitados");
         }
 
-        return microcreditList.stream()
-                .map(microcredit -> {
-                    List<ResponseContributionDto> contributionsDto = mapContributionsToDto(microcredit.getContributions());
-
-                    return microcreditMapper.responseMicrocreditGet(microcredit, contributionsDto);
-                })
-                .collect(Collectors.toList());
+        return getResponseMicrocreditGetDtos(microcreditList);
     }
 
     @Override
     @Transactional
-    public List<ResponseMicrocreditGetDto> getAll() {
-        List<Microcredit> microcredits = microcreditRepository.findAll();
+    public List<ResponseMicrocreditGetDto> getAll(int page, int size) {
+        List<Microcredit> microcredits = withContributions(microcreditRepository.findPageIds(pageRequest(page, size)));
 
         if (microcredits.isEmpty()) {
             throw new ResourceNotFoundException("No se encontraron microcréditos.");
@@ -255,9 +200,10 @@ public class MicrocreditServiceImpl implements MicrocreditService {
 
     @Override
     @Transactional
-    public List<ResponseMicrocreditGetDto> getMicrocreditsByTransactionStatus(String transactionStatus) {
+    public List<ResponseMicrocreditGetDto> getMicrocreditsByTransactionStatus(String transactionStatus, int page, int size) {
         TransactionStatus enumStatus = validations.statusConvert(transactionStatus);
-        List<Microcredit> microcredits = microcreditRepository.findByTransactionStatus(enumStatus);
+        List<Microcredit> microcredits = withContributions(
+                microcreditRepository.findPageIdsByTransactionStatus(enumStatus, pageRequest(page, size)));
 
         if (microcredits.isEmpty()) {
             throw new ResourceNotFoundException("No se encontraron microcréditos con el estado especificado.");
@@ -266,6 +212,11 @@ public class MicrocreditServiceImpl implements MicrocreditService {
         return getResponseMicrocreditGetDtos(microcredits);
     }
 
+    @Override
+    public ResponseMarketplacePageDto getMarketplace(MarketplaceSort sort, boolean descending, String cursor, int size) {
+        return marketplace.page(sort, descending, cursor, size, LocalDateTime.now());
+    }
+
     private void checkForActiveOrRestrictedMicrocredit(String borrowerAccountId) {
         Optional<Microcredit> acceptedMicrocredit = microcreditRepository.findByBorrowerAccountIdAndTransactionStatus(borrowerAccountId, TransactionStatus.ACCEPTED);
         if (acceptedMicrocredit.isPresent()) {
@@ -288,35 +239,39 @@ public class MicrocreditServiceImpl implements MicrocreditService {
         }
     }
 
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    // Carga la página con sus contribuciones en una sola consulta.
+    private List<Microcredit> withContributions(List<String> ids) {
+        return ids.isEmpty() ? List.of() : microcreditRepository.findWithContributionsByIdIn(ids);
+    }
+
     public boolean isMicrocreditLimitExceeded(BigDecimal currentAmount) {
         return currentAmount.compareTo(microcreditLimit) > 0;
     }
 
+    // Resuelve los titulares de todas las contribuciones del listado en un solo lote.
     private List<ResponseMicrocreditGetDto> getResponseMicrocreditGetDtos(List<Microcredit> microcredits) {
-        return microcredits.stream().map(this::getResponseMicrocreditGetDto).collect(Collectors.toList());
+        List<Contribution> contributions = microcredits.stream()
+                .flatMap(microcredit -> microcredit.getContributions().stream())
+                .toList();
+        Map<String, AccountNameResolver.AccountOwner> owners = accountNameResolver.resolve(participantAccountIds(contributions));
+
+        return microcredits.stream()
+                .map(microcredit -> microcreditMapper.responseMicrocreditGet(microcredit,
+                        mapContributionsToDto(microcredit.getContributions(), owners)))
+                .collect(Collectors.toList());
     }
 
     private ResponseMicrocreditGetDto getResponseMicrocreditGetDto(Microcredit microcredit) {
-        List<ResponseContributionDto> contributionsDto = microcredit.getContributions().stream()
-                .map(contribution -> {
-
-                    String lenderFullname = validations.fullname(contribution.getLenderAccountId());
-                    String borrowerFullname = validations.fullname(microcredit.getBorrowerAccountId());
-
-                    return contributionMapper.responseContributionDto(contribution, lenderFullname, borrowerFullname);
-                }).collect(Collectors.toList());
-
-        return microcreditMapper.responseMicrocreditGet(microcredit, contributionsDto);
+        return microcreditMapper.responseMicrocreditGet(microcredit, mapContributionsToDto(microcredit.getContributions()));
     }
 
+    // Agregado mantenido al contribuir y al liquidar: no carga las contribuciones.
     public BigDecimal totalAmountToPay(Microcredit microcredit) {
-
-        return microcredit.getContributions().stream()
-                .map(contribution -> {
-                    BigDecimal interest = (contribution.getAmount().multiply(microcredit.getInterestRate())).divide(BigDecimal.valueOf(100));
-                    return contribution.getAmount().add(interest);
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return microcredit.getTotalOwed();
     }
 
     private BigDecimal calculateAmountFinal(Microcredit microcredit) {
@@ -336,13 +291,27 @@ public class MicrocreditServiceImpl implements MicrocreditService {
     }
 
     private List<ResponseContributionDto> mapContributionsToDto(List<Contribution> contributions) {
+        return mapContributionsToDto(contributions, accountNameResolver.resolve(participantAccountIds(contributions)));
+    }
+
+    private List<ResponseContributionDto> mapContributionsToDto(List<Contribution> contributions,
+                                                                Map<String, AccountNameResolver.AccountOwner> owners) {
         return contributions.stream()
                 .map(contribution -> {
-                    String lenderFullname = validations.fullname(contribution.getLenderAccountId());
-                    String borrowerFullname = validations.fullname(contribution.getMicrocredit().getBorrowerAccountId());
+                    String lenderFullname = AccountNameResolver.fullname(owners, contribution.getLenderAccountId());
+                    String borrowerFullname = AccountNameResolver.fullname(owners, contribution.getMicrocredit().getBorrowerAccountId());
 
                     return contributionMapper.responseContributionDto(contribution, lenderFullname, borrowerFullname);
                 })
                 .collect(Collectors.toList());
     }
+
+    private List<String> participantAccountIds(List<Contribution> contributions) {
+        List<String> accountIds = new ArrayList<>();
+        contributions.forEach(contribution -> {
+            accountIds.add(contribution.getLenderAccountId());
+            accountIds.add(contribution.getMicrocredit().getBorrowerAccountId());
+        });
+        return accountIds;
+    }
 }
@@ -5,21 +5,34 @@ import com.igrowker.nativo.entities.Payment;
 import com.igrowker.nativo.entities.TransactionStatus;
 import com.igrowker.nativo.exceptions.ExpiredTransactionException;
 import com.igrowker.nativo.exceptions.InsufficientFundsException;
+import com.igrowker.nativo.exceptions.InvalidDataException;
 import com.igrowker.nativo.exceptions.InvalidUserCredentialsException;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
 import com.igrowker.nativo.mappers.PaymentMapper;
 import com.igrowker.nativo.repositories.AccountRepository;
 import com.igrowker.nativo.repositories.PaymentRepository;
+import com.igrowker.nativo.repositories.projections.PaymentSummary;
+import com.igrowker.nativo.security.PaymentQrSigner;
 import com.igrowker.nativo.services.PaymentService;
+import com.igrowker.nativo.utils.AccountActivityRecorder;
+import com.igrowker.nativo.utils.AccountNameResolver;
 import com.igrowker.nativo.utils.DateFormatter;
 import com.igrowker.nativo.utils.GeneralTransactions;
+import com.igrowker.nativo.utils.PaymentQrCache;
 import com.igrowker.nativo.validations.Validations;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -31,26 +44,43 @@ public class PaymentServiceImpl implements PaymentService {
     private final QRService qrService;
     private final Validations validations;
     private final GeneralTransactions transactions;
+    private final AccountActivityRecorder activityRecorder;
+    private final AccountNameResolver accountNameResolver;
     private final DateFormatter dateFormatter;
+    private final PaymentQrCache paymentQrCache;
+    private final PaymentQrSigner paymentQrSigner;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final long QR_VALIDITY_MINUTES = 10;
 
     @Override
-    @Transactional
-    public ResponsePaymentDto createQr(RequestPaymentDto requestPaymentDto) {
+    public ResponsePaymentDto createQr(RequestPaymentDto requestPaymentDto, QrFormat format) {
         var userAndAccount = validations.getAuthenticatedUserAndAccount();
         Payment payment = paymentMapper.requestDtoToPayment(requestPaymentDto);
         payment.setReceiverName(userAndAccount.user.getName());
         payment.setReceiverSurname(userAndAccount.user.getSurname());
-        Payment savedPayment = paymentRepository.save(payment);
-        String qrCode = qrService.generateQrCode(savedPayment.getId());
-        savedPayment.setQr(qrCode);
-        Payment withQrPayment = paymentRepository.save(savedPayment);
-        return paymentMapper.paymentToResponseDto(withQrPayment, userAndAccount.account.getAccountNumber().toString());
+        Payment savedPayment = savePending(payment);
+        // El QR se arma fuera de la transacción: el PNG recién cuando se pide /qr/{id}, el resto acá mismo.
+        String qr = format == QrFormat.PNG ? null : qrService.renderQrCode(paymentQrSigner.sign(savedPayment), format);
+        return paymentMapper.paymentToResponseDto(savedPayment, userAndAccount.account.getAccountNumber().toString(),
+                format, qr);
     }
 
     @Override
     @Transactional
     public ResponseProcessPaymentDto processPayment(RequestProcessPaymentDto requestProcessPaymentDto) {
+        // Firma y vigencia se validan antes de cualquier consulta: un QR adulterado o vencido no llega a la base. El
+        // pago pendiente de un QR vencido lo pasa a EXPIRED PaymentExpirySweeper.
+        var claims = paymentQrSigner.verify(requestProcessPaymentDto.qr(), Instant.now());
+        if (!claims.paymentId().equals(requestProcessPaymentDto.id())) {
+            throw new InvalidDataException("El QR no corresponde al pago indicado.");
+        }
         var senderAndAccount = validations.getAuthenticatedUserAndAccount();
+        // Se debita siempre la cuenta del usuario autenticado; la del cuerpo sólo se acepta si es la suya.
+        String payerAccountId = senderAndAccount.account.getId();
+        if (!payerAccountId.equals(requestProcessPaymentDto.senderAccount())) {
+            throw new InvalidUserCredentialsException("La cuenta indicada no coincide con el usuario logueado en la aplicación");
+        }
         TransactionStatus dtoStatus = validations.statusConvert(requestProcessPaymentDto.transactionStatus());
         Payment newData = paymentMapper.requestProcessDtoToPayment(requestProcessPaymentDto);
         Payment payment = paymentRepository.findById(newData.getId())
@@ -58,101 +88,104 @@ public class PaymentServiceImpl implements PaymentService {
         var senderAccount = senderAndAccount.account.getAccountNumber().toString();
         var receiverAccount = accountRepository.findById(payment.getReceiverAccount()).get().getAccountNumber().toString();
 
+        if (claims.amount().compareTo(payment.getAmount()) != 0
+                || !claims.receiverAccount().equals(payment.getReceiverAccount())) {
+            throw new InvalidDataException("El QR no corresponde al pago indicado.");
+        }
         if (!payment.getTransactionStatus().equals(TransactionStatus.PENDING)) {
             throw new ExpiredTransactionException("El QR ya fue utilizado.");
         }
-        if(payment.getTransactionDate().plusMinutes(10).isBefore(LocalDateTime.now())){
-            payment.setTransactionStatus(TransactionStatus.EXPIRED);
-            Payment result = paymentRepository.save(payment);
-            throw new ExpiredTransactionException("El QR no puede ser procesado por exceso en el limite de tiempo. Genere uno nuevo.");
+        TransactionStatus newStatus = dtoStatus.equals(TransactionStatus.ACCEPTED)
+                ? TransactionStatus.ACCEPTED : TransactionStatus.DENIED;
+        // Un único UPDATE condicionado a PENDING decide quién paga; si otro pagador llegó antes no afecta filas.
+        int settled = paymentRepository.settlePending(payment.getId(), newStatus, senderAndAccount.user.getName(),
+                senderAndAccount.user.getSurname(), payerAccountId);
+        if (settled == 0) {
+            throw new ExpiredTransactionException("El QR ya fue utilizado.");
         }
+        // Desde acá el pago ya no está pendiente: el QR no vuelve a servirse.
+        paymentQrCache.remove(payment.getId());
         payment.setSenderName(senderAndAccount.user.getName());
         payment.setSenderSurname(senderAndAccount.user.getSurname());
-        payment.setSenderAccount(newData.getSenderAccount());
-        payment.setTransactionStatus(dtoStatus);
-        Payment updatedPayment = paymentRepository.save(payment);
-        if (!updatedPayment.getTransactionStatus().equals(TransactionStatus.ACCEPTED)) {
-            updatedPayment.setTransactionStatus(TransactionStatus.DENIED);
-            var result = paymentRepository.save(updatedPayment);
-            return paymentMapper.paymentToResponseProcessDto(result, senderAccount, receiverAccount);
-        }
-        if(!validations.validateTransactionUserFunds(updatedPayment.getAmount())){
-            updatedPayment.setTransactionStatus(TransactionStatus.FAILED);
-            Payment result = paymentRepository.save(updatedPayment);
+        payment.setSenderAccount(payerAccountId);
+        payment.setTransactionStatus(newStatus);
+        // Misma transacción que el UPDATE del pago, que mantiene el lock de la fila hasta el commit. Sin fondos la
+        // excepción revierte también el cambio de estado: el pago sigue PENDING y el QR puede reintentarse.
+        if (newStatus.equals(TransactionStatus.ACCEPTED)
+                && !transactions.transfer(payment.getSenderAccount(), payment.getReceiverAccount(), payment.getAmount())) {
             throw new InsufficientFundsException("Fondos insuficientes para realizar el pago.");
         }
-        transactions.updateBalances(payment.getSenderAccount(), payment.getReceiverAccount(), payment.getAmount());
-        Payment savedPayment = paymentRepository.save(updatedPayment);
-        return paymentMapper.paymentToResponseProcessDto(savedPayment, senderAccount, receiverAccount);
+        activityRecorder.record(payment);
+        return paymentMapper.paymentToResponseProcessDto(payment, senderAccount, receiverAccount);
     }
 
     @Override
     public List<ResponseRecordPayment> getAllPayments() {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
-        List<Payment> paymentList = paymentRepository.findPaymentsByAccount(accountAndUser.account.getId());
-        var result = paymentList.stream().map(this::mapPaymentToRecord).toList();
+        String accountId = validations.getAuthenticatedAccountId();
+        List<PaymentSummary> paymentList = paymentRepository.findPaymentsByAccount(accountId);
+        var result = mapPaymentsToRecords(paymentList);
         return result;
     }
 
     @Override
     public List<ResponseRecordPayment> getPaymentsByStatus(String status) {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
+        String accountId = validations.getAuthenticatedAccountId();
         TransactionStatus statusEnum = validations.statusConvert(status);
-        List<Payment> paymentList = paymentRepository.findPaymentsByStatus(accountAndUser.account.getId(), statusEnum);
-        var result = paymentList.stream().map(this::mapPaymentToRecord).toList();
+        List<PaymentSummary> paymentList = paymentRepository.findPaymentsByStatus(accountId, statusEnum);
+        var result = mapPaymentsToRecords(paymentList);
         return result;
     }
 
     @Override
     public List<ResponseRecordPayment> getPaymentsByDate(String date) {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
+        String accountId = validations.getAuthenticatedAccountId();
         List<LocalDateTime> elapsedDate = dateFormatter.getDateFromString(date);
         LocalDateTime startDate = elapsedDate.get(0);
         LocalDateTime endDate = elapsedDate.get(1);
-        List<Payment> paymentList = paymentRepository.findPaymentsByTransactionDate(
-                accountAndUser.account.getId(), startDate, endDate);
-        var result = paymentList.stream().map(this::mapPaymentToRecord).toList();
+        List<PaymentSummary> paymentList = paymentRepository.findPaymentsByTransactionDate(
+                accountId, startDate, endDate);
+        var result = mapPaymentsToRecords(paymentList);
         return result;
     }
 
     @Override
     public List<ResponseRecordPayment> getPaymentsBetweenDates(String fromDate, String toDate) {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
+        String accountId = validations.getAuthenticatedAccountId();
 
         List<LocalDateTime> elapsedDate = dateFormatter.getDateFromString(fromDate, toDate);
         LocalDateTime startDate = elapsedDate.get(0);
         LocalDateTime endDate = elapsedDate.get(1);
 
-        List<Payment> paymentList = paymentRepository.findPaymentsBetweenDates(
-                accountAndUser.account.getId(), startDate, endDate);
+        List<PaymentSummary> paymentList = paymentRepository.findPaymentsBetweenDates(
+                accountId, startDate, endDate);
 
-        var result = paymentList.stream().map(this::mapPaymentToRecord).toList();
+        var result = mapPaymentsToRecords(paymentList);
         return result;
     }
 
     @Override
     public List<ResponseRecordPayment> getPaymentsAsClient() {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
-        List<Payment> paymentList = paymentRepository.findPaymentsAsClient(
-                accountAndUser.account.getId());
-        var result = paymentList.stream().map(this::mapPaymentToRecord).toList();
+        String accountId = validations.getAuthenticatedAccountId();
+        List<PaymentSummary> paymentList = paymentRepository.findPaymentsAsClient(
+                accountId);
+        var result = mapPaymentsToRecords(paymentList);
         return result;
     }
 
     @Override
     public List<ResponseRecordPayment> getPaymentsAsSeller() {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
-        List<Payment> paymentList = paymentRepository.findPaymentsAsSeller(
-                accountAndUser.account.getId());
-        var result = paymentList.stream().map(this::mapPaymentToRecord).toList();
+        String accountId = validations.getAuthenticatedAccountId();
+        List<PaymentSummary> paymentList = paymentRepository.findPaymentsAsSeller(
+                accountId);
+        var result = mapPaymentsToRecords(paymentList);
         return result;
     }
 
     @Override
     public List<ResponseRecordPayment> getPaymentsByClient(String clientId) {
-        Validations.UserAccountPair accountAndUser = validations.getAuthenticatedUserAndAccount();
-        List<Payment> paymentList = paymentRepository.findPendingPaymentsBySender(accountAndUser.account.getId());
-        var result = paymentList.stream().map(this::mapPaymentToRecord).toList();
+        String accountId = validations.getAuthenticatedAccountId();
+        List<PaymentSummary> paymentList = paymentRepository.findPendingPaymentsBySender(accountId);
+        var result = mapPaymentsToRecords(paymentList);
         return result;
     }
 
@@ -163,24 +196,72 @@ public class PaymentServiceImpl implements PaymentService {
         return paymentMapper.paymentToResponseRecord(payment, payment.getSenderAccount(), payment.getReceiverAccount());
     }
 
-    private ResponseRecordPayment mapPaymentToRecord(Payment payment){
-        var senderAccount = accountRepository.findById(payment.getSenderAccount()).get().getAccountNumber().toString();
-        var receiverAccount = accountRepository.findById(payment.getReceiverAccount()).get().getAccountNumber().toString();
-        return paymentMapper.paymentToResponseRecord(payment, senderAccount, receiverAccount);
+    @Override
+    public ResponseQrImageDto getQrImage(String id) {
+        LocalDateTime now = LocalDateTime.now();
+        ResponseQrImageDto cached = paymentQrCache.get(id, now);
+        if (cached != null) {
+            return cached;
+        }
+
+        Payment payment = paymentRepository.findById(id)
+                .filter(found -> found.getTransactionStatus() == TransactionStatus.PENDING)
+                .filter(found -> found.getTransactionDate().plusMinutes(QR_VALIDITY_MINUTES).isAfter(now))
+                .orElseThrow(() -> new ResourceNotFoundException("El QR solicitado no existe o ya no está vigente."));
+        byte[] image = qrService.generateQrCode(paymentQrSigner.sign(payment));
+        ResponseQrImageDto qr = new ResponseQrImageDto(image, sha256(image),
+                payment.getTransactionDate().plusMinutes(QR_VALIDITY_MINUTES));
+        paymentQrCache.put(id, qr, now);
+        return qr;
+    }
+
+    // Única escritura del alta: el pago pendiente y su fila de actividad, en una transacción corta.
+    private Payment savePending(Payment payment) {
+        return transactionTemplate.execute(status -> {
+            Payment savedPayment = paymentRepository.save(payment);
+            activityRecorder.record(savedPayment);
+            return savedPayment;
+        });
+    }
+
+    private String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private List<ResponseRecordPayment> mapPaymentsToRecords(List<PaymentSummary> payments){
+        List<String> accountIds = new ArrayList<>();
+        payments.forEach(payment -> {
+            accountIds.add(payment.getSenderAccount());
+            accountIds.add(payment.getReceiverAccount());
+        });
+        Map<String, AccountNameResolver.AccountOwner> owners = accountNameResolver.resolve(accountIds);
+
+        return payments.stream().map(payment -> {
+            var senderAccount = accountNumber(owners, payment.getSenderAccount());
+            var receiverAccount = accountNumber(owners, payment.getReceiverAccount());
+            return paymentMapper.summaryToResponseRecord(payment, senderAccount, receiverAccount);
+        }).toList();
+    }
+
+    // Un QR pendiente todavía no tiene cuenta pagadora.
+    private String accountNumber(Map<String, AccountNameResolver.AccountOwner> owners, String accountId){
+        AccountNameResolver.AccountOwner owner = owners.get(accountId);
+        return owner == null ? null : owner.accountNumber().toString();
     }
 
     @Override
-    @Transactional
     public ResponsePaymentDto createQrId(DemodayDtoRequestPayment requestPaymentDto) {
         var userAndAccount = validations.getAuthenticatedUserAndAccount();
         Payment payment = paymentMapper.demodayDtoToPayment(requestPaymentDto);
         payment.setReceiverName(userAndAccount.user.getName());
         payment.setReceiverSurname(userAndAccount.user.getSurname());
-        Payment savedPayment = paymentRepository.save(payment);
-        String qrCode = qrService.generateQrCode(savedPayment.getId());
-        savedPayment.setQr(qrCode);
-        Payment withQrPayment = paymentRepository.save(savedPayment);
-        return paymentMapper.paymentToResponseDto(withQrPayment, userAndAccount.account.getAccountNumber().toString());
+        Payment savedPayment = savePending(payment);
+        return paymentMapper.paymentToResponseDto(savedPayment, userAndAccount.account.getAccountNumber().toString(),
+                QrFormat.PNG, null);
     }
 
 }
\ No newline at end of file
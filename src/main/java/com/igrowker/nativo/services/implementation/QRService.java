@@ -2,43 +2,98 @@ package com.igrowker.nativo.services.implementation;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.igrowker.nativo.dtos.payment.QrFormat;
 import com.igrowker.nativo.exceptions.QrGenerationException;
 import org.springframework.stereotype.Service;
 
-import java.awt.image.BufferedImage;
-import java.util.Base64;
-import java.util.HashMap;
 import java.util.Map;
-import javax.imageio.ImageIO;
-import java.io.ByteArrayOutputStream;
 
 @Service
 public class QRService {
+    private static final int SIZE = 250;
+    private static final int QUIET_ZONE = 4;
+    private static final Map<EncodeHintType, Object> HINTS = Map.of(EncodeHintType.CHARACTER_SET, "UTF-8");
 
-    public String generateQrCode(String paymentId) {
-        try{
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            Map<EncodeHintType, Object> hints = new HashMap<>();
-            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-
-            var bitMatrix = qrCodeWriter.encode("PagoID:" + paymentId, BarcodeFormat.QR_CODE, 250, 250, hints);
-            BufferedImage qrImage = new BufferedImage(250, 250, BufferedImage.TYPE_INT_RGB);
+    private final QRCodeWriter qrCodeWriter = new QRCodeWriter();
+    private final QrPngRenderer renderer = new QrPngRenderer(SIZE);
 
-            for (int x = 0; x < 250; x++) {
-                for (int y = 0; y < 250; y++) {
-                    qrImage.setRGB(x, y, bitMatrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
-                }
-            }
+    // Devuelve el PNG del QR con el contenido firmado del pago; se sirve como binario, sin pasar por Base64.
+    // ZXing genera la matriz a un pixel por módulo y el renderer la escala al escribir el PNG.
+    public byte[] generateQrCode(String content) {
+        try{
+            BitMatrix modules = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, 0, 0, HINTS);
+            return renderer.render(modules);
+        }catch (Exception e){
+            throw new QrGenerationException("Ocurrio un error al generar el QR. Intentelo nuevamente.");
+        }
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            ImageIO.write(qrImage, "png", outputStream);
+    }
 
-            byte[] qrImageBytes = outputStream.toByteArray();
-            return Base64.getEncoder().encodeToString(qrImageBytes); // Devuelve el QR en Base64
+    /**
+     * Devuelve el QR como texto para que el cliente lo dibuje: SVG con un path por tramo de módulos negros, la matriz
+     * de módulos (una fila por línea, 1 = negro, sin zona de silencio) o directamente el contenido a codificar.
+     * Ninguno de estos formatos rasteriza.
+     */
+    public String renderQrCode(String content, QrFormat format) {
+        if (format == QrFormat.PAYLOAD) {
+            return content;
+        }
+        if (format == QrFormat.PNG) {
+            throw new IllegalArgumentException("El formato PNG se sirve como imagen, no como texto.");
+        }
+        ByteMatrix modules;
+        try{
+            modules = Encoder.encode(content, ErrorCorrectionLevel.L, HINTS).getMatrix();
         }catch (Exception e){
             throw new QrGenerationException("Ocurrio un error al generar el QR. Intentelo nuevamente.");
         }
+        return format == QrFormat.SVG ? svg(modules) : matrix(modules);
+    }
 
+    private String svg(ByteMatrix modules) {
+        int width = modules.getWidth();
+        int side = width + QUIET_ZONE * 2;
+        StringBuilder svg = new StringBuilder(160 + width * modules.getHeight() * 2)
+                .append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 ").append(side).append(' ').append(side)
+                .append("\" shape-rendering=\"crispEdges\"><path fill=\"#fff\" d=\"M0 0h").append(side)
+                .append('v').append(side).append("H0z\"/><path d=\"");
+        for (int y = 0; y < modules.getHeight(); y++) {
+            int x = 0;
+            while (x < width) {
+                if (modules.get(x, y) != 1) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && modules.get(x, y) == 1) {
+                    x++;
+                }
+                int run = x - start;
+                svg.append('M').append(start + QUIET_ZONE).append(' ').append(y + QUIET_ZONE)
+                        .append('h').append(run).append("v1h-").append(run).append('z');
+            }
+        }
+        return svg.append("\"/></svg>").toString();
+    }
+
+    private String matrix(ByteMatrix modules) {
+        int width = modules.getWidth();
+        int height = modules.getHeight();
+        char[] rows = new char[(width + 1) * height - 1];
+        int position = 0;
+        for (int y = 0; y < height; y++) {
+            if (y > 0) {
+                rows[position++] = '\n';
+            }
+            for (int x = 0; x < width; x++) {
+                rows[position++] = modules.get(x, y) == 1 ? '1' : '0';
+            }
+        }
+        return new String(rows);
     }
 }
@@ -0,0 +1,168 @@
+package com.igrowker.nativo.services.implementation;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Escribe un {@link BitMatrix} de un módulo por pixel como PNG en escala de grises de 1 bit, sin pasar por
+ * {@code BufferedImage} ni {@code ImageIO}. Escala por módulo (cada fila de módulos se arma una vez y se copia) y
+ * centra el código con el mismo margen que aplicaba ZXing al pedirle el tamaño final, así que los pixeles son idénticos.
+ * Los buffers, el {@link Deflater} y el {@link CRC32} se reutilizan por hilo; solo se aloca el arreglo devuelto.
+ */
+public final class QrPngRenderer {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+    private static final int CHUNK_OVERHEAD = 12;
+    private static final int IHDR_LENGTH = 13;
+
+    private final int size;
+    private final ThreadLocal<Buffers> buffers;
+
+    public QrPngRenderer(int size) {
+        this.size = size;
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(size));
+    }
+
+    public byte[] render(BitMatrix modules) {
+        int modulesWide = modules.getWidth();
+        int modulesHigh = modules.getHeight();
+        int multiple = Math.max(1, Math.min(size / modulesWide, size / modulesHigh));
+        int width = Math.max(size, modulesWide);
+        int height = Math.max(size, modulesHigh);
+        int rowBytes = 1 + (width + 7) / 8;
+        int leftPadding = (width - modulesWide * multiple) / 2;
+        int topPadding = (height - modulesHigh * multiple) / 2;
+
+        Buffers scratch = buffers.get();
+        byte[] raw = scratch.raw(rowBytes * height);
+
+        // Filtro 0 (None) y todos los bits en 1 (blanco); los módulos negros se limpian después.
+        byte[] whiteRow = scratch.row(rowBytes);
+        Arrays.fill(whiteRow, 0, rowBytes, (byte) 0xFF);
+        whiteRow[0] = 0;
+
+        int offset = 0;
+        for (int y = 0; y < topPadding; y++, offset += rowBytes) {
+            System.arraycopy(whiteRow, 0, raw, offset, rowBytes);
+        }
+        for (int moduleY = 0; moduleY < modulesHigh; moduleY++) {
+            int rowStart = offset;
+            System.arraycopy(whiteRow, 0, raw, rowStart, rowBytes);
+            for (int moduleX = 0; moduleX < modulesWide; moduleX++) {
+                if (modules.get(moduleX, moduleY)) {
+                    clearBits(raw, rowStart + 1, leftPadding + moduleX * multiple, multiple);
+                }
+            }
+            offset += rowBytes;
+            for (int copy = 1; copy < multiple; copy++, offset += rowBytes) {
+                System.arraycopy(raw, rowStart, raw, offset, rowBytes);
+            }
+        }
+        for (int end = rowBytes * height; offset < end; offset += rowBytes) {
+            System.arraycopy(whiteRow, 0, raw, offset, rowBytes);
+        }
+
+        int compressedLength = scratch.deflate(rowBytes * height);
+        byte[] png = new byte[SIGNATURE.length + CHUNK_OVERHEAD * 3 + IHDR_LENGTH + compressedLength];
+        int position = 0;
+        System.arraycopy(SIGNATURE, 0, png, position, SIGNATURE.length);
+        position += SIGNATURE.length;
+
+        byte[] header = scratch.header;
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = 1;  // bits por pixel
+        header[9] = 0;  // escala de grises
+        header[10] = 0; // compresión deflate
+        header[11] = 0; // filtro adaptativo
+        header[12] = 0; // sin entrelazado
+        position = writeChunk(png, position, IHDR, header, IHDR_LENGTH, scratch.crc);
+        position = writeChunk(png, position, IDAT, scratch.compressed, compressedLength, scratch.crc);
+        writeChunk(png, position, IEND, header, 0, scratch.crc);
+        return png;
+    }
+
+    // Pone en 0 (negro) count bits consecutivos a partir del pixel firstPixel; el bit más significativo es el primero.
+    private static void clearBits(byte[] row, int rowOffset, int firstPixel, int count) {
+        int pixel = firstPixel;
+        int last = firstPixel + count;
+        while (pixel < last && (pixel & 7) != 0) {
+            row[rowOffset + (pixel >> 3)] &= (byte) ~(0x80 >>> (pixel & 7));
+            pixel++;
+        }
+        while (pixel + 8 <= last) {
+            row[rowOffset + (pixel >> 3)] = 0;
+            pixel += 8;
+        }
+        while (pixel < last) {
+            row[rowOffset + (pixel >> 3)] &= (byte) ~(0x80 >>> (pixel & 7));
+            pixel++;
+        }
+    }
+
+    private static int writeChunk(byte[] png, int position, byte[] type, byte[] data, int length, CRC32 crc) {
+        writeInt(png, position, length);
+        System.arraycopy(type, 0, png, position + 4, 4);
+        System.arraycopy(data, 0, png, position + 8, length);
+        crc.reset();
+        crc.update(png, position + 4, length + 4);
+        writeInt(png, position + 8 + length, (int) crc.getValue());
+        return position + CHUNK_OVERHEAD + length;
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    private static final class Buffers {
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final CRC32 crc = new CRC32();
+        private final byte[] header = new byte[IHDR_LENGTH];
+        private byte[] raw;
+        private byte[] row;
+        private byte[] compressed;
+
+        private Buffers(int size) {
+            int rowBytes = 1 + (size + 7) / 8;
+            this.raw = new byte[rowBytes * size];
+            this.row = new byte[rowBytes];
+            this.compressed = new byte[raw.length];
+        }
+
+        private byte[] raw(int length) {
+            if (raw.length < length) {
+                raw = new byte[length];
+            }
+            return raw;
+        }
+
+        private byte[] row(int length) {
+            if (row.length < length) {
+                row = new byte[length];
+            }
+            return row;
+        }
+
+        private int deflate(int length) {
+            deflater.reset();
+            deflater.setInput(raw, 0, length);
+            deflater.finish();
+            int total = 0;
+            while (!deflater.finished()) {
+                if (total == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                total += deflater.deflate(compressed, total, compressed.length - total);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.igrowker.nativo.utils;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Completa account_activity con los pagos, donaciones y contribuciones que todavía no tienen fila, en cada arranque.
+ * Desde ahí la tabla la mantiene {@link AccountActivityRecorder}.
+ * <p>
+ * Cada origen se copia con un único INSERT ... SELECT en la base, una fila por cuenta participante, sin cargar nada en
+ * memoria. No se saltea cuando la tabla ya tiene filas: corre con la aplicación atendiendo requests, y lo que el
+ * recorder registre en ese lapso no puede dejar afuera la historia previa. ON CONFLICT descarta lo ya insertado, así
+ * que la carga es idempotente, y un advisory lock serializa las instancias que arrancan a la vez. Los nombres se
+ * resuelven igual que en {@link AccountActivityRecorder}. Con la historia ya copiada puede apagarse con
+ * {@code account-activity.backfill.enabled=false}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "account-activity.backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class AccountActivityBackfill {
+
+    // Clave arbitraria y fija del advisory lock de la carga inicial.
+    static final long LOCK_KEY = 7_316_042_001L;
+
+    static final String INSERT = "INSERT INTO account_activity (id, owner_account_id, source_id, transaction, amount, " +
+            "sender_name, sender_surname, sender_account, receiver_name, receiver_surname, receiver_account, " +
+            "creation_date, end_date, status) " +
+            "SELECT gen_random_uuid()::text, o.owner_account_id, s.source_id, s.transaction, s.amount, " +
+            "s.sender_name, s.sender_surname, s.sender_account, s.receiver_name, s.receiver_surname, s.receiver_account, " +
+            "s.creation_date, s.end_date, s.status FROM (%s) s " +
+            "CROSS JOIN LATERAL (VALUES (s.sender_account), (s.receiver_account)) o(owner_account_id) " +
+            "WHERE o.owner_account_id IS NOT NULL " +
+            "ON CONFLICT (owner_account_id, source_id) DO NOTHING";
+
+    static final String PAYMENTS = "SELECT p.id AS source_id, '" + AccountActivityRecorder.PAYMENT + "' AS transaction, " +
+            "p.amount, p.sender_name, p.sender_surname, p.sender_account, " +
+            "p.receiver_name, p.receiver_surname, p.receiver_account, " +
+            "p.transaction_date AS creation_date, CAST(NULL AS timestamp) AS end_date, p.transaction_status AS status " +
+            "FROM payments p";
+
+    static final String DONATIONS = "SELECT d.id AS source_id, '" + AccountActivityRecorder.DONATION + "' AS transaction, " +
+            "d.amount, CASE WHEN d.anonymous_donation THEN 'Anónimo' ELSE du.name END AS sender_name, " +
+            "CASE WHEN d.anonymous_donation THEN '' ELSE du.surname END AS sender_surname, " +
+            "d.account_id_donor AS sender_account, bu.name AS receiver_name, bu.surname AS receiver_surname, " +
+            "d.account_id_beneficiary AS receiver_account, d.created_at AS creation_date, d.update_at AS end_date, " +
+            "d.status FROM donations d " +
+            "LEFT JOIN accounts da ON da.id = d.account_id_donor LEFT JOIN users du ON du.id = da.user_id " +
+            "LEFT JOIN accounts ba ON ba.id = d.account_id_beneficiary LEFT JOIN users bu ON bu.id = ba.user_id";
+
+    static final String CONTRIBUTIONS = "SELECT c.id AS source_id, '" + AccountActivityRecorder.CONTRIBUTION + "' AS transaction, " +
+            "c.amount, lu.name AS sender_name, lu.surname AS sender_surname, c.lender_account_id AS sender_account, " +
+            "bu.name AS receiver_name, bu.surname AS receiver_surname, m.borrower_account_id AS receiver_account, " +
+            "c.created_date AS creation_date, CAST(NULL AS timestamp) AS end_date, c.transaction_status AS status " +
+            "FROM contributions c JOIN microcredits m ON m.id = c.microcredit_id " +
+            "LEFT JOIN accounts la ON la.id = c.lender_account_id LEFT JOIN users lu ON lu.id = la.user_id " +
+            "LEFT JOIN accounts ba ON ba.id = m.borrower_account_id LEFT JOIN users bu ON bu.id = ba.user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        // Se libera con el commit; la instancia que espera ve después las filas de la primera y no inserta nada.
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+        int rows = 0;
+        for (String source : new String[]{PAYMENTS, DONATIONS, CONTRIBUTIONS}) {
+            rows += jdbcTemplate.update(INSERT.formatted(source));
+        }
+        if (rows > 0) {
+            log.info("Carga de account_activity: {} filas", rows);
+        }
+    }
+}
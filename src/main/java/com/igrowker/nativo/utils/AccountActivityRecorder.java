@@ -0,0 +1,154 @@
+package com.igrowker.nativo.utils;
+
+import com.igrowker.nativo.entities.*;
+import com.igrowker.nativo.repositories.AccountActivityRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mantiene la tabla account_activity al día. Se invoca en la misma transacción que guarda el pago, la donación o la
+ * contribución; los nombres se resuelven una sola vez, al crear la fila de cada cuenta participante.
+ */
+@RequiredArgsConstructor
+@Service
+public class AccountActivityRecorder {
+    public static final String PAYMENT = "Pago";
+    public static final String DONATION = "Donación";
+    public static final String CONTRIBUTION = "Microcrédito";
+
+    private final AccountActivityRepository accountActivityRepository;
+    private final AccountNameResolver accountNameResolver;
+
+    @Transactional
+    public void record(Payment payment) {
+        AccountActivity activity = new AccountActivity();
+        activity.setSourceId(payment.getId());
+        activity.setTransaction(PAYMENT);
+        activity.setAmount(payment.getAmount());
+        activity.setSenderName(payment.getSenderName());
+        activity.setSenderSurname(payment.getSenderSurname());
+        activity.setSenderAccount(payment.getSenderAccount());
+        activity.setReceiverName(payment.getReceiverName());
+        activity.setReceiverSurname(payment.getReceiverSurname());
+        activity.setReceiverAccount(payment.getReceiverAccount());
+        activity.setCreationDate(payment.getTransactionDate());
+        activity.setStatus(payment.getTransactionStatus());
+
+        // El pagador se conoce recién al procesar el QR, por eso los nombres del pago se copian siempre.
+        upsert(activity, true, names -> { });
+    }
+
+    @Transactional
+    public void record(Donation donation) {
+        AccountActivity activity = new AccountActivity();
+        activity.setSourceId(donation.getId());
+        activity.setTransaction(DONATION);
+        activity.setAmount(donation.getAmount());
+        activity.setSenderAccount(donation.getAccountIdDonor());
+        activity.setReceiverAccount(donation.getAccountIdBeneficiary());
+        activity.setCreationDate(donation.getCreatedAt());
+        activity.setEndDate(donation.getUpdateAt());
+        activity.setStatus(donation.getStatus());
+
+        upsert(activity, false, names -> {
+            Map<String, AccountNameResolver.AccountOwner> owners = accountNameResolver.resolve(
+                    List.of(donation.getAccountIdDonor(), donation.getAccountIdBeneficiary()));
+            if (Boolean.TRUE.equals(donation.getAnonymousDonation())) {
+                names.setSenderName("Anónimo");
+                names.setSenderSurname("");
+            } else {
+                AccountNameResolver.AccountOwner donor = owners.get(donation.getAccountIdDonor());
+                names.setSenderName(donor.name());
+                names.setSenderSurname(donor.surname());
+            }
+            AccountNameResolver.AccountOwner beneficiary = owners.get(donation.getAccountIdBeneficiary());
+            names.setReceiverName(beneficiary.name());
+            names.setReceiverSurname(beneficiary.surname());
+        });
+    }
+
+    @Transactional
+    public void record(Contribution contribution) {
+        String borrowerAccountId = contribution.getMicrocredit().getBorrowerAccountId();
+        AccountActivity activity = new AccountActivity();
+        activity.setSourceId(contribution.getId());
+        activity.setTransaction(CONTRIBUTION);
+        activity.setAmount(contribution.getAmount());
+        activity.setSenderAccount(contribution.getLenderAccountId());
+        activity.setReceiverAccount(borrowerAccountId);
+        activity.setCreationDate(contribution.getCreatedDate());
+        activity.setStatus(contribution.getTransactionStatus());
+
+        upsert(activity, false, names -> {
+            Map<String, AccountNameResolver.AccountOwner> owners = accountNameResolver.resolve(
+                    List.of(contribution.getLenderAccountId(), borrowerAccountId));
+            AccountNameResolver.AccountOwner lender = owners.get(contribution.getLenderAccountId());
+            AccountNameResolver.AccountOwner borrower = owners.get(borrowerAccountId);
+            names.setSenderName(lender.name());
+            names.setSenderSurname(lender.surname());
+            names.setReceiverName(borrower.name());
+            names.setReceiverSurname(borrower.surname());
+        });
+    }
+
+    // Cambio de estado de muchas operaciones a la vez (p. ej. la devolución de un microcrédito): un solo UPDATE.
+    @Transactional
+    public void updateStatus(Collection<String> sourceIds, TransactionStatus status) {
+        if (!sourceIds.isEmpty()) {
+            accountActivityRepository.updateStatusBySourceIdIn(sourceIds, status);
+        }
+    }
+
+    private void upsert(AccountActivity data, boolean namesChange, Consumer<AccountActivity> resolveNames) {
+        Map<String, AccountActivity> rowsByOwner = accountActivityRepository.findBySourceId(data.getSourceId()).stream()
+                .collect(Collectors.toMap(AccountActivity::getOwnerAccountId, Function.identity()));
+
+        Set<String> owners = new LinkedHashSet<>();
+        if (data.getSenderAccount() != null) {
+            owners.add(data.getSenderAccount());
+        }
+        if (data.getReceiverAccount() != null) {
+            owners.add(data.getReceiverAccount());
+        }
+
+        boolean missingRows = !rowsByOwner.keySet().containsAll(owners);
+        if (missingRows && !namesChange) {
+            resolveNames.accept(data);
+        }
+        boolean copyNames = namesChange || missingRows;
+
+        List<AccountActivity> rows = new ArrayList<>();
+        for (String owner : owners) {
+            AccountActivity row = rowsByOwner.getOrDefault(owner, new AccountActivity());
+            row.setOwnerAccountId(owner);
+            row.setSourceId(data.getSourceId());
+            row.setTransaction(data.getTransaction());
+            row.setAmount(data.getAmount());
+            row.setSenderAccount(data.getSenderAccount());
+            row.setReceiverAccount(data.getReceiverAccount());
+            row.setCreationDate(data.getCreationDate());
+            row.setEndDate(data.getEndDate());
+            row.setStatus(data.getStatus());
+            if (copyNames) {
+                row.setSenderName(data.getSenderName());
+                row.setSenderSurname(data.getSenderSurname());
+                row.setReceiverName(data.getReceiverName());
+                row.setReceiverSurname(data.getReceiverSurname());
+            }
+            rows.add(row);
+        }
+
+        accountActivityRepository.saveAll(rows);
+    }
+}
@@ -0,0 +1,69 @@
+package com.igrowker.nativo.utils;
+
+import com.igrowker.nativo.entities.Account;
+import com.igrowker.nativo.entities.User;
+import com.igrowker.nativo.exceptions.ResourceNotFoundException;
+import com.igrowker.nativo.repositories.AccountRepository;
+import com.igrowker.nativo.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resuelve número de cuenta y titular de todas las cuentas de un listado con dos consultas IN (cuentas y usuarios),
+ * en lugar de dos consultas por elemento.
+ */
+@RequiredArgsConstructor
+@Service
+public class AccountNameResolver {
+
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+
+    public record AccountOwner(String accountId, Long accountNumber, String name, String surname) {
+        public String fullname() {
+            return surname.toUpperCase() + ", " + name;
+        }
+    }
+
+    // Nombre en formato "APELLIDO, Nombre", o null si la cuenta no está en el mapa.
+    public static String fullname(Map<String, AccountOwner> owners, String accountId) {
+        AccountOwner owner = owners.get(accountId);
+        return owner == null ? null : owner.fullname();
+    }
+
+    public Map<String, AccountOwner> resolve(Collection<String> accountIds) {
+        Set<String> ids = accountIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Account> accounts = accountRepository.findAllById(ids);
+        if (accounts.size() != ids.size()) {
+            throw new ResourceNotFoundException("Cuenta no encontrada");
+        }
+
+        Set<String> userIds = accounts.stream().map(Account::getUserId).collect(Collectors.toSet());
+        Map<String, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        Map<String, AccountOwner> owners = new HashMap<>();
+        for (Account account : accounts) {
+            User user = users.get(account.getUserId());
+            if (user == null) {
+                throw new ResourceNotFoundException("Usuario no encontrado");
+            }
+            owners.put(account.getId(), new AccountOwner(account.getId(), account.getAccountNumber(),
+                    user.getName(), user.getSurname()));
+        }
+        return owners;
+    }
+}
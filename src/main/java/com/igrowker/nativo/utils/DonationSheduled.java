@@ -21,6 +21,7 @@ public class DonationSheduled {
     private final DonationRepository donationRepository;
 
     private final DonationServiceImpl donationService;
+    private final AccountActivityRecorder activityRecorder;
 
     @Scheduled(fixedRate = 1440000)
     public void checkPendingDonations() {
@@ -36,6 +37,7 @@ public class DonationSheduled {
                 donation.setStatus(TransactionStatus.DENIED);
                 // Guardar el cambio en la base de datos
                 donationRepository.save(donation);
+                activityRecorder.record(donation);
             }
         }
     }
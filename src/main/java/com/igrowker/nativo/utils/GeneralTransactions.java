@@ -1,10 +1,7 @@
 package com.igrowker.nativo.utils;
 
-import com.igrowker.nativo.entities.Account;
-import com.igrowker.nativo.entities.Microcredit;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
 import com.igrowker.nativo.repositories.AccountRepository;
-import com.igrowker.nativo.repositories.MicrocreditRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -16,42 +13,54 @@ import java.math.BigDecimal;
 public class GeneralTransactions {
 
     private final AccountRepository accountRepository;
-    private final MicrocreditRepository microcreditRepository;
 
+    /**
+     * Transfiere {@code transactionAmount} solo si el emisor tiene fondos disponibles (saldo menos lo reservado).
+     * Cada lado es un único UPDATE y las dos filas se bloquean siempre en el mismo orden (id ascendente), así dos
+     * transferencias cruzadas entre las mismas cuentas no se bloquean mutuamente. Devuelve {@code false} sin dejar
+     * ningún movimiento si no alcanzan los fondos.
+     */
     @Transactional
-    public void updateBalances(String senderAccountId, String receiverAccountId, BigDecimal transactionAmount) {
-        Account senderAccount = accountRepository.findById(senderAccountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cuenta de emisor no encontrada"));
-
-        Account receiverAccount = accountRepository.findById(receiverAccountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cuenta de receptor no encontrada"));
-
-        senderAccount.setAmount(senderAccount.getAmount().subtract(transactionAmount));
-        receiverAccount.setAmount(receiverAccount.getAmount().add(transactionAmount));
-
-        Account updatedSenderAccount = accountRepository.save(senderAccount);
-        Account updatedReceiverAccount = accountRepository.save(receiverAccount);
+    public boolean transfer(String senderAccountId, String receiverAccountId, BigDecimal transactionAmount) {
+        return move(senderAccountId, receiverAccountId, transactionAmount, true);
     }
 
+    // Sin control de fondos: para movimientos ya respaldados por una reserva o que pueden dejar saldo negativo.
     @Transactional
-    public void updateBalancesForExpiredMicrocredit(String senderAccountId, String receiverAccountId,
-                                                    BigDecimal transactionAmount, Microcredit microcredit) {
-        Account senderAccount = accountRepository.findById(senderAccountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cuenta de emisor no encontrada"));
-
-        Account receiverAccount = accountRepository.findById(receiverAccountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cuenta de receptor no encontrada"));
-
-        BigDecimal frozenAmount = microcredit.getFrozenAmount();
-
-        if (frozenAmount.compareTo(transactionAmount) >= 0) {
-            microcredit.setFrozenAmount(frozenAmount.subtract(transactionAmount));
+    public void updateBalances(String senderAccountId, String receiverAccountId, BigDecimal transactionAmount) {
+        move(senderAccountId, receiverAccountId, transactionAmount, false);
+    }
 
-            receiverAccount.setAmount(receiverAccount.getAmount().add(transactionAmount));
+    private boolean move(String senderAccountId, String receiverAccountId, BigDecimal amount, boolean guarded) {
+        if (senderAccountId.compareTo(receiverAccountId) <= 0) {
+            if (!debit(senderAccountId, amount, guarded)) {
+                return false;
+            }
+            credit(receiverAccountId, amount);
+            return true;
+        }
+        credit(receiverAccountId, amount);
+        if (!debit(senderAccountId, amount, guarded)) {
+            // La fila del receptor ya está bloqueada por esta transacción: revertir el crédito no puede esperar a nadie.
+            accountRepository.addToBalance(receiverAccountId, amount.negate());
+            return false;
+        }
+        return true;
+    }
 
-            microcreditRepository.save(microcredit);
-            accountRepository.save(receiverAccount);
+    private boolean debit(String accountId, BigDecimal amount, boolean guarded) {
+        int updated = guarded
+                ? accountRepository.debitIfAvailable(accountId, amount)
+                : accountRepository.addToBalance(accountId, amount.negate());
+        if (updated == 0 && !accountRepository.existsById(accountId)) {
+            throw new ResourceNotFoundException("Cuenta de emisor no encontrada");
         }
+        return updated == 1;
     }
 
-}
\ No newline at end of file
+    private void credit(String accountId, BigDecimal amount) {
+        if (accountRepository.addToBalance(accountId, amount) == 0) {
+            throw new ResourceNotFoundException("Cuenta de receptor no encontrada");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.igrowker.nativo.utils;
+
+import com.igrowker.nativo.repositories.MicrocreditRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Verifica contribution_count, contributed_total y total_owed de cada microcrédito contra sus contribuciones: bloquea
+ * las filas desviadas y las recalcula en una sentencia aparte, para no pisar contribuciones confirmadas en el medio.
+ * Un desvío indica un cambio de contribuciones que no pasó por los agregados.
+ * <p>
+ * La primera verificación corre al terminar de crear los beans, antes de que arranque el servidor web, y completa los
+ * microcréditos creados antes de que existieran esas columnas (quedaron en NULL al agregarlas).
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class MicrocreditCounterChecker implements SmartInitializingSingleton {
+
+    private final MicrocreditRepository microcreditRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> repair());
+    }
+
+    @Transactional
+    @Scheduled(cron = "${microcredit.counters.check-cron:0 30 3 * * ?}", zone = "America/Argentina/Buenos_Aires")
+    public void check() {
+        repair();
+    }
+
+    private void repair() {
+        List<String> stale = microcreditRepository.lockIdsWithStaleContributionCounters();
+        if (stale.isEmpty()) {
+            return;
+        }
+        int repaired = microcreditRepository.repairContributionCounters(stale);
+        if (repaired > 0) {
+            log.warn("Se corrigieron los agregados de contribuciones de {} microcréditos", repaired);
+        }
+    }
+}
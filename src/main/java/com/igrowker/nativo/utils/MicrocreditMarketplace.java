@@ -0,0 +1,230 @@
+package com.igrowker.nativo.utils;
+
+import com.igrowker.nativo.dtos.microcredit.MarketplaceSort;
+import com.igrowker.nativo.dtos.microcredit.ResponseMarketplaceMicrocreditDto;
+import com.igrowker.nativo.dtos.microcredit.ResponseMarketplacePageDto;
+import com.igrowker.nativo.entities.Microcredit;
+import com.igrowker.nativo.entities.TransactionStatus;
+import com.igrowker.nativo.exceptions.InvalidDataException;
+import com.igrowker.nativo.mappers.MicrocreditMapper;
+import com.igrowker.nativo.repositories.MicrocreditRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice en memoria de los microcréditos PENDING, ordenado por monto restante, vencimiento y porcentaje financiado.
+ * Los servicios lo actualizan después del commit de cada cambio de estado o de monto; además se recarga desde la base
+ * al arrancar y cada cierto tiempo, para tomar los cambios de otras instancias. Las lecturas no consultan la base.
+ * <p>
+ * Los afterCommit de dos transacciones sobre el mismo microcrédito pueden correr en cualquier orden, así que cada cambio
+ * lleva la cantidad de contribuciones, que sólo crece, y no se aplica si el índice ya tiene una más nueva. Cerrar un
+ * microcrédito es definitivo: el índice recuerda hasta la próxima recarga con qué cantidad se quitó y descarta los
+ * listados que llegan tarde con esa cantidad o menos.
+ */
+@RequiredArgsConstructor
+@Component
+public class MicrocreditMarketplace {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final MicrocreditRepository microcreditRepository;
+    private final MicrocreditMapper microcreditMapper;
+
+    private volatile Index index = new Index();
+    // Cambios confirmados mientras se recarga; se vuelven a aplicar sobre el índice nuevo antes de publicarlo.
+    private List<Change> pendingChanges;
+
+    /**
+     * Refleja el estado del microcrédito: si sigue PENDING se agrega o actualiza, si no se quita. Dentro de una
+     * transacción se aplica al confirmarse, para no publicar montos de una contribución que termina revertida.
+     */
+    public void update(Microcredit microcredit) {
+        Change change = new Change(microcredit.getId(), version(microcredit),
+                microcredit.getTransactionStatus() == TransactionStatus.PENDING
+                        ? microcreditMapper.marketplaceDto(microcredit) : null);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    public ResponseMarketplacePageDto page(MarketplaceSort sort, boolean descending, String cursor, int size,
+                                           LocalDateTime now) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        NavigableMap<Position, ResponseMarketplaceMicrocreditDto> view = index.sorted.get(sort);
+        if (descending) {
+            view = view.descendingMap();
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            view = view.tailMap(Position.decode(cursor), false);
+        }
+
+        List<ResponseMarketplaceMicrocreditDto> microcredits = new ArrayList<>(pageSize);
+        Position last = null;
+        boolean hasMore = false;
+        for (Map.Entry<Position, ResponseMarketplaceMicrocreditDto> entry : view.entrySet()) {
+            ResponseMarketplaceMicrocreditDto listing = entry.getValue();
+            // Los vencidos siguen PENDING hasta que corre el scheduler; no se ofrecen.
+            if (listing.expirationDate() != null && !listing.expirationDate().isAfter(now)) {
+                continue;
+            }
+            if (microcredits.size() == pageSize) {
+                hasMore = true;
+                break;
+            }
+            microcredits.add(listing);
+            last = entry.getKey();
+        }
+        return new ResponseMarketplacePageDto(microcredits, hasMore ? last.encode() : null);
+    }
+
+    public int size() {
+        return index.listings.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${microcredit.marketplace.reload-interval-ms:300000}",
+            initialDelayString = "${microcredit.marketplace.reload-interval-ms:300000}")
+    public void reload() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        Index fresh = new Index();
+        try {
+            microcreditRepository.findByTransactionStatus(TransactionStatus.PENDING)
+                    .forEach(microcredit ->
+                            fresh.put(microcreditMapper.marketplaceDto(microcredit), version(microcredit)));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            pendingChanges.forEach(fresh::apply);
+            pendingChanges = null;
+            index = fresh;
+        }
+    }
+
+    private synchronized void apply(Change change) {
+        index.apply(change);
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+    }
+
+    private static int version(Microcredit microcredit) {
+        return microcredit.getContributionCount() == null ? 0 : microcredit.getContributionCount();
+    }
+
+    // listing null: el microcrédito dejó de estar abierto a contribuciones. version: su cantidad de contribuciones.
+    private record Change(String id, int version, ResponseMarketplaceMicrocreditDto listing) {
+    }
+
+    private static final class Index {
+        private final Map<String, ResponseMarketplaceMicrocreditDto> listings = new ConcurrentHashMap<>();
+        private final Map<MarketplaceSort, ConcurrentSkipListMap<Position, ResponseMarketplaceMicrocreditDto>> sorted =
+                new EnumMap<>(MarketplaceSort.class);
+        // Sólo se tocan bajo el lock del marketplace (o antes de publicar el índice); las lecturas no las usan.
+        private final Map<String, Integer> versions = new HashMap<>();
+        private final Map<String, Integer> removedAt = new HashMap<>();
+
+        private Index() {
+            for (MarketplaceSort sort : MarketplaceSort.values()) {
+                sorted.put(sort, new ConcurrentSkipListMap<>());
+            }
+        }
+
+        private void apply(Change change) {
+            Integer current = versions.get(change.id());
+            if (current != null && current > change.version()) {
+                return;
+            }
+            if (change.listing() == null) {
+                remove(change.id());
+                removedAt.merge(change.id(), change.version(), Math::max);
+                return;
+            }
+            Integer removed = removedAt.get(change.id());
+            if (removed == null || removed < change.version()) {
+                put(change.listing(), change.version());
+            }
+        }
+
+        private void put(ResponseMarketplaceMicrocreditDto listing, int version) {
+            remove(listing.id());
+            listings.put(listing.id(), listing);
+            versions.put(listing.id(), version);
+            sorted.forEach((sort, map) -> map.put(Position.of(sort, listing), listing));
+        }
+
+        private void remove(String id) {
+            ResponseMarketplaceMicrocreditDto previous = listings.remove(id);
+            versions.remove(id);
+            if (previous != null) {
+                sorted.forEach((sort, map) -> map.remove(Position.of(sort, previous)));
+            }
+        }
+    }
+
+    // Posición en un orden: valor de la clave y el id para desempatar. Es también el contenido del cursor.
+    private record Position(BigDecimal key, String id) implements Comparable<Position> {
+
+        static Position of(MarketplaceSort sort, ResponseMarketplaceMicrocreditDto listing) {
+            BigDecimal key = switch (sort) {
+                case REMAINING_AMOUNT -> listing.remainingAmount();
+                case EXPIRATION_DATE -> listing.expirationDate() == null ? null
+                        : BigDecimal.valueOf(listing.expirationDate().toEpochSecond(ZoneOffset.UTC));
+                case FUNDING_PERCENTAGE -> listing.fundingPercentage();
+            };
+            return new Position(key == null ? BigDecimal.ZERO : key, listing.id());
+        }
+
+        static Position decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                return new Position(new BigDecimal(parts[0]), parts[1]);
+            } catch (RuntimeException e) {
+                throw new InvalidDataException("Cursor de paginación inválido.");
+            }
+        }
+
+        String encode() {
+            String raw = key.toPlainString() + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int compareTo(Position other) {
+            int byKey = key.compareTo(other.key);
+            return byKey != 0 ? byKey : id.compareTo(other.id);
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.igrowker.nativo.utils;
 import com.igrowker.nativo.entities.*;
 import com.igrowker.nativo.exceptions.*;
 import com.igrowker.nativo.repositories.AccountRepository;
-import com.igrowker.nativo.repositories.ContributionRepository;
 import com.igrowker.nativo.repositories.MicrocreditRepository;
 import com.igrowker.nativo.repositories.UserRepository;
 import com.igrowker.nativo.services.MicrocreditService;
@@ -13,24 +12,30 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @RequiredArgsConstructor
 @Service
 public class MicrocreditScheduler {
 
     private final MicrocreditRepository microcreditRepository;
-    private final ContributionRepository contributionRepository;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
     private final MicrocreditService microcreditService;
-    private final GeneralTransactions generalTransactions;
     private final Validations validations;
     private final NotificationService notificationService;
+    private final MicrocreditMarketplace marketplace;
+    private final MicrocreditSettlement settlement;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final Set<TransactionStatus> EXPIRABLE =
+            EnumSet.complementOf(EnumSet.of(TransactionStatus.EXPIRED, TransactionStatus.COMPLETED));
 
     @Transactional
     @Scheduled(cron = "0 0 0 * * ?", zone = "America/Argentina/Buenos_Aires")
@@ -43,15 +48,18 @@ public class MicrocreditScheduler {
 
         for (Microcredit microcredit : expiredMicrocredits) {
             try {
-                List<Contribution> contributions = microcredit.getContributions();
-
                 Account borrowerAccount = accountRepository.findById(microcredit.getBorrowerAccountId())
                         .orElseThrow(() -> new InvalidUserCredentialsException("Cuenta del prestatario no encontrada."));
 
                 User borrowerUser = userRepository.findById(borrowerAccount.getUserId())
                         .orElseThrow(() -> new InvalidUserCredentialsException("Usuario del prestatario no encontrado."));
 
-                if (contributions.isEmpty()) {
+                if (microcredit.getContributionCount() == 0) {
+                    // Si entró una contribución desde la lectura, la transición no aplica y la próxima corrida decide.
+                    if (microcreditRepository.transitionStatusIfUnfunded(microcredit.getId(), EXPIRABLE,
+                            TransactionStatus.COMPLETED) == 0) {
+                        continue;
+                    }
                     microcredit.setTransactionStatus(TransactionStatus.COMPLETED);
 
                     notificationService.sendPaymentNotification(
@@ -64,11 +72,13 @@ public class MicrocreditScheduler {
                             "Gracias por participar en nuestro sistema de microcréditos."
                     );
                 } else {
+                    if (microcreditRepository.transitionStatus(microcredit.getId(), EXPIRABLE,
+                            TransactionStatus.EXPIRED) == 0) {
+                        continue;
+                    }
                     microcredit.setTransactionStatus(TransactionStatus.EXPIRED);
 
-                    BigDecimal totalAmount = contributions.stream()
-                            .map(Contribution::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+                    BigDecimal totalAmount = microcredit.getContributedTotal();
 
                     notificationService.sendPaymentNotification(
                             borrowerUser.getEmail(),
@@ -80,14 +90,15 @@ public class MicrocreditScheduler {
                     );
                 }
 
-                microcreditRepository.save(microcredit);
+                marketplace.update(microcredit);
             } catch (ResourceNotFoundException | MessagingException e) {
                 e.printStackTrace();
             }
         }
     }
 
-    @Transactional
+    // Sin transacción propia: cada liquidación corre en la suya, así un microcrédito que falla no revierte a los demás
+    // y los avisos de la devolución salen después de su commit.
     @Scheduled(cron = "0 0 17 * * MON-FRI", zone = "America/Argentina/Buenos_Aires")
     public void processPayAutomaticMicrocredits() {
         LocalDateTime today = LocalDateTime.now();
@@ -102,7 +113,7 @@ public class MicrocreditScheduler {
             if (microcredit.getExpirationDate().isEqual(today)) {
                 try {
                     payMicrocreditAndContributors(microcredit);
-                } catch (ResourceNotFoundException | MessagingException e) {
+                } catch (RuntimeException | MessagingException e) {
                     e.printStackTrace();
                 }
             }
@@ -110,9 +121,7 @@ public class MicrocreditScheduler {
     }
 
     private void payMicrocreditAndContributors(Microcredit microcredit) throws MessagingException {
-        List<Contribution> contributions = microcredit.getContributions();
-
-        if (contributions.isEmpty()) return;
+        if (microcredit.getContributionCount() == 0) return;
 
         Account borrowerAccount = accountRepository.findById(microcredit.getBorrowerAccountId())
                 .orElseThrow(() -> new InvalidAccountException("Cuenta del prestatario no encontrada."));
@@ -120,9 +129,10 @@ public class MicrocreditScheduler {
         User borrowerUser = userRepository.findById(borrowerAccount.getUserId())
                 .orElseThrow(() -> new InvalidAccountException("Cuenta del solicitante no encontrada."));
 
-        BigDecimal totalAmount = microcreditService.totalAmountToPay(microcredit);
-
-        if (microcredit.getTransactionStatus() != TransactionStatus.EXPIRED) {
+        if (microcredit.getTransactionStatus() == TransactionStatus.EXPIRED) {
+            settlement.settleFromFrozen(microcredit, borrowerUser);
+        } else {
+            BigDecimal totalAmount = microcreditService.totalAmountToPay(microcredit);
             if (!validations.validateUserFundsForJob(borrowerAccount, totalAmount)) {
                 notificationService.sendPaymentNotification(
                         borrowerUser.getEmail(),
@@ -134,71 +144,14 @@ public class MicrocreditScheduler {
                 );
                 return;
             }
+            // Cierra el microcrédito, debita una vez, acredita en lote y avisa después del commit; si un pago manual
+            // ya lo completó lanza DeniedTransactionException sin mover dinero.
+            settlement.settle(microcredit, borrowerUser);
         }
 
-        try {
-            List<Contribution> contributionCopy = new ArrayList<>(contributions);
-
-            for (Contribution contribution : contributionCopy) {
-                processContribution(contribution, microcredit);
-
-                Account lenderAccount = accountRepository.findById(contribution.getLenderAccountId())
-                        .orElseThrow(() -> new InvalidAccountException("Cuenta de prestamista no encontrada."));
-                User lenderUser = userRepository.findById(lenderAccount.getUserId())
-                        .orElseThrow(() -> new InvalidAccountException("Cuenta de prestamista no encontrada."));
-
-                notificationService.sendPaymentNotification(
-                        lenderUser.getEmail(),
-                        lenderUser.getName() + " " + lenderUser.getSurname(),
-                        totalAmount,
-                        "Devolución cuota microcrédito",
-                        "Te informamos que se ha procesado la devolución de tu contribución al microcrédito con ID: " + microcredit.getId(),
-                        "Gracias por tu participación en nuestro programa de microcréditos. Esperamos seguir contando con tu confianza."
-                );
-            }
-
-            notificationService.sendPaymentNotification(
-                    borrowerUser.getEmail(),
-                    borrowerUser.getName() + " " + borrowerUser.getSurname(),
-                    totalAmount,
-                    "Descuento cuota del microcrédito",
-                    "Te informamos que se ha procesado el descuento por el microcrédito con ID: " + microcredit.getId(),
-                    "Si no tienes saldo suficiente en la cuenta en este momento, el monto pendiente se deducirá automáticamente en tu próximo ingreso."
-            );
-
-            microcredit.setTransactionStatus(TransactionStatus.COMPLETED);
-            microcreditRepository.save(microcredit);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        marketplace.update(microcredit);
     }
 
-    private void processContribution(Contribution contribution, Microcredit microcredit) {
-
-        try {
-            BigDecimal interest = (contribution.getAmount().multiply(microcredit.getInterestRate())).divide(BigDecimal.valueOf(100));
-            BigDecimal totalAmount = contribution.getAmount().add(interest);
-
-            if (microcredit.getTransactionStatus() == TransactionStatus.EXPIRED) {
-                generalTransactions.updateBalancesForExpiredMicrocredit(microcredit.getBorrowerAccountId(),
-                        contribution.getLenderAccountId(), totalAmount, microcredit);
-
-                BigDecimal newPendingAmount = microcredit.getPendingAmount().subtract(totalAmount);
-                microcredit.setPendingAmount(newPendingAmount);
-                microcreditRepository.save(microcredit);
-            } else {
-                generalTransactions.updateBalances(microcredit.getBorrowerAccountId(), contribution.getLenderAccountId(), totalAmount);
-            }
-
-            contribution.setTransactionStatus(TransactionStatus.COMPLETED);
-            contributionRepository.save(contribution);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
-    @Transactional
     @Scheduled(cron = "0 0 18 * * MON-FRI", zone = "America/Argentina/Buenos_Aires")
     public void processExpiredMicrocreditPayments() {
         LocalDateTime today = LocalDateTime.now();
@@ -208,25 +161,29 @@ public class MicrocreditScheduler {
         for (Microcredit microcredit : microcredits) {
             if (microcredit.getExpirationDate().isBefore(today) || microcredit.getExpirationDate().isEqual(today)) {
                 try {
-                    microcreditService.updateMicrocreditAmounts(microcredit);
-
-                    BigDecimal currentBalance = accountRepository.getBalanceByUserId(microcredit.getBorrowerAccountId());
-
-                    if (currentBalance.compareTo(microcredit.getPendingAmount()) < 0) {
-                        microcredit.setFrozenAmount(microcredit.getFrozenAmount().add(currentBalance));
-                        accountRepository.deductBalance(microcredit.getBorrowerAccountId(), currentBalance);
-                    }
-
-                    if (microcredit.getFrozenAmount().compareTo(microcredit.getPendingAmount()) >= 0) {
+                    // Lo congelado se confirma aunque la devolución falle; la próxima corrida vuelve a intentarla.
+                    if (Boolean.TRUE.equals(transactionTemplate.execute(status -> freezeBorrowerFunds(microcredit)))) {
                         payMicrocreditAndContributors(microcredit);
                     }
-
-                    microcreditRepository.save(microcredit);
-
-                } catch (ResourceNotFoundException | MessagingException e) {
+                } catch (RuntimeException | MessagingException e) {
                     e.printStackTrace();
                 }
             }
         }
     }
+
+    // Devuelve si lo congelado ya cubre lo pendiente.
+    private boolean freezeBorrowerFunds(Microcredit microcredit) {
+        microcreditService.updateMicrocreditAmounts(microcredit);
+
+        BigDecimal currentBalance = accountRepository.getBalanceByUserId(microcredit.getBorrowerAccountId());
+
+        if (currentBalance.compareTo(microcredit.getPendingAmount()) < 0) {
+            microcredit.setFrozenAmount(microcredit.getFrozenAmount().add(currentBalance));
+            accountRepository.deductBalance(microcredit.getBorrowerAccountId(), currentBalance);
+            microcreditRepository.save(microcredit);
+        }
+
+        return microcredit.getFrozenAmount().compareTo(microcredit.getPendingAmount()) >= 0;
+    }
 }
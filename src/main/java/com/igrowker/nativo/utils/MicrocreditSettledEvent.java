@@ -0,0 +1,12 @@
+package com.igrowker.nativo.utils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Una devolución por contribución; amount es el capital aportado, como informa el mail al prestamista.
+public record MicrocreditSettledEvent(String microcreditId, String borrowerEmail, String borrowerFullname,
+                                     BigDecimal totalPaidAmount, List<Payout> payouts) {
+
+    public record Payout(String lenderAccountId, BigDecimal amount) {
+    }
+}
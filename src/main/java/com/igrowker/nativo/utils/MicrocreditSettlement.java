@@ -0,0 +1,143 @@
+package com.igrowker.nativo.utils;
+
+import com.igrowker.nativo.entities.Contribution;
+import com.igrowker.nativo.entities.Microcredit;
+import com.igrowker.nativo.entities.TransactionStatus;
+import com.igrowker.nativo.entities.User;
+import com.igrowker.nativo.exceptions.DeniedTransactionException;
+import com.igrowker.nativo.exceptions.InsufficientFundsException;
+import com.igrowker.nativo.exceptions.ResourceNotFoundException;
+import com.igrowker.nativo.repositories.AccountRepository;
+import com.igrowker.nativo.repositories.ContributionRepository;
+import com.igrowker.nativo.repositories.MicrocreditRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Liquida la devolución de un microcrédito con una cantidad fija de sentencias, sin importar cuántos contribuyentes
+ * tenga. Primero lo pasa a COMPLETED con un UPDATE condicionado que bloquea la fila hasta el commit, de modo que no
+ * entren contribuciones nuevas ni se pague dos veces. Después calcula en una pasada lo que recibe cada prestamista,
+ * debita al prestatario con un único UPDATE condicionado (o descuenta lo congelado, si el microcrédito venció),
+ * acredita a los prestamistas en lotes JDBC y marca como COMPLETED sólo las contribuciones que pagó. Las cuentas se
+ * bloquean en orden de id ascendente, como en {@link GeneralTransactions}. Los mails salen después del commit, en el
+ * executor de mails. Lo usan tanto el pago manual como el scheduler.
+ */
+@RequiredArgsConstructor
+@Service
+public class MicrocreditSettlement {
+
+    static final String CREDIT_SQL = "UPDATE accounts SET amount = amount + ? WHERE id = ?";
+
+    private static final Set<TransactionStatus> PAYABLE =
+            EnumSet.of(TransactionStatus.PENDING, TransactionStatus.ACCEPTED, TransactionStatus.EXPIRED);
+
+    private final MicrocreditRepository microcreditRepository;
+    private final AccountRepository accountRepository;
+    private final ContributionRepository contributionRepository;
+    private final AccountActivityRecorder activityRecorder;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Devuelve el total debitado al prestatario. Si no le alcanzan los fondos lanza {@link InsufficientFundsException}
+     * antes de mover el saldo de nadie fuera de la transacción, que se revierte completa; si el microcrédito ya no se
+     * puede pagar lanza {@link DeniedTransactionException} sin tocar ninguna cuenta.
+     */
+    @Transactional
+    public BigDecimal settle(Microcredit microcredit, User borrower) {
+        return settle(microcredit, borrower, false);
+    }
+
+    /**
+     * Como {@link #settle(Microcredit, User)}, pero para un microcrédito vencido: lo que se devuelve sale del monto
+     * congelado al prestatario y no de su cuenta. Si lo congelado no alcanza lanza {@link InsufficientFundsException}.
+     */
+    @Transactional
+    public BigDecimal settleFromFrozen(Microcredit microcredit, User borrower) {
+        return settle(microcredit, borrower, true);
+    }
+
+    private BigDecimal settle(Microcredit microcredit, User borrower, boolean fromFrozen) {
+        if (microcreditRepository.transitionStatus(microcredit.getId(), PAYABLE, TransactionStatus.COMPLETED) == 0) {
+            throw new DeniedTransactionException("El microcrédito ya fue pagado o no admite pagos.");
+        }
+        microcredit.setTransactionStatus(TransactionStatus.COMPLETED);
+
+        String borrowerAccountId = microcredit.getBorrowerAccountId();
+        // Leídas con la fila ya bloqueada: son exactamente las que quedan por devolver.
+        List<Contribution> contributions = contributionRepository
+                .findByMicrocreditIdAndTransactionStatusNot(microcredit.getId(), TransactionStatus.COMPLETED);
+
+        BigDecimal totalPaidAmount = BigDecimal.ZERO;
+        SortedMap<String, BigDecimal> credits = new TreeMap<>();
+        List<String> contributionIds = new ArrayList<>(contributions.size());
+        List<MicrocreditSettledEvent.Payout> payouts = new ArrayList<>(contributions.size());
+
+        for (Contribution contribution : contributions) {
+            BigDecimal totalContributionAmountWithInterest = microcredit.owedFor(contribution.getAmount());
+
+            credits.merge(contribution.getLenderAccountId(), totalContributionAmountWithInterest, BigDecimal::add);
+            totalPaidAmount = totalPaidAmount.add(totalContributionAmountWithInterest);
+            contributionIds.add(contribution.getId());
+            payouts.add(new MicrocreditSettledEvent.Payout(contribution.getLenderAccountId(), contribution.getAmount()));
+        }
+
+        if (fromFrozen) {
+            // El dinero ya salió de la cuenta del prestatario al congelarlo: no se bloquea su cuenta.
+            if (totalPaidAmount.signum() > 0
+                    && microcreditRepository.releaseFrozenAmount(microcredit.getId(), totalPaidAmount) == 0) {
+                throw new InsufficientFundsException("El monto congelado no cubre la devolución");
+            }
+            credit(credits);
+            microcredit.setFrozenAmount(microcredit.getFrozenAmount().subtract(totalPaidAmount));
+            microcredit.setPendingAmount(microcredit.getPendingAmount().subtract(totalPaidAmount));
+        } else {
+            // Si el prestatario también aportó, lo que se devuelve a sí mismo no sale de su cuenta.
+            BigDecimal ownCredit = credits.remove(borrowerAccountId);
+            BigDecimal debit = ownCredit == null ? totalPaidAmount : totalPaidAmount.subtract(ownCredit);
+
+            credit(credits.headMap(borrowerAccountId));
+            if (debit.signum() > 0 && accountRepository.debitIfAvailable(borrowerAccountId, debit) == 0) {
+                throw new InsufficientFundsException("Fondos insuficientes");
+            }
+            credit(credits.tailMap(borrowerAccountId));
+        }
+
+        if (!contributionIds.isEmpty()) {
+            contributionRepository.updateStatusByIdIn(contributionIds, TransactionStatus.COMPLETED);
+            activityRecorder.updateStatus(contributionIds, TransactionStatus.COMPLETED);
+            microcreditRepository.reduceTotalOwed(microcredit.getId(), totalPaidAmount);
+        }
+
+        eventPublisher.publishEvent(new MicrocreditSettledEvent(microcredit.getId(), borrower.getEmail(),
+                borrower.getName() + " " + borrower.getSurname(), totalPaidAmount, payouts));
+
+        return totalPaidAmount;
+    }
+
+    private void credit(Map<String, BigDecimal> credits) {
+        if (credits.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(credits.size());
+        credits.forEach((accountId, amount) -> batch.add(new Object[]{amount, accountId}));
+
+        for (int updated : jdbcTemplate.batchUpdate(CREDIT_SQL, batch)) {
+            if (updated == 0) {
+                throw new ResourceNotFoundException("Cuenta de contribuyente no encontrada.");
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.igrowker.nativo.utils;
+
+import com.igrowker.nativo.entities.Account;
+import com.igrowker.nativo.entities.User;
+import com.igrowker.nativo.repositories.AccountRepository;
+import com.igrowker.nativo.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Avisa a prestamistas y prestatario de la devolución de un microcrédito una vez confirmada, en el executor de mails:
+ * la transacción de la liquidación no espera ningún envío SMTP. Los destinatarios se buscan con dos consultas IN.
+ * Un mail que falla se registra y no impide el resto.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MicrocreditSettlementNotifier {
+
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+
+    @Async("mailExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMicrocreditSettled(MicrocreditSettledEvent event) {
+        Set<String> lenderAccountIds = event.payouts().stream()
+                .map(MicrocreditSettledEvent.Payout::lenderAccountId)
+                .collect(Collectors.toSet());
+        Map<String, String> userIdByAccount = accountRepository.findAllById(lenderAccountIds).stream()
+                .collect(Collectors.toMap(Account::getId, Account::getUserId));
+        Map<String, User> users = userRepository.findAllById(Set.copyOf(userIdByAccount.values())).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        for (MicrocreditSettledEvent.Payout payout : event.payouts()) {
+            User lender = users.get(userIdByAccount.get(payout.lenderAccountId()));
+            if (lender == null) {
+                log.error("Usuario de contribuyente no encontrado para la cuenta {}", payout.lenderAccountId());
+                continue;
+            }
+            send(lender.getEmail(), lender.getName() + " " + lender.getSurname(), payout.amount(),
+                    "Devolución cuota microcrédito",
+                    "Te informamos que se ha procesado la devolución de tu contribución al microcrédito con ID: " + event.microcreditId(),
+                    "Gracias por tu participación en nuestro programa de microcréditos. Esperamos seguir contando con tu confianza.");
+        }
+
+        send(event.borrowerEmail(), event.borrowerFullname(), event.totalPaidAmount(), "Descuento cuota del microcrédito",
+                "Te informamos que se ha procesado el descuento por el microcrédito con ID: " + event.microcreditId(),
+                "Si no tienes saldo suficiente en la cuenta en este momento, el monto pendiente se deducirá automáticamente en tu próximo ingreso.");
+    }
+
+    private void send(String email, String fullname, BigDecimal amount, String subject, String transaction, String pd) {
+        try {
+            notificationService.sendPaymentNotification(email, fullname, amount, subject, transaction, pd);
+        } catch (Exception e) {
+            log.error("No se pudo enviar el aviso '{}' a {}", subject, email, e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.igrowker.nativo.utils;
+
+import com.igrowker.nativo.entities.TransactionStatus;
+import com.igrowker.nativo.repositories.PaymentRepository;
+import com.igrowker.nativo.security.PaymentQrSigner;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pasa a EXPIRED los pagos que siguen PENDING después de la vigencia del QR. pagar-qr rechaza esos QRs sin consultar
+ * la base, así que el vencimiento se persiste acá, junto con el estado de su actividad. Los pagos que otro proceso
+ * tiene bloqueados (un pagador a mitad de pagar-qr) se saltean y quedan para la próxima pasada.
+ */
+@RequiredArgsConstructor
+@Component
+public class PaymentExpirySweeper {
+    static final int BATCH_SIZE = 500;
+
+    private final PaymentRepository paymentRepository;
+    private final AccountActivityRecorder activityRecorder;
+    private final PaymentQrCache paymentQrCache;
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${payment.expiry.sweep-interval-ms:60000}")
+    public void expireStale() {
+        LocalDateTime issuedBefore = LocalDateTime.now().minusSeconds(PaymentQrSigner.VALIDITY_SECONDS);
+        List<String> ids = paymentRepository.lockStalePendingIds(issuedBefore, BATCH_SIZE);
+        if (ids.isEmpty()) {
+            return;
+        }
+        paymentRepository.expireByIdIn(ids);
+        activityRecorder.updateStatus(ids, TransactionStatus.EXPIRED);
+        ids.forEach(paymentQrCache::remove);
+    }
+}
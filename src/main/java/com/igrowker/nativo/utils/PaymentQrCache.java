@@ -0,0 +1,66 @@
+package com.igrowker.nativo.utils;
+
+import com.igrowker.nativo.dtos.payment.ResponseQrImageDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Imágenes de QR ya generadas, indexadas por id de pago. Cada entrada vence junto con el pago; al procesarlo se quita
+ * enseguida. El tamaño está acotado: un pedido de más se resuelve regenerando el PNG, nunca con un QR vencido.
+ */
+@Component
+public class PaymentQrCache {
+
+    @Value("${payment.qr.cache.max-size:5000}")
+    private int maxSize;
+
+    private final Map<String, ResponseQrImageDto> images = new ConcurrentHashMap<>();
+
+    public ResponseQrImageDto get(String paymentId, LocalDateTime now) {
+        ResponseQrImageDto cached = images.get(paymentId);
+        if (cached == null) {
+            return null;
+        }
+        if (isExpired(cached, now)) {
+            images.remove(paymentId, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    public void put(String paymentId, ResponseQrImageDto image, LocalDateTime now) {
+        if (images.size() >= maxSize) {
+            evict(now);
+        }
+        images.put(paymentId, image);
+    }
+
+    public void remove(String paymentId) {
+        images.remove(paymentId);
+    }
+
+    public int size() {
+        return images.size();
+    }
+
+    // Primero descarta los QR vencidos; si sigue lleno libera una décima parte para no barrer en cada alta.
+    private void evict(LocalDateTime now) {
+        images.values().removeIf(image -> isExpired(image, now));
+
+        int toRemove = images.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> iterator = images.keySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static boolean isExpired(ResponseQrImageDto image, LocalDateTime now) {
+        return !image.expiresAt().isAfter(now);
+    }
+}
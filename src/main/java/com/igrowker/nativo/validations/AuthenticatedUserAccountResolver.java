@@ -0,0 +1,50 @@
+package com.igrowker.nativo.validations;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Resuelve el usuario logueado y su cuenta una sola vez por request. El par queda guardado como atributo del request,
+ * así todos los métodos de {@link Validations} lo comparten. Fuera de un request (jobs programados) siempre consulta.
+ */
+@Component
+public class AuthenticatedUserAccountResolver {
+    private static final String REQUEST_ATTRIBUTE = AuthenticatedUserAccountResolver.class.getName() + ".PAIR";
+
+    private final Counter avoidedLookups;
+
+    public AuthenticatedUserAccountResolver(MeterRegistry meterRegistry) {
+        this.avoidedLookups = Counter.builder("nativo.validations.user_account.avoided_lookups")
+                .description("Resoluciones de usuario y cuenta evitadas por reutilizar el par ya cargado en el request")
+                .register(meterRegistry);
+    }
+
+    public Validations.UserAccountPair resolve(String email, Supplier<Validations.UserAccountPair> loader) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return loader.get();
+        }
+
+        if (requestAttributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof CachedPair cached
+                && cached.email().equals(email)) {
+            avoidedLookups.increment();
+            return cached.pair();
+        }
+
+        Validations.UserAccountPair pair = loader.get();
+        requestAttributes.setAttribute(REQUEST_ATTRIBUTE, new CachedPair(email, pair), RequestAttributes.SCOPE_REQUEST);
+        return pair;
+    }
+
+    public long getAvoidedLookups() {
+        return (long) avoidedLookups.count();
+    }
+
+    private record CachedPair(String email, Validations.UserAccountPair pair) {
+    }
+}
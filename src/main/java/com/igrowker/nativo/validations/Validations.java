@@ -7,7 +7,9 @@ import com.igrowker.nativo.exceptions.InvalidDataException;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
 import com.igrowker.nativo.repositories.AccountRepository;
 import com.igrowker.nativo.repositories.UserRepository;
+import com.igrowker.nativo.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -20,10 +22,16 @@ public class Validations {
 
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final AuthenticatedUserAccountResolver authenticatedUserAccountResolver;
 
     public UserAccountPair getAuthenticatedUserAndAccount() {
         String userNameAuthentication = SecurityContextHolder.getContext().getAuthentication().getName();
 
+        return authenticatedUserAccountResolver.resolve(userNameAuthentication,
+                () -> loadUserAndAccount(userNameAuthentication));
+    }
+
+    private UserAccountPair loadUserAndAccount(String userNameAuthentication) {
         User user = userRepository.findByEmail(userNameAuthentication)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
 
@@ -33,6 +41,19 @@ public class Validations {
         return new UserAccountPair(user, account);
     }
 
+    /**
+     * Id de la cuenta del usuario logueado. Si el principal viene de los claims del token no consulta la base.
+     */
+    public String getAuthenticatedAccountId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal && principal.accountId() != null) {
+            return principal.accountId();
+        }
+
+        return this.getAuthenticatedUserAndAccount().account.getId();
+    }
+
     public static class UserAccountPair {
         public final User user;
         public final Account account;
@@ -44,11 +65,15 @@ public class Validations {
     }
 
     public boolean isUserAccountMismatch(String userAccount) {
-        Account loggedUserAccount = this.getAuthenticatedUserAndAccount().account;
-        Account providedUserAccount = accountRepository.findById(userAccount)
+        String loggedUserAccountId = this.getAuthenticatedAccountId();
+        if (loggedUserAccountId.equals(userAccount)) {
+            return false;
+        }
+
+        accountRepository.findById(userAccount)
                 .orElseThrow(() -> new ResourceNotFoundException("La cuenta provista no fue encontrada."));
 
-        return !loggedUserAccount.equals(providedUserAccount);
+        return true;
     }
 
     public boolean validateTransactionUserFunds(BigDecimal TransactionAmount) {
@@ -0,0 +1,126 @@
+package com.igrowker.nativo;
+
+import com.igrowker.nativo.entities.Account;
+import com.igrowker.nativo.entities.User;
+import com.igrowker.nativo.repositories.AccountRepository;
+import com.igrowker.nativo.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.repository.CrudRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Utilidades comunes de los tests que miden tiempos o cuentan sentencias: datos de prueba, medición y reporte. Los
+ * resultados se registran por SLF4J sólo cuando se corre con {@code -Dbenchmark=true}; en el build normal los tests
+ * verifican igual los números medidos pero no imprimen nada.
+ */
+public final class BenchmarkSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(BenchmarkSupport.class);
+
+    public static final boolean ENABLED = Boolean.getBoolean("benchmark");
+
+    private BenchmarkSupport() {
+    }
+
+    public record Member(User user, Account account) {
+    }
+
+    /**
+     * Vacía los repositorios en el orden dado, dependientes primero.
+     */
+    public static void deleteAll(CrudRepository<?, ?>... repositories) {
+        for (CrudRepository<?, ?> repository : repositories) {
+            repository.deleteAll();
+        }
+    }
+
+    /**
+     * Guarda un usuario verificado {@code prefix + i + "@gmail.com"} con DNI {@code dniBase + i} y su cuenta habilitada.
+     */
+    public static Member saveMember(UserRepository userRepository, AccountRepository accountRepository,
+                                    String prefix, long dniBase, int i, BigDecimal balance) {
+        User user = userRepository.save(new User(null, dniBase + i, "Nombre" + i, "Apellido" + i,
+                prefix + i + "@gmail.com", "password123", "123654789", null, LocalDate.of(1990, 12, 31),
+                LocalDateTime.now(), true, "123456", LocalDateTime.now().plusMonths(1), true, true, true));
+        Account account = accountRepository.save(new Account(null, user.getDni(), balance, true, user.getId(),
+                BigDecimal.ZERO));
+        return new Member(user, account);
+    }
+
+    /**
+     * Registra una línea de resultados con el formato de {@link String#format}, sólo si los benchmarks están activos.
+     */
+    public static void report(String format, Object... args) {
+        if (ENABLED) {
+            log.info(String.format(Locale.ROOT, format, args));
+        }
+    }
+
+    /**
+     * Corre la tarea {@code warmup} veces sin medir y devuelve la mediana en nanosegundos de {@code runs} corridas.
+     */
+    public static long medianNanos(int warmup, int runs, Runnable task) {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            nanos[i] = elapsedNanos(task);
+        }
+        Arrays.sort(nanos);
+        return nanos[runs / 2];
+    }
+
+    private static long elapsedNanos(Runnable task) {
+        long start = System.nanoTime();
+        task.run();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Lanza cada tarea en su propio hilo, las suelta a la vez y devuelve los nanosegundos hasta que termina la última.
+     * La primera falla de una tarea se propaga envuelta en {@link java.util.concurrent.ExecutionException}.
+     */
+    public static long runConcurrently(List<? extends Callable<?>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (Callable<?> task : tasks) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    public static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,176 @@
+package com.igrowker.nativo.integration;
+
+import com.igrowker.nativo.entities.Contribution;
+import com.igrowker.nativo.entities.Donation;
+import com.igrowker.nativo.entities.Payment;
+import com.igrowker.nativo.repositories.ContributionRepository;
+import com.igrowker.nativo.repositories.DonationRepository;
+import com.igrowker.nativo.repositories.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.igrowker.nativo.BenchmarkSupport.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara las consultas por cuenta escritas con OR contra sus versiones UNION ALL sobre un dataset grande.
+ * No corre en el build normal: {@code mvn test -Dtest=AccountQueryBenchmarkIntegrationTest -Dbenchmark=true}.
+ * Registra la mediana de cada variante y verifica que ambas devuelvan las mismas filas y que UNION ALL no sea más lenta.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class AccountQueryBenchmarkIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final int ACCOUNTS = 20_000;
+    private static final int ROWS = 1_000_000;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 25;
+    private static final String ACCOUNT = "account-42";
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private DonationRepository donationRepository;
+    @Autowired
+    private ContributionRepository contributionRepository;
+
+    @BeforeAll
+    public void seed() {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO payments (id, sender_account, receiver_account, amount, " +
+                        "transaction_date, transaction_status) " +
+                        "SELECT gen_random_uuid()::text, 'account-' || (i % " + ACCOUNTS + "), " +
+                        "'account-' || ((i * 7) % " + ACCOUNTS + "), 10, " +
+                        "timestamp '2023-01-01' + (i % 730) * interval '1 day', " +
+                        "(ARRAY['ACCEPTED','DENIED','PENDING','EXPIRED'])[1 + i % 4] " +
+                        "FROM generate_series(1, " + ROWS + ") i");
+                statement.execute("INSERT INTO donations (id, account_id_donor, account_id_beneficiary, amount, " +
+                        "anonymous_donation, created_at, update_at, status) " +
+                        "SELECT gen_random_uuid()::text, 'account-' || (i % " + ACCOUNTS + "), " +
+                        "'account-' || ((i * 11) % " + ACCOUNTS + "), 10, false, " +
+                        "timestamp '2023-01-01' + (i % 730) * interval '1 day', " +
+                        "timestamp '2023-01-02' + (i % 730) * interval '1 day', " +
+                        "(ARRAY['ACCEPTED','DENIED','PENDING'])[1 + i % 3] " +
+                        "FROM generate_series(1, " + ROWS + ") i");
+                statement.execute("INSERT INTO microcredits (id, borrower_account_id, amount, remaining_amount, " +
+                        "pending_amount, frozen_amount, interest_rate, created_date, expiration_date, transaction_status) " +
+                        "SELECT 'mc-' || i, 'account-' || (i % " + ACCOUNTS + "), 100, 0, 0, 0, 10, " +
+                        "timestamp '2023-01-01' + (i % 730) * interval '1 day', " +
+                        "timestamp '2023-02-01' + (i % 730) * interval '1 day', 'ACCEPTED' " +
+                        "FROM generate_series(1, " + ROWS / 10 + ") i");
+                statement.execute("INSERT INTO contributions (id, lender_account_id, amount, created_date, " +
+                        "transaction_status, microcredit_id) " +
+                        "SELECT gen_random_uuid()::text, 'account-' || ((i * 13) % " + ACCOUNTS + "), 10, " +
+                        "timestamp '2023-01-01' + (i % 730) * interval '1 day', 'ACCEPTED', " +
+                        "'mc-' || (1 + i % " + ROWS / 10 + ") " +
+                        "FROM generate_series(1, " + ROWS + ") i");
+                statement.execute("ANALYZE");
+            }
+        });
+    }
+
+    @Test
+    public void payments_by_account() {
+        compare("pagos por cuenta",
+                () -> or(Payment.class, "SELECT p.* FROM payments p " +
+                        "WHERE p.sender_account = :id OR p.receiver_account = :id"),
+                () -> paymentRepository.findPaymentsByAccount(ACCOUNT));
+    }
+
+    @Test
+    public void payments_between_dates() {
+        compare("pagos entre fechas",
+                () -> or(Payment.class, "SELECT p.* FROM payments p " +
+                        "WHERE (p.sender_account = :id OR p.receiver_account = :id) " +
+                        "AND p.transaction_date >= :from AND p.transaction_date < :to"),
+                () -> paymentRepository.findPaymentsBetweenDates(ACCOUNT, FROM, TO));
+    }
+
+    @Test
+    public void donations_by_date_range() {
+        compare("donaciones entre fechas",
+                () -> or(Donation.class, "SELECT d.* FROM donations d " +
+                        "WHERE (d.account_id_donor = :id OR d.account_id_beneficiary = :id) " +
+                        "AND (d.created_at BETWEEN :from AND :to OR d.update_at BETWEEN :from AND :to)"),
+                () -> donationRepository.findDonationsByDateRange(ACCOUNT, FROM, TO));
+    }
+
+    @Test
+    public void contributions_by_account() {
+        compare("contribuciones por cuenta",
+                () -> or(Contribution.class, "SELECT c.* FROM contributions c " +
+                        "JOIN microcredits m ON m.id = c.microcredit_id " +
+                        "WHERE c.lender_account_id = :id OR m.borrower_account_id = :id"),
+                () -> contributionRepository.findContributionsByAccount(ACCOUNT));
+    }
+
+    @Test
+    public void contributions_by_date_range() {
+        compare("contribuciones entre fechas",
+                () -> or(Contribution.class, "SELECT c.* FROM contributions c " +
+                        "JOIN microcredits m ON m.id = c.microcredit_id " +
+                        "WHERE (c.lender_account_id = :id OR m.borrower_account_id = :id) " +
+                        "AND (c.created_date BETWEEN :from AND :to OR m.expiration_date BETWEEN :from AND :to " +
+                        "OR m.created_date BETWEEN :from AND :to)"),
+                () -> contributionRepository.findContributionsByDateRange(ACCOUNT, FROM, TO));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> or(Class<T> type, String sql) {
+        var query = entityManager.createNativeQuery(sql, type).setParameter("id", ACCOUNT);
+        if (sql.contains(":from")) {
+            query.setParameter("from", FROM).setParameter("to", TO);
+        }
+        return query.getResultList();
+    }
+
+    private void compare(String name, Supplier<List<?>> orQuery, Supplier<List<?>> unionQuery) {
+        assertThat(unionQuery.get()).hasSameSizeAs(orQuery.get());
+
+        long orMedian = median(orQuery);
+        long unionMedian = median(unionQuery);
+        report("%-28s OR: %8.2f ms   UNION ALL: %8.2f ms   (x%.1f)",
+                name, millis(orMedian), millis(unionMedian), (double) orMedian / unionMedian);
+
+        // Las ramas UNION ALL usan un índice cada una; el OR recorre la tabla. Se deja margen para el ruido.
+        assertThat(unionMedian).isLessThanOrEqualTo(orMedian + orMedian / 10);
+    }
+
+    private long median(Supplier<List<?>> query) {
+        return medianNanos(WARMUP, RUNS, () -> {
+            query.get();
+            entityManager.clear();
+        });
+    }
+}
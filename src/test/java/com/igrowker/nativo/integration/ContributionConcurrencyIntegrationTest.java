@@ -0,0 +1,140 @@
+package com.igrowker.nativo.integration;
+
+import com.igrowker.nativo.dtos.contribution.RequestContributionDto;
+import com.igrowker.nativo.entities.*;
+import com.igrowker.nativo.exceptions.ResourceAlreadyExistsException;
+import com.igrowker.nativo.exceptions.ValidationException;
+import com.igrowker.nativo.repositories.*;
+import com.igrowker.nativo.services.ContributionService;
+import com.igrowker.nativo.utils.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.igrowker.nativo.BenchmarkSupport.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 200 contribuyentes financian a la vez el mismo microcrédito, que sólo admite la mitad de los aportes. Con
+ * leer-restar-guardar el monto restante queda negativo o se pierden descuentos; con el UPDATE condicionado se
+ * aceptan exactamente los aportes que entran y los saldos cierran. Registra el tiempo total y las contribuciones/s y
+ * verifica que la corrida no exceda un tope.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class ContributionConcurrencyIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final int LENDERS = 200;
+    private static final BigDecimal CONTRIBUTION = BigDecimal.valueOf(1_000);
+    private static final BigDecimal REQUESTED = BigDecimal.valueOf(100_000);
+    private static final BigDecimal LENDER_BALANCE = BigDecimal.valueOf(10_000);
+    private static final int MAX_SECONDS = 30;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private ContributionService contributionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private MicrocreditRepository microcreditRepository;
+    @Autowired
+    private ContributionRepository contributionRepository;
+
+    private Account borrowerAccount;
+    private Microcredit microcredit;
+    private final List<String> lenderEmails = new ArrayList<>();
+    private final List<String> lenderAccountIds = new ArrayList<>();
+
+    @BeforeEach
+    public void seed() {
+        deleteAll(contributionRepository, microcreditRepository, accountRepository, userRepository);
+        lenderEmails.clear();
+        lenderAccountIds.clear();
+
+        borrowerAccount = saveMember(userRepository, accountRepository, "concurrente", 40000000L, 0, BigDecimal.ZERO)
+                .account();
+        for (int i = 1; i <= LENDERS; i++) {
+            Member lender = saveMember(userRepository, accountRepository, "concurrente", 40000000L, i, LENDER_BALANCE);
+            lenderEmails.add(lender.user().getEmail());
+            lenderAccountIds.add(lender.account().getId());
+        }
+
+        Microcredit request = new Microcredit();
+        request.setBorrowerAccountId(borrowerAccount.getId());
+        request.setAmount(REQUESTED);
+        request.setTitle("Microcrédito concurrido");
+        request.setDescription("Benchmark de contribuciones concurrentes");
+        microcredit = microcreditRepository.save(request);
+    }
+
+    @Test
+    public void concurrent_lenders_should_fund_exactly_the_requested_amount() throws Exception {
+        LongAdder accepted = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (String email : lenderEmails) {
+            workers.add(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(email, null, List.of()));
+                try {
+                    contributionService.createContribution(new RequestContributionDto(microcredit.getId(), CONTRIBUTION));
+                    accepted.increment();
+                } catch (ValidationException | ResourceAlreadyExistsException e) {
+                    // Sin monto restante o ya ACCEPTED al momento de leerlo.
+                    rejected.increment();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            });
+        }
+        long elapsed = runConcurrently(workers);
+
+        report("%d contribuyentes en %.2f s (%.0f contribuciones/s): %d aceptadas, %d rechazadas",
+                LENDERS, seconds(elapsed), LENDERS / seconds(elapsed), accepted.sum(), rejected.sum());
+
+        // El descuento es un único UPDATE condicionado; esperas largas indicarían bloqueos retenidos de más.
+        assertThat(elapsed).isLessThan(TimeUnit.SECONDS.toNanos(MAX_SECONDS));
+        int expectedAccepted = REQUESTED.divide(CONTRIBUTION).intValue();
+        assertThat(accepted.sum()).isEqualTo(expectedAccepted);
+        assertThat(rejected.sum()).isEqualTo(LENDERS - expectedAccepted);
+
+        Microcredit funded = microcreditRepository.findById(microcredit.getId()).orElseThrow();
+        assertThat(funded.getRemainingAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(funded.getTransactionStatus()).isEqualTo(TransactionStatus.ACCEPTED);
+        assertThat(funded.getContributionCount()).isEqualTo(expectedAccepted);
+        assertThat(funded.getContributedTotal()).isEqualByComparingTo(REQUESTED);
+        assertThat(funded.getTotalOwed()).isEqualByComparingTo(funded.owedFor(REQUESTED));
+        assertThat(contributionRepository.count()).isEqualTo(expectedAccepted);
+
+        assertThat(accountRepository.findById(borrowerAccount.getId()).orElseThrow().getAmount())
+                .isEqualByComparingTo(REQUESTED);
+        BigDecimal lendersTotal = lenderAccountIds.stream()
+                .map(id -> accountRepository.findById(id).orElseThrow().getAmount())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(lendersTotal).isEqualByComparingTo(LENDER_BALANCE.multiply(BigDecimal.valueOf(LENDERS)).subtract(REQUESTED));
+    }
+}
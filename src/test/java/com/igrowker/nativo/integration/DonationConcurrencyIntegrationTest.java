@@ -0,0 +1,127 @@
+package com.igrowker.nativo.integration;
+
+import com.igrowker.nativo.dtos.donation.RequestDonationDto;
+import com.igrowker.nativo.entities.Account;
+import com.igrowker.nativo.exceptions.InsufficientFundsException;
+import com.igrowker.nativo.repositories.AccountRepository;
+import com.igrowker.nativo.repositories.DonationRepository;
+import com.igrowker.nativo.repositories.UserRepository;
+import com.igrowker.nativo.services.DonationService;
+import com.igrowker.nativo.utils.GeneralTransactions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.igrowker.nativo.BenchmarkSupport.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Donaciones del mismo donador mientras su cuenta recibe y envía transferencias. La reserva de la donación no puede
+ * reescribir el saldo leído antes: cada transferencia aceptada tiene que quedar reflejada en el saldo final y cada
+ * donación creada en el monto reservado.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class DonationConcurrencyIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final int THREADS = 4;
+    private static final int OPERATIONS_PER_THREAD = 50;
+    private static final BigDecimal DONATION = BigDecimal.valueOf(100);
+    private static final long TRANSFER = 10;
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000);
+
+    @Autowired
+    private DonationService donationService;
+    @Autowired
+    private GeneralTransactions generalTransactions;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private DonationRepository donationRepository;
+
+    private Member donor;
+    private Account beneficiary;
+    private Account counterpart;
+
+    @BeforeEach
+    public void seed() {
+        deleteAll(donationRepository, accountRepository, userRepository);
+        donor = saveMember(userRepository, accountRepository, "donador", 60000000L, 0, INITIAL_BALANCE);
+        beneficiary = saveMember(userRepository, accountRepository, "donador", 60000000L, 1, BigDecimal.ZERO).account();
+        counterpart = saveMember(userRepository, accountRepository, "donador", 60000000L, 2, INITIAL_BALANCE).account();
+    }
+
+    @Test
+    public void donations_should_NOT_overwrite_concurrent_transfers() throws Exception {
+        String donorAccountId = donor.account().getId();
+        LongAdder donations = new LongAdder();
+        AtomicLong transferred = new AtomicLong();
+
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(donor.user().getEmail(), null, List.of()));
+                try {
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        donationService.createDonationTrue(
+                                new RequestDonationDto(DONATION, beneficiary.getAccountNumber(), false));
+                        donations.increment();
+                    }
+                } catch (InsufficientFundsException e) {
+                    // No debería pasar: el saldo inicial cubre todas las donaciones.
+                    throw new AssertionError(e);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            });
+            boolean incoming = t % 2 == 0;
+            workers.add(() -> {
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    String sender = incoming ? counterpart.getId() : donorAccountId;
+                    String receiver = incoming ? donorAccountId : counterpart.getId();
+                    Boolean done = transactionTemplate.execute(status ->
+                            generalTransactions.transfer(sender, receiver, BigDecimal.valueOf(TRANSFER)));
+                    if (Boolean.TRUE.equals(done)) {
+                        transferred.addAndGet(incoming ? TRANSFER : -TRANSFER);
+                    }
+                }
+                return null;
+            });
+        }
+        long elapsed = runConcurrently(workers);
+
+        report("%d donaciones y %d transferencias en %.2f s", donations.sum(),
+                (long) THREADS * OPERATIONS_PER_THREAD, seconds(elapsed));
+
+        Account account = accountRepository.findById(donorAccountId).orElseThrow();
+        assertThat(donations.sum()).isEqualTo((long) THREADS * OPERATIONS_PER_THREAD);
+        assertThat(account.getAmount()).isEqualByComparingTo(INITIAL_BALANCE.add(BigDecimal.valueOf(transferred.get())));
+        assertThat(account.getReservedAmount()).isEqualByComparingTo(DONATION.multiply(BigDecimal.valueOf(donations.sum())));
+        assertThat(donationRepository.count()).isEqualTo(donations.sum());
+    }
+}
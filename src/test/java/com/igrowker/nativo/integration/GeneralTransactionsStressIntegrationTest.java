@@ -0,0 +1,126 @@
+package com.igrowker.nativo.integration;
+
+import com.igrowker.nativo.entities.Account;
+import com.igrowker.nativo.repositories.AccountRepository;
+import com.igrowker.nativo.utils.GeneralTransactions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.igrowker.nativo.BenchmarkSupport.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transferencias concurrentes entre pocas cuentas contra Postgres real: muchas transacciones compiten por las mismas
+ * filas en los dos sentidos. Sin orden de bloqueo aparecen deadlocks; con read-modify-write se pierden movimientos.
+ * Verifica que cada cuenta termine exactamente con el saldo que resulta de las transferencias aceptadas y que la corrida
+ * completa no exceda un tope de tiempo.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(GeneralTransactions.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class GeneralTransactionsStressIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final int ACCOUNTS = 4;
+    private static final long INITIAL_BALANCE = 1_000;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 1_000;
+    private static final int MAX_SECONDS = 60;
+
+    @Autowired
+    private GeneralTransactions generalTransactions;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<String> accountIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        accountRepository.deleteAll();
+        accountIds.clear();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = accountRepository.save(new Account(null, 1_000L + i, BigDecimal.valueOf(INITIAL_BALANCE),
+                    true, "user-" + i, BigDecimal.ZERO));
+            accountIds.add(account.getId());
+        }
+    }
+
+    @Test
+    public void concurrent_transfers_should_neither_deadlock_nor_lose_updates() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicLongArray expected = new AtomicLongArray(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            expected.set(i, INITIAL_BALANCE);
+        }
+        LongAdder accepted = new LongAdder();
+        LongAdder rejected = new LongAdder();
+
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int sender = random.nextInt(ACCOUNTS);
+                    int receiver = (sender + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    long amount = 1 + random.nextInt(300);
+                    Boolean done = transactionTemplate.execute(status -> generalTransactions.transfer(
+                            accountIds.get(sender), accountIds.get(receiver), BigDecimal.valueOf(amount)));
+                    if (Boolean.TRUE.equals(done)) {
+                        expected.addAndGet(sender, -amount);
+                        expected.addAndGet(receiver, amount);
+                        accepted.increment();
+                    } else {
+                        rejected.increment();
+                    }
+                }
+                return null;
+            });
+        }
+        long elapsed = runConcurrently(workers);
+
+        long total = (long) THREADS * TRANSFERS_PER_THREAD;
+        report("%d transferencias en %.2f s (%.0f/s): %d aceptadas, %d sin fondos",
+                total, seconds(elapsed), total / seconds(elapsed), accepted.sum(), rejected.sum());
+
+        // Cada transferencia son dos UPDATE cortos; sólo esperas de bloqueo encadenadas llevarían la corrida al tope.
+        assertThat(elapsed).isLessThan(TimeUnit.SECONDS.toNanos(MAX_SECONDS));
+        assertThat(accepted.sum() + rejected.sum()).isEqualTo(total);
+        assertThat(accepted.sum()).isPositive();
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            BigDecimal balance = accountRepository.findById(accountIds.get(i)).orElseThrow().getAmount();
+            assertThat(balance).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+            assertThat(balance).isEqualByComparingTo(BigDecimal.valueOf(expected.get(i)));
+            sum = sum.add(balance);
+        }
+        assertThat(sum).isEqualByComparingTo(BigDecimal.valueOf(INITIAL_BALANCE * ACCOUNTS));
+    }
+}
@@ -91,7 +91,7 @@ public class MicrocreditIntegrationTest {
         borrowerToken = "Bearer " + jwtService.generateToken(borrowerUser);
         lenderToken = "Bearer " + jwtService.generateToken(lenderUser);
 
-        microcredit = new Microcredit(null, borrowerAccount.getId(), BigDecimal.valueOf(5000.00), null, null, null, null, "Test de integración", "Realizando test de integración", null, null, null, null, null, null);
+        microcredit = new Microcredit(null, borrowerAccount.getId(), BigDecimal.valueOf(5000.00), null, null, null, null, "Test de integración", "Realizando test de integración", null, null, null, null, null, null, 0, BigDecimal.ZERO, BigDecimal.ZERO);
 
         contribution = new Contribution(null, lenderAccount.getId(), BigDecimal.valueOf(1000.00), null,
                 null, microcredit);
@@ -347,7 +347,7 @@ public class MicrocreditIntegrationTest {
             Microcredit microcreditTest = new Microcredit(null, lenderAccount.getId(), BigDecimal.valueOf(5000.00),
                     null, null, null, null, "Test de integración",
                     "Realizando test de integración", null, null, null,
-                    null, null, null);
+                    null, null, null, 0, BigDecimal.ZERO, BigDecimal.ZERO);
 
             microcreditRepository.save(microcreditTest);
 
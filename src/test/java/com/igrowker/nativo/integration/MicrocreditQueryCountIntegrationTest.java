@@ -0,0 +1,154 @@
+package com.igrowker.nativo.integration;
+
+import com.igrowker.nativo.entities.*;
+import com.igrowker.nativo.repositories.*;
+import com.igrowker.nativo.security.JwtService;
+import org.hamcrest.Matchers;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.igrowker.nativo.BenchmarkSupport.*;
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cuenta las consultas que dispara cada listado de microcréditos. La cantidad no debe depender del tamaño de la
+ * página ni de cuántas contribuciones tenga cada microcrédito: ids de la página, microcréditos con contribuciones,
+ * cuentas y usuarios (más la carga del usuario autenticado).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.igrowker.nativo.integration.MicrocreditQueryCountIntegrationTest$QueryCounter")
+public class MicrocreditQueryCountIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final int MICROCREDITS = 30;
+    private static final int CONTRIBUTIONS_PER_MICROCREDIT = 5;
+    private static final int MAX_QUERIES = 6;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private MicrocreditRepository microcreditRepository;
+    @Autowired
+    private ContributionRepository contributionRepository;
+
+    private String token;
+
+    /**
+     * Cuenta sólo las consultas de los hilos de Tomcat, para no mezclar las de tareas programadas.
+     */
+    public static class QueryCounter implements StatementInspector {
+        private static final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread().getName().startsWith("http-nio")) {
+                count.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    public void seed() {
+        deleteAll(contributionRepository, microcreditRepository, accountRepository, userRepository);
+
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < MICROCREDITS + CONTRIBUTIONS_PER_MICROCREDIT; i++) {
+            Member member = saveMember(userRepository, accountRepository, "usuario", 30000000L, i,
+                    BigDecimal.valueOf(100000));
+            accounts.add(member.account());
+            if (i == 0) {
+                token = "Bearer " + jwtService.generateToken(member.user());
+            }
+        }
+
+        for (int i = 0; i < MICROCREDITS; i++) {
+            Microcredit microcredit = new Microcredit();
+            microcredit.setBorrowerAccountId(accounts.get(i).getId());
+            microcredit.setAmount(BigDecimal.valueOf(5000));
+            microcredit.setTitle("Microcrédito " + i);
+            microcredit.setDescription("Listado paginado");
+            microcredit = microcreditRepository.save(microcredit);
+            microcredit.setTransactionStatus(TransactionStatus.ACCEPTED);
+            microcredit = microcreditRepository.save(microcredit);
+
+            for (int c = 0; c < CONTRIBUTIONS_PER_MICROCREDIT; c++) {
+                contributionRepository.save(new Contribution(null,
+                        accounts.get(MICROCREDITS + c).getId(), BigDecimal.valueOf(1000), null, null, microcredit));
+            }
+        }
+    }
+
+    @Test
+    public void getAll_should_use_the_same_queries_for_any_page_size() {
+        int single = countQueries("/api/microcreditos?size=1", 1);
+        int full = countQueries("/api/microcreditos?size=" + MICROCREDITS, MICROCREDITS);
+
+        assertThat(full).isEqualTo(single);
+        assertThat(full).isLessThanOrEqualTo(MAX_QUERIES);
+    }
+
+    @Test
+    public void getByStatus_should_use_the_same_queries_for_any_page_size() {
+        int single = countQueries("/api/microcreditos/historial-estados/ACCEPTED?size=1", 1);
+        int full = countQueries("/api/microcreditos/historial-estados/ACCEPTED?size=" + MICROCREDITS, MICROCREDITS);
+
+        assertThat(full).isEqualTo(single);
+        assertThat(full).isLessThanOrEqualTo(MAX_QUERIES);
+    }
+
+    @Test
+    public void pages_should_NOT_overlap() {
+        List<String> first = given().baseUri("http://localhost:" + port).header("Authorization", token)
+                .get("/api/microcreditos?page=0&size=10").then().statusCode(200).extract().path("id");
+        List<String> second = given().baseUri("http://localhost:" + port).header("Authorization", token)
+                .get("/api/microcreditos?page=1&size=10").then().statusCode(200).extract().path("id");
+
+        assertThat(first).hasSize(10).doesNotContainAnyElementsOf(second);
+        assertThat(second).hasSize(10);
+    }
+
+    private int countQueries(String path, int expectedItems) {
+        QueryCounter.count.set(0);
+
+        given()
+                .baseUri("http://localhost:" + port)
+                .header("Authorization", token)
+                .when()
+                .get(path)
+                .then()
+                .assertThat()
+                .statusCode(200)
+                .body("$", Matchers.hasSize(expectedItems))
+                .body("[0].contributions", Matchers.hasSize(CONTRIBUTIONS_PER_MICROCREDIT))
+                .body("[0].contributions[0].lenderFullname", Matchers.notNullValue());
+
+        report("%-60s %d consultas", path, QueryCounter.count.get());
+        return QueryCounter.count.get();
+    }
+}
@@ -0,0 +1,210 @@
+package com.igrowker.nativo.integration;
+
+import com.igrowker.nativo.dtos.microcredit.ResponseMicrocreditPaymentDto;
+import com.igrowker.nativo.entities.*;
+import com.igrowker.nativo.repositories.*;
+import com.igrowker.nativo.services.MicrocreditService;
+import com.igrowker.nativo.utils.MicrocreditCounterChecker;
+import com.igrowker.nativo.utils.NotificationService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.igrowker.nativo.BenchmarkSupport.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Devuelve un microcrédito con 1 y con 200 contribuyentes y cuenta las sentencias que emite Hibernate en la
+ * transacción del pago: deben ser las mismas en los dos casos (los créditos a prestamistas viajan en un lote JDBC).
+ * Verifica además los saldos, los estados, los agregados del microcrédito y que los avisos lleguen después del
+ * commit. Registra el tiempo de cada pago y verifica que no exceda un tope.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.igrowker.nativo.integration.MicrocreditSettlementIntegrationTest$StatementCounter")
+public class MicrocreditSettlementIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final int LENDERS = 200;
+    private static final BigDecimal CONTRIBUTION = BigDecimal.valueOf(1_000);
+    private static final BigDecimal BORROWER_BALANCE = BigDecimal.valueOf(1_000_000);
+    private static final int MAX_STATEMENTS = 12;
+    private static final int MAX_SECONDS = 10;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private MicrocreditService microcreditService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private MicrocreditRepository microcreditRepository;
+    @Autowired
+    private ContributionRepository contributionRepository;
+    @Autowired
+    private MicrocreditCounterChecker counterChecker;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Account borrowerAccount;
+    private final List<Account> lenderAccounts = new ArrayList<>();
+
+    /**
+     * Cuenta sólo las sentencias del hilo que está pagando, para no mezclar las de tareas programadas o avisos.
+     */
+    public static class StatementCounter implements StatementInspector {
+        private static final AtomicReference<Thread> thread = new AtomicReference<>();
+        private static final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == thread.get()) {
+                count.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    public void seed() {
+        deleteAll(contributionRepository, microcreditRepository, accountRepository, userRepository);
+        lenderAccounts.clear();
+
+        Member borrower = saveMember(userRepository, accountRepository, "liquidacion", 50000000L, 0, BORROWER_BALANCE);
+        borrowerAccount = borrower.account();
+        for (int i = 1; i <= LENDERS; i++) {
+            lenderAccounts.add(saveMember(userRepository, accountRepository, "liquidacion", 50000000L, i,
+                    BigDecimal.ZERO).account());
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(borrower.user().getEmail(), null, List.of()));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Microcredit fundedMicrocredit(int lenders) {
+        Microcredit request = new Microcredit();
+        request.setBorrowerAccountId(borrowerAccount.getId());
+        request.setAmount(CONTRIBUTION.multiply(BigDecimal.valueOf(lenders)));
+        request.setTitle("Microcrédito a liquidar");
+        request.setDescription("Liquidación en lote");
+        Microcredit microcredit = microcreditRepository.save(request);
+        microcredit.setRemainingAmount(BigDecimal.ZERO);
+        microcredit.setTransactionStatus(TransactionStatus.ACCEPTED);
+        microcredit = microcreditRepository.save(microcredit);
+
+        for (int i = 0; i < lenders; i++) {
+            contributionRepository.save(new Contribution(null, lenderAccounts.get(i).getId(), CONTRIBUTION,
+                    null, null, microcredit));
+        }
+        // Las contribuciones se insertan directo, sin pasar por los agregados: el verificador los completa.
+        counterChecker.check();
+        return microcredit;
+    }
+
+    @Test
+    public void settlement_should_use_the_same_statements_for_any_number_of_lenders() throws Exception {
+        Microcredit single = fundedMicrocredit(1);
+        Microcredit crowded = fundedMicrocredit(LENDERS);
+
+        int singleStatements = pay(single, 1);
+        int crowdedStatements = pay(crowded, LENDERS);
+
+        assertThat(crowdedStatements).isEqualTo(singleStatements);
+        assertThat(crowdedStatements).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @Test
+    public void settlement_should_move_balances_and_complete_every_contribution() throws Exception {
+        Microcredit microcredit = fundedMicrocredit(LENDERS);
+
+        ResponseMicrocreditPaymentDto response = microcreditService.payMicrocredit(microcredit.getId());
+
+        BigDecimal payout = CONTRIBUTION.add(CONTRIBUTION.multiply(microcredit.getInterestRate()).divide(BigDecimal.valueOf(100)));
+        BigDecimal total = payout.multiply(BigDecimal.valueOf(LENDERS));
+        assertThat(response.totalPaidAmount()).isEqualByComparingTo(total);
+        assertThat(accountRepository.findById(borrowerAccount.getId()).orElseThrow().getAmount())
+                .isEqualByComparingTo(BORROWER_BALANCE.subtract(total));
+        assertThat(accountRepository.findAllById(lenderAccounts.stream().map(Account::getId).toList()))
+                .allSatisfy(account -> assertThat(account.getAmount()).isEqualByComparingTo(payout));
+        assertThat(contributionRepository.findAll())
+                .allSatisfy(contribution -> assertThat(contribution.getTransactionStatus()).isEqualTo(TransactionStatus.COMPLETED));
+        Microcredit settled = microcreditRepository.findById(microcredit.getId()).orElseThrow();
+        assertThat(settled.getTransactionStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(settled.getContributionCount()).isEqualTo(LENDERS);
+        assertThat(settled.getContributedTotal()).isEqualByComparingTo(CONTRIBUTION.multiply(BigDecimal.valueOf(LENDERS)));
+        assertThat(settled.getTotalOwed()).isEqualByComparingTo(BigDecimal.ZERO);
+
+        verify(notificationService, timeout(10_000)).sendPaymentNotification(eq("liquidacion0@gmail.com"), anyString(),
+                any(), eq("Descuento cuota del microcrédito"), anyString(), anyString());
+    }
+
+    @Test
+    public void checker_should_repair_only_counters_that_drifted() {
+        Microcredit drifted = fundedMicrocredit(3);
+        Microcredit consistent = fundedMicrocredit(2);
+        drifted.setContributionCount(7);
+        drifted.setTotalOwed(BigDecimal.ONE);
+        microcreditRepository.save(drifted);
+
+        counterChecker.check();
+
+        Microcredit repaired = microcreditRepository.findById(drifted.getId()).orElseThrow();
+        assertThat(repaired.getContributionCount()).isEqualTo(3);
+        assertThat(repaired.getContributedTotal()).isEqualByComparingTo("3000");
+        assertThat(repaired.getTotalOwed()).isEqualByComparingTo("3300");
+        assertThat(microcreditRepository.findById(consistent.getId()).orElseThrow().getTotalOwed())
+                .isEqualByComparingTo("2200");
+        List<String> stillStale = transactionTemplate.execute(status ->
+                microcreditRepository.lockIdsWithStaleContributionCounters());
+        assertThat(stillStale).isEmpty();
+    }
+
+    private int pay(Microcredit microcredit, int lenders) throws Exception {
+        StatementCounter.count.set(0);
+        StatementCounter.thread.set(Thread.currentThread());
+        long begin = System.nanoTime();
+        try {
+            microcreditService.payMicrocredit(microcredit.getId());
+        } finally {
+            StatementCounter.thread.set(null);
+        }
+        long elapsed = System.nanoTime() - begin;
+        report("Liquidación con %d contribuyentes: %d sentencias Hibernate en %.1f ms",
+                lenders, StatementCounter.count.get(), millis(elapsed));
+        assertThat(elapsed).isLessThan(TimeUnit.SECONDS.toNanos(MAX_SECONDS));
+        return StatementCounter.count.get();
+    }
+}
@@ -16,6 +16,8 @@ import com.igrowker.nativo.repositories.AccountRepository;
 import com.igrowker.nativo.repositories.PaymentRepository;
 import com.igrowker.nativo.repositories.UserRepository;
 import com.igrowker.nativo.security.JwtService;
+import com.igrowker.nativo.security.PaymentQrSigner;
+import com.igrowker.nativo.utils.PaymentExpirySweeper;
 import io.restassured.http.ContentType;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.*;
@@ -32,6 +34,12 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.igrowker.nativo.entities.TransactionStatus.*;
 import static io.restassured.RestAssured.given;
@@ -60,6 +68,10 @@ public class PaymentIntegrationTest {
     @Autowired
     private JwtService jwtService;
     @Autowired
+    private PaymentQrSigner paymentQrSigner;
+    @Autowired
+    private PaymentExpirySweeper paymentExpirySweeper;
+    @Autowired
     private UserRepository userRepository;
     @Autowired
     private AccountRepository accountRepository;
@@ -129,7 +141,7 @@ public class PaymentIntegrationTest {
             String baseURL = "http://localhost:" + port;
             Payment payment = new Payment(null, savedUser.getName(), savedUser.getSurname(), savedAccount.getId(),
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(250.00),
-                    LocalDateTime.now(), ACCEPTED, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    LocalDateTime.now(), ACCEPTED, "un chicle tutti frutti");
             paymentRepository.save(payment);
 
             given().baseUri(baseURL)
@@ -191,7 +203,7 @@ public class PaymentIntegrationTest {
             String baseURL = "http://localhost:" + port;
             Payment payment = new Payment(null, savedUser.getName(), savedUser.getSurname(), savedAccount.getId(),
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(),  BigDecimal.valueOf(250.00),
-                    LocalDateTime.now(), TransactionStatus.PENDING, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    LocalDateTime.now(), TransactionStatus.PENDING, "un chicle tutti frutti");
             paymentRepository.save(payment);
 
             given().baseUri(baseURL)
@@ -269,7 +281,7 @@ public class PaymentIntegrationTest {
             Payment payment = new Payment(null, savedUser.getName(), savedUser.getSurname(), savedAccount.getId(),
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(250.00),
                     LocalDateTime.now(), ACCEPTED,
-                    "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    "un chicle tutti frutti");
             paymentRepository.save(payment);
 
             given().baseUri(baseURL)
@@ -352,7 +364,7 @@ public class PaymentIntegrationTest {
             String toDate = LocalDateTime.now().plusDays(1).toLocalDate().toString();
             Payment payment = new Payment(null, savedUser.getName(), savedUser.getSurname(), savedAccount.getId(),
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(250.00),
-                   LocalDateTime.now() , ACCEPTED, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                   LocalDateTime.now() , ACCEPTED, "un chicle tutti frutti");
             paymentRepository.save(payment);
 
             given().baseUri(baseURL)
@@ -456,7 +468,7 @@ public class PaymentIntegrationTest {
             String baseURL = "http://localhost:" + port;
             Payment payment = new Payment(null, savedUser.getName(), savedUser.getSurname(), savedAccount.getId(),
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(250.00),
-                    LocalDateTime.now(), ACCEPTED, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    LocalDateTime.now(), ACCEPTED, "un chicle tutti frutti");
             paymentRepository.save(payment);
 
             given().baseUri(baseURL)
@@ -516,7 +528,7 @@ public class PaymentIntegrationTest {
             String baseURL = "http://localhost:" + port;
             Payment payment = new Payment(null, savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(),
                     savedUser.getName(), savedUser.getSurname(), savedAccount.getId(), BigDecimal.valueOf(250.00),
-                    LocalDateTime.now(), ACCEPTED, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    LocalDateTime.now(), ACCEPTED, "un chicle tutti frutti");
             paymentRepository.save(payment);
 
             given().baseUri(baseURL)
@@ -574,7 +586,7 @@ public class PaymentIntegrationTest {
                     .body("receiverAccount", Matchers.is(savedAccount.getAccountNumber().toString()))
                     .body("amount", Matchers.is(paymentRequestDto.amount().floatValue()))
                     .body("description", Matchers.is(paymentRequestDto.description()))
-                    .body("qr", Matchers.notNullValue())
+                    .body("qrUrl", Matchers.notNullValue())
                     .extract()
                     .body()
                     .jsonPath()
@@ -615,10 +627,10 @@ public class PaymentIntegrationTest {
 
             Payment incomingPayment = new Payment(null, null, null, null,
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(250.00),
-                    LocalDateTime.now(), PENDING, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    LocalDateTime.now(), PENDING, "un chicle tutti frutti");
             Payment payment = paymentRepository.save(incomingPayment);
 
-            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(), savedAccount.getId(), "ACCEPTED");
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(), savedAccount.getId(), "ACCEPTED", paymentQrSigner.sign(payment));
 
             var response = given().baseUri(baseURL)
                     .header("Authorization", token)
@@ -656,11 +668,11 @@ public class PaymentIntegrationTest {
 
             Payment incomingPayment = new Payment(null, null, null, null,
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(250.00),
-                    LocalDateTime.now(), PENDING, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    LocalDateTime.now(), PENDING, "un chicle tutti frutti");
             Payment payment = paymentRepository.save(incomingPayment);
 
             RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(),
-                    savedAccount.getId(), "DENIED");
+                    savedAccount.getId(), "DENIED", paymentQrSigner.sign(payment));
 
             var response = given().baseUri(baseURL)
                     .header("Authorization", token)
@@ -703,9 +715,9 @@ public class PaymentIntegrationTest {
             String tokenNotFound = jwtService.generateToken(savedUserNotFound);
             Payment incomingPayment = new Payment(null, null, null, null,
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(250.00),
-                    LocalDateTime.now(), PENDING, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    LocalDateTime.now(), PENDING, "un chicle tutti frutti");
             Payment payment = paymentRepository.save(incomingPayment);
-            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(), savedAccount.getId(), "ACCEPTED");
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(), savedAccount.getId(), "ACCEPTED", paymentQrSigner.sign(payment));
 
             given().baseUri(baseURL)
                     .header("Authorization", "Bearer " + tokenNotFound)
@@ -724,7 +736,9 @@ public class PaymentIntegrationTest {
         public void when_call_process_payment_with_non_existent_payment_should_return_404() throws Exception{
             String baseURL = "http://localhost:" + port;
 
-            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("1", savedAccount.getId(), "ACCEPTED");
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("1", savedAccount.getId(), "ACCEPTED",
+                    paymentQrSigner.sign(new Payment("1", null, null, null, null, null, savedAccount2.getId(),
+                            BigDecimal.valueOf(250.00), LocalDateTime.now(), PENDING, null)));
             given().baseUri(baseURL)
                     .header("Authorization", token)
                     .body(requestProcessPaymentDto)
@@ -744,12 +758,12 @@ public class PaymentIntegrationTest {
 
             Payment incomingPayment = new Payment(null, null, null, null,
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(250.00),
-                    LocalDateTime.now(), PENDING, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    LocalDateTime.now(), PENDING, "un chicle tutti frutti");
             Payment pendingPayment = paymentRepository.save(incomingPayment);
             pendingPayment.setTransactionStatus(ACCEPTED);
             Payment payment = paymentRepository.save(pendingPayment);
 
-            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(), savedAccount.getId(), "ACCEPTED");
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(), savedAccount.getId(), "ACCEPTED", paymentQrSigner.sign(payment));
 
 
             given().baseUri(baseURL)
@@ -771,13 +785,13 @@ public class PaymentIntegrationTest {
 
             Payment incomingPayment = new Payment(null, null, null, null,
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(250.00),
-                    LocalDateTime.now(), PENDING, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    LocalDateTime.now(), PENDING, "un chicle tutti frutti");
             Payment elapsedPayment = paymentRepository.save(incomingPayment);
             LocalDateTime elapsed = LocalDateTime.now().minusMinutes(45);
             elapsedPayment.setTransactionDate(elapsed);
             Payment payment = paymentRepository.save(elapsedPayment);
 
-            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(), savedAccount.getId(), "ACCEPTED");
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(), savedAccount.getId(), "ACCEPTED", paymentQrSigner.sign(payment));
 
 
             given().baseUri(baseURL)
@@ -791,6 +805,64 @@ public class PaymentIntegrationTest {
                     .body()
                     .assertThat()
                     .statusCode(400);
+
+            // pagar-qr lo rechaza sin tocar la base; el barrido programado lo deja EXPIRED.
+            assertThat(paymentRepository.findById(payment.getId()).get().getTransactionStatus()).isEqualTo(PENDING);
+            paymentExpirySweeper.expireStale();
+            assertThat(paymentRepository.findById(payment.getId()).get().getTransactionStatus())
+                    .isEqualTo(EXPIRED);
+        }
+
+        @Test
+        public void when_call_process_payment_concurrently_only_one_payer_should_succeed() throws Exception{
+            String baseURL = "http://localhost:" + port;
+            int payers = 8;
+
+            Payment incomingPayment = new Payment(null, null, null, null,
+                    savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(250.00),
+                    LocalDateTime.now(), PENDING, "un chicle tutti frutti");
+            Payment payment = paymentRepository.save(incomingPayment);
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(),
+                    savedAccount.getId(), "ACCEPTED", paymentQrSigner.sign(payment));
+
+            ExecutorService executor = Executors.newFixedThreadPool(payers);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> statuses = new ArrayList<>();
+            try {
+                for (int i = 0; i < payers; i++) {
+                    statuses.add(executor.submit(() -> {
+                        start.await();
+                        return given().baseUri(baseURL)
+                                .header("Authorization", token)
+                                .body(requestProcessPaymentDto)
+                                .contentType(ContentType.JSON)
+                                .when()
+                                .post("/api/pagos/pagar-qr")
+                                .then()
+                                .extract()
+                                .statusCode();
+                    }));
+                }
+                start.countDown();
+                int accepted = 0;
+                for (Future<Integer> status : statuses) {
+                    int code = status.get();
+                    if (code == 200) {
+                        accepted++;
+                    } else {
+                        assertThat(code).isEqualTo(400);
+                    }
+                }
+                assertThat(accepted).isEqualTo(1);
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getTransactionStatus()).isEqualTo(ACCEPTED);
+            assertThat(accountRepository.findById(savedAccount.getId()).orElseThrow().getAmount())
+                    .isEqualByComparingTo(BigDecimal.valueOf(2250));
+            assertThat(accountRepository.findById(savedAccount2.getId()).orElseThrow().getAmount())
+                    .isEqualByComparingTo(BigDecimal.valueOf(2750));
         }
 
         @Test
@@ -799,10 +871,10 @@ public class PaymentIntegrationTest {
 
             Payment incomingPayment = new Payment(null, null, null, null,
                     savedUser2.getName(), savedUser2.getSurname(), savedAccount2.getId(), BigDecimal.valueOf(15250.00),
-                    LocalDateTime.now(), PENDING, "un chicle tutti frutti", "lalalalala-qr-lalalala");
+                    LocalDateTime.now(), PENDING, "un chicle tutti frutti");
             Payment payment = paymentRepository.save(incomingPayment);
 
-            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(), savedAccount.getId(), "ACCEPTED");
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto(payment.getId(), savedAccount.getId(), "ACCEPTED", paymentQrSigner.sign(payment));
             given().baseUri(baseURL)
                     .header("Authorization", token)
                     .body(requestProcessPaymentDto)
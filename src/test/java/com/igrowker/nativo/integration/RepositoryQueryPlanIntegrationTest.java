@@ -0,0 +1,269 @@
+package com.igrowker.nativo.integration;
+
+import com.igrowker.nativo.entities.*;
+import com.igrowker.nativo.repositories.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que cada consulta de los repositorios use un índice. Se captura el SQL que genera Hibernate, se pide el
+ * plan genérico con EXPLAIN y se falla si aparece un Seq Scan o si no se usa ninguno de los índices esperados.
+ * Con enable_seqscan apagado el planner sólo vuelve a un Seq Scan cuando no hay índice que sirva para la consulta.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.igrowker.nativo.integration.RepositoryQueryPlanIntegrationTest$SqlRecorder")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class RepositoryQueryPlanIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 9, 1, 10, 0);
+    private static final String ACCOUNT = "account-0";
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private DonationRepository donationRepository;
+    @Autowired
+    private MicrocreditRepository microcreditRepository;
+    @Autowired
+    private ContributionRepository contributionRepository;
+    @Autowired
+    private AccountActivityRepository accountActivityRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Guarda los SELECT que prepara Hibernate para poder pedir su plan.
+     */
+    public static class SqlRecorder implements StatementInspector {
+        private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    public void seed() {
+        for (int i = 0; i < 50; i++) {
+            String accountId = "account-" + i;
+            String otherId = "account-" + ((i + 1) % 50);
+            TransactionStatus status = TransactionStatus.values()[i % TransactionStatus.values().length];
+
+            accountRepository.save(new Account(null, 100000L + i, BigDecimal.TEN, true, "user-" + i, BigDecimal.ZERO));
+
+            Payment payment = new Payment();
+            payment.setSenderAccount(accountId);
+            payment.setReceiverAccount(otherId);
+            payment.setAmount(BigDecimal.ONE);
+            payment.setTransactionDate(NOW.minusDays(i));
+            payment.setTransactionStatus(status);
+            paymentRepository.save(payment);
+
+            Donation donation = new Donation();
+            donation.setAccountIdDonor(accountId);
+            donation.setAccountIdBeneficiary(otherId);
+            donation.setAmount(BigDecimal.ONE);
+            donation.setAnonymousDonation(false);
+            donation.setCreatedAt(NOW.minusDays(i));
+            donation.setStatus(status);
+            donationRepository.save(donation);
+
+            Microcredit microcredit = new Microcredit();
+            microcredit.setBorrowerAccountId(accountId);
+            microcredit.setAmount(BigDecimal.TEN);
+            microcredit.setRemainingAmount(BigDecimal.TEN);
+            microcredit.setCreatedDate(NOW.minusDays(i));
+            microcredit.setExpirationDate(NOW.plusDays(i));
+            microcredit.setTransactionStatus(status);
+            microcreditRepository.save(microcredit);
+
+            Contribution contribution = new Contribution();
+            contribution.setLenderAccountId(otherId);
+            contribution.setAmount(BigDecimal.ONE);
+            contribution.setCreatedDate(NOW.minusDays(i));
+            contribution.setTransactionStatus(status);
+            contribution.setMicrocredit(microcredit);
+            contributionRepository.save(contribution);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+                statement.execute("SET enable_seqscan = off");
+            }
+        });
+    }
+
+    @Test
+    public void account_queries_should_use_indexes() {
+        assertUsesIndex(() -> accountRepository.findByAccountNumber(100001L), "idx_accounts_account_number");
+        assertUsesIndex(() -> accountRepository.findAccountByNumberAccount(100001L), "idx_accounts_account_number");
+        assertUsesIndex(() -> accountRepository.findByUserId("user-1"), "idx_accounts_user_id");
+    }
+
+    @Test
+    public void user_queries_should_use_indexes() {
+        assertUsesIndex(() -> userRepository.findByEmail("mail@mail.com"), "uk");
+        assertUsesIndex(() -> userRepository.findByDni(1L), "uk");
+    }
+
+    @Test
+    public void payment_queries_should_use_indexes() {
+        assertUsesEveryIndex(() -> paymentRepository.findPaymentsByAccount(ACCOUNT),
+                "idx_payments_sender", "idx_payments_receiver_date");
+        assertUsesEveryIndex(() -> paymentRepository.findPaymentsByStatus(ACCOUNT, TransactionStatus.ACCEPTED),
+                "idx_payments_sender", "idx_payments_receiver_date");
+        assertUsesEveryIndex(() -> paymentRepository.findPaymentsBetweenDates(ACCOUNT, NOW.minusDays(10), NOW),
+                "idx_payments_sender_date", "idx_payments_receiver_date");
+        assertUsesEveryIndex(() -> paymentRepository.findPaymentsByTransactionDate(ACCOUNT, NOW.minusDays(10), NOW),
+                "idx_payments_sender_date", "idx_payments_receiver_date");
+        assertUsesIndex(() -> paymentRepository.findPaymentsAsClient(ACCOUNT), "idx_payments_sender");
+        assertUsesIndex(() -> paymentRepository.findPaymentsAsSeller(ACCOUNT), "idx_payments_receiver_date");
+        assertUsesIndex(() -> paymentRepository.findPendingPaymentsBySender(ACCOUNT), "idx_payments_sender");
+    }
+
+    @Test
+    public void donation_queries_should_use_indexes() {
+        assertUsesIndex(() -> donationRepository.findByStatus(TransactionStatus.PENDING), "idx_donations_status_created");
+        assertUsesIndex(() -> donationRepository.findAllByAccountIdDonor(ACCOUNT), "idx_donations_donor_created");
+        assertUsesIndex(() -> donationRepository.findAllByAccountIdBeneficiary(ACCOUNT),
+                "idx_donations_beneficiary_created");
+        assertUsesEveryIndex(() -> donationRepository.findDonationsByAccount(ACCOUNT),
+                "idx_donations_donor_created", "idx_donations_beneficiary_created");
+        assertUsesEveryIndex(() -> donationRepository.findDonationsByStatus(ACCOUNT, TransactionStatus.ACCEPTED),
+                "idx_donations_donor_created", "idx_donations_beneficiary_created");
+        assertUsesEveryIndex(() -> donationRepository.findDonationsByDateRange(ACCOUNT, NOW.minusDays(10), NOW),
+                "idx_donations_donor_created", "idx_donations_beneficiary_created");
+    }
+
+    @Test
+    public void microcredit_queries_should_use_indexes() {
+        assertUsesIndex(() -> microcreditRepository.findAllByBorrowerAccountId(ACCOUNT), "idx_microcredits_borrower");
+        assertUsesIndex(() -> microcreditRepository.findByTransactionStatusAndBorrowerAccountId(
+                TransactionStatus.PENDING, ACCOUNT), "idx_microcredits_borrower");
+        assertUsesIndex(() -> microcreditRepository.findMicrocreditsBetweenDates(ACCOUNT, NOW.minusDays(10), NOW),
+                "idx_microcredits_borrower_created");
+        assertUsesIndex(() -> microcreditRepository.findMicrocreditsByDateAndTransactionStatus(ACCOUNT,
+                NOW.minusDays(10), NOW, TransactionStatus.PENDING), "idx_microcredits_borrower");
+        assertUsesIndex(() -> microcreditRepository.findByTransactionStatus(TransactionStatus.PENDING),
+                "idx_microcredits_status_expiration");
+        assertUsesIndex(() -> microcreditRepository.findPageIds(PageRequest.of(0, 20)), "idx_microcredits_created");
+        assertUsesIndex(() -> microcreditRepository.findPageIdsByTransactionStatus(TransactionStatus.PENDING,
+                PageRequest.of(0, 20)), "idx_microcredits_status_created");
+        assertUsesIndex(() -> microcreditRepository.findWithContributionsByIdIn(List.of("id-0", "id-1")),
+                "microcredits_pkey", "idx_contributions_microcredit");
+        assertUsesIndex(() -> microcreditRepository.findByBorrowerAccountIdAndTransactionStatus(ACCOUNT,
+                TransactionStatus.PENDING), "idx_microcredits_borrower");
+        assertUsesIndex(() -> microcreditRepository.findByExpirationDateBeforeAndTransactionStatusNotIn(NOW,
+                List.of(TransactionStatus.EXPIRED, TransactionStatus.COMPLETED)), "idx_microcredits_expiration",
+                "idx_microcredits_status_expiration");
+    }
+
+    @Test
+    public void contribution_queries_should_use_indexes() {
+        assertUsesIndex(() -> contributionRepository.findAllByLenderAccountId(ACCOUNT),
+                "idx_contributions_lender_created");
+        assertUsesIndex(() -> contributionRepository.findByTransactionStatusAndLenderAccountId(
+                TransactionStatus.PENDING, ACCOUNT), "idx_contributions_lender_created");
+        assertUsesIndex(() -> contributionRepository.findContributionsBetweenDates(ACCOUNT, NOW.minusDays(10), NOW),
+                "idx_contributions_lender_created");
+        assertUsesIndex(() -> contributionRepository.findContributionsByDateAndTransactionStatus(ACCOUNT,
+                NOW.minusDays(10), NOW, TransactionStatus.PENDING), "idx_contributions_lender_created");
+        assertUsesIndex(() -> contributionRepository.findByTransactionStatus(TransactionStatus.PENDING),
+                "idx_contributions_status_created");
+        assertUsesEveryIndex(() -> contributionRepository.findContributionsByAccount(ACCOUNT),
+                "idx_contributions_lender_created", "idx_microcredits_borrower", "idx_contributions_microcredit");
+        assertUsesEveryIndex(() -> contributionRepository.findContributionsByStatus(ACCOUNT, TransactionStatus.PENDING),
+                "idx_contributions_lender_created", "idx_microcredits_borrower", "idx_contributions_microcredit");
+        assertUsesEveryIndex(() -> contributionRepository.findContributionsByDateRange(ACCOUNT, NOW.minusDays(10), NOW),
+                "idx_contributions_lender_created", "idx_microcredits_borrower", "idx_contributions_microcredit");
+    }
+
+    @Test
+    public void account_activity_queries_should_use_indexes() {
+        assertUsesIndex(() -> accountActivityRepository.findBySourceId("source"), "idx_account_activity_source");
+        assertUsesIndex(() -> accountActivityRepository.findPageBetweenDates(ACCOUNT, NOW.minusDays(10), NOW,
+                NOW, "", PageRequest.of(0, 20)), "idx_account_activity_owner");
+        assertUsesIndex(() -> accountActivityRepository.findPageByStatus(ACCOUNT, TransactionStatus.ACCEPTED,
+                NOW, "", PageRequest.of(0, 20)), "idx_account_activity_owner");
+    }
+
+    private void assertUsesIndex(Runnable query, String... expectedIndexes) {
+        String plan = planOf(query);
+        assertThat(plan).doesNotContain("Seq Scan");
+        assertThat(plan).containsAnyOf(expectedIndexes);
+    }
+
+    // Para las consultas UNION ALL: cada rama tiene que entrar por su propio índice.
+    private void assertUsesEveryIndex(Runnable query, String... expectedIndexes) {
+        String plan = planOf(query);
+        assertThat(plan).doesNotContain("Seq Scan");
+        assertThat(plan).contains(expectedIndexes);
+    }
+
+    private String planOf(Runnable query) {
+        SqlRecorder.statements.clear();
+        query.run();
+        assertThat(SqlRecorder.statements).as("SQL capturado").isNotEmpty();
+        return explain(SqlRecorder.statements.get(0));
+    }
+
+    // GENERIC_PLAN (Postgres 16) permite explicar la consulta con los parámetros sin valores: $1, $2, ...
+    private String explain(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numbered)) {
+                while (resultSet.next()) {
+                    lines.add(resultSet.getString(1));
+                }
+            }
+        });
+        return String.join("\n", lines);
+    }
+}
@@ -3,12 +3,18 @@ package com.igrowker.nativo.unit.controllers;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
@@ -19,6 +25,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.igrowker.nativo.controllers.AccountController;
@@ -27,6 +34,7 @@ import com.igrowker.nativo.dtos.account.ResponseOtherAccountDto;
 import com.igrowker.nativo.dtos.account.ResponseSelfAccountDto;
 import com.igrowker.nativo.exceptions.InvalidUserCredentialsException;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
+import com.igrowker.nativo.security.IdempotencyStore;
 import com.igrowker.nativo.security.JwtService;
 import com.igrowker.nativo.services.AccountService;
 
@@ -40,6 +48,9 @@ public class AccountControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -166,6 +177,33 @@ public class AccountControllerTest {
                     .andExpect(status().isNotFound());
         }
     }
-}
-
 
+    @Nested
+    class ExportHistoryTests {
+        @Test
+        public void exportHistoryShouldStreamNdjson() throws Exception {
+            // El cuerpo corre en otro hilo: se lo retiene hasta que el request inicial terminó de escribir headers,
+            // y se espera a que termine antes del dispatch, porque MockHttpServletResponse no es thread-safe.
+            CountDownLatch requestDone = new CountDownLatch(1);
+            when(accountService.exportHistory()).thenReturn(outputStream -> {
+                try {
+                    requestDone.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                outputStream.write("{\"id\":\"payment1\"}\n".getBytes(StandardCharsets.UTF_8));
+            });
+
+            MvcResult result = mockMvc.perform(get("/api/cuenta/historial/exportar"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            requestDone.countDown();
+            result.getAsyncResult();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string("{\"id\":\"payment1\"}\n"));
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.igrowker.nativo.dtos.contribution.ResponseContributionDto;
 import com.igrowker.nativo.entities.TransactionStatus;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
 import com.igrowker.nativo.exceptions.ValidationException;
+import com.igrowker.nativo.security.IdempotencyStore;
 import com.igrowker.nativo.security.JwtService;
 import com.igrowker.nativo.services.ContributionService;
 import org.hamcrest.Matchers;
@@ -39,6 +40,9 @@ public class ContributionControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
     @Autowired
     private MockMvc mockMvc;
 
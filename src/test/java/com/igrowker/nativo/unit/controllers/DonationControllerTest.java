@@ -10,6 +10,7 @@ import com.igrowker.nativo.entities.TransactionStatus;
 import com.igrowker.nativo.exceptions.InsufficientFundsException;
 import com.igrowker.nativo.exceptions.InvalidUserCredentialsException;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
+import com.igrowker.nativo.security.IdempotencyStore;
 import com.igrowker.nativo.security.JwtService;
 import com.igrowker.nativo.services.DonationService;
 import org.hamcrest.Matchers;
@@ -42,6 +43,9 @@ public class DonationControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
     // Se necesita importa las dependencias necesarias en el controlador (Servicios)
     @MockBean
     private DonationService donationService;
@@ -5,7 +5,10 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.igrowker.nativo.controllers.MicrocreditController;
 import com.igrowker.nativo.dtos.contribution.RequestContributionDto;
 import com.igrowker.nativo.dtos.contribution.ResponseContributionDto;
+import com.igrowker.nativo.dtos.microcredit.MarketplaceSort;
 import com.igrowker.nativo.dtos.microcredit.RequestMicrocreditDto;
+import com.igrowker.nativo.dtos.microcredit.ResponseMarketplaceMicrocreditDto;
+import com.igrowker.nativo.dtos.microcredit.ResponseMarketplacePageDto;
 import com.igrowker.nativo.dtos.microcredit.ResponseMicrocreditDto;
 import com.igrowker.nativo.dtos.microcredit.ResponseMicrocreditGetDto;
 import com.igrowker.nativo.dtos.microcredit.ResponseMicrocreditPaymentDto;
@@ -13,6 +16,7 @@ import com.igrowker.nativo.entities.TransactionStatus;
 import com.igrowker.nativo.exceptions.InsufficientFundsException;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
 import com.igrowker.nativo.exceptions.ValidationException;
+import com.igrowker.nativo.security.IdempotencyStore;
 import com.igrowker.nativo.security.JwtService;
 import com.igrowker.nativo.services.ContributionService;
 import com.igrowker.nativo.services.MicrocreditService;
@@ -33,6 +37,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -52,6 +58,9 @@ public class MicrocreditControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -351,7 +360,7 @@ public class MicrocreditControllerTest {
                     "Test exitoso",
                     TransactionStatus.ACCEPTED, List.of());
 
-            when(microcreditService.getAll()).thenReturn(List.of(responseMicrocreditGetDto));
+            when(microcreditService.getAll(0, 20)).thenReturn(List.of(responseMicrocreditGetDto));
 
             mockMvc.perform(get("/api/microcreditos"))
                     .andExpect(status().isOk())
@@ -370,7 +379,7 @@ public class MicrocreditControllerTest {
 
         @Test
         public void getAll_ShouldReturnNotFound() throws Exception {
-            when(microcreditService.getAll()).thenThrow(new ResourceNotFoundException("No se encontraron microcréditos."));
+            when(microcreditService.getAll(0, 20)).thenThrow(new ResourceNotFoundException("No se encontraron microcréditos."));
 
             mockMvc.perform(get("/api/microcreditos"))
                     .andExpect(status().isNotFound())
@@ -378,6 +387,49 @@ public class MicrocreditControllerTest {
         }
     }
 
+    @Nested
+    class GetMarketplaceTests {
+        @Test
+        public void getMarketplace_ShouldReturnOk() throws Exception {
+            ResponseMarketplaceMicrocreditDto listing = new ResponseMarketplaceMicrocreditDto("1234", "5678",
+                    "Test title", "Test Description", BigDecimal.valueOf(10000.00), BigDecimal.valueOf(2500.00),
+                    BigDecimal.valueOf(75.00), BigDecimal.valueOf(10), LocalDateTime.of(2024, 9, 17, 18, 20),
+                    LocalDateTime.of(2024, 10, 17, 18, 20));
+
+            when(microcreditService.getMarketplace(MarketplaceSort.FUNDING_PERCENTAGE, true, "cursor", 10))
+                    .thenReturn(new ResponseMarketplacePageDto(List.of(listing), "next"));
+
+            mockMvc.perform(get("/api/microcreditos/marketplace")
+                            .param("sort", "funding_percentage")
+                            .param("direction", "desc")
+                            .param("cursor", "cursor")
+                            .param("size", "10"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.microcredits", Matchers.hasSize(1)))
+                    .andExpect(jsonPath("$.microcredits[0].id", Matchers.is(listing.id())))
+                    .andExpect(jsonPath("$.microcredits[0].fundingPercentage", Matchers.is(75.0)))
+                    .andExpect(jsonPath("$.nextCursor", Matchers.is("next")));
+        }
+
+        @Test
+        public void getMarketplace_ShouldUseDefaults() throws Exception {
+            when(microcreditService.getMarketplace(MarketplaceSort.EXPIRATION_DATE, false, null, 20))
+                    .thenReturn(new ResponseMarketplacePageDto(List.of(), null));
+
+            mockMvc.perform(get("/api/microcreditos/marketplace"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.microcredits", Matchers.hasSize(0)));
+        }
+
+        @Test
+        public void getMarketplace_ShouldReturnBadRequest_WhenSortIsInvalid() throws Exception {
+            mockMvc.perform(get("/api/microcreditos/marketplace").param("sort", "TITLE"))
+                    .andExpect(status().isBadRequest());
+
+            verify(microcreditService, never()).getMarketplace(any(), anyBoolean(), any(), anyInt());
+        }
+    }
+
     @Nested
     class GetOneMicrocreditTests {
         @Test
@@ -428,9 +480,9 @@ public class MicrocreditControllerTest {
                     LocalDateTime.of(2024, 10, 17, 18, 20),
                     "Test title", "Test Description", TransactionStatus.ACCEPTED, List.of());
 
-            when(microcreditService.getMicrocreditsByTransactionStatus("ACCEPTED")).thenReturn(List.of(responseMicrocreditGetDto));
+            when(microcreditService.getMicrocreditsByTransactionStatus("ACCEPTED", 2, 50)).thenReturn(List.of(responseMicrocreditGetDto));
 
-            mockMvc.perform(get("/api/microcreditos/historial-estados/ACCEPTED"))
+            mockMvc.perform(get("/api/microcreditos/historial-estados/ACCEPTED").param("page", "2").param("size", "50"))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$", Matchers.hasSize(1)))
                     .andExpect(jsonPath("$[0].id", Matchers.is(responseMicrocreditGetDto.id())))
@@ -447,7 +499,7 @@ public class MicrocreditControllerTest {
 
         @Test
         public void getMicrocreditsByTransactionStatus_ShouldReturnNotFound() throws Exception {
-            when(microcreditService.getMicrocreditsByTransactionStatus("ACCEPTED")).thenThrow(new ResourceNotFoundException("No se encontraron microcréditos con el estado especificado."));
+            when(microcreditService.getMicrocreditsByTransactionStatus("ACCEPTED", 0, 20)).thenThrow(new ResourceNotFoundException("No se encontraron microcréditos con el estado especificado."));
 
             mockMvc.perform(get("/api/microcreditos/historial-estados/ACCEPTED"))
                     .andExpect(status().isNotFound())
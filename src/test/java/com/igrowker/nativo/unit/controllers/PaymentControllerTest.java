@@ -5,6 +5,7 @@ import com.igrowker.nativo.controllers.PaymentController;
 import com.igrowker.nativo.dtos.payment.*;
 import com.igrowker.nativo.entities.TransactionStatus;
 import com.igrowker.nativo.exceptions.*;
+import com.igrowker.nativo.security.IdempotencyStore;
 import com.igrowker.nativo.security.JwtService;
 import com.igrowker.nativo.services.PaymentService;
 import org.hamcrest.Matchers;
@@ -23,9 +24,12 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -37,6 +41,10 @@ public class PaymentControllerTest {
     private PaymentService paymentService;
     @MockBean
     private JwtService jwtService;
+
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -53,8 +61,8 @@ public class PaymentControllerTest {
 
             var ResponsePaymentDto = new ResponsePaymentDto("abcPayment", "abcReceiver",
                     "Name", "Surname",
-                    BigDecimal.valueOf(100.50), "un chicle tutti frutti", "qrlalalala12");
-            when(paymentService.createQr(any())).thenReturn(ResponsePaymentDto);
+                    BigDecimal.valueOf(100.50), "un chicle tutti frutti", "/api/pagos/qr/abcPayment", QrFormat.PNG, null);
+            when(paymentService.createQr(any(), eq(QrFormat.PNG))).thenReturn(ResponsePaymentDto);
 
             //Act: llamada al método que querés probar.
             mockMvc.perform(post("/api/pagos/crear-qr")
@@ -67,7 +75,7 @@ public class PaymentControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.id", Matchers.is(ResponsePaymentDto.id())))
                     .andExpect(jsonPath("$.receiverAccount", Matchers.is(ResponsePaymentDto.receiverAccount())))
-                    .andExpect(jsonPath("$.qr", Matchers.is(ResponsePaymentDto.qr())))
+                    .andExpect(jsonPath("$.qrUrl", Matchers.is(ResponsePaymentDto.qrUrl())))
                     .andExpect(jsonPath("$.description", Matchers.is(ResponsePaymentDto.description())))
                     .andExpect(jsonPath("$.amount", Matchers.is(ResponsePaymentDto.amount().doubleValue())));
         }
@@ -76,7 +84,7 @@ public class PaymentControllerTest {
         public void create_qr_should_NOT_be_ok() throws Exception {
             var RequestPaymentDto = new RequestPaymentDto("abcReceiver",
                     BigDecimal.valueOf(100.50), "un chicle tutti frutti");
-            when(paymentService.createQr(any())).thenThrow(new InvalidUserCredentialsException(
+            when(paymentService.createQr(any(), any())).thenThrow(new InvalidUserCredentialsException(
                     "La cuenta indicada no coincide con el usuario logueado en la aplicación")
             );
             mockMvc.perform(post("/api/pagos/crear-qr")
@@ -88,6 +96,42 @@ public class PaymentControllerTest {
                     .andExpect(jsonPath("$.message", Matchers.is("La cuenta indicada no coincide con el usuario logueado en la aplicación")));
 
         }
+
+        @Test
+        public void create_qr_as_svg_should_be_ok() throws Exception {
+            var RequestPaymentDto = new RequestPaymentDto("abcReceiver",
+                    BigDecimal.valueOf(100.50), "un chicle tutti frutti");
+            var ResponsePaymentDto = new ResponsePaymentDto("abcPayment", "abcReceiver",
+                    "Name", "Surname", BigDecimal.valueOf(100.50), "un chicle tutti frutti",
+                    null, QrFormat.SVG, "<svg/>");
+            when(paymentService.createQr(any(), eq(QrFormat.SVG))).thenReturn(ResponsePaymentDto);
+
+            mockMvc.perform(post("/api/pagos/crear-qr")
+                            .param("format", "svg")
+                            .with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(RequestPaymentDto))
+                    )
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.qrFormat", Matchers.is("SVG")))
+                    .andExpect(jsonPath("$.qr", Matchers.is("<svg/>")))
+                    .andExpect(jsonPath("$.qrUrl", Matchers.nullValue()));
+        }
+
+        @Test
+        public void create_qr_with_unknown_format_should_NOT_be_ok() throws Exception {
+            var RequestPaymentDto = new RequestPaymentDto("abcReceiver",
+                    BigDecimal.valueOf(100.50), "un chicle tutti frutti");
+
+            mockMvc.perform(post("/api/pagos/crear-qr")
+                            .param("format", "gif")
+                            .with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(RequestPaymentDto))
+                    )
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message", Matchers.startsWith("Formato de QR inválido: gif")));
+        }
     }
 
     @Nested
@@ -96,7 +140,7 @@ public class PaymentControllerTest {
         public void process_payment_should_be_ok_due_accepted() throws Exception{
             //Given
             RequestProcessPaymentDto RequestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "SenderAccountID", "ACCEPTED", "qr-firmado");
             ResponseProcessPaymentDto ResponseProcessPaymentDto = new ResponseProcessPaymentDto("TransactionID","Sender Name",
                     "Sender Surname", "SenderAccountNumber", "Receiver Name",
                     "Receiver Surname","ReceiverAccountNumber",
@@ -129,7 +173,7 @@ public class PaymentControllerTest {
         public void process_payment_should_be_ok_due_denied() throws Exception{
             //Given
             RequestProcessPaymentDto RequestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "DENIED");
+                    "SenderAccountID", "DENIED", "qr-firmado");
             ResponseProcessPaymentDto ResponseProcessPaymentDto = new ResponseProcessPaymentDto("TransactionID","Sender Name",
                     "Sender Surname", "SenderAccountNumber", "Receiver Name",
                     "Receiver Surname","ReceiverAccountNumber",
@@ -162,7 +206,7 @@ public class PaymentControllerTest {
         public void process_payment_should_be_NOT_ok_due_credentials() throws Exception{
             //Given
             RequestProcessPaymentDto RequestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "SenderAccountID", "ACCEPTED", "qr-firmado");
             when(paymentService.processPayment(any())).thenThrow(new InvalidUserCredentialsException(
                     "La cuenta indicada no coincide con el usuario logueado en la aplicación")
             );
@@ -178,7 +222,7 @@ public class PaymentControllerTest {
         @Test
         public void process_payment_should_be_NOT_ok_due_payment_not_found() throws Exception{
             RequestProcessPaymentDto RequestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "SenderAccountID", "ACCEPTED", "qr-firmado");
             when(paymentService.processPayment(any())).thenThrow(new ResourceNotFoundException("El Pago solicitado no fue encontrado"));
             mockMvc.perform(post("/api/pagos/pagar-qr")
                             .with(csrf())
@@ -192,7 +236,7 @@ public class PaymentControllerTest {
         @Test
         public void process_payment_should_be_NOT_ok_due_already_processed_payment() throws Exception{
             RequestProcessPaymentDto RequestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "SenderAccountID", "ACCEPTED", "qr-firmado");
             when(paymentService.processPayment(any())).thenThrow(new ExpiredTransactionException("El QR ya fue utilizado."));
             mockMvc.perform(post("/api/pagos/pagar-qr")
                             .with(csrf())
@@ -206,7 +250,7 @@ public class PaymentControllerTest {
         @Test
         public void process_payment_should_be_NOT_ok_due_expired_payment() throws Exception{
             RequestProcessPaymentDto RequestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "SenderAccountID", "ACCEPTED", "qr-firmado");
             when(paymentService.processPayment(any())).thenThrow(new ExpiredTransactionException("El QR no puede ser procesado por exceso en el limite de tiempo. Genere uno nuevo."));
             mockMvc.perform(post("/api/pagos/pagar-qr")
                             .with(csrf())
@@ -220,7 +264,7 @@ public class PaymentControllerTest {
         @Test
         public void process_payment_should_be_NOT_ok_due_insufficient_funds() throws Exception{
             RequestProcessPaymentDto RequestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "SenderAccountID", "ACCEPTED", "qr-firmado");
             when(paymentService.processPayment(any())).thenThrow(new InsufficientFundsException("Fondos insuficientes para realizar el pago."));
             mockMvc.perform(post("/api/pagos/pagar-qr")
                             .with(csrf())
@@ -477,4 +521,40 @@ public class PaymentControllerTest {
         }
     }
 
-}
\ No newline at end of file
+    @Nested
+    class GetQrImageTests {
+        @Test
+        public void get_qr_image_should_be_ok() throws Exception {
+            var qr = new ResponseQrImageDto(new byte[]{1, 2, 3}, "abc123", LocalDateTime.now().plusMinutes(5));
+            when(paymentService.getQrImage("abcPayment")).thenReturn(qr);
+
+            mockMvc.perform(get("/api/pagos/qr/abcPayment"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                    .andExpect(content().bytes(qr.image()))
+                    .andExpect(header().string("ETag", "\"abc123\""))
+                    .andExpect(header().string("Cache-Control", Matchers.startsWith("max-age=")))
+                    .andExpect(header().string("Cache-Control", Matchers.containsString("private")));
+        }
+
+        @Test
+        public void get_qr_image_with_same_etag_should_be_not_modified() throws Exception {
+            var qr = new ResponseQrImageDto(new byte[]{1, 2, 3}, "abc123", LocalDateTime.now().plusMinutes(5));
+            when(paymentService.getQrImage("abcPayment")).thenReturn(qr);
+
+            mockMvc.perform(get("/api/pagos/qr/abcPayment").header("If-None-Match", "\"abc123\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", "\"abc123\""))
+                    .andExpect(content().bytes(new byte[0]));
+        }
+
+        @Test
+        public void get_qr_image_should_NOT_be_ok() throws Exception {
+            when(paymentService.getQrImage("abcPayment"))
+                    .thenThrow(new ResourceNotFoundException("El QR solicitado no existe o ya no está vigente."));
+
+            mockMvc.perform(get("/api/pagos/qr/abcPayment"))
+                    .andExpect(status().isNotFound());
+        }
+    }
+}
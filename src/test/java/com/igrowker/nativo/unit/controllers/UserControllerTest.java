@@ -18,6 +18,7 @@ import com.igrowker.nativo.dtos.user.UpdateMailDto;
 import com.igrowker.nativo.dtos.user.UpdateUserDto;
 import com.igrowker.nativo.exceptions.InvalidDataException;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
+import com.igrowker.nativo.security.IdempotencyStore;
 import com.igrowker.nativo.security.JwtService;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -39,6 +40,9 @@ public class UserControllerTest {
     
     @MockBean
     private JwtService jwtService;
+
+    @MockBean
+    private IdempotencyStore idempotencyStore;
  
     @Autowired
     private MockMvc mockMvc;
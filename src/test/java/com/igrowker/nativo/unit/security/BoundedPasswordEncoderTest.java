@@ -0,0 +1,59 @@
+package com.igrowker.nativo.unit.security;
+
+import com.igrowker.nativo.exceptions.ServiceBusyException;
+import com.igrowker.nativo.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BoundedPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(5, 2, 4, 5000, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    public void encode_and_matches_should_run_on_pool_and_record_metrics() {
+        String hash = encoder.encode("password");
+
+        assertThat(encoder.matches("password", hash)).isTrue();
+        assertThat(encoder.matches("otra", hash)).isFalse();
+        assertThat(meterRegistry.get("nativo.password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("nativo.password.hash").tag("operation", "matches").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("nativo.password.queue").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    public void hash_with_different_cost_should_be_upgraded() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("password");
+
+        assertThat(encoder.upgradeEncoding(oldHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("password"))).isFalse();
+    }
+
+    @Test
+    public void slow_hash_over_timeout_should_throw_service_busy() {
+        BoundedPasswordEncoder slowEncoder = new BoundedPasswordEncoder(14, 1, 1, 1, new SimpleMeterRegistry());
+        try {
+            ServiceBusyException ex = assertThrows(ServiceBusyException.class, () -> slowEncoder.encode("password"));
+            assertThat(ex.getRetryAfterSeconds()).isPositive();
+        } finally {
+            slowEncoder.destroy();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.igrowker.nativo.unit.security;
+
+import com.igrowker.nativo.entities.IdempotencyRecord;
+import com.igrowker.nativo.exceptions.InvalidDataException;
+import com.igrowker.nativo.exceptions.ResourceAlreadyExistsException;
+import com.igrowker.nativo.repositories.IdempotencyRecordRepository;
+import com.igrowker.nativo.security.IdempotencyFilter;
+import com.igrowker.nativo.security.IdempotencyProperties;
+import com.igrowker.nativo.security.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyFilterTest {
+
+    private static final String PATH = "/api/cuenta/agregar";
+
+    @Nested
+    @ExtendWith(MockitoExtension.class)
+    class FilterTests {
+
+        @Mock
+        private HandlerExceptionResolver handlerExceptionResolver;
+
+        @Mock
+        private IdempotencyRecordRepository repository;
+
+        private IdempotencyFilter filter;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        // Simula el controlador: lee el cuerpo (para comprobar que sigue disponible) y responde con un id nuevo.
+        private final FilterChain chain = (request, response) -> {
+            String body = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"call\":" + calls.incrementAndGet() + ",\"body\":" + body + "}");
+        };
+
+        @BeforeEach
+        public void setup() {
+            IdempotencyProperties properties = new IdempotencyProperties();
+            properties.setPaths(List.of(PATH));
+            filter = new IdempotencyFilter(handlerExceptionResolver, new IdempotencyStore(repository, properties), properties);
+            authenticate();
+        }
+
+        @AfterEach
+        public void cleanup() {
+            SecurityContextHolder.clearContext();
+        }
+
+        @Test
+        public void request_without_key_should_pass_through() throws Exception {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filter.doFilter(request(null, "{\"amount\":10}"), response, chain);
+
+            assertThat(response.getContentAsString()).isEqualTo("{\"call\":1,\"body\":{\"amount\":10}}");
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        public void duplicate_should_replay_first_response_without_calling_the_chain() throws Exception {
+            when(repository.claim(any(), any(), any(), any())).thenReturn(1);
+
+            MockHttpServletResponse first = new MockHttpServletResponse();
+            filter.doFilter(request("key-1", "{\"amount\":10}"), first, chain);
+            MockHttpServletResponse second = new MockHttpServletResponse();
+            filter.doFilter(request("key-1", "{\"amount\":10}"), second, chain);
+
+            assertThat(calls.get()).isEqualTo(1);
+            assertThat(second.getStatus()).isEqualTo(first.getStatus());
+            assertThat(second.getContentType()).isEqualTo("application/json");
+            assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+            assertThat(second.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+            assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+            verify(repository, times(1)).claim(any(), any(), any(), any());
+            verify(repository, times(1)).complete(any(), eq(200), eq("application/json"), any(), any());
+        }
+
+        @Test
+        public void same_key_with_another_body_should_be_rejected() throws Exception {
+            when(repository.claim(any(), any(), any(), any())).thenReturn(1);
+
+            filter.doFilter(request("key-1", "{\"amount\":10}"), new MockHttpServletResponse(), chain);
+            filter.doFilter(request("key-1", "{\"amount\":99}"), new MockHttpServletResponse(), chain);
+
+            assertThat(calls.get()).isEqualTo(1);
+            verify(handlerExceptionResolver).resolveException(any(), any(), isNull(),
+                    argThat(ex -> ex instanceof InvalidDataException));
+        }
+
+        @Test
+        public void cached_body_should_be_readable_through_a_read_listener() throws Exception {
+            when(repository.claim(any(), any(), any(), any())).thenReturn(1);
+            StringBuilder read = new StringBuilder();
+            AtomicInteger allDataRead = new AtomicInteger();
+            FilterChain nonBlocking = (request, response) -> {
+                ServletInputStream input = request.getInputStream();
+                input.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        byte[] buffer = new byte[4];
+                        int count;
+                        while (input.isReady() && (count = input.read(buffer)) != -1) {
+                            read.append(new String(buffer, 0, count, StandardCharsets.UTF_8));
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        allDataRead.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        throw new AssertionError(throwable);
+                    }
+                });
+            };
+
+            filter.doFilter(request("key-1", "{\"amount\":10}"), new MockHttpServletResponse(), nonBlocking);
+
+            assertThat(read.toString()).isEqualTo("{\"amount\":10}");
+            assertThat(allDataRead.get()).isEqualTo(1);
+        }
+
+        @Test
+        public void keys_should_be_scoped_by_user() throws Exception {
+            when(repository.claim(any(), any(), any(), any())).thenReturn(1);
+
+            filter.doFilter(request("key-1", "{\"amount\":10}"), new MockHttpServletResponse(), chain);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken("otro@mail.com", null, List.of()));
+            filter.doFilter(request("key-1", "{\"amount\":10}"), new MockHttpServletResponse(), chain);
+
+            assertThat(calls.get()).isEqualTo(2);
+        }
+
+        @Test
+        public void server_errors_should_NOT_be_stored() throws Exception {
+            when(repository.claim(any(), any(), any(), any())).thenReturn(1);
+            FilterChain failing = (request, response) -> {
+                calls.incrementAndGet();
+                ((HttpServletResponse) response).setStatus(503);
+            };
+
+            filter.doFilter(request("key-1", "{}"), new MockHttpServletResponse(), failing);
+            filter.doFilter(request("key-1", "{}"), new MockHttpServletResponse(), failing);
+
+            assertThat(calls.get()).isEqualTo(2);
+            verify(repository, times(2)).release(any());
+            verify(repository, never()).complete(any(), anyInt(), any(), any(), any());
+        }
+
+        @Test
+        public void stored_response_should_be_read_from_the_table_when_not_cached() throws Exception {
+            byte[] body = "{\"call\":7}".getBytes(StandardCharsets.UTF_8);
+            when(repository.findById(any())).thenAnswer(invocation -> Optional.of(new IdempotencyRecord(
+                    invocation.getArgument(0), hashOf("{}"), 201, "application/json", body,
+                    LocalDateTime.now().plusHours(1))));
+
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request("key-1", "{}"), response, chain);
+
+            assertThat(calls.get()).isZero();
+            assertThat(response.getStatus()).isEqualTo(201);
+            assertThat(response.getContentAsString()).isEqualTo("{\"call\":7}");
+            verify(repository, never()).claim(any(), any(), any(), any());
+        }
+
+        @Test
+        public void key_held_by_another_instance_should_answer_conflict() throws Exception {
+            when(repository.claim(any(), any(), any(), any())).thenReturn(0);
+
+            filter.doFilter(request("key-1", "{}"), new MockHttpServletResponse(), chain);
+
+            assertThat(calls.get()).isZero();
+            verify(handlerExceptionResolver).resolveException(any(), any(), isNull(),
+                    argThat(ex -> ex instanceof ResourceAlreadyExistsException));
+        }
+
+        @Test
+        public void concurrent_duplicates_should_wait_for_the_original() throws Exception {
+            when(repository.claim(any(), any(), any(), any())).thenReturn(1);
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            FilterChain slow = (request, response) -> {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                chain.doFilter(request, response);
+            };
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                Future<String> original = executor.submit(() -> send(slow));
+                assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+                List<Future<String>> duplicates = List.of(executor.submit(() -> send(slow)),
+                        executor.submit(() -> send(slow)), executor.submit(() -> send(slow)));
+                Thread.sleep(100);
+                release.countDown();
+
+                String expected = original.get(5, TimeUnit.SECONDS);
+                for (Future<String> duplicate : duplicates) {
+                    assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(expected);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(calls.get()).isEqualTo(1);
+            verify(repository, times(1)).claim(any(), any(), any(), any());
+        }
+
+        private String send(FilterChain target) throws Exception {
+            authenticate();
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request("key-1", "{\"amount\":10}"), response, target);
+            return response.getContentAsString();
+        }
+
+        private void authenticate() {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken("email@gmail.com", null, List.of()));
+        }
+    }
+
+    @Nested
+    @ExtendWith(MockitoExtension.class)
+    class StoreTests {
+
+        @Mock
+        private IdempotencyRecordRepository repository;
+
+        @Test
+        public void cache_should_stay_bounded() {
+            IdempotencyProperties properties = new IdempotencyProperties();
+            properties.setCacheMaxSize(100);
+            IdempotencyStore store = new IdempotencyStore(repository, properties);
+            LocalDateTime now = LocalDateTime.now();
+
+            for (int i = 0; i < 5000; i++) {
+                store.complete("key-" + i, "hash", 200, null, new byte[0], now);
+            }
+
+            assertThat(store.size()).isLessThanOrEqualTo(100);
+        }
+
+        @Test
+        public void expired_responses_should_NOT_be_returned() {
+            IdempotencyStore store = new IdempotencyStore(repository, new IdempotencyProperties());
+            LocalDateTime now = LocalDateTime.now();
+            store.complete("key", "hash", 200, null, new byte[0], now);
+
+            assertThat(store.find("key", now.plusHours(1))).isNotNull();
+            assertThat(store.find("key", now.plusDays(2))).isNull();
+        }
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", PATH);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        return request;
+    }
+
+    private static String hashOf(String body) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
@@ -0,0 +1,115 @@
+package com.igrowker.nativo.unit.security;
+
+import com.igrowker.nativo.entities.Account;
+import com.igrowker.nativo.entities.User;
+import com.igrowker.nativo.exceptions.ExpiredJwtException;
+import com.igrowker.nativo.exceptions.InvalidJwtException;
+import com.igrowker.nativo.security.AuthenticatedUser;
+import com.igrowker.nativo.security.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("una-clave-de-prueba-de-32-bytes-minimo!!".getBytes());
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        jwtService = newJwtService(3600000, 10);
+        user = new User();
+        user.setEmail("email@gmail.com");
+    }
+
+    private JwtService newJwtService(long expiration, int cacheMaxSize) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    private Map<?, ?> cache(JwtService service) {
+        return (Map<?, ?>) ReflectionTestUtils.getField(service, "verifiedTokens");
+    }
+
+    @Nested
+    class VerifiedTokenCacheTests {
+
+        @Test
+        public void valid_token_should_be_verified_once_and_cached() {
+            String token = jwtService.generateToken(user);
+
+            assertThat(jwtService.extractEmail(token)).isEqualTo("email@gmail.com");
+            assertThat(jwtService.isTokenValid(token, user)).isTrue();
+            assertThat(cache(jwtService)).hasSize(1);
+        }
+
+        @Test
+        public void cache_should_not_grow_over_max_size() {
+            for (int i = 0; i < 50; i++) {
+                User other = new User();
+                other.setEmail("user" + i + "@gmail.com");
+                jwtService.extractEmail(jwtService.generateToken(other));
+            }
+
+            assertThat(cache(jwtService).size()).isLessThanOrEqualTo(10);
+        }
+
+        @Test
+        public void tampered_token_should_be_rejected() {
+            String token = jwtService.generateToken(user);
+            jwtService.extractEmail(token);
+            String tampered = token.substring(0, token.length() - 2) + "xx";
+
+            assertThrows(InvalidJwtException.class, () -> jwtService.extractEmail(tampered));
+        }
+
+        @Test
+        public void expired_token_should_throw_expired_exception() {
+            JwtService expiringService = newJwtService(-1000, 10);
+            String token = expiringService.generateToken(user);
+
+            assertThrows(ExpiredJwtException.class, () -> expiringService.extractEmail(token));
+            assertThat(cache(expiringService)).isEmpty();
+        }
+    }
+
+    @Nested
+    class StatelessPrincipalTests {
+
+        @Test
+        public void token_with_account_claims_should_build_principal() {
+            user.setId("userId");
+            Account account = new Account("accountId", 123456789L, BigDecimal.ZERO, true, "userId", BigDecimal.ZERO);
+            String token = jwtService.generateToken(user, account);
+
+            AuthenticatedUser principal = jwtService.extractPrincipal(token).orElseThrow();
+
+            assertThat(principal.userId()).isEqualTo("userId");
+            assertThat(principal.accountId()).isEqualTo("accountId");
+            assertThat(principal.accountNumber()).isEqualTo(123456789L);
+            assertThat(principal.getUsername()).isEqualTo("email@gmail.com");
+        }
+
+        @Test
+        public void token_without_account_claims_should_return_empty() {
+            String token = jwtService.generateToken(user);
+
+            assertThat(jwtService.extractPrincipal(token)).isEmpty();
+        }
+    }
+}
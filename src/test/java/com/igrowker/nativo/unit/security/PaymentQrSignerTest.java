@@ -0,0 +1,77 @@
+package com.igrowker.nativo.unit.security;
+
+import com.igrowker.nativo.entities.Payment;
+import com.igrowker.nativo.entities.TransactionStatus;
+import com.igrowker.nativo.exceptions.ExpiredTransactionException;
+import com.igrowker.nativo.exceptions.InvalidDataException;
+import com.igrowker.nativo.security.PaymentQrSigner;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PaymentQrSignerTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("una-clave-de-prueba-de-32-bytes-minimo!!".getBytes());
+    private static final LocalDateTime ISSUED = LocalDateTime.of(2024, 10, 1, 12, 0);
+    private static final Instant ISSUED_INSTANT = ISSUED.atZone(ZoneId.systemDefault()).toInstant();
+
+    private final PaymentQrSigner signer = new PaymentQrSigner(SECRET);
+
+    private Payment payment() {
+        return new Payment("paymentId", null, null, null, "ReceiverName", "ReceiverSurname", "receiverAccountId",
+                new BigDecimal("100.50"), ISSUED, TransactionStatus.PENDING, "description");
+    }
+
+    @Test
+    public void signed_qr_should_be_verified_with_its_claims() {
+        var claims = signer.verify(signer.sign(payment()), ISSUED_INSTANT.plusSeconds(60));
+
+        assertThat(claims.paymentId()).isEqualTo("paymentId");
+        assertThat(claims.amount()).isEqualByComparingTo("100.50");
+        assertThat(claims.receiverAccount()).isEqualTo("receiverAccountId");
+        assertThat(claims.issuedAt()).isEqualTo(ISSUED_INSTANT);
+    }
+
+    @Test
+    public void qr_older_than_ten_minutes_should_be_expired() {
+        String qr = signer.sign(payment());
+
+        assertThat(signer.verify(qr, ISSUED_INSTANT.plusSeconds(600))).isNotNull();
+        assertThrows(ExpiredTransactionException.class, () -> signer.verify(qr, ISSUED_INSTANT.plusSeconds(601)));
+    }
+
+    @Test
+    public void modified_qr_should_be_rejected() {
+        String qr = signer.sign(payment());
+
+        assertThrows(InvalidDataException.class,
+                () -> signer.verify(qr.replace("100.50", "1.50"), ISSUED_INSTANT));
+        assertThrows(InvalidDataException.class,
+                () -> signer.verify(qr.replace("paymentId", "otherId"), ISSUED_INSTANT));
+        assertThrows(InvalidDataException.class,
+                () -> signer.verify(qr.substring(0, qr.length() - 2) + "AA", ISSUED_INSTANT));
+    }
+
+    @Test
+    public void qr_signed_with_another_key_should_be_rejected() {
+        PaymentQrSigner other = new PaymentQrSigner(Base64.getEncoder()
+                .encodeToString("otra-clave-de-prueba-de-32-bytes-minimo!".getBytes()));
+
+        assertThrows(InvalidDataException.class, () -> signer.verify(other.sign(payment()), ISSUED_INSTANT));
+    }
+
+    @Test
+    public void malformed_qr_should_be_rejected() {
+        for (String qr : new String[]{null, "", "PagoID:paymentId", "PAGO:a:b:c:d:e", "PAGO:a:1:c:1:%%%", "PAGO:a:1:c:1:e:f"}) {
+            assertThrows(InvalidDataException.class, () -> signer.verify(qr, ISSUED_INSTANT), String.valueOf(qr));
+        }
+    }
+}
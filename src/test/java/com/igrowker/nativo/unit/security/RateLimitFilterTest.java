@@ -0,0 +1,245 @@
+package com.igrowker.nativo.unit.security;
+
+import com.igrowker.nativo.exceptions.TooManyRequestsException;
+import com.igrowker.nativo.security.AuthenticatedUser;
+import com.igrowker.nativo.security.PreAuthenticationRateLimitFilter;
+import com.igrowker.nativo.security.RateLimitFilter;
+import com.igrowker.nativo.security.RateLimitProperties;
+import com.igrowker.nativo.security.TokenBucketTable;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class RateLimitFilterTest {
+
+    @Nested
+    class TokenBucketTableTests {
+
+        @Test
+        public void bucket_should_allow_capacity_then_refill_over_time() {
+            TokenBucketTable table = new TokenBucketTable(2, 1, 4, 100);
+            long now = 0;
+
+            assertThat(table.tryConsume("a", now)).isZero();
+            assertThat(table.tryConsume("a", now)).isZero();
+            assertThat(table.tryConsume("a", now)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+            assertThat(table.tryConsume("b", now)).isZero();
+            assertThat(table.tryConsume("a", now + TimeUnit.SECONDS.toNanos(1))).isZero();
+        }
+
+        @Test
+        public void refund_should_return_a_token_without_exceeding_capacity() {
+            TokenBucketTable table = new TokenBucketTable(1, 0.001, 4, 100);
+
+            assertThat(table.tryConsume("a", 0)).isZero();
+            table.refund("a");
+            table.refund("a");
+
+            assertThat(table.tryConsume("a", 0)).isZero();
+            assertThat(table.tryConsume("a", 0)).isPositive();
+        }
+
+        @Test
+        public void table_should_stay_bounded_with_many_keys() {
+            TokenBucketTable table = new TokenBucketTable(5, 1, 16, 1000);
+
+            for (int i = 0; i < 50000; i++) {
+                table.tryConsume("key-" + i, 0);
+            }
+
+            assertThat(table.size()).isLessThanOrEqualTo(1000);
+        }
+    }
+
+    @Nested
+    @ExtendWith(MockitoExtension.class)
+    class FilterTests {
+
+        @Mock
+        private HandlerExceptionResolver handlerExceptionResolver;
+
+        @Mock
+        private FilterChain filterChain;
+
+        private RateLimitFilter filter;
+
+        @BeforeEach
+        public void setup() {
+            RateLimitProperties.Policy login = new RateLimitProperties.Policy();
+            login.setName("login");
+            login.setMethod("POST");
+            login.setPath("/api/autenticacion/inicio-sesion");
+            login.setKey(RateLimitProperties.KeyType.IP);
+            login.setCapacity(2);
+            login.setRefillPerSecond(0.1);
+
+            RateLimitProperties properties = new RateLimitProperties();
+            properties.setPolicies(List.of(login));
+            filter = new RateLimitFilter(handlerExceptionResolver, properties);
+        }
+
+        @AfterEach
+        public void cleanup() {
+            SecurityContextHolder.clearContext();
+        }
+
+        private RateLimitProperties.Policy accountPolicy(String path, int capacity) {
+            RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+            policy.setName(path);
+            policy.setMethod("POST");
+            policy.setPath(path);
+            policy.setKey(RateLimitProperties.KeyType.ACCOUNT);
+            policy.setCapacity(capacity);
+            policy.setRefillPerSecond(0.001);
+            return policy;
+        }
+
+        private RateLimitFilter filterWith(RateLimitProperties.Policy... policies) {
+            RateLimitProperties properties = new RateLimitProperties();
+            properties.setPolicies(List.of(policies));
+            return new RateLimitFilter(handlerExceptionResolver, properties);
+        }
+
+        private void authenticateAs(String accountId) {
+            AuthenticatedUser user = new AuthenticatedUser("user-" + accountId, accountId, 1L, accountId + "@example.com");
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        }
+
+        private MockHttpServletRequest request(String method, String uri) {
+            MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+            request.setRemoteAddr("10.0.0.1");
+            return request;
+        }
+
+        @Test
+        public void requests_over_capacity_should_be_rejected_with_retry_after() throws Exception {
+            for (int i = 0; i < 3; i++) {
+                filter.doFilter(request("POST", "/api/autenticacion/inicio-sesion"), new MockHttpServletResponse(), filterChain);
+            }
+
+            verify(filterChain, times(2)).doFilter(any(), any());
+            ArgumentCaptor<Exception> captor = ArgumentCaptor.forClass(Exception.class);
+            verify(handlerExceptionResolver).resolveException(any(), any(), isNull(), captor.capture());
+            assertThat(captor.getValue()).isInstanceOf(TooManyRequestsException.class);
+            assertThat(((TooManyRequestsException) captor.getValue()).getRetryAfterSeconds()).isEqualTo(10);
+        }
+
+        @Test
+        public void account_policies_should_key_by_the_authenticated_principal() throws Exception {
+            RateLimitFilter accountFilter = filterWith(accountPolicy("/api/pagos/crear-qr", 1));
+
+            authenticateAs("account-a");
+            accountFilter.doFilter(request("POST", "/api/pagos/crear-qr"), new MockHttpServletResponse(), filterChain);
+            accountFilter.doFilter(request("POST", "/api/pagos/crear-qr"), new MockHttpServletResponse(), filterChain);
+            authenticateAs("account-b");
+            accountFilter.doFilter(request("POST", "/api/pagos/crear-qr"), new MockHttpServletResponse(), filterChain);
+
+            // Misma IP: la segunda cuenta tiene su propio bucket.
+            verify(filterChain, times(2)).doFilter(any(), any());
+            verify(handlerExceptionResolver, times(1)).resolveException(any(), any(), isNull(), any());
+        }
+
+        @Test
+        public void rejected_requests_should_not_spend_tokens_of_other_policies() throws Exception {
+            RateLimitFilter accountFilter = filterWith(accountPolicy("/api/pagos/**", 3),
+                    accountPolicy("/api/pagos/crear-qr", 1));
+            authenticateAs("account-a");
+
+            for (int i = 0; i < 3; i++) {
+                accountFilter.doFilter(request("POST", "/api/pagos/crear-qr"), new MockHttpServletResponse(), filterChain);
+            }
+            accountFilter.doFilter(request("POST", "/api/pagos/pagar-qr"), new MockHttpServletResponse(), filterChain);
+            accountFilter.doFilter(request("POST", "/api/pagos/pagar-qr"), new MockHttpServletResponse(), filterChain);
+
+            // Los dos crear-qr rechazados devolvieron su token a la política general.
+            verify(filterChain, times(3)).doFilter(any(), any());
+            verify(handlerExceptionResolver, times(2)).resolveException(any(), any(), isNull(), any());
+        }
+
+        @Test
+        public void requests_not_matching_policy_should_pass() throws Exception {
+            for (int i = 0; i < 5; i++) {
+                filter.doFilter(request("GET", "/api/pagos/todo"), new MockHttpServletResponse(), filterChain);
+            }
+
+            verify(filterChain, times(5)).doFilter(any(), any());
+            verify(handlerExceptionResolver, never()).resolveException(any(), any(), any(), eq(null));
+        }
+    }
+
+    @Nested
+    @ExtendWith(MockitoExtension.class)
+    class PreAuthenticationFilterTests {
+
+        @Mock
+        private HandlerExceptionResolver handlerExceptionResolver;
+
+        @Mock
+        private FilterChain filterChain;
+
+        private PreAuthenticationRateLimitFilter filter;
+
+        @BeforeEach
+        public void setup() {
+            RateLimitProperties properties = new RateLimitProperties();
+            properties.getPreAuthentication().setCapacity(2);
+            properties.getPreAuthentication().setRefillPerSecond(0.1);
+            filter = new PreAuthenticationRateLimitFilter(handlerExceptionResolver, properties);
+        }
+
+        private MockHttpServletRequest request(String remoteAddr, String authorization) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/pagos/todo");
+            request.setRemoteAddr(remoteAddr);
+            if (authorization != null) {
+                request.addHeader("Authorization", authorization);
+            }
+            return request;
+        }
+
+        @Test
+        public void bearer_requests_over_capacity_should_be_rejected_by_ip() throws Exception {
+            for (int i = 0; i < 3; i++) {
+                filter.doFilter(request("10.0.0.1", "Bearer token-invalido"), new MockHttpServletResponse(), filterChain);
+            }
+            filter.doFilter(request("10.0.0.2", "Bearer token-invalido"), new MockHttpServletResponse(), filterChain);
+
+            verify(filterChain, times(3)).doFilter(any(), any());
+            ArgumentCaptor<Exception> captor = ArgumentCaptor.forClass(Exception.class);
+            verify(handlerExceptionResolver).resolveException(any(), any(), isNull(), captor.capture());
+            assertThat(((TooManyRequestsException) captor.getValue()).getRetryAfterSeconds()).isEqualTo(10);
+        }
+
+        @Test
+        public void requests_without_bearer_token_should_pass() throws Exception {
+            for (int i = 0; i < 5; i++) {
+                filter.doFilter(request("10.0.0.1", null), new MockHttpServletResponse(), filterChain);
+            }
+
+            verify(filterChain, times(5)).doFilter(any(), any());
+            verify(handlerExceptionResolver, never()).resolveException(any(), any(), any(), any());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.igrowker.nativo.unit.security;
+
+import com.igrowker.nativo.security.EmailService;
+import com.igrowker.nativo.security.VerificationEmailEvent;
+import com.igrowker.nativo.security.VerificationEmailListener;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class VerificationEmailListenerTest {
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private VerificationEmailListener listener;
+
+    private final VerificationEmailEvent event = new VerificationEmailEvent("email@gmail.com", "123456");
+
+    @BeforeEach
+    public void setup() {
+        listener = new VerificationEmailListener(emailService, taskScheduler, Runnable::run);
+        ReflectionTestUtils.setField(listener, "maxAttempts", 3);
+        ReflectionTestUtils.setField(listener, "backoffMillis", 1000L);
+    }
+
+    // Corre en el acto lo que el listener agenda, como si el backoff ya hubiera pasado.
+    private void runScheduledRetriesNow() {
+        when(taskScheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        });
+    }
+
+    @Test
+    public void email_should_be_sent_with_verification_code() throws Exception {
+        listener.onVerificationEmail(event);
+
+        verify(emailService).sendVerificationEmail(eq("email@gmail.com"), anyString(), contains("123456"));
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    public void failed_send_should_schedule_the_retry_instead_of_sleeping() throws Exception {
+        doThrow(new MessagingException("smtp caído"))
+                .when(emailService).sendVerificationEmail(anyString(), anyString(), anyString());
+
+        Instant before = Instant.now();
+        listener.onVerificationEmail(event);
+
+        ArgumentCaptor<Instant> at = ArgumentCaptor.forClass(Instant.class);
+        verify(taskScheduler).schedule(any(Runnable.class), at.capture());
+        assertThat(at.getValue()).isAfterOrEqualTo(before.plusMillis(1000));
+        verify(emailService, times(1)).sendVerificationEmail(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void failed_send_should_be_retried_until_success() throws Exception {
+        doThrow(new MessagingException("smtp caído"))
+                .doNothing()
+                .when(emailService).sendVerificationEmail(anyString(), anyString(), anyString());
+        runScheduledRetriesNow();
+
+        listener.onVerificationEmail(event);
+
+        verify(emailService, times(2)).sendVerificationEmail(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void retries_should_stop_after_max_attempts() throws Exception {
+        doThrow(new MessagingException("smtp caído"))
+                .when(emailService).sendVerificationEmail(anyString(), anyString(), anyString());
+        runScheduledRetriesNow();
+
+        listener.onVerificationEmail(event);
+
+        verify(emailService, times(3)).sendVerificationEmail(anyString(), anyString(), anyString());
+    }
+}
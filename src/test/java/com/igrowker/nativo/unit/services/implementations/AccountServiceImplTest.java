@@ -0,0 +1,180 @@
+package com.igrowker.nativo.unit.services.implementations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.igrowker.nativo.dtos.account.ResponseTransactionDto;
+import com.igrowker.nativo.dtos.account.ResponseTransactionPageDto;
+import com.igrowker.nativo.entities.AccountActivity;
+import com.igrowker.nativo.entities.TransactionStatus;
+import com.igrowker.nativo.exceptions.InvalidDataException;
+import com.igrowker.nativo.mappers.AccountMapper;
+import com.igrowker.nativo.repositories.AccountActivityRepository;
+import com.igrowker.nativo.repositories.AccountRepository;
+import com.igrowker.nativo.services.implementation.AccountServiceImpl;
+import com.igrowker.nativo.utils.DateFormatter;
+import com.igrowker.nativo.validations.Validations;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountServiceImplTest {
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private AccountMapper accountMapper;
+    @Mock
+    private Validations validations;
+    @Mock
+    private AccountActivityRepository accountActivityRepository;
+    @Mock
+    private DateFormatter dateFormatter;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    @InjectMocks
+    private AccountServiceImpl accountServiceImpl;
+
+    private AccountActivity first;
+    private AccountActivity second;
+
+    @BeforeEach
+    public void setup() {
+        first = new AccountActivity("a2", "accountId", "payment2", "Pago", BigDecimal.TEN, "Juan", "Perez",
+                "accountId", "Ana", "Lopez", "otherId", LocalDateTime.of(2024, 9, 2, 10, 0), null,
+                TransactionStatus.ACCEPTED);
+        second = new AccountActivity("a1", "accountId", "payment1", "Pago", BigDecimal.ONE, "Juan", "Perez",
+                "accountId", "Ana", "Lopez", "otherId", LocalDateTime.of(2024, 9, 1, 10, 0), null,
+                TransactionStatus.ACCEPTED);
+    }
+
+    @Nested
+    class GetAllTests {
+
+        @Test
+        public void full_page_should_return_cursor_that_resumes_after_last_row() {
+            when(validations.getAuthenticatedAccountId()).thenReturn("accountId");
+            when(accountActivityRepository.findPageBetweenDates(eq("accountId"), any(), any(), any(), any(), any()))
+                    .thenReturn(List.of(first, second))
+                    .thenReturn(List.of());
+            when(accountMapper.activitiesToTransactionDtos(anyList())).thenReturn(List.of(
+                    new ResponseTransactionDto("payment2", "Pago", BigDecimal.TEN, "Juan", "Perez", "accountId",
+                            "Ana", "Lopez", "otherId", first.getCreationDate(), null, "ACCEPTED"),
+                    new ResponseTransactionDto("payment1", "Pago", BigDecimal.ONE, "Juan", "Perez", "accountId",
+                            "Ana", "Lopez", "otherId", second.getCreationDate(), null, "ACCEPTED")));
+
+            ResponseTransactionPageDto page = accountServiceImpl.getAll(null, 2);
+
+            assertThat(page.transactions()).hasSize(2);
+            assertThat(page.nextCursor()).isNotNull();
+
+            accountServiceImpl.getAll(page.nextCursor(), 2);
+
+            ArgumentCaptor<LocalDateTime> cursorDate = ArgumentCaptor.forClass(LocalDateTime.class);
+            ArgumentCaptor<String> cursorId = ArgumentCaptor.forClass(String.class);
+            verify(accountActivityRepository, times(2)).findPageBetweenDates(eq("accountId"), any(), any(),
+                    cursorDate.capture(), cursorId.capture(), any(Pageable.class));
+            assertThat(cursorDate.getAllValues().get(1)).isEqualTo(second.getCreationDate());
+            assertThat(cursorId.getAllValues().get(1)).isEqualTo("a1");
+        }
+
+        @Test
+        public void partial_page_should_not_return_cursor() {
+            when(validations.getAuthenticatedAccountId()).thenReturn("accountId");
+            when(accountActivityRepository.findPageBetweenDates(eq("accountId"), any(), any(), any(), any(), any()))
+                    .thenReturn(List.of(first));
+            when(accountMapper.activitiesToTransactionDtos(anyList())).thenReturn(List.of());
+
+            ResponseTransactionPageDto page = accountServiceImpl.getAll(null, 20);
+
+            assertThat(page.nextCursor()).isNull();
+        }
+
+        @Test
+        public void invalid_cursor_should_throw_exception() {
+            when(validations.getAuthenticatedAccountId()).thenReturn("accountId");
+
+            assertThatThrownBy(() -> accountServiceImpl.getAll("no-es-un-cursor", 20))
+                    .isInstanceOf(InvalidDataException.class)
+                    .hasMessage("Cursor de paginación inválido.");
+        }
+    }
+
+    @Nested
+    class ExportHistoryTests {
+
+        @Test
+        public void export_should_write_one_json_line_per_row_and_close_the_cursor() throws Exception {
+            AtomicBoolean closed = new AtomicBoolean();
+            when(validations.getAuthenticatedAccountId()).thenReturn("accountId");
+            when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+            when(accountActivityRepository.streamByOwnerAccountId("accountId"))
+                    .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+            when(accountMapper.activityToTransactionDto(any())).thenAnswer(invocation -> {
+                AccountActivity activity = invocation.getArgument(0);
+                return new ResponseTransactionDto(activity.getSourceId(), activity.getTransaction(),
+                        activity.getAmount(), activity.getSenderName(), activity.getSenderSurname(),
+                        activity.getSenderAccount(), activity.getReceiverName(), activity.getReceiverSurname(),
+                        activity.getReceiverAccount(), activity.getCreationDate(), null, "ACCEPTED");
+            });
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            accountServiceImpl.exportHistory().writeTo(out);
+
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+            assertThat(lines).hasSize(3);
+            assertThat(objectMapper.readTree(lines[0]).get("id").asText()).isEqualTo("payment2");
+            assertThat(objectMapper.readTree(lines[1]).get("id").asText()).isEqualTo("payment1");
+            assertThat(lines[2]).isEmpty();
+            assertThat(closed).isTrue();
+        }
+
+        @Test
+        public void empty_history_should_write_nothing() throws Exception {
+            when(validations.getAuthenticatedAccountId()).thenReturn("accountId");
+            when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+            when(accountActivityRepository.streamByOwnerAccountId("accountId")).thenReturn(Stream.empty());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            accountServiceImpl.exportHistory().writeTo(out);
+
+            assertThat(out.size()).isZero();
+        }
+    }
+}
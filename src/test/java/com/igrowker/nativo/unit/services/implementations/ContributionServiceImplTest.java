@@ -6,16 +6,21 @@ import com.igrowker.nativo.dtos.microcredit.ResponseMicrocreditGetDto;
 import com.igrowker.nativo.entities.*;
 import com.igrowker.nativo.exceptions.InvalidUserCredentialsException;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
+import com.igrowker.nativo.exceptions.ValidationException;
 import com.igrowker.nativo.mappers.ContributionMapper;
 import com.igrowker.nativo.mappers.MicrocreditMapper;
 import com.igrowker.nativo.repositories.AccountRepository;
 import com.igrowker.nativo.repositories.ContributionRepository;
 import com.igrowker.nativo.repositories.MicrocreditRepository;
 import com.igrowker.nativo.repositories.UserRepository;
+import com.igrowker.nativo.repositories.projections.ContributionSummary;
 import com.igrowker.nativo.services.implementation.ContributionServiceImpl;
 import com.igrowker.nativo.services.implementation.MicrocreditServiceImpl;
+import com.igrowker.nativo.utils.AccountActivityRecorder;
+import com.igrowker.nativo.utils.AccountNameResolver;
 import com.igrowker.nativo.utils.DateFormatter;
 import com.igrowker.nativo.utils.GeneralTransactions;
+import com.igrowker.nativo.utils.MicrocreditMarketplace;
 import com.igrowker.nativo.utils.NotificationService;
 import com.igrowker.nativo.validations.Validations;
 import jakarta.mail.MessagingException;
@@ -26,11 +31,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -66,8 +74,17 @@ public class ContributionServiceImplTest {
     @Mock
     private GeneralTransactions generalTransactions;
 
+    @Mock
+    private AccountActivityRecorder activityRecorder;
+
+    @Mock
+    private AccountNameResolver accountNameResolver;
+    @Mock
+    private MicrocreditMarketplace marketplace;
+
     private Microcredit microcredit;
     private Contribution contribution;
+    private ContributionSummary contributionSummary;
     private ResponseMicrocreditGetDto responseMicrocreditGetDto;
     private ResponseContributionDto responseContributionDto;
     private User borrowerUser;
@@ -125,6 +142,17 @@ public class ContributionServiceImplTest {
         contribution.setMicrocredit(microcredit);
         microcredit.setContributions(List.of(contribution));
 
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("id", contribution.getId());
+        summary.put("lenderAccountId", contribution.getLenderAccountId());
+        summary.put("microcreditId", microcredit.getId());
+        summary.put("borrowerAccountId", microcredit.getBorrowerAccountId());
+        summary.put("amount", contribution.getAmount());
+        summary.put("createdDate", contribution.getCreatedDate());
+        summary.put("expiredDateMicrocredit", microcredit.getExpirationDate());
+        summary.put("transactionStatus", contribution.getTransactionStatus());
+        contributionSummary = new SpelAwareProxyProjectionFactory().createProjection(ContributionSummary.class, summary);
+
         responseContributionDto = new ResponseContributionDto("1111", lenderAccount.getId(),
                 "Jane Doe", "John Doe", microcredit.getId(), contribution.getAmount(),
                 contribution.getCreatedDate(), microcredit.getExpirationDate(), contribution.getTransactionStatus());
@@ -142,11 +170,12 @@ public class ContributionServiceImplTest {
 
             when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
             when(validations.isUserAccountMismatch(microcredit.getBorrowerAccountId())).thenReturn(true);
-            when(validations.validateTransactionUserFunds(requestContributionDto.amount())).thenReturn(true);
+            when(generalTransactions.transfer(lenderAccount.getId(), microcredit.getBorrowerAccountId(),
+                    contribution.getAmount())).thenReturn(true);
             when(microcreditRepository.findById(microcredit.getId())).thenReturn(Optional.of(microcredit));
             when(contributionMapper.requestDtoToContribution(requestContributionDto)).thenReturn(contribution);
+            when(microcreditRepository.fundPending(microcredit.getId(), requestContributionDto.amount())).thenReturn(1);
             when(contributionRepository.save(contribution)).thenReturn(contribution);
-            when(microcreditRepository.save(any(Microcredit.class))).thenReturn(microcredit);
             when(validations.fullname(lenderAccount.getId())).thenReturn(responseContributionDto.lenderFullname());
             when(validations.fullname(borrowerAccount.getId())).thenReturn(responseContributionDto.borrowerFullname());
             when(contributionMapper.responseContributionDto(contribution, responseContributionDto.lenderFullname(),
@@ -162,13 +191,73 @@ public class ContributionServiceImplTest {
             assertThat(actualResponse.transactionStatus()).isEqualTo(responseContributionDto.transactionStatus());
 
             verify(validations, times(1)).getAuthenticatedUserAndAccount();
-            verify(microcreditRepository, times(1)).findById(microcredit.getId());
+            verify(microcreditRepository, times(2)).findById(microcredit.getId());
+            verify(microcreditRepository, times(1)).fundPending(microcredit.getId(), requestContributionDto.amount());
             verify(contributionRepository, times(1)).save(contribution);
-            verify(microcreditRepository, times(1)).save(any(Microcredit.class));
+            verify(microcreditRepository, never()).save(any(Microcredit.class));
+            verify(microcreditRepository, never()).saveAndFlush(any(Microcredit.class));
+            verify(marketplace, times(1)).update(microcredit);
             verify(notificationService, times(1)).sendContributionNotificationToBorrower(
                     microcredit, lenderAccount.getId(), contribution.getAmount());
         }
 
+        @Test
+        public void createContribution_ShouldThrowValidationException_WhenTransferHasInsufficientFunds() throws MessagingException {
+            RequestContributionDto requestContributionDto = new RequestContributionDto(microcredit.getId(),
+                    BigDecimal.valueOf(50000.00));
+
+            Validations.UserAccountPair userAccountPair = new Validations.UserAccountPair(lenderUser, lenderAccount);
+
+            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.isUserAccountMismatch(microcredit.getBorrowerAccountId())).thenReturn(true);
+            when(microcreditRepository.findById(microcredit.getId())).thenReturn(Optional.of(microcredit));
+            when(microcreditRepository.fundPending(microcredit.getId(), requestContributionDto.amount())).thenReturn(1);
+            when(contributionMapper.requestDtoToContribution(requestContributionDto)).thenReturn(contribution);
+            when(contributionRepository.save(contribution)).thenReturn(contribution);
+            when(generalTransactions.transfer(any(), any(), any())).thenReturn(false);
+
+            ValidationException exception = assertThrows(ValidationException.class, () -> {
+                contributionServiceImpl.createContribution(requestContributionDto);
+            });
+
+            assertThat(exception.getMessage()).isEqualTo("Fondos insuficientes");
+            verify(validations, never()).validateTransactionUserFunds(any());
+            verify(notificationService, never()).sendContributionNotificationToBorrower(any(), any(), any());
+        }
+
+        @Test
+        public void createContribution_ShouldThrowValidationException_WhenAnotherLenderFundedFirst() throws MessagingException {
+            RequestContributionDto requestContributionDto = new RequestContributionDto(microcredit.getId(),
+                    BigDecimal.valueOf(50000.00));
+
+            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(lenderUser, lenderAccount));
+            when(validations.isUserAccountMismatch(microcredit.getBorrowerAccountId())).thenReturn(true);
+            when(microcreditRepository.findById(microcredit.getId())).thenReturn(Optional.of(microcredit));
+            when(microcreditRepository.fundPending(microcredit.getId(), requestContributionDto.amount())).thenReturn(0);
+
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> contributionServiceImpl.createContribution(requestContributionDto));
+
+            assertThat(exception.getMessage()).isEqualTo("El monto de la contribución no puede ser mayor que el monto restante del microcrédito.");
+            verify(contributionRepository, never()).save(any());
+            verify(generalTransactions, never()).transfer(any(), any(), any());
+            verify(marketplace, never()).update(any());
+        }
+
+        @Test
+        public void createContribution_ShouldThrowValidationException_WhenAmountIsNotPositive() throws MessagingException {
+            RequestContributionDto requestContributionDto = new RequestContributionDto(microcredit.getId(), BigDecimal.ZERO);
+
+            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(lenderUser, lenderAccount));
+            when(microcreditRepository.findById(microcredit.getId())).thenReturn(Optional.of(microcredit));
+
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> contributionServiceImpl.createContribution(requestContributionDto));
+
+            assertThat(exception.getMessage()).isEqualTo("El monto de la contribución debe ser mayor a $ 0.00");
+            verify(microcreditRepository, never()).fundPending(any(), any());
+        }
+
         @Test
         public void createContribution_ShouldThrowInvalidUserCredentialsException_WhenUserIsBorrower() {
             RequestContributionDto requestContributionDto = new RequestContributionDto(microcredit.getId(),
@@ -195,35 +284,38 @@ public class ContributionServiceImplTest {
         public void getAllContributionsByUser_ShouldReturnResponseContributionDtoList_WhenContributionsExist() {
             Validations.UserAccountPair userAccountPair = new Validations.UserAccountPair(lenderUser, lenderAccount);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
-            when(contributionRepository.findAllByLenderAccountId(contribution.getLenderAccountId())).thenReturn(List.of(contribution));
-            when(validations.fullname(lenderAccount.getId())).thenReturn(responseContributionDto.lenderFullname());
-            when(validations.fullname(borrowerAccount.getId())).thenReturn(responseContributionDto.borrowerFullname());
-            when(contributionMapper.responseContributionDto(contribution, responseContributionDto.lenderFullname(),
-                    responseContributionDto.borrowerFullname())).thenReturn(responseContributionDto);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
+            when(contributionRepository.findAllByLenderAccountId(contribution.getLenderAccountId())).thenReturn(List.of(contributionSummary));
+            when(accountNameResolver.resolve(List.of(lenderAccount.getId(), borrowerAccount.getId()))).thenReturn(Map.of(
+                    lenderAccount.getId(), new AccountNameResolver.AccountOwner(lenderAccount.getId(),
+                            lenderAccount.getAccountNumber(), lenderUser.getName(), lenderUser.getSurname()),
+                    borrowerAccount.getId(), new AccountNameResolver.AccountOwner(borrowerAccount.getId(),
+                            borrowerAccount.getAccountNumber(), borrowerUser.getName(), borrowerUser.getSurname())));
+            when(contributionMapper.summaryToResponseDto(contributionSummary, "DOE, Jane", "DOE, John"))
+                    .thenReturn(responseContributionDto);
 
             List<ResponseContributionDto> result = contributionServiceImpl.getAllContributionsByUser();
 
             assertThat(result).isNotNull();
             assertThat(result).containsExactly(responseContributionDto);
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(contributionRepository, times(1)).findAllByLenderAccountId(contribution.getLenderAccountId());
-            verify(contributionMapper, times(1)).responseContributionDto(any(Contribution.class), any(), any());
+            verify(contributionMapper, times(1)).summaryToResponseDto(any(ContributionSummary.class), any(), any());
         }
 
         @Test
         public void getAllContributionsByUser_ShouldThrowResourceNotFoundException_WhenNoContributionsExist() {
             Validations.UserAccountPair userAccountPair = new Validations.UserAccountPair(lenderUser, lenderAccount);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(contributionRepository.findAllByLenderAccountId(lenderAccount.getId())).thenReturn(Collections.emptyList());
 
             assertThatExceptionOfType(ResourceNotFoundException.class)
                     .isThrownBy(() -> contributionServiceImpl.getAllContributionsByUser())
                     .withMessage("No se encontraron contribuciones.");
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(contributionRepository, times(1)).findAllByLenderAccountId(lenderAccount.getId());
         }
     }
@@ -235,22 +327,22 @@ public class ContributionServiceImplTest {
             Validations.UserAccountPair userAccountPair = new Validations.UserAccountPair(lenderUser, lenderAccount);
             TransactionStatus enumStatus = TransactionStatus.PENDING;
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(validations.statusConvert("PENDING")).thenReturn(enumStatus);
             when(contributionRepository.findByTransactionStatusAndLenderAccountId(enumStatus, lenderAccount.getId()))
-                    .thenReturn(List.of(contribution));
+                    .thenReturn(List.of(contributionSummary));
 
-            when(contributionMapper.responseContributionDto(any(), any(), any())).thenReturn(responseContributionDto);
+            when(contributionMapper.summaryToResponseDto(any(), any(), any())).thenReturn(responseContributionDto);
 
             List<ResponseContributionDto> result = contributionServiceImpl.getAllContributionsByUserByStatus("PENDING");
 
             assertThat(result).isNotNull();
             assertThat(result).containsExactly(responseContributionDto);
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(validations, times(1)).statusConvert("PENDING");
             verify(contributionRepository, times(1)).findByTransactionStatusAndLenderAccountId(enumStatus, lenderAccount.getId());
-            verify(contributionMapper, times(1)).responseContributionDto(any(Contribution.class), any(), any());
+            verify(contributionMapper, times(1)).summaryToResponseDto(any(ContributionSummary.class), any(), any());
         }
 
         @Test
@@ -258,7 +350,7 @@ public class ContributionServiceImplTest {
             Validations.UserAccountPair userAccountPair = new Validations.UserAccountPair(lenderUser, lenderAccount);
             TransactionStatus enumStatus = TransactionStatus.PENDING;
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(validations.statusConvert("PENDING")).thenReturn(enumStatus);
             when(contributionRepository.findByTransactionStatusAndLenderAccountId(enumStatus, lenderAccount.getId())).thenReturn(Collections.emptyList());
 
@@ -266,7 +358,7 @@ public class ContributionServiceImplTest {
                     .isThrownBy(() -> contributionServiceImpl.getAllContributionsByUserByStatus("PENDING"))
                     .withMessage("No se encontraron contribuciones para el usuario en el estado especificado.");
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(validations, times(1)).statusConvert("PENDING");
             verify(contributionRepository, times(1)).findByTransactionStatusAndLenderAccountId(enumStatus, lenderAccount.getId());
         }
@@ -283,7 +375,7 @@ public class ContributionServiceImplTest {
             LocalDateTime endDate = LocalDateTime.of(2024, 10, 10, 23, 59, 59);
 
             Validations.UserAccountPair userAccountPair = new Validations.UserAccountPair(lenderUser, lenderAccount);
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(dateFormatter.getDateFromString(fromDate, toDate)).thenReturn(List.of(startDate, endDate));
             when(contributionRepository.findContributionsBetweenDates(lenderAccount.getId(), startDate, endDate))
                     .thenReturn(Collections.emptyList());
@@ -292,7 +384,7 @@ public class ContributionServiceImplTest {
                     .isThrownBy(() -> contributionServiceImpl.getContributionsBetweenDates(fromDate, toDate))
                     .withMessage("No se encontraron contribuciones en el rango de fechas proporcionado.");
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(dateFormatter, times(1)).getDateFromString(fromDate, toDate);
             verify(contributionRepository, times(1)).findContributionsBetweenDates(lenderAccount.getId(), startDate, endDate);
         }
@@ -313,16 +405,16 @@ public class ContributionServiceImplTest {
                     LocalDateTime.of(2024, 10, 10, 23, 59, 59)
             );
 
-            List<Contribution> contributions = List.of(contribution);
+            List<ContributionSummary> contributions = List.of(contributionSummary);
             List<ResponseContributionDto> responseContributionDtos = List.of(responseContributionDto);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(accountAndUser);
+            when(validations.getAuthenticatedAccountId()).thenReturn(accountAndUser.account.getId());
             when(validations.statusConvert(transactionStatus)).thenReturn(enumStatus);
             when(dateFormatter.getDateFromString(date)).thenReturn(elapsedDate);
             when(contributionRepository.findContributionsByDateAndTransactionStatus(
                     accountAndUser.account.getId(), elapsedDate.get(0), elapsedDate.get(1), enumStatus))
                     .thenReturn(contributions);
-            when(contributionMapper.responseContributionDto(contribution,
+            when(contributionMapper.summaryToResponseDto(contributionSummary,
                     validations.fullname(contribution.getLenderAccountId()),
                     validations.fullname(contribution.getMicrocredit().getBorrowerAccountId()))).thenReturn(responseContributionDto);
 
@@ -332,12 +424,12 @@ public class ContributionServiceImplTest {
             assertThat(result).hasSize(1);
             assertThat(result.get(0)).usingRecursiveComparison().isEqualTo(responseContributionDto);
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(validations, times(1)).statusConvert(transactionStatus);
             verify(dateFormatter, times(1)).getDateFromString(date);
             verify(contributionRepository, times(1)).findContributionsByDateAndTransactionStatus(
                     accountAndUser.account.getId(), elapsedDate.get(0), elapsedDate.get(1), enumStatus);
-            verify(contributionMapper, times(1)).responseContributionDto(any(Contribution.class), any(), any());
+            verify(contributionMapper, times(1)).summaryToResponseDto(any(ContributionSummary.class), any(), any());
         }
 
         @Test
@@ -353,7 +445,7 @@ public class ContributionServiceImplTest {
                     LocalDateTime.of(2024, 10, 10, 23, 59, 59)
             );
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(accountAndUser);
+            when(validations.getAuthenticatedAccountId()).thenReturn(accountAndUser.account.getId());
             when(validations.statusConvert(transactionStatus)).thenReturn(enumStatus);
             when(dateFormatter.getDateFromString(date)).thenReturn(elapsedDate);
             when(contributionRepository.findContributionsByDateAndTransactionStatus(
@@ -364,7 +456,7 @@ public class ContributionServiceImplTest {
                     .isThrownBy(() -> contributionServiceImpl.getContributionsByDateAndStatus(date, transactionStatus))
                     .withMessage("No posee contribuciones.");
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(validations, times(1)).statusConvert(transactionStatus);
             verify(dateFormatter, times(1)).getDateFromString(date);
             verify(contributionRepository, times(1)).findContributionsByDateAndTransactionStatus(
@@ -376,11 +468,11 @@ public class ContributionServiceImplTest {
     class GetAllContributionsTests {
         @Test
         public void getAll_ShouldReturnResponseContributionDtoList_WhenContributionsExist() {
-            List<Contribution> contributions = List.of(contribution);
+            List<ContributionSummary> contributions = List.of(contributionSummary);
             List<ResponseContributionDto> responseContributionDtos = List.of(responseContributionDto);
 
-            when(contributionRepository.findAll()).thenReturn(contributions);
-            when(contributionMapper.responseContributionDto(contribution,
+            when(contributionRepository.findAllSummaries()).thenReturn(contributions);
+            when(contributionMapper.summaryToResponseDto(contributionSummary,
                     validations.fullname(contribution.getLenderAccountId()),
                     validations.fullname(contribution.getMicrocredit().getBorrowerAccountId()))).thenReturn(responseContributionDto);
 
@@ -390,19 +482,19 @@ public class ContributionServiceImplTest {
             assertThat(result).hasSize(1);
             assertThat(result.get(0)).usingRecursiveComparison().isEqualTo(responseContributionDto);
 
-            verify(contributionRepository, times(1)).findAll();
-            verify(contributionMapper, times(1)).responseContributionDto(any(Contribution.class), any(), any());
+            verify(contributionRepository, times(1)).findAllSummaries();
+            verify(contributionMapper, times(1)).summaryToResponseDto(any(ContributionSummary.class), any(), any());
         }
 
         @Test
         public void getAll_ShouldThrowResourceNotFoundException_WhenNoContributionsExist() {
-            when(contributionRepository.findAll()).thenReturn(Collections.emptyList());
+            when(contributionRepository.findAllSummaries()).thenReturn(Collections.emptyList());
 
             assertThatExceptionOfType(ResourceNotFoundException.class)
                     .isThrownBy(() -> contributionServiceImpl.getAll())
                     .withMessage("No se encontraron contribuciones.");
 
-            verify(contributionRepository, times(1)).findAll();
+            verify(contributionRepository, times(1)).findAllSummaries();
         }
     }
 
@@ -446,12 +538,12 @@ public class ContributionServiceImplTest {
         public void getContributionsByTransactionStatus_ShouldReturnResponseContributionDtoList_WhenContributionsExist() {
             String transactionStatus = "ACCEPTED";
             TransactionStatus enumStatus = contribution.getTransactionStatus();
-            List<Contribution> contributions = List.of(contribution);
+            List<ContributionSummary> contributions = List.of(contributionSummary);
             List<ResponseContributionDto> responseContributionDtos = List.of(responseContributionDto);
 
             when(validations.statusConvert(transactionStatus)).thenReturn(enumStatus);
             when(contributionRepository.findByTransactionStatus(enumStatus)).thenReturn(contributions);
-            when(contributionMapper.responseContributionDto(contribution,
+            when(contributionMapper.summaryToResponseDto(contributionSummary,
                     validations.fullname(contribution.getLenderAccountId()),
                     validations.fullname(contribution.getMicrocredit().getBorrowerAccountId()))).thenReturn(responseContributionDto);
 
@@ -463,7 +555,7 @@ public class ContributionServiceImplTest {
 
             verify(validations, times(1)).statusConvert(transactionStatus);
             verify(contributionRepository, times(1)).findByTransactionStatus(enumStatus);
-            verify(contributionMapper, times(1)).responseContributionDto(any(Contribution.class), any(), any());
+            verify(contributionMapper, times(1)).summaryToResponseDto(any(ContributionSummary.class), any(), any());
         }
 
         @Test
@@ -6,7 +6,9 @@ import com.igrowker.nativo.dtos.microcredit.ResponseMicrocreditDto;
 import com.igrowker.nativo.dtos.microcredit.ResponseMicrocreditGetDto;
 import com.igrowker.nativo.dtos.microcredit.ResponseMicrocreditPaymentDto;
 import com.igrowker.nativo.entities.*;
+import com.igrowker.nativo.exceptions.DeniedTransactionException;
 import com.igrowker.nativo.exceptions.InsufficientFundsException;
+import com.igrowker.nativo.exceptions.InvalidUserCredentialsException;
 import com.igrowker.nativo.exceptions.ResourceNotFoundException;
 import com.igrowker.nativo.mappers.ContributionMapper;
 import com.igrowker.nativo.mappers.MicrocreditMapper;
@@ -16,8 +18,12 @@ import com.igrowker.nativo.repositories.MicrocreditRepository;
 import com.igrowker.nativo.repositories.UserRepository;
 import com.igrowker.nativo.services.implementation.ContributionServiceImpl;
 import com.igrowker.nativo.services.implementation.MicrocreditServiceImpl;
+import com.igrowker.nativo.utils.AccountActivityRecorder;
+import com.igrowker.nativo.utils.AccountNameResolver;
 import com.igrowker.nativo.utils.DateFormatter;
 import com.igrowker.nativo.utils.GeneralTransactions;
+import com.igrowker.nativo.utils.MicrocreditMarketplace;
+import com.igrowker.nativo.utils.MicrocreditSettlement;
 import com.igrowker.nativo.utils.NotificationService;
 import com.igrowker.nativo.validations.Validations;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,6 +33,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -68,6 +75,16 @@ public class MicrocreditServiceImplTest {
     @Mock
     private GeneralTransactions generalTransactions;
 
+    @Mock
+    private AccountActivityRecorder activityRecorder;
+
+    @Mock
+    private AccountNameResolver accountNameResolver;
+    @Mock
+    private MicrocreditMarketplace marketplace;
+    @Mock
+    private MicrocreditSettlement settlement;
+
     private Microcredit microcredit;
     private Contribution contribution;
     private ResponseMicrocreditGetDto responseMicrocreditGetDto;
@@ -101,7 +118,8 @@ public class MicrocreditServiceImplTest {
                 "Test title", "Test Description",
                 LocalDateTime.of(2024, 10, 17, 18, 20),
                 LocalDateTime.of(2024, 9, 17, 18, 20), 1,
-                BigDecimal.valueOf(10.00), TransactionStatus.PENDING, List.of());
+                BigDecimal.valueOf(10.00), TransactionStatus.PENDING, List.of(),
+                0, BigDecimal.ZERO, BigDecimal.ZERO);
 
         responseMicrocreditGetDto = new ResponseMicrocreditGetDto(microcredit.getId(),
                 microcredit.getBorrowerAccountId(), microcredit.getAmount(), microcredit.getRemainingAmount(),
@@ -151,6 +169,7 @@ public class MicrocreditServiceImplTest {
             verify(validations, times(1)).getAuthenticatedUserAndAccount();
             verify(microcreditMapper, times(1)).requestDtoToMicrocredit(any());
             verify(microcreditMapper, times(1)).responseDtoToMicrocredit(microcredit);
+            verify(marketplace, times(1)).update(microcredit);
 
             verify(notificationService, times(1)).sendPaymentNotification(
                     eq(borrowerUser.getEmail()),
@@ -187,29 +206,13 @@ public class MicrocreditServiceImplTest {
 
             Validations.UserAccountPair userBorrower = new Validations.UserAccountPair(borrowerUser, borrowerAccount);
 
-            microcredit.setAmount(microcredit.getAmount());
-            microcredit.setInterestRate(microcredit.getInterestRate());
             microcredit.setContributions(List.of(contribution));
+            microcredit.setContributionCount(1);
             microcredit.setTransactionStatus(TransactionStatus.PENDING);
 
             when(validations.getAuthenticatedUserAndAccount()).thenReturn(userBorrower);
             when(microcreditRepository.findById(microcredit.getId())).thenReturn(Optional.of(microcredit));
-            when(validations.isUserAccountMismatch(borrowerAccount.getId())).thenReturn(false);
-            when(validations.validateTransactionUserFunds(any())).thenReturn(true);
-            when(accountRepository.findById("lenderAccountId")).thenReturn(Optional.of(lenderAccount));
-            when(userRepository.findById(lenderAccount.getUserId())).thenReturn(Optional.of(lenderUser));
-
-            doNothing().when(generalTransactions).updateBalances(
-                    eq(microcredit.getBorrowerAccountId()),
-                    eq(contribution.getLenderAccountId()),
-                    eq(totalContributionAmountWithInterest)
-            );
-
-            when(microcreditRepository.save(any(Microcredit.class))).thenAnswer(invocation -> {
-                Microcredit savedMicrocredit = invocation.getArgument(0); // Obtenemos el microcrédito que se intenta guardar
-                savedMicrocredit.setId(microcredit.getId()); // Aseguramos que tenga un ID no nulo
-                return savedMicrocredit; // Lo devolvemos como el microcrédito guardado
-            });
+            when(settlement.settle(microcredit, borrowerUser)).thenReturn(totalContributionAmountWithInterest);
 
             ResponseMicrocreditPaymentDto response = microcreditServiceImpl.payMicrocredit(microcredit.getId());
 
@@ -217,41 +220,41 @@ public class MicrocreditServiceImplTest {
             assertThat(response.id()).isEqualTo(microcredit.getId());
             assertThat(response.totalPaidAmount()).isEqualTo(totalContributionAmountWithInterest);
 
-            verify(microcreditRepository, times(1)).save(microcredit);
-            verify(notificationService, times(1)).sendPaymentNotification(
-                    eq(lenderUser.getEmail()),
-                    eq(lenderUser.getName() + " " + lenderUser.getSurname()),
-                    eq(contribution.getAmount()),
-                    eq("Devolución cuota microcrédito"),
-                    contains("tu contribución al microcrédito con ID: " + microcredit.getId()),
-                    contains("Gracias por tu participación")
-            );
-            verify(notificationService, times(1)).sendPaymentNotification(
-                    eq(borrowerUser.getEmail()),
-                    eq(borrowerUser.getName() + " " + borrowerUser.getSurname()),
-                    eq(totalContributionAmountWithInterest),
-                    eq("Descuento cuota del microcrédito"),
-                    contains("el descuento por el microcrédito con ID: " + microcredit.getId()),
-                    contains("se deducirá automáticamente en tu próximo ingreso")
-            );
+            verify(settlement, times(1)).settle(microcredit, borrowerUser);
+            // El estado lo escribe el UPDATE condicionado de la liquidación, no un save de la copia leída.
+            verify(microcreditRepository, never()).save(any());
+            verify(marketplace, times(1)).update(microcredit);
+            // Los avisos salen después del commit desde MicrocreditSettlementNotifier, no dentro del pago.
+            verifyNoInteractions(notificationService, generalTransactions);
         }
 
         @Test
-        public void payMicrocredit_ShouldThrowException_WhenInsufficientFunds() throws Exception {
-            BigDecimal interest = contribution.getAmount().multiply(microcredit.getInterestRate()).divide(BigDecimal.valueOf(100));
-            BigDecimal totalContributionAmountWithInterest = contribution.getAmount().add(interest);
+        public void payMicrocredit_ShouldBeDenied_WhenCallerIsNotTheBorrower() {
+            Account otherAccount = new Account();
+            otherAccount.setId("otherAccountId");
+            Validations.UserAccountPair otherUser = new Validations.UserAccountPair(lenderUser, otherAccount);
+            microcredit.setContributionCount(1);
+
+            when(validations.getAuthenticatedUserAndAccount()).thenReturn(otherUser);
+            when(microcreditRepository.findById(microcredit.getId())).thenReturn(Optional.of(microcredit));
+
+            assertThatThrownBy(() -> microcreditServiceImpl.payMicrocredit(microcredit.getId()))
+                    .isInstanceOf(InvalidUserCredentialsException.class)
+                    .hasMessage("El usuario no tiene permiso para pagar este microcrédito.");
+            verifyNoInteractions(settlement);
+        }
 
+        @Test
+        public void payMicrocredit_ShouldThrowException_WhenInsufficientFunds() throws Exception {
             Validations.UserAccountPair userBorrower = new Validations.UserAccountPair(borrowerUser, borrowerAccount);
 
-            microcredit.setAmount(microcredit.getAmount());
-            microcredit.setInterestRate(microcredit.getInterestRate());
             microcredit.setContributions(List.of(contribution));
+            microcredit.setContributionCount(1);
             microcredit.setTransactionStatus(TransactionStatus.PENDING);
 
             when(validations.getAuthenticatedUserAndAccount()).thenReturn(userBorrower);
             when(microcreditRepository.findById(microcredit.getId())).thenReturn(Optional.of(microcredit));
-            when(validations.isUserAccountMismatch(borrowerAccount.getId())).thenReturn(false);
-            when(validations.validateTransactionUserFunds(any())).thenReturn(false);
+            when(settlement.settle(microcredit, borrowerUser)).thenThrow(new InsufficientFundsException("Fondos insuficientes"));
 
             Exception exception = assertThrows(InsufficientFundsException.class, () -> {
                 microcreditServiceImpl.payMicrocredit(microcredit.getId());
@@ -260,21 +263,53 @@ public class MicrocreditServiceImplTest {
             assertThat(exception.getMessage()).isEqualTo("Fondos insuficientes");
 
             verify(microcreditRepository, never()).save(any());
+            verify(marketplace, never()).update(any());
+            verifyNoInteractions(notificationService);
+        }
+    }
 
-            verify(notificationService, never()).sendPaymentNotification(
-                    anyString(),
-                    anyString(),
-                    any(),
-                    anyString(),
-                    anyString(),
-                    anyString()
-            );
+    @Nested
+    class ContributionCountersTests {
+        @Test
+        public void payMicrocredit_ShouldBeDenied_WhenPendingWithoutContributions() {
+            Validations.UserAccountPair userBorrower = new Validations.UserAccountPair(borrowerUser, borrowerAccount);
+            microcredit.setTransactionStatus(TransactionStatus.PENDING);
+            microcredit.setContributionCount(0);
 
-            verify(generalTransactions, never()).updateBalances(
-                    anyString(),
-                    anyString(),
-                    any()
-            );
+            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userBorrower);
+            when(microcreditRepository.findById(microcredit.getId())).thenReturn(Optional.of(microcredit));
+
+            assertThatThrownBy(() -> microcreditServiceImpl.payMicrocredit(microcredit.getId()))
+                    .isInstanceOf(DeniedTransactionException.class)
+                    .hasMessage("No se puede pagar un microcrédito sin contribuciones.");
+            verifyNoInteractions(settlement);
+        }
+
+        @Test
+        public void totalAmountToPay_ShouldReadTheMaintainedTotal_WithoutLoadingContributions() {
+            Microcredit counted = spy(microcredit);
+            counted.setTotalOwed(BigDecimal.valueOf(1650));
+
+            assertThat(microcreditServiceImpl.totalAmountToPay(counted)).isEqualByComparingTo("1650");
+            verify(counted, never()).getContributions();
+        }
+
+        @Test
+        public void updateMicrocreditAmounts_ShouldSetFinalAndPendingFromTheMaintainedTotal() {
+            microcredit.setTotalOwed(BigDecimal.valueOf(1650));
+
+            microcreditServiceImpl.updateMicrocreditAmounts(microcredit);
+
+            assertThat(microcredit.getAmountFinal()).isEqualByComparingTo("1650");
+            assertThat(microcredit.getPendingAmount()).isEqualByComparingTo("1650");
+            verify(microcreditRepository).save(microcredit);
+        }
+
+        @Test
+        public void owedFor_ShouldRoundInterestToCents() {
+            microcredit.setInterestRate(new BigDecimal("10.5"));
+
+            assertThat(microcredit.owedFor(new BigDecimal("1234.56"))).isEqualByComparingTo("1364.19");
         }
     }
 
@@ -284,7 +319,7 @@ public class MicrocreditServiceImplTest {
         public void getAllMicrocreditsByUser_ShouldReturnOk() throws Exception {
             List<Microcredit> microcreditList = List.of(microcredit);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(borrowerUser, borrowerAccount));
+            when(validations.getAuthenticatedAccountId()).thenReturn(borrowerAccount.getId());
             when(microcreditRepository.findAllByBorrowerAccountId(microcredit.getBorrowerAccountId())).thenReturn(microcreditList);
             when(microcreditMapper.responseMicrocreditGet(any(Microcredit.class), anyList())).thenReturn(responseMicrocreditGetDto);
 
@@ -294,21 +329,21 @@ public class MicrocreditServiceImplTest {
             assertThat(actualResponse).hasSize(1);
             assertThat(actualResponse.get(0)).usingRecursiveComparison().isEqualTo(responseMicrocreditGetDto);
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(microcreditRepository, times(1)).findAllByBorrowerAccountId(microcredit.getBorrowerAccountId());
             verify(microcreditMapper, times(1)).responseMicrocreditGet(any(Microcredit.class), anyList());
         }
 
         @Test
         public void getAllMicrocreditsByUser_ShouldReturnNotFound() throws Exception {
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(borrowerUser, borrowerAccount));
+            when(validations.getAuthenticatedAccountId()).thenReturn(borrowerAccount.getId());
             when(microcreditRepository.findAllByBorrowerAccountId(borrowerAccount.getId())).thenReturn(List.of());
 
             assertThatThrownBy(() -> microcreditServiceImpl.getAllMicrocreditsByUser())
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("No se encontraron microcréditos.");
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(microcreditRepository, times(1)).findAllByBorrowerAccountId(borrowerAccount.getId());
         }
     }
@@ -320,7 +355,7 @@ public class MicrocreditServiceImplTest {
             String transactionStatus = TransactionStatus.PENDING.name();
             List<Microcredit> microcreditList = List.of(microcredit);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(borrowerUser, borrowerAccount));
+            when(validations.getAuthenticatedAccountId()).thenReturn(borrowerAccount.getId());
             when(validations.statusConvert(transactionStatus)).thenReturn(TransactionStatus.PENDING);
             when(microcreditRepository.findByTransactionStatusAndBorrowerAccountId(TransactionStatus.PENDING, borrowerAccount.getId())).thenReturn(microcreditList);
             when(microcreditMapper.responseMicrocreditGet(any(Microcredit.class), anyList())).thenReturn(responseMicrocreditGetDto);
@@ -331,7 +366,7 @@ public class MicrocreditServiceImplTest {
             assertThat(actualResponse).hasSize(1);
             assertThat(actualResponse.get(0)).usingRecursiveComparison().isEqualTo(responseMicrocreditGetDto);
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(validations, times(1)).statusConvert(transactionStatus);
             verify(microcreditRepository, times(1)).findByTransactionStatusAndBorrowerAccountId(TransactionStatus.PENDING, borrowerAccount.getId());
             verify(microcreditMapper, times(1)).responseMicrocreditGet(any(Microcredit.class), anyList());
@@ -341,7 +376,7 @@ public class MicrocreditServiceImplTest {
         public void getAllMicrocreditsByUserByStatus_ShouldThrowResourceNotFoundException_WhenNoMicrocreditsFound() throws Exception {
             String transactionStatus = TransactionStatus.PENDING.name();
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(borrowerUser, borrowerAccount));
+            when(validations.getAuthenticatedAccountId()).thenReturn(borrowerAccount.getId());
             when(validations.statusConvert(transactionStatus)).thenReturn(TransactionStatus.PENDING);
             when(microcreditRepository.findByTransactionStatusAndBorrowerAccountId(TransactionStatus.PENDING, borrowerAccount.getId())).thenReturn(List.of()); // Lista vacía
 
@@ -349,7 +384,7 @@ public class MicrocreditServiceImplTest {
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("No se encontraron microcréditos para el usuario con el estado especificado.");
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(validations, times(1)).statusConvert(transactionStatus);
             verify(microcreditRepository, times(1)).findByTransactionStatusAndBorrowerAccountId(TransactionStatus.PENDING, borrowerAccount.getId());
         }
@@ -369,7 +404,7 @@ public class MicrocreditServiceImplTest {
 
             List<Microcredit> microcreditList = List.of(microcredit);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(borrowerUser, borrowerAccount));
+            when(validations.getAuthenticatedAccountId()).thenReturn(borrowerAccount.getId());
             when(dateFormatter.getDateFromString(fromDate, toDate)).thenReturn(dateList);
             when(microcreditRepository.findMicrocreditsBetweenDates(borrowerAccount.getId(), dateList.get(0), dateList.get(1))).thenReturn(microcreditList);
             when(microcreditMapper.responseMicrocreditGet(any(Microcredit.class), anyList())).thenReturn(responseMicrocreditGetDto);
@@ -380,7 +415,7 @@ public class MicrocreditServiceImplTest {
             assertThat(actualResponse).hasSize(1);
             assertThat(actualResponse.get(0)).usingRecursiveComparison().isEqualTo(responseMicrocreditGetDto);
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(dateFormatter, times(1)).getDateFromString(fromDate, toDate);
             verify(microcreditRepository, times(1)).findMicrocreditsBetweenDates(borrowerAccount.getId(), dateList.get(0), dateList.get(1));
             verify(microcreditMapper, times(1)).responseMicrocreditGet(any(Microcredit.class), anyList());
@@ -396,7 +431,7 @@ public class MicrocreditServiceImplTest {
                     LocalDateTime.of(2024, 10, 10, 23, 59, 59)
             );
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(borrowerUser, borrowerAccount));
+            when(validations.getAuthenticatedAccountId()).thenReturn(borrowerAccount.getId());
             when(dateFormatter.getDateFromString(fromDate, toDate)).thenReturn(dateList);
             when(microcreditRepository.findMicrocreditsBetweenDates(borrowerAccount.getId(), dateList.get(0), dateList.get(1))).thenReturn(List.of()); // Lista vacía
 
@@ -404,7 +439,7 @@ public class MicrocreditServiceImplTest {
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("No posee microcréditos solicitados");
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(dateFormatter, times(1)).getDateFromString(fromDate, toDate);
             verify(microcreditRepository, times(1)).findMicrocreditsBetweenDates(borrowerAccount.getId(), dateList.get(0), dateList.get(1));
         }
@@ -423,7 +458,7 @@ public class MicrocreditServiceImplTest {
                     contribution.getAmount(), contribution.getCreatedDate(), microcredit.getExpirationDate(), contribution.getTransactionStatus());
             List<ResponseContributionDto> contributionsDto = List.of(contributionDto);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(borrowerUser, borrowerAccount));
+            when(validations.getAuthenticatedAccountId()).thenReturn(borrowerAccount.getId());
             when(validations.statusConvert(transactionStatus)).thenReturn(TransactionStatus.PENDING);
             when(dateFormatter.getDateFromString(date)).thenReturn(List.of(
                     LocalDateTime.of(2024, 10, 10, 0, 0),
@@ -442,7 +477,7 @@ public class MicrocreditServiceImplTest {
             assertThat(actualResponse).hasSize(1);
             assertThat(actualResponse.get(0)).usingRecursiveComparison().isEqualTo(responseMicrocreditGetDto);
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(validations, times(1)).statusConvert(transactionStatus);
             verify(dateFormatter, times(1)).getDateFromString(date);
             verify(microcreditRepository, times(1)).findMicrocreditsByDateAndTransactionStatus(
@@ -458,7 +493,7 @@ public class MicrocreditServiceImplTest {
             String date = "2024-10-10T00:00:00";
             String transactionStatus = "PENDING";
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(borrowerUser, borrowerAccount));
+            when(validations.getAuthenticatedAccountId()).thenReturn(borrowerAccount.getId());
             when(validations.statusConvert(transactionStatus)).thenReturn(TransactionStatus.PENDING);
             when(dateFormatter.getDateFromString(date)).thenReturn(List.of(
                     LocalDateTime.of(2024, 10, 10, 0, 0),
@@ -474,7 +509,7 @@ public class MicrocreditServiceImplTest {
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("No posee microcréditos solicitados");
 
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(validations, times(1)).statusConvert(transactionStatus);
             verify(dateFormatter, times(1)).getDateFromString(date);
             verify(microcreditRepository, times(1)).findMicrocreditsByDateAndTransactionStatus(
@@ -491,28 +526,41 @@ public class MicrocreditServiceImplTest {
         public void getAll_ShouldReturnMicrocredits_WhenFound() throws Exception {
             List<Microcredit> microcredits = List.of(microcredit);
 
-            when(microcreditRepository.findAll()).thenReturn(microcredits);
+            when(microcreditRepository.findPageIds(PageRequest.of(0, 20))).thenReturn(List.of(microcredit.getId()));
+            when(microcreditRepository.findWithContributionsByIdIn(List.of(microcredit.getId()))).thenReturn(microcredits);
             when(microcreditMapper.responseMicrocreditGet(any(Microcredit.class), anyList())).thenReturn(responseMicrocreditGetDto);
 
-            List<ResponseMicrocreditGetDto> actualResponse = microcreditServiceImpl.getAll();
+            List<ResponseMicrocreditGetDto> actualResponse = microcreditServiceImpl.getAll(0, 20);
 
             assertThat(actualResponse).isNotNull();
             assertThat(actualResponse).hasSize(1);
             assertThat(actualResponse.get(0)).usingRecursiveComparison().isEqualTo(responseMicrocreditGetDto);
 
-            verify(microcreditRepository, times(1)).findAll();
+            verify(microcreditRepository, times(1)).findPageIds(PageRequest.of(0, 20));
+            verify(microcreditRepository, times(1)).findWithContributionsByIdIn(List.of(microcredit.getId()));
             verify(microcreditMapper, times(1)).responseMicrocreditGet(any(Microcredit.class), anyList());
         }
 
+        @Test
+        public void getAll_ShouldClampPageAndSize() throws Exception {
+            when(microcreditRepository.findPageIds(PageRequest.of(0, 100))).thenReturn(List.of(microcredit.getId()));
+            when(microcreditRepository.findWithContributionsByIdIn(List.of(microcredit.getId()))).thenReturn(List.of(microcredit));
+
+            microcreditServiceImpl.getAll(-3, 5000);
+
+            verify(microcreditRepository, times(1)).findPageIds(PageRequest.of(0, 100));
+        }
+
         @Test
         public void getAll_ShouldThrowResourceNotFoundException_WhenNoMicrocreditsFound() throws Exception {
-            when(microcreditRepository.findAll()).thenReturn(List.of());
+            when(microcreditRepository.findPageIds(PageRequest.of(0, 20))).thenReturn(List.of());
 
-            assertThatThrownBy(() -> microcreditServiceImpl.getAll())
+            assertThatThrownBy(() -> microcreditServiceImpl.getAll(0, 20))
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("No se encontraron microcréditos.");
 
-            verify(microcreditRepository, times(1)).findAll();
+            verify(microcreditRepository, times(1)).findPageIds(PageRequest.of(0, 20));
+            verify(microcreditRepository, never()).findWithContributionsByIdIn(anyList());
             verify(microcreditMapper, never()).responseMicrocreditGet(any(Microcredit.class), anyList());
         }
     }
@@ -556,17 +604,19 @@ public class MicrocreditServiceImplTest {
             List<Microcredit> microcreditList = List.of(microcredit);
 
             when(validations.statusConvert(transactionStatus)).thenReturn(enumStatus);
-            when(microcreditRepository.findByTransactionStatus(enumStatus)).thenReturn(microcreditList);
+            when(microcreditRepository.findPageIdsByTransactionStatus(enumStatus, PageRequest.of(1, 10)))
+                    .thenReturn(List.of(microcredit.getId()));
+            when(microcreditRepository.findWithContributionsByIdIn(List.of(microcredit.getId()))).thenReturn(microcreditList);
             when(microcreditMapper.responseMicrocreditGet(any(Microcredit.class), anyList())).thenReturn(responseMicrocreditGetDto);
 
-            List<ResponseMicrocreditGetDto> actualResponse = microcreditServiceImpl.getMicrocreditsByTransactionStatus(transactionStatus);
+            List<ResponseMicrocreditGetDto> actualResponse = microcreditServiceImpl.getMicrocreditsByTransactionStatus(transactionStatus, 1, 10);
 
             assertThat(actualResponse).isNotNull();
             assertThat(actualResponse).hasSize(1);
             assertThat(actualResponse.get(0)).usingRecursiveComparison().isEqualTo(responseMicrocreditGetDto);
 
             verify(validations, times(1)).statusConvert(transactionStatus);
-            verify(microcreditRepository, times(1)).findByTransactionStatus(enumStatus);
+            verify(microcreditRepository, times(1)).findPageIdsByTransactionStatus(enumStatus, PageRequest.of(1, 10));
             verify(microcreditMapper, times(1)).responseMicrocreditGet(any(Microcredit.class), anyList());
         }
 
@@ -576,14 +626,14 @@ public class MicrocreditServiceImplTest {
             TransactionStatus enumStatus = TransactionStatus.COMPLETED;
 
             when(validations.statusConvert(transactionStatus)).thenReturn(enumStatus);
-            when(microcreditRepository.findByTransactionStatus(enumStatus)).thenReturn(List.of());
+            when(microcreditRepository.findPageIdsByTransactionStatus(enumStatus, PageRequest.of(0, 20))).thenReturn(List.of());
 
-            assertThatThrownBy(() -> microcreditServiceImpl.getMicrocreditsByTransactionStatus(transactionStatus))
+            assertThatThrownBy(() -> microcreditServiceImpl.getMicrocreditsByTransactionStatus(transactionStatus, 0, 20))
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("No se encontraron microcréditos con el estado especificado.");
 
             verify(validations, times(1)).statusConvert(transactionStatus);
-            verify(microcreditRepository, times(1)).findByTransactionStatus(enumStatus);
+            verify(microcreditRepository, times(1)).findPageIdsByTransactionStatus(enumStatus, PageRequest.of(0, 20));
         }
     }
 }
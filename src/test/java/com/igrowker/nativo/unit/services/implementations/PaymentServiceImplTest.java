@@ -9,24 +9,38 @@ import com.igrowker.nativo.exceptions.*;
 import com.igrowker.nativo.mappers.PaymentMapper;
 import com.igrowker.nativo.repositories.AccountRepository;
 import com.igrowker.nativo.repositories.PaymentRepository;
+import com.igrowker.nativo.repositories.projections.PaymentSummary;
+import com.igrowker.nativo.security.PaymentQrSigner;
 import com.igrowker.nativo.services.implementation.PaymentServiceImpl;
 import com.igrowker.nativo.services.implementation.QRService;
+import com.igrowker.nativo.utils.AccountActivityRecorder;
+import com.igrowker.nativo.utils.AccountNameResolver;
 import com.igrowker.nativo.utils.DateFormatter;
 import com.igrowker.nativo.utils.GeneralTransactions;
+import com.igrowker.nativo.utils.PaymentQrCache;
 import com.igrowker.nativo.validations.Validations;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -40,6 +54,13 @@ public class PaymentServiceImplTest {
     @Mock
     private PaymentRepository paymentRepository;
     @Mock
+    private PaymentQrCache paymentQrCache;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Spy
+    private PaymentQrSigner paymentQrSigner = new PaymentQrSigner(
+            Base64.getEncoder().encodeToString("una-clave-de-prueba-de-32-bytes-minimo!!".getBytes()));
+    @Mock
     private AccountRepository accountRepository;
     @Mock
     private PaymentMapper paymentMapper;
@@ -51,39 +72,89 @@ public class PaymentServiceImplTest {
     private QRService qrService;
     @Mock
     private GeneralTransactions transactions;
+
+    @Mock
+    private AccountActivityRecorder activityRecorder;
+
+    @Mock
+    private AccountNameResolver accountNameResolver;
     @InjectMocks
     private PaymentServiceImpl paymentServiceImpl;
 
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    private Map<String, AccountNameResolver.AccountOwner> ownersOf(Collection<String> accountIds, Account account) {
+        return accountIds.stream().distinct().collect(Collectors.toMap(id -> id,
+                id -> new AccountNameResolver.AccountOwner(id, account.getAccountNumber(), "name", "surname")));
+    }
+
+    private String qrFor(LocalDateTime issuedAt) {
+        return paymentQrSigner.sign(new Payment("TransactionID", null, null, null, null, null, "987654321L",
+                BigDecimal.valueOf(20.00), issuedAt, TransactionStatus.PENDING, null));
+    }
+
+    private List<PaymentSummary> summaries(List<Payment> payments) {
+        return payments.stream().map(payment -> projectionFactory.createProjection(PaymentSummary.class, payment)).toList();
+    }
+
     @Nested
     class CreateQrTests {
         @Test
         public void create_qr_should_be_Ok() throws Exception {
             var paymentRequestDto = new RequestPaymentDto("receiverId", BigDecimal.valueOf(100.50), "description");
             var payment = new Payment("paymentId", "senderName", "senderSurname", "senderId",
-                    "receiverName", "receiverSurname", "receiverId", BigDecimal.valueOf(100.50), LocalDateTime.now(), TransactionStatus.PENDING, "description", "long-long-long-qr");
+                    "receiverName", "receiverSurname", "receiverId", BigDecimal.valueOf(100.50), LocalDateTime.now(), TransactionStatus.PENDING, "description");
             var paymentResponseDto = new ResponsePaymentDto("paymentId", "receiverAccount",
-                    "receiverName", "receiverSurname", BigDecimal.valueOf(100.50), "description", "long-long-long-qr");
+                    "receiverName", "receiverSurname", BigDecimal.valueOf(100.50), "description", "/api/pagos/qr/paymentId", QrFormat.PNG, null);
             Account testAccount = new Account();
             testAccount.setAccountNumber(123456789l);
 
             when(paymentMapper.requestDtoToPayment(any())).thenReturn(payment);
             when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(new User(), testAccount));
+            when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
             when(paymentRepository.save(any())).thenReturn(payment);
-            when(qrService.generateQrCode(any())).thenReturn("long-long-long-qr");
-            when(paymentMapper.paymentToResponseDto(any(), anyString())).thenReturn(paymentResponseDto);
-            var res = paymentServiceImpl.createQr(paymentRequestDto);
+            when(paymentMapper.paymentToResponseDto(any(), anyString(), eq(QrFormat.PNG), isNull())).thenReturn(paymentResponseDto);
+            var res = paymentServiceImpl.createQr(paymentRequestDto, QrFormat.PNG);
 
             assertThat(res).isNotNull();
             assertThat(res.id()).isEqualTo(paymentResponseDto.id());
             assertThat(res.receiverAccount()).isEqualTo(paymentResponseDto.receiverAccount());
             assertThat(res.description()).isEqualTo(paymentResponseDto.description());
             assertThat(res.amount()).isEqualTo(paymentResponseDto.amount());
-            assertThat(res.qr()).isEqualTo(paymentResponseDto.qr());
-            verify(paymentRepository, times(2)).save(any());
+            assertThat(res.qrUrl()).isEqualTo(paymentResponseDto.qrUrl());
+            verify(paymentRepository, times(1)).save(any());
+            verify(activityRecorder, times(1)).record(payment);
             verify(validations, times(1)).getAuthenticatedUserAndAccount();
-            verify(qrService, times(1)).generateQrCode(any());
+            // El PNG no se genera al crear el pago, sino la primera vez que se pide la imagen.
+            verifyNoInteractions(qrService);
             verify(paymentMapper, times(1)).requestDtoToPayment(any());
-            verify(paymentMapper, times(1)).paymentToResponseDto(any(), anyString());
+            verify(paymentMapper, times(1)).paymentToResponseDto(any(), anyString(), any(), any());
+        }
+
+        @Test
+        public void create_qr_as_svg_should_not_rasterize() throws Exception {
+            var paymentRequestDto = new RequestPaymentDto("receiverId", BigDecimal.valueOf(100.50), "description");
+            var payment = new Payment("paymentId", "senderName", "senderSurname", "senderId",
+                    "receiverName", "receiverSurname", "receiverId", BigDecimal.valueOf(100.50), LocalDateTime.now(), TransactionStatus.PENDING, "description");
+            var paymentResponseDto = new ResponsePaymentDto("paymentId", "receiverAccount",
+                    "receiverName", "receiverSurname", BigDecimal.valueOf(100.50), "description", null, QrFormat.SVG, "<svg/>");
+            Account testAccount = new Account();
+            testAccount.setAccountNumber(123456789l);
+
+            when(paymentMapper.requestDtoToPayment(any())).thenReturn(payment);
+            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(new User(), testAccount));
+            when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+            when(paymentRepository.save(any())).thenReturn(payment);
+            when(qrService.renderQrCode(paymentQrSigner.sign(payment), QrFormat.SVG)).thenReturn("<svg/>");
+            when(paymentMapper.paymentToResponseDto(payment, "123456789", QrFormat.SVG, "<svg/>")).thenReturn(paymentResponseDto);
+
+            var res = paymentServiceImpl.createQr(paymentRequestDto, QrFormat.SVG);
+
+            assertThat(res.qr()).isEqualTo("<svg/>");
+            assertThat(res.qrUrl()).isNull();
+            verify(qrService, never()).generateQrCode(any());
         }
 
         @Test
@@ -92,7 +163,7 @@ public class PaymentServiceImplTest {
 
             when(validations.getAuthenticatedUserAndAccount()).thenThrow(new ResourceNotFoundException("La cuenta indicada no coincide con el usuario logueado en la aplicación"));
             Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
-                paymentServiceImpl.createQr(paymentRequestDto);
+                paymentServiceImpl.createQr(paymentRequestDto, QrFormat.PNG);
             });
             String expectedMessage = "La cuenta indicada no coincide con el usuario logueado en la aplicación";
             String actualMessage = exception.getMessage();
@@ -100,21 +171,83 @@ public class PaymentServiceImplTest {
         }
     }
 
+    @Nested
+    class GetQrImageTests {
+        private Payment pendingPayment(LocalDateTime transactionDate, TransactionStatus status) {
+            return new Payment("paymentId", "senderName", "senderSurname", "senderId",
+                    "receiverName", "receiverSurname", "receiverId", BigDecimal.valueOf(100.50), transactionDate,
+                    status, "description");
+        }
+
+        @Test
+        public void get_qr_image_should_generate_and_cache_on_first_fetch() throws Exception {
+            var payment = pendingPayment(LocalDateTime.now().minusMinutes(2), TransactionStatus.PENDING);
+            when(paymentQrCache.get(eq("paymentId"), any())).thenReturn(null);
+            when(paymentRepository.findById("paymentId")).thenReturn(Optional.of(payment));
+            when(qrService.generateQrCode(paymentQrSigner.sign(payment))).thenReturn(new byte[]{1, 2, 3});
+
+            var res = paymentServiceImpl.getQrImage("paymentId");
+
+            assertThat(res.image()).containsExactly(1, 2, 3);
+            assertThat(res.contentHash()).isEqualTo("039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81");
+            assertThat(res.expiresAt()).isEqualTo(payment.getTransactionDate().plusMinutes(10));
+            verify(paymentQrCache, times(1)).put(eq("paymentId"), eq(res), any());
+        }
+
+        @Test
+        public void get_qr_image_should_be_served_from_cache() throws Exception {
+            var cached = new ResponseQrImageDto(new byte[]{1, 2, 3}, "hash", LocalDateTime.now().plusMinutes(5));
+            when(paymentQrCache.get(eq("paymentId"), any())).thenReturn(cached);
+
+            var res = paymentServiceImpl.getQrImage("paymentId");
+
+            assertThat(res).isSameAs(cached);
+            verifyNoInteractions(paymentRepository, qrService);
+        }
+
+        @Test
+        public void get_qr_image_expired_should_NOT_be_ok() throws Exception {
+            var payment = pendingPayment(LocalDateTime.now().minusMinutes(11), TransactionStatus.PENDING);
+            when(paymentRepository.findById("paymentId")).thenReturn(Optional.of(payment));
+
+            Exception exception = assertThrows(ResourceNotFoundException.class,
+                    () -> paymentServiceImpl.getQrImage("paymentId"));
+            assertThat(exception.getMessage()).isEqualTo("El QR solicitado no existe o ya no está vigente.");
+            verifyNoInteractions(qrService);
+        }
+
+        @Test
+        public void get_qr_image_processed_should_NOT_be_ok() throws Exception {
+            var payment = pendingPayment(LocalDateTime.now(), TransactionStatus.ACCEPTED);
+            when(paymentRepository.findById("paymentId")).thenReturn(Optional.of(payment));
+
+            assertThrows(ResourceNotFoundException.class, () -> paymentServiceImpl.getQrImage("paymentId"));
+            verifyNoInteractions(qrService);
+        }
+
+        @Test
+        public void get_qr_image_missing_should_NOT_be_ok() throws Exception {
+            when(paymentRepository.findById("paymentId")).thenReturn(Optional.empty());
+
+            assertThrows(ResourceNotFoundException.class, () -> paymentServiceImpl.getQrImage("paymentId"));
+        }
+    }
+
     @Nested
     class ProcessPaymentTest{
 
         @Test
         public void process_payment_should_be_ok_due_accepted() throws Exception {
             RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "AccountID", "ACCEPTED", qrFor(LocalDateTime.now()));
 
             Payment initialPayment = new Payment("TransactionID", "senderName","SenderSurname", "123456789L",
                     "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(20.00),
-                    LocalDateTime.now(), TransactionStatus.PENDING, "Transaction Description", "QRcode");
+                    LocalDateTime.now(), TransactionStatus.PENDING, "Transaction Description");
 
             Payment finalPayment = new Payment("TransactionID", "senderName","SenderSurname", "123456789L",
                     "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(20.00),
-                    LocalDateTime.now(), TransactionStatus.ACCEPTED, "Transaction Description", "QRcode");
+                    LocalDateTime.now(), TransactionStatus.ACCEPTED, "Transaction Description");
 
             ResponseProcessPaymentDto responseProcessPaymentDto = new ResponseProcessPaymentDto("TransactionID","Sender Name",
                     "SenderSurname", "123456789L", "ReceiverName",
@@ -132,14 +265,13 @@ public class PaymentServiceImplTest {
             var userAccountPair = new Validations.UserAccountPair(new User(), senderAccount);
 
             when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
-            when(validations.statusConvert(any())).thenReturn(initialPayment.getTransactionStatus());
+            when(validations.statusConvert(any())).thenReturn(TransactionStatus.ACCEPTED);
             when(paymentMapper.requestProcessDtoToPayment(any())).thenReturn(initialPayment);
             when(paymentRepository.findById(any())).thenReturn(Optional.of(initialPayment));
             when(accountRepository.findById(initialPayment.getReceiverAccount())).thenReturn(Optional.of(receiverAccount));
-            when(paymentRepository.save(any())).thenReturn(finalPayment);
-            when(validations.validateTransactionUserFunds(finalPayment.getAmount())).thenReturn(true);
-            doNothing().when(transactions).updateBalances(any(), any(), any());
-            when(paymentMapper.paymentToResponseProcessDto(finalPayment, senderAccountNumber, receiverAccountNumber)).thenReturn(responseProcessPaymentDto);
+            when(paymentRepository.settlePending("TransactionID", TransactionStatus.ACCEPTED, null, null, "AccountID")).thenReturn(1);
+            when(transactions.transfer("AccountID", "987654321L", initialPayment.getAmount())).thenReturn(true);
+            when(paymentMapper.paymentToResponseProcessDto(initialPayment, senderAccountNumber, receiverAccountNumber)).thenReturn(responseProcessPaymentDto);
 
             ResponseProcessPaymentDto result = paymentServiceImpl.processPayment(requestProcessPaymentDto);
 
@@ -161,24 +293,28 @@ public class PaymentServiceImplTest {
             verify(paymentMapper, times(1)).requestProcessDtoToPayment(any());
             verify(paymentRepository, times(1)).findById(any());
             verify(accountRepository, times(1)).findById(any());
-            verify(paymentRepository, times(2)).save(any());
-            verify(validations, times(1)).validateTransactionUserFunds(any());
-            verify(transactions, times(1)).updateBalances(finalPayment.getSenderAccount(), finalPayment.getReceiverAccount(), finalPayment.getAmount());
+            verify(paymentRepository, times(1)).settlePending(any(), any(), any(), any(), any());
+            verify(paymentRepository, never()).save(any());
+            verify(validations, never()).validateTransactionUserFunds(any());
+            verify(transactions, times(1)).transfer("AccountID", finalPayment.getReceiverAccount(), finalPayment.getAmount());
             verify(paymentMapper, times(1)).paymentToResponseProcessDto(any(), any(), any());
+            verify(paymentQrCache, times(1)).remove("TransactionID");
+            verify(activityRecorder, times(1)).record(initialPayment);
+            assertThat(initialPayment.getTransactionStatus()).isEqualTo(TransactionStatus.ACCEPTED);
         }
 
         @Test
         public void process_payment_should_be_ok_due_denied() throws Exception{
             RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "AccountID", "DENIED", qrFor(LocalDateTime.now()));
 
             Payment initialPayment = new Payment("TransactionID", "senderName","SenderSurname", "123456789L",
                     "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(20.00),
-                    LocalDateTime.now(), TransactionStatus.PENDING, "Transaction Description", "QRcode");
+                    LocalDateTime.now(), TransactionStatus.PENDING, "Transaction Description");
 
             Payment finalPayment = new Payment("TransactionID", "senderName","SenderSurname", "123456789L",
                     "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(20.00),
-                    LocalDateTime.now(), TransactionStatus.DENIED, "Transaction Description", "QRcode");
+                    LocalDateTime.now(), TransactionStatus.DENIED, "Transaction Description");
 
             ResponseProcessPaymentDto responseProcessPaymentDto = new ResponseProcessPaymentDto("TransactionID","Sender Name",
                     "SenderSurname", "123456789L", "ReceiverName",
@@ -196,12 +332,12 @@ public class PaymentServiceImplTest {
             var userAccountPair = new Validations.UserAccountPair(new User(), senderAccount);
 
             when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
-            when(validations.statusConvert(any())).thenReturn(initialPayment.getTransactionStatus());
+            when(validations.statusConvert(any())).thenReturn(TransactionStatus.DENIED);
             when(paymentMapper.requestProcessDtoToPayment(any())).thenReturn(initialPayment);
             when(paymentRepository.findById(any())).thenReturn(Optional.of(initialPayment));
             when(accountRepository.findById(initialPayment.getReceiverAccount())).thenReturn(Optional.of(receiverAccount));
-            when(paymentRepository.save(any())).thenReturn(finalPayment);
-            when(paymentMapper.paymentToResponseProcessDto(finalPayment, senderAccountNumber, receiverAccountNumber)).thenReturn(responseProcessPaymentDto);
+            when(paymentRepository.settlePending("TransactionID", TransactionStatus.DENIED, null, null, "AccountID")).thenReturn(1);
+            when(paymentMapper.paymentToResponseProcessDto(initialPayment, senderAccountNumber, receiverAccountNumber)).thenReturn(responseProcessPaymentDto);
 
             ResponseProcessPaymentDto result = paymentServiceImpl.processPayment(requestProcessPaymentDto);
 
@@ -223,14 +359,16 @@ public class PaymentServiceImplTest {
             verify(paymentMapper, times(1)).requestProcessDtoToPayment(any());
             verify(paymentRepository, times(1)).findById(any());
             verify(accountRepository, times(1)).findById(any());
-            verify(paymentRepository, times(2)).save(any());
+            verify(paymentRepository, times(1)).settlePending(any(), any(), any(), any(), any());
+            verify(paymentRepository, never()).save(any());
+            verifyNoInteractions(transactions);
             verify(paymentMapper, times(1)).paymentToResponseProcessDto(any(), any(), any());
         }
 
         @Test
         public void process_payment_should_be_NOT_ok_due_credentials() throws Exception{
             RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "AccountID", "ACCEPTED", qrFor(LocalDateTime.now()));
 
             when(validations.getAuthenticatedUserAndAccount()).thenThrow(new ResourceNotFoundException("La cuenta indicada no coincide con el usuario logueado en la aplicación"));
             Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
@@ -241,13 +379,30 @@ public class PaymentServiceImplTest {
             assertTrue(actualMessage.contains(expectedMessage));
         }
 
+        @Test
+        public void process_payment_should_be_NOT_ok_when_sender_account_is_not_the_callers() throws Exception {
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
+                    "VictimAccountID", "ACCEPTED", qrFor(LocalDateTime.now()));
+            Account senderAccount = new Account("AccountID", 123456789L, BigDecimal.valueOf(200.00),
+                    true, "UserID", BigDecimal.valueOf(10.00));
+
+            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(new User(), senderAccount));
+
+            Exception exception = assertThrows(InvalidUserCredentialsException.class, () -> {
+                paymentServiceImpl.processPayment(requestProcessPaymentDto);
+            });
+
+            assertThat(exception.getMessage()).isEqualTo("La cuenta indicada no coincide con el usuario logueado en la aplicación");
+            verifyNoInteractions(paymentRepository, transactions, activityRecorder);
+        }
+
         @Test
         public void process_payment_should_be_NOT_ok_due_payment_not_found() throws Exception{
             RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "AccountID", "ACCEPTED", qrFor(LocalDateTime.now()));
             Payment initialPayment = new Payment("TransactionID", "senderName","SenderSurname", "123456789L",
                     "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(20.00),
-                    LocalDateTime.now(), TransactionStatus.PENDING, "Transaction Description", "QRcode");
+                    LocalDateTime.now(), TransactionStatus.PENDING, "Transaction Description");
             Account senderAccount = new Account("AccountID", 123456789L, BigDecimal.valueOf(200.00),
                     true, "UserID", BigDecimal.valueOf(10.00));
             String senderAccountNumber = senderAccount.getAccountNumber().toString();
@@ -269,11 +424,11 @@ public class PaymentServiceImplTest {
         @Test
         public void process_payment_should_be_NOT_ok_due_already_processed_payment() throws Exception{
             RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "AccountID", "ACCEPTED", qrFor(LocalDateTime.now()));
 
             Payment initialPayment = new Payment("TransactionID", "senderName","SenderSurname", "123456789L",
                     "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(20.00),
-                    LocalDateTime.now(), TransactionStatus.ACCEPTED, "Transaction Description", "QRcode");
+                    LocalDateTime.now(), TransactionStatus.ACCEPTED, "Transaction Description");
             Account senderAccount = new Account("AccountID", 123456789L, BigDecimal.valueOf(200.00),
                     true, "UserID", BigDecimal.valueOf(10.00));
             String senderAccountNumber = senderAccount.getAccountNumber().toString();
@@ -303,57 +458,129 @@ public class PaymentServiceImplTest {
             verify(validations, times(1)).getAuthenticatedUserAndAccount();
             verify(paymentRepository, times(1)).findById(any());
             verify(accountRepository, times(1)).findById(any());
+            verify(paymentRepository, never()).settlePending(any(), any(), any(), any(), any());
         }
 
         @Test
         public void process_payment_should_be_NOT_ok_due_expired_payment() throws Exception{
             RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "AccountID", "ACCEPTED", qrFor(LocalDateTime.now().minusMinutes(25)));
 
-            Payment initialPayment = new Payment("TransactionID", "senderName","SenderSurname", "123456789L",
-                    "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(20.00),
-                    LocalDateTime.now().minusMinutes(25), TransactionStatus.PENDING, "Transaction Description", "QRcode");
+            Exception exception = assertThrows(ExpiredTransactionException.class, () -> {
+                paymentServiceImpl.processPayment(requestProcessPaymentDto);
+            });
+
+            String expectedMessage = "El QR no puede ser procesado por exceso en el limite de tiempo. Genere uno nuevo.";
+            String actualMessage = exception.getMessage();
+            assertTrue(actualMessage.contains(expectedMessage));
+
+            // El QR vencido se rechaza solo con la firma, sin consultar la base.
+            verifyNoInteractions(validations, paymentRepository, accountRepository);
+        }
+
+        @Test
+        public void process_payment_should_be_NOT_ok_due_tampered_qr() throws Exception{
+            String qr = qrFor(LocalDateTime.now()).replace(":20.0:", ":1.0:");
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
+                    "AccountID", "ACCEPTED", qr);
+
+            Exception exception = assertThrows(InvalidDataException.class, () -> {
+                paymentServiceImpl.processPayment(requestProcessPaymentDto);
+            });
+
+            assertThat(exception.getMessage()).isEqualTo("El QR no es válido.");
+            verifyNoInteractions(validations, paymentRepository, accountRepository);
+        }
+
+        @Test
+        public void process_payment_should_be_NOT_ok_due_malformed_qr() throws Exception{
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
+                    "AccountID", "ACCEPTED", "PagoID:TransactionID");
+
+            assertThrows(InvalidDataException.class, () -> paymentServiceImpl.processPayment(requestProcessPaymentDto));
+            verifyNoInteractions(validations, paymentRepository, accountRepository);
+        }
+
+        @Test
+        public void process_payment_should_be_NOT_ok_due_qr_of_another_payment() throws Exception{
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("OtherTransactionID",
+                    "AccountID", "ACCEPTED", qrFor(LocalDateTime.now()));
+
+            Exception exception = assertThrows(InvalidDataException.class, () -> {
+                paymentServiceImpl.processPayment(requestProcessPaymentDto);
+            });
+
+            assertThat(exception.getMessage()).isEqualTo("El QR no corresponde al pago indicado.");
+            verifyNoInteractions(validations, paymentRepository, accountRepository);
+        }
+
+        @Test
+        public void process_payment_should_be_NOT_ok_due_qr_not_matching_stored_payment() throws Exception{
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
+                    "AccountID", "ACCEPTED", qrFor(LocalDateTime.now()));
+            Payment storedPayment = new Payment("TransactionID", "senderName","SenderSurname", "123456789L",
+                    "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(500.00),
+                    LocalDateTime.now(), TransactionStatus.PENDING, "Transaction Description");
             Account senderAccount = new Account("AccountID", 123456789L, BigDecimal.valueOf(200.00),
                     true, "UserID", BigDecimal.valueOf(10.00));
-            String senderAccountNumber = senderAccount.getAccountNumber().toString();
-
             Account receiverAccount = new Account("AccountID", 987654321L, BigDecimal.valueOf(200.00),
                     true, "UserID", BigDecimal.valueOf(10.00));
-            String receiverAccountNumber = receiverAccount.getAccountNumber().toString();
 
-            var userAccountPair = new Validations.UserAccountPair(new User(), senderAccount);
+            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(new User(), senderAccount));
+            when(validations.statusConvert(any())).thenReturn(TransactionStatus.ACCEPTED);
+            when(paymentMapper.requestProcessDtoToPayment(any())).thenReturn(storedPayment);
+            when(paymentRepository.findById(any())).thenReturn(Optional.of(storedPayment));
+            when(accountRepository.findById(storedPayment.getReceiverAccount())).thenReturn(Optional.of(receiverAccount));
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
-            when(validations.statusConvert(any())).thenReturn(initialPayment.getTransactionStatus());
-            when(paymentMapper.requestProcessDtoToPayment(any())).thenReturn(initialPayment);
-            when(paymentRepository.findById(any())).thenReturn(Optional.of(initialPayment));
-            when(accountRepository.findById(initialPayment.getReceiverAccount())).thenReturn(Optional.of(receiverAccount));
+            Exception exception = assertThrows(InvalidDataException.class, () -> {
+                paymentServiceImpl.processPayment(requestProcessPaymentDto);
+            });
+
+            assertThat(exception.getMessage()).isEqualTo("El QR no corresponde al pago indicado.");
+            verify(paymentRepository, never()).save(any());
+        }
+
+        @Test
+        public void process_payment_should_be_NOT_ok_when_another_payer_settled_first() throws Exception {
+            RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
+                    "AccountID", "ACCEPTED", qrFor(LocalDateTime.now()));
+            Payment storedPayment = new Payment("TransactionID", null, null, "123456789L",
+                    "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(20.00),
+                    LocalDateTime.now(), TransactionStatus.PENDING, "Transaction Description");
+            Account senderAccount = new Account("AccountID", 123456789L, BigDecimal.valueOf(200.00),
+                    true, "UserID", BigDecimal.valueOf(10.00));
+            Account receiverAccount = new Account("AccountID", 987654321L, BigDecimal.valueOf(200.00),
+                    true, "UserID", BigDecimal.valueOf(10.00));
+
+            when(validations.getAuthenticatedUserAndAccount()).thenReturn(new Validations.UserAccountPair(new User(), senderAccount));
+            when(validations.statusConvert(any())).thenReturn(TransactionStatus.ACCEPTED);
+            when(paymentMapper.requestProcessDtoToPayment(any())).thenReturn(storedPayment);
+            when(paymentRepository.findById(any())).thenReturn(Optional.of(storedPayment));
+            when(accountRepository.findById(storedPayment.getReceiverAccount())).thenReturn(Optional.of(receiverAccount));
+            // Leyó PENDING, pero el UPDATE condicionado no afecta filas: otro pagador ya lo cerró.
+            when(paymentRepository.settlePending(any(), any(), any(), any(), any())).thenReturn(0);
 
             Exception exception = assertThrows(ExpiredTransactionException.class, () -> {
                 paymentServiceImpl.processPayment(requestProcessPaymentDto);
             });
 
-            String expectedMessage = "El QR no puede ser procesado por exceso en el limite de tiempo. Genere uno nuevo.";
-            String actualMessage = exception.getMessage();
-            assertTrue(actualMessage.contains(expectedMessage));
-
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
-            verify(paymentRepository, times(1)).findById(any());
-            verify(accountRepository, times(1)).findById(any());
+            assertThat(exception.getMessage()).isEqualTo("El QR ya fue utilizado.");
+            verifyNoInteractions(transactions, activityRecorder);
+            verify(paymentQrCache, never()).remove(any());
         }
 
         @Test
         public void process_payment_should_be_NOT_ok_due_insufficient_funds() throws Exception {
             RequestProcessPaymentDto requestProcessPaymentDto = new RequestProcessPaymentDto("TransactionID",
-                    "SenderAccountID", "ACCEPTED");
+                    "AccountID", "ACCEPTED", qrFor(LocalDateTime.now()));
 
             Payment initialPayment = new Payment("TransactionID", "senderName","SenderSurname", "123456789L",
                     "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(20.00),
-                    LocalDateTime.now(), TransactionStatus.PENDING, "Transaction Description", "QRcode");
+                    LocalDateTime.now(), TransactionStatus.PENDING, "Transaction Description");
 
             Payment finalPayment = new Payment("TransactionID", "senderName","SenderSurname", "123456789L",
                     "ReceiverName", "receiverSurname", "987654321L", BigDecimal.valueOf(20.00),
-                    LocalDateTime.now(), TransactionStatus.ACCEPTED, "Transaction Description", "QRcode");
+                    LocalDateTime.now(), TransactionStatus.ACCEPTED, "Transaction Description");
 
             ResponseProcessPaymentDto responseProcessPaymentDto = new ResponseProcessPaymentDto("TransactionID","Sender Name",
                     "SenderSurname", "123456789L", "ReceiverName",
@@ -371,12 +598,12 @@ public class PaymentServiceImplTest {
             var userAccountPair = new Validations.UserAccountPair(new User(), senderAccount);
 
             when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
-            when(validations.statusConvert(any())).thenReturn(initialPayment.getTransactionStatus());
+            when(validations.statusConvert(any())).thenReturn(TransactionStatus.ACCEPTED);
             when(paymentMapper.requestProcessDtoToPayment(any())).thenReturn(initialPayment);
             when(paymentRepository.findById(any())).thenReturn(Optional.of(initialPayment));
             when(accountRepository.findById(initialPayment.getReceiverAccount())).thenReturn(Optional.of(receiverAccount));
-            when(paymentRepository.save(any())).thenReturn(finalPayment);
-            when(validations.validateTransactionUserFunds(finalPayment.getAmount())).thenReturn(false);
+            when(paymentRepository.settlePending(any(), any(), any(), any(), any())).thenReturn(1);
+            when(transactions.transfer("AccountID", "987654321L", finalPayment.getAmount())).thenReturn(false);
 
             Exception exception = assertThrows(InsufficientFundsException.class, () -> {
                 paymentServiceImpl.processPayment(requestProcessPaymentDto);
@@ -389,8 +616,10 @@ public class PaymentServiceImplTest {
             verify(validations, times(1)).getAuthenticatedUserAndAccount();
             verify(paymentRepository, times(1)).findById(any());
             verify(accountRepository, times(1)).findById(any());
-            verify(paymentRepository, times(2)).save(any());
-            verify(validations, times(1)).validateTransactionUserFunds(any());
+            // El débito condicionado decide; la excepción revierte el cambio de estado junto con la transacción.
+            verify(transactions, times(1)).transfer(any(), any(), any());
+            verify(validations, never()).validateTransactionUserFunds(any());
+            verifyNoInteractions(activityRecorder);
         }
     }
 
@@ -401,7 +630,7 @@ public class PaymentServiceImplTest {
             var payment = new Payment("paymentId", "senderName", "senderSurname", "senderId",
                     "receiverName", "receiverSurname", "receiverId",
                     BigDecimal.valueOf(100.50),
-                    LocalDateTime.now(), TransactionStatus.PENDING, "description", "qrCode");
+                    LocalDateTime.now(), TransactionStatus.PENDING, "description");
             List<Payment> paymentList = List.of(payment);
             var responseRecordPayment = new ResponseRecordPayment("paymentId", "senderName", "senderSurname", "senderAccount",
                     "receiverName", "receiverSurname", "receiverAccount",  BigDecimal.valueOf(100.50), "description",
@@ -411,10 +640,10 @@ public class PaymentServiceImplTest {
             Account testAccount = new Account();
             testAccount.setAccountNumber(123456789L);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
-            when(paymentRepository.findPaymentsByAccount(any())).thenReturn(paymentList);
-            when(accountRepository.findById(any())).thenReturn(Optional.of(testAccount));
-            when(paymentMapper.paymentToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
+            when(paymentRepository.findPaymentsByAccount(any())).thenReturn(summaries(paymentList));
+            when(accountNameResolver.resolve(any())).thenAnswer(invocation -> ownersOf(invocation.getArgument(0), testAccount));
+            when(paymentMapper.summaryToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
             var result = paymentServiceImpl.getAllPayments();
 
             assertThat(result).isNotNull();
@@ -425,15 +654,15 @@ public class PaymentServiceImplTest {
             assertThat(result.get(0).description()).isEqualTo(responseRecordPayment.description());
             assertThat(result.get(0).transactionDate()).isEqualTo(responseRecordPayment.transactionDate());
             assertThat(result.get(0).transactionStatus()).isEqualTo(responseRecordPayment.transactionStatus());
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(paymentRepository, times(1)).findPaymentsByAccount(any());
-            verify(accountRepository, times(2)).findById(any());
-            verify(paymentMapper, times(1)).paymentToResponseRecord(any(), anyString(),anyString());
+            verify(accountNameResolver, times(1)).resolve(any());
+            verify(paymentMapper, times(1)).summaryToResponseRecord(any(), anyString(),anyString());
         }
 
         @Test
         public void get_all_payments_should_NOT_be_Ok_due_NOT_FOUND() throws Exception {
-            when(validations.getAuthenticatedUserAndAccount()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
+            when(validations.getAuthenticatedAccountId()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
             Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
                 paymentServiceImpl.getAllPayments();
             });
@@ -450,7 +679,7 @@ public class PaymentServiceImplTest {
             var payment = new Payment("paymentId", "senderName", "senderSurname", "senderId",
                     "receiverName", "receiverSurname", "receiverId",
                     BigDecimal.valueOf(100.50),
-                    LocalDateTime.now(), TransactionStatus.DENIED, "description", "qrCode");
+                    LocalDateTime.now(), TransactionStatus.DENIED, "description");
             List<Payment> paymentList = List.of(payment);
             var responseRecordPayment = new ResponseRecordPayment("paymentId", "senderName", "senderSurname", "senderAccount",
                     "receiverName", "receiverSurname", "receiverAccount",  BigDecimal.valueOf(100.50), "description",
@@ -460,11 +689,11 @@ public class PaymentServiceImplTest {
             Account testAccount = new Account();
             testAccount.setAccountNumber(123456789L);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(validations.statusConvert(any())).thenReturn(TransactionStatus.DENIED);
-            when(paymentRepository.findPaymentsByStatus(any(), any())).thenReturn(paymentList);
-            when(accountRepository.findById(any())).thenReturn(Optional.of(testAccount));
-            when(paymentMapper.paymentToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
+            when(paymentRepository.findPaymentsByStatus(any(), any())).thenReturn(summaries(paymentList));
+            when(accountNameResolver.resolve(any())).thenAnswer(invocation -> ownersOf(invocation.getArgument(0), testAccount));
+            when(paymentMapper.summaryToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
             var result = paymentServiceImpl.getPaymentsByStatus(TransactionStatus.DENIED.toString());
 
             assertThat(result).isNotNull();
@@ -475,16 +704,16 @@ public class PaymentServiceImplTest {
             assertThat(result.get(0).description()).isEqualTo(responseRecordPayment.description());
             assertThat(result.get(0).transactionDate()).isEqualTo(responseRecordPayment.transactionDate());
             assertThat(result.get(0).transactionStatus()).isEqualTo(responseRecordPayment.transactionStatus());
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(validations, times(1)).statusConvert(any());
             verify(paymentRepository, times(1)).findPaymentsByStatus(any(), any());
-            verify(accountRepository, times(2)).findById(any());
-            verify(paymentMapper, times(1)).paymentToResponseRecord(any(), anyString(), anyString());
+            verify(accountNameResolver, times(1)).resolve(any());
+            verify(paymentMapper, times(1)).summaryToResponseRecord(any(), anyString(), anyString());
         }
 
         @Test
         public void get_payments_by_status_should_NOT_be_Ok_due_NOT_FOUND() throws Exception {
-            when(validations.getAuthenticatedUserAndAccount()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
+            when(validations.getAuthenticatedAccountId()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
             Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
                 paymentServiceImpl.getPaymentsByStatus("test");
             });
@@ -496,7 +725,7 @@ public class PaymentServiceImplTest {
         @Test
         public void get_payments_by_status_should_NOT_be_Ok_due_BAD_REQUEST() throws Exception {
             var userAccountPair = new Validations.UserAccountPair(new User(), new Account());
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(validations.statusConvert(any())).thenThrow(new InvalidDataException("El estado de la transacción no existe: "));
             Exception exception = assertThrows( InvalidDataException.class, () -> {
                 paymentServiceImpl.getPaymentsByStatus("test");
@@ -514,7 +743,7 @@ public class PaymentServiceImplTest {
             var payment = new Payment("paymentId", "senderName", "senderSurname", "senderId",
                     "receiverName", "receiverSurname", "receiverId",
                     BigDecimal.valueOf(100.50),
-                    LocalDateTime.now(), TransactionStatus.DENIED, "description", "qrCode");
+                    LocalDateTime.now(), TransactionStatus.DENIED, "description");
             List<Payment> paymentList = List.of(payment);
             var responseRecordPayment = new ResponseRecordPayment("paymentId", "senderName", "senderSurname", "senderAccount",
                     "receiverName", "receiverSurname", "receiverAccount", BigDecimal.valueOf(100.50), "description",
@@ -526,11 +755,11 @@ public class PaymentServiceImplTest {
             String todayWithoutHour = LocalDateTime.now().toLocalDate().toString();
             List<LocalDateTime> today24hs = Arrays.asList(LocalDate.now().atStartOfDay(), LocalDate.now().plusDays(1).atStartOfDay());
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(dateFormatter.getDateFromString(todayWithoutHour )).thenReturn(today24hs);
-            when(paymentRepository.findPaymentsByTransactionDate(any(), any(), any())).thenReturn(paymentList);
-            when(accountRepository.findById(any())).thenReturn(Optional.of(testAccount));
-            when(paymentMapper.paymentToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
+            when(paymentRepository.findPaymentsByTransactionDate(any(), any(), any())).thenReturn(summaries(paymentList));
+            when(accountNameResolver.resolve(any())).thenAnswer(invocation -> ownersOf(invocation.getArgument(0), testAccount));
+            when(paymentMapper.summaryToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
             var result = paymentServiceImpl.getPaymentsByDate(todayWithoutHour);
 
             assertThat(result).isNotNull();
@@ -541,15 +770,15 @@ public class PaymentServiceImplTest {
             assertThat(result.get(0).description()).isEqualTo(responseRecordPayment.description());
             assertThat(result.get(0).transactionDate()).isEqualTo(responseRecordPayment.transactionDate());
             assertThat(result.get(0).transactionStatus()).isEqualTo(responseRecordPayment.transactionStatus());
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(paymentRepository, times(1)).findPaymentsByTransactionDate(any(), any(), any());
-            verify(accountRepository, times(2)).findById(any());
-            verify(paymentMapper, times(1)).paymentToResponseRecord(any(), anyString(), anyString());
+            verify(accountNameResolver, times(1)).resolve(any());
+            verify(paymentMapper, times(1)).summaryToResponseRecord(any(), anyString(), anyString());
         }
 
         @Test
         public void get_payments_by_status_should_NOT_be_Ok_due_NOT_FOUND() throws Exception {
-            when(validations.getAuthenticatedUserAndAccount()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
+            when(validations.getAuthenticatedAccountId()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
             Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
                 paymentServiceImpl.getPaymentsByDate("test");
             });
@@ -561,7 +790,7 @@ public class PaymentServiceImplTest {
         @Test
         public void get_payments_by_status_should_NOT_be_Ok_due_BAD_REQUEST() throws Exception {
             var userAccountPair = new Validations.UserAccountPair(new User(), new Account());
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(dateFormatter.getDateFromString(any())).thenThrow(new InvalidDateFormatException("Formato de fecha erroneo. Debe ingresar yyyy-MM-dd"));
             Exception exception = assertThrows(InvalidDateFormatException.class, () -> {
                 paymentServiceImpl.getPaymentsByDate("test");
@@ -579,7 +808,7 @@ public class PaymentServiceImplTest {
             var payment = new Payment("paymentId", "senderName", "senderSurname", "senderId",
                     "receiverName", "receiverSurname", "receiverId",
                     BigDecimal.valueOf(100.50),
-                    LocalDateTime.now(), TransactionStatus.DENIED, "description", "qrCode");
+                    LocalDateTime.now(), TransactionStatus.DENIED, "description");
             List<Payment> paymentList = List.of(payment);
             var responseRecordPayment = new ResponseRecordPayment("paymentId", "senderName", "senderSurname", "senderAccount",
                     "receiverName", "receiverSurname", "receiverAccount", BigDecimal.valueOf(100.50), "description",
@@ -592,11 +821,11 @@ public class PaymentServiceImplTest {
             String endDate = "2024-10-07";
             List<LocalDateTime> dates = Arrays.asList(LocalDate.now().minusDays(7).atStartOfDay(), LocalDate.now().atStartOfDay());
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(dateFormatter.getDateFromString(startDate, endDate)).thenReturn(dates);
-            when(paymentRepository.findPaymentsBetweenDates(any(), any(), any())).thenReturn(paymentList);
-            when(accountRepository.findById(any())).thenReturn(Optional.of(testAccount));
-            when(paymentMapper.paymentToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
+            when(paymentRepository.findPaymentsBetweenDates(any(), any(), any())).thenReturn(summaries(paymentList));
+            when(accountNameResolver.resolve(any())).thenAnswer(invocation -> ownersOf(invocation.getArgument(0), testAccount));
+            when(paymentMapper.summaryToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
             var result = paymentServiceImpl.getPaymentsBetweenDates(startDate, endDate);
 
             assertThat(result).isNotNull();
@@ -607,15 +836,15 @@ public class PaymentServiceImplTest {
             assertThat(result.get(0).description()).isEqualTo(responseRecordPayment.description());
             assertThat(result.get(0).transactionDate()).isEqualTo(responseRecordPayment.transactionDate());
             assertThat(result.get(0).transactionStatus()).isEqualTo(responseRecordPayment.transactionStatus());
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(paymentRepository, times(1)).findPaymentsBetweenDates(any(), any(), any());
-            verify(accountRepository, times(2)).findById(any());
-            verify(paymentMapper, times(1)).paymentToResponseRecord(any(), anyString(), anyString());
+            verify(accountNameResolver, times(1)).resolve(any());
+            verify(paymentMapper, times(1)).summaryToResponseRecord(any(), anyString(), anyString());
         }
 
         @Test
         public void get_between_dates_should_NOT_be_ok_due_user_not_found() throws Exception{
-            when(validations.getAuthenticatedUserAndAccount()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
+            when(validations.getAuthenticatedAccountId()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
             Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
                 paymentServiceImpl.getPaymentsBetweenDates("fromDate", "toDate");
             });
@@ -627,7 +856,7 @@ public class PaymentServiceImplTest {
         @Test
         public void get_between_dates_should_NOT_be_ok_due_invalid_date_format() throws Exception{
             var userAccountPair = new Validations.UserAccountPair(new User(), new Account());
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(dateFormatter.getDateFromString(any(), any())).thenThrow(new InvalidDateFormatException("Formato de fecha erroneo. Debe ingresar yyyy-MM-dd"));
             Exception exception = assertThrows(InvalidDateFormatException.class, () -> {
                 paymentServiceImpl.getPaymentsBetweenDates("fromDate", "toDate");
@@ -643,7 +872,7 @@ public class PaymentServiceImplTest {
             String fromDate = "2024-10-07";
             String toDate = "2024-10-03";
             List<LocalDateTime> dates = Arrays.asList(LocalDate.now().minusDays(7).atStartOfDay(), LocalDate.now().atStartOfDay());
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
             when(dateFormatter.getDateFromString(any(), any())).thenReturn(dates);
             when(paymentServiceImpl.getPaymentsBetweenDates(fromDate, toDate)).thenThrow(new ValidationException("La fecha final no puede ser menor a la inicial."));
             Exception exception = assertThrows(ValidationException.class, () -> {
@@ -662,7 +891,7 @@ public class PaymentServiceImplTest {
             var payment = new Payment("paymentId", "senderName", "senderSurname", "senderId",
                     "receiverName", "receiverSurname", "receiverId",
                     BigDecimal.valueOf(100.50),
-                    LocalDateTime.now(), TransactionStatus.PENDING, "description", "qrCode");
+                    LocalDateTime.now(), TransactionStatus.PENDING, "description");
             List<Payment> paymentList = List.of(payment);
             var responseRecordPayment = new ResponseRecordPayment("paymentId", "senderName", "senderSurname", "senderAccount",
                     "receiverName", "receiverSurname", "receiverAccount",  BigDecimal.valueOf(100.50), "description",
@@ -672,10 +901,10 @@ public class PaymentServiceImplTest {
             Account testAccount = new Account();
             testAccount.setAccountNumber(123456789L);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
-            when(paymentRepository.findPaymentsAsClient(any())).thenReturn(paymentList);
-            when(accountRepository.findById(any())).thenReturn(Optional.of(testAccount));
-            when(paymentMapper.paymentToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
+            when(paymentRepository.findPaymentsAsClient(any())).thenReturn(summaries(paymentList));
+            when(accountNameResolver.resolve(any())).thenAnswer(invocation -> ownersOf(invocation.getArgument(0), testAccount));
+            when(paymentMapper.summaryToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
             var result = paymentServiceImpl.getPaymentsAsClient();
 
             assertThat(result).isNotNull();
@@ -686,15 +915,15 @@ public class PaymentServiceImplTest {
             assertThat(result.get(0).description()).isEqualTo(responseRecordPayment.description());
             assertThat(result.get(0).transactionDate()).isEqualTo(responseRecordPayment.transactionDate());
             assertThat(result.get(0).transactionStatus()).isEqualTo(responseRecordPayment.transactionStatus());
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(paymentRepository, times(1)).findPaymentsAsClient(any());
-            verify(accountRepository, times(2)).findById(any());
-            verify(paymentMapper, times(1)).paymentToResponseRecord(any(), anyString(),anyString());
+            verify(accountNameResolver, times(1)).resolve(any());
+            verify(paymentMapper, times(1)).summaryToResponseRecord(any(), anyString(),anyString());
         }
 
         @Test
         public void get_as_client_should_NOT_be_ok() throws Exception{
-            when(validations.getAuthenticatedUserAndAccount()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
+            when(validations.getAuthenticatedAccountId()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
             Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
                 paymentServiceImpl.getPaymentsAsClient();
             });
@@ -711,7 +940,7 @@ public class PaymentServiceImplTest {
             var payment = new Payment("paymentId", "senderName", "senderSurname", "senderId",
                     "receiverName", "receiverSurname", "receiverId",
                     BigDecimal.valueOf(100.50),
-                    LocalDateTime.now(), TransactionStatus.PENDING, "description", "qrCode");
+                    LocalDateTime.now(), TransactionStatus.PENDING, "description");
             List<Payment> paymentList = List.of(payment);
             var responseRecordPayment = new ResponseRecordPayment("paymentId", "senderName", "senderSurname", "senderAccount",
                     "receiverName", "receiverSurname", "receiverAccount",  BigDecimal.valueOf(100.50), "description",
@@ -721,10 +950,10 @@ public class PaymentServiceImplTest {
             Account testAccount = new Account();
             testAccount.setAccountNumber(123456789L);
 
-            when(validations.getAuthenticatedUserAndAccount()).thenReturn(userAccountPair);
-            when(paymentRepository.findPaymentsAsSeller(any())).thenReturn(paymentList);
-            when(accountRepository.findById(any())).thenReturn(Optional.of(testAccount));
-            when(paymentMapper.paymentToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
+            when(validations.getAuthenticatedAccountId()).thenReturn(userAccountPair.account.getId());
+            when(paymentRepository.findPaymentsAsSeller(any())).thenReturn(summaries(paymentList));
+            when(accountNameResolver.resolve(any())).thenAnswer(invocation -> ownersOf(invocation.getArgument(0), testAccount));
+            when(paymentMapper.summaryToResponseRecord(any(), anyString(), anyString())).thenReturn(responseRecordPayment);
             var result = paymentServiceImpl.getPaymentsAsSeller();
 
             assertThat(result).isNotNull();
@@ -735,15 +964,15 @@ public class PaymentServiceImplTest {
             assertThat(result.get(0).description()).isEqualTo(responseRecordPayment.description());
             assertThat(result.get(0).transactionDate()).isEqualTo(responseRecordPayment.transactionDate());
             assertThat(result.get(0).transactionStatus()).isEqualTo(responseRecordPayment.transactionStatus());
-            verify(validations, times(1)).getAuthenticatedUserAndAccount();
+            verify(validations, times(1)).getAuthenticatedAccountId();
             verify(paymentRepository, times(1)).findPaymentsAsSeller(any());
-            verify(accountRepository, times(2)).findById(any());
-            verify(paymentMapper, times(1)).paymentToResponseRecord(any(), anyString(),anyString());
+            verify(accountNameResolver, times(1)).resolve(any());
+            verify(paymentMapper, times(1)).summaryToResponseRecord(any(), anyString(),anyString());
         }
 
         @Test
         public void get_as_seller_should_NOT_be_ok() throws Exception{
-            when(validations.getAuthenticatedUserAndAccount()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
+            when(validations.getAuthenticatedAccountId()).thenThrow(new ResourceNotFoundException("Cuenta no encontrada para el usuario"));
             Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
                 paymentServiceImpl.getPaymentsAsSeller();
             });
@@ -0,0 +1,256 @@
+package com.igrowker.nativo.unit.services.implementations;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.igrowker.nativo.dtos.payment.QrFormat;
+import com.igrowker.nativo.services.implementation.QRService;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.igrowker.nativo.BenchmarkSupport.medianNanos;
+import static com.igrowker.nativo.BenchmarkSupport.report;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QRServiceTest {
+
+    private final QRService qrService = new QRService();
+
+    @Nested
+    class GenerateQrCodeTests {
+        @Test
+        public void generate_qr_should_be_a_1_bit_grayscale_png() throws Exception {
+            byte[] png = qrService.generateQrCode("paymentId");
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+
+            assertThat(image.getWidth()).isEqualTo(250);
+            assertThat(image.getHeight()).isEqualTo(250);
+            // IHDR: profundidad de bits y tipo de color, después de la firma y el largo/tipo del chunk.
+            assertThat(png[24]).isEqualTo((byte) 1);
+            assertThat(png[25]).isEqualTo((byte) 0);
+        }
+
+        @Test
+        public void generate_qr_should_match_previous_rendering_pixel_by_pixel() throws Exception {
+            for (int i = 0; i < 20; i++) {
+                String paymentId = UUID.randomUUID().toString();
+                BufferedImage current = ImageIO.read(new ByteArrayInputStream(qrService.generateQrCode(paymentId)));
+                BufferedImage previous = ImageIO.read(new ByteArrayInputStream(legacyQrCode(paymentId)));
+
+                for (int x = 0; x < 250; x++) {
+                    for (int y = 0; y < 250; y++) {
+                        assertThat(current.getRGB(x, y) & 0xFFFFFF)
+                                .as("pixel (%d, %d) de %s", x, y, paymentId)
+                                .isEqualTo(previous.getRGB(x, y) & 0xFFFFFF);
+                    }
+                }
+            }
+        }
+
+        @Test
+        public void generate_qr_should_decode_to_payment_id() throws Exception {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(qrService.generateQrCode("abc-123")));
+            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+
+            assertThat(new QRCodeReader().decode(bitmap).getText()).isEqualTo("abc-123");
+        }
+
+        @Test
+        public void generate_qr_should_be_stable_across_threads() throws Exception {
+            byte[] expected = qrService.generateQrCode("paymentId");
+            byte[][] results = new byte[8][];
+            Thread[] threads = new Thread[results.length];
+            for (int i = 0; i < threads.length; i++) {
+                int slot = i;
+                threads[i] = new Thread(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        qrService.generateQrCode(UUID.randomUUID().toString());
+                    }
+                    results[slot] = qrService.generateQrCode("paymentId");
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            for (byte[] result : results) {
+                assertThat(result).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Nested
+    class RenderQrCodeTests {
+        @Test
+        public void payload_should_be_the_encoded_content() {
+            assertThat(qrService.renderQrCode("abc-123", QrFormat.PAYLOAD)).isEqualTo("abc-123");
+        }
+
+        @Test
+        public void matrix_should_match_png_modules() throws Exception {
+            String paymentId = UUID.randomUUID().toString();
+            String[] rows = qrService.renderQrCode(paymentId, QrFormat.MATRIX).split("\n");
+            BitMatrix modules = new QRCodeWriter().encode(paymentId, BarcodeFormat.QR_CODE, 0, 0,
+                    Map.of(EncodeHintType.CHARACTER_SET, "UTF-8"));
+
+            assertThat(rows).hasSize(modules.getHeight() - 8);
+            for (int y = 0; y < rows.length; y++) {
+                assertThat(rows[y]).hasSize(modules.getWidth() - 8);
+                for (int x = 0; x < rows[y].length(); x++) {
+                    assertThat(rows[y].charAt(x) == '1').isEqualTo(modules.get(x + 4, y + 4));
+                }
+            }
+        }
+
+        @Test
+        public void svg_should_draw_every_black_module() {
+            String paymentId = UUID.randomUUID().toString();
+            String[] rows = qrService.renderQrCode(paymentId, QrFormat.MATRIX).split("\n");
+            String svg = qrService.renderQrCode(paymentId, QrFormat.SVG);
+
+            int side = rows.length + 8;
+            assertThat(svg).startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 " + side + " " + side + "\"");
+            assertThat(svg).endsWith("</svg>");
+
+            boolean[][] drawn = new boolean[side][side];
+            Matcher run = Pattern.compile("M(\\d+) (\\d+)h(\\d+)v1h-\\3z").matcher(svg);
+            while (run.find()) {
+                int x = Integer.parseInt(run.group(1));
+                int y = Integer.parseInt(run.group(2));
+                for (int i = 0; i < Integer.parseInt(run.group(3)); i++) {
+                    drawn[y][x + i] = true;
+                }
+            }
+            for (int y = 0; y < rows.length; y++) {
+                for (int x = 0; x < rows[y].length(); x++) {
+                    assertThat(drawn[y + 4][x + 4]).isEqualTo(rows[y].charAt(x) == '1');
+                }
+            }
+        }
+
+        @Test
+        public void png_should_NOT_be_rendered_as_text() {
+            assertThrows(IllegalArgumentException.class, () -> qrService.renderQrCode("abc-123", QrFormat.PNG));
+        }
+    }
+
+    /**
+     * Compara el renderer contra la implementación anterior (BufferedImage RGB + ImageIO).
+     * No corre en el build normal: {@code mvn test -Dtest=QRServiceTest -Dbenchmark=true}.
+     * Registra la mediana de tiempo y los bytes alocados por QR de cada variante.
+     */
+    @Nested
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    class RendererBenchmark {
+        private static final int WARMUP = 5;
+        private static final int RUNS = 15;
+        private static final int BATCH = 1_000;
+
+        @Test
+        public void compare_with_previous_renderer() {
+            String[] ids = new String[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                ids[i] = signedContent();
+            }
+
+            Result previous = measure(ids, QRServiceTest::legacyQrCode);
+            Result current = measure(ids, qrService::generateQrCode);
+            report("ImageIO:  %8.1f us/qr  %9d bytes/qr  %5d bytes png",
+                    previous.micros, previous.allocated, legacyQrCode(ids[0]).length);
+            report("1-bit:    %8.1f us/qr  %9d bytes/qr  %5d bytes png   (x%.1f)",
+                    current.micros, current.allocated, qrService.generateQrCode(ids[0]).length,
+                    previous.micros / current.micros);
+
+            assertThat(current.micros).isLessThan(previous.micros);
+            assertThat(current.allocated).isLessThan(previous.allocated);
+            assertThat(qrService.generateQrCode(ids[0]).length).isLessThan(legacyQrCode(ids[0]).length);
+        }
+
+        @Test
+        public void compare_text_formats_with_png() {
+            String[] ids = new String[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                ids[i] = signedContent();
+            }
+
+            Result png = measure(ids, qrService::generateQrCode);
+            report("%-8s %8.1f us/qr  %9d bytes/qr  %5d bytes",
+                    "PNG", png.micros, png.allocated, qrService.generateQrCode(ids[0]).length);
+            for (QrFormat format : new QrFormat[]{QrFormat.SVG, QrFormat.MATRIX, QrFormat.PAYLOAD}) {
+                Result text = measure(ids, id -> qrService.renderQrCode(id, format).getBytes());
+                report("%-8s %8.1f us/qr  %9d bytes/qr  %5d bytes   (x%.1f)",
+                        format, text.micros, text.allocated, qrService.renderQrCode(ids[0], format).length(),
+                        png.micros / text.micros);
+
+                // Los formatos de texto se ahorran la compresión del PNG.
+                assertThat(text.micros).as(format.name()).isLessThan(png.micros);
+            }
+        }
+
+        private Result measure(String[] ids, Function<String, byte[]> render) {
+            Runnable batch = () -> {
+                for (String id : ids) {
+                    render.apply(id);
+                }
+            };
+            double micros = medianNanos(WARMUP, RUNS, batch) / 1_000.0 / BATCH;
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+            batch.run();
+            return new Result(micros, (threads.getThreadAllocatedBytes(threadId) - bytesBefore) / BATCH);
+        }
+
+        // Mismo largo que el contenido que firma PaymentQrSigner.
+        private String signedContent() {
+            return "PAGO:" + UUID.randomUUID() + ":100.50:" + UUID.randomUUID() + ":1727787600:"
+                    + UUID.randomUUID().toString().substring(0, 22);
+        }
+
+        private record Result(double micros, long allocated) {
+        }
+    }
+
+    // Implementación previa de QRService.generateQrCode, como referencia de pixeles y de rendimiento.
+    private static byte[] legacyQrCode(String content) {
+        try {
+            QRCodeWriter qrCodeWriter = new QRCodeWriter();
+            Map<EncodeHintType, Object> hints = new HashMap<>();
+            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+
+            BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, 250, 250, hints);
+            BufferedImage qrImage = new BufferedImage(250, 250, BufferedImage.TYPE_INT_RGB);
+            for (int x = 0; x < 250; x++) {
+                for (int y = 0; y < 250; y++) {
+                    qrImage.setRGB(x, y, bitMatrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
+                }
+            }
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ImageIO.write(qrImage, "png", outputStream);
+            return outputStream.toByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
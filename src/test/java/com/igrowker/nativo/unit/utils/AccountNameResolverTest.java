@@ -0,0 +1,77 @@
+package com.igrowker.nativo.unit.utils;
+
+import com.igrowker.nativo.entities.Account;
+import com.igrowker.nativo.entities.User;
+import com.igrowker.nativo.exceptions.ResourceNotFoundException;
+import com.igrowker.nativo.repositories.AccountRepository;
+import com.igrowker.nativo.repositories.UserRepository;
+import com.igrowker.nativo.utils.AccountNameResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountNameResolverTest {
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private UserRepository userRepository;
+    @InjectMocks
+    private AccountNameResolver accountNameResolver;
+
+    @Test
+    public void resolve_should_use_one_query_for_accounts_and_one_for_users() {
+        Account first = new Account("a1", 111L, BigDecimal.ZERO, true, "u1", BigDecimal.ZERO);
+        Account second = new Account("a2", 222L, BigDecimal.ZERO, true, "u2", BigDecimal.ZERO);
+        User firstUser = new User();
+        firstUser.setId("u1");
+        firstUser.setName("Jane");
+        firstUser.setSurname("Doe");
+        User secondUser = new User();
+        secondUser.setId("u2");
+        secondUser.setName("John");
+        secondUser.setSurname("Smith");
+
+        when(accountRepository.findAllById(Set.of("a1", "a2"))).thenReturn(List.of(first, second));
+        when(userRepository.findAllById(Set.of("u1", "u2"))).thenReturn(List.of(firstUser, secondUser));
+
+        Map<String, AccountNameResolver.AccountOwner> owners =
+                accountNameResolver.resolve(Arrays.asList("a1", "a2", "a1", null));
+
+        assertThat(owners).hasSize(2);
+        assertThat(owners.get("a1").accountNumber()).isEqualTo(111L);
+        assertThat(owners.get("a2").fullname()).isEqualTo("SMITH, John");
+        verify(accountRepository, times(1)).findAllById(any());
+        verify(userRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    public void resolve_with_no_ids_should_not_query() {
+        assertThat(accountNameResolver.resolve(List.of())).isEmpty();
+        verifyNoInteractions(accountRepository, userRepository);
+    }
+
+    @Test
+    public void resolve_with_unknown_account_should_throw_exception() {
+        when(accountRepository.findAllById(Set.of("a1"))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> accountNameResolver.resolve(List.of("a1")))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
@@ -0,0 +1,118 @@
+package com.igrowker.nativo.unit.utils;
+
+import com.igrowker.nativo.exceptions.ResourceNotFoundException;
+import com.igrowker.nativo.repositories.AccountRepository;
+import com.igrowker.nativo.utils.GeneralTransactions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GeneralTransactionsTest {
+
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(100);
+
+    @Mock
+    private AccountRepository accountRepository;
+    @InjectMocks
+    private GeneralTransactions generalTransactions;
+
+    @Nested
+    class TransferTests {
+        @Test
+        public void transfer_should_debit_first_when_sender_has_the_lower_id() {
+            when(accountRepository.debitIfAvailable("a-sender", AMOUNT)).thenReturn(1);
+            when(accountRepository.addToBalance("b-receiver", AMOUNT)).thenReturn(1);
+
+            assertThat(generalTransactions.transfer("a-sender", "b-receiver", AMOUNT)).isTrue();
+
+            InOrder order = inOrder(accountRepository);
+            order.verify(accountRepository).debitIfAvailable("a-sender", AMOUNT);
+            order.verify(accountRepository).addToBalance("b-receiver", AMOUNT);
+            verify(accountRepository, never()).findById(any());
+            verify(accountRepository, never()).save(any());
+        }
+
+        @Test
+        public void transfer_should_credit_first_when_receiver_has_the_lower_id() {
+            when(accountRepository.addToBalance("a-receiver", AMOUNT)).thenReturn(1);
+            when(accountRepository.debitIfAvailable("b-sender", AMOUNT)).thenReturn(1);
+
+            assertThat(generalTransactions.transfer("b-sender", "a-receiver", AMOUNT)).isTrue();
+
+            InOrder order = inOrder(accountRepository);
+            order.verify(accountRepository).addToBalance("a-receiver", AMOUNT);
+            order.verify(accountRepository).debitIfAvailable("b-sender", AMOUNT);
+        }
+
+        @Test
+        public void transfer_should_NOT_credit_when_sender_has_insufficient_funds() {
+            when(accountRepository.debitIfAvailable("a-sender", AMOUNT)).thenReturn(0);
+            when(accountRepository.existsById("a-sender")).thenReturn(true);
+
+            assertThat(generalTransactions.transfer("a-sender", "b-receiver", AMOUNT)).isFalse();
+
+            verify(accountRepository, never()).addToBalance(any(), any());
+        }
+
+        @Test
+        public void transfer_should_revert_credit_when_sender_has_insufficient_funds() {
+            when(accountRepository.addToBalance("a-receiver", AMOUNT)).thenReturn(1);
+            when(accountRepository.debitIfAvailable("b-sender", AMOUNT)).thenReturn(0);
+            when(accountRepository.existsById("b-sender")).thenReturn(true);
+
+            assertThat(generalTransactions.transfer("b-sender", "a-receiver", AMOUNT)).isFalse();
+
+            verify(accountRepository, times(1)).addToBalance("a-receiver", AMOUNT.negate());
+        }
+
+        @Test
+        public void transfer_should_throw_when_sender_does_not_exist() {
+            when(accountRepository.debitIfAvailable("a-sender", AMOUNT)).thenReturn(0);
+            when(accountRepository.existsById("a-sender")).thenReturn(false);
+
+            Exception exception = assertThrows(ResourceNotFoundException.class,
+                    () -> generalTransactions.transfer("a-sender", "b-receiver", AMOUNT));
+
+            assertThat(exception.getMessage()).isEqualTo("Cuenta de emisor no encontrada");
+        }
+
+        @Test
+        public void transfer_should_throw_when_receiver_does_not_exist() {
+            when(accountRepository.debitIfAvailable("a-sender", AMOUNT)).thenReturn(1);
+            when(accountRepository.addToBalance("b-receiver", AMOUNT)).thenReturn(0);
+
+            Exception exception = assertThrows(ResourceNotFoundException.class,
+                    () -> generalTransactions.transfer("a-sender", "b-receiver", AMOUNT));
+
+            assertThat(exception.getMessage()).isEqualTo("Cuenta de receptor no encontrada");
+        }
+    }
+
+    @Nested
+    class UpdateBalancesTests {
+        @Test
+        public void update_balances_should_move_without_checking_funds() {
+            when(accountRepository.addToBalance("a-sender", AMOUNT.negate())).thenReturn(1);
+            when(accountRepository.addToBalance("b-receiver", AMOUNT)).thenReturn(1);
+
+            generalTransactions.updateBalances("a-sender", "b-receiver", AMOUNT);
+
+            InOrder order = inOrder(accountRepository);
+            order.verify(accountRepository).addToBalance("a-sender", AMOUNT.negate());
+            order.verify(accountRepository).addToBalance("b-receiver", AMOUNT);
+            verify(accountRepository, never()).debitIfAvailable(any(), any());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.igrowker.nativo.unit.utils;
+
+import com.igrowker.nativo.dtos.microcredit.MarketplaceSort;
+import com.igrowker.nativo.dtos.microcredit.ResponseMarketplaceMicrocreditDto;
+import com.igrowker.nativo.dtos.microcredit.ResponseMarketplacePageDto;
+import com.igrowker.nativo.entities.Microcredit;
+import com.igrowker.nativo.entities.TransactionStatus;
+import com.igrowker.nativo.exceptions.InvalidDataException;
+import com.igrowker.nativo.mappers.MicrocreditMapper;
+import com.igrowker.nativo.repositories.MicrocreditRepository;
+import com.igrowker.nativo.utils.MicrocreditMarketplace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MicrocreditMarketplaceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 10, 1, 12, 0);
+
+    @Mock
+    private MicrocreditRepository microcreditRepository;
+
+    private MicrocreditMarketplace marketplace;
+
+    @BeforeEach
+    public void setup() {
+        marketplace = new MicrocreditMarketplace(microcreditRepository, Mappers.getMapper(MicrocreditMapper.class));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Microcredit microcredit(String id, long amount, long remaining, int expiresInDays, TransactionStatus status) {
+        Microcredit microcredit = new Microcredit();
+        microcredit.setId(id);
+        microcredit.setBorrowerAccountId("borrower-" + id);
+        microcredit.setTitle("Microcrédito " + id);
+        microcredit.setAmount(BigDecimal.valueOf(amount));
+        microcredit.setRemainingAmount(BigDecimal.valueOf(remaining));
+        microcredit.setCreatedDate(NOW.minusDays(1));
+        microcredit.setExpirationDate(NOW.plusDays(expiresInDays));
+        microcredit.setTransactionStatus(status);
+        return microcredit;
+    }
+
+    private List<String> ids(ResponseMarketplacePageDto page) {
+        return page.microcredits().stream().map(ResponseMarketplaceMicrocreditDto::id).toList();
+    }
+
+    @Test
+    public void page_should_be_sorted_by_the_requested_key() {
+        marketplace.update(microcredit("a", 1000, 900, 3, TransactionStatus.PENDING));
+        marketplace.update(microcredit("b", 1000, 200, 1, TransactionStatus.PENDING));
+        marketplace.update(microcredit("c", 4000, 2000, 2, TransactionStatus.PENDING));
+
+        assertThat(ids(marketplace.page(MarketplaceSort.REMAINING_AMOUNT, false, null, 10, NOW)))
+                .containsExactly("b", "a", "c");
+        assertThat(ids(marketplace.page(MarketplaceSort.EXPIRATION_DATE, false, null, 10, NOW)))
+                .containsExactly("b", "c", "a");
+        assertThat(ids(marketplace.page(MarketplaceSort.FUNDING_PERCENTAGE, true, null, 10, NOW)))
+                .containsExactly("b", "c", "a");
+    }
+
+    @Test
+    public void funding_percentage_should_be_calculated_from_remaining_amount() {
+        marketplace.update(microcredit("a", 3000, 1000, 3, TransactionStatus.PENDING));
+
+        ResponseMarketplaceMicrocreditDto listing = marketplace.page(MarketplaceSort.FUNDING_PERCENTAGE, false,
+                null, 10, NOW).microcredits().get(0);
+
+        assertThat(listing.fundingPercentage()).isEqualByComparingTo("66.67");
+    }
+
+    @Test
+    public void cursor_should_walk_every_listing_once() {
+        for (int i = 0; i < 25; i++) {
+            marketplace.update(microcredit("id-" + i, 1000, 100 + (i % 5) * 100, 1 + i, TransactionStatus.PENDING));
+        }
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ResponseMarketplacePageDto page = marketplace.page(MarketplaceSort.REMAINING_AMOUNT, true, cursor, 10, NOW);
+            seen.addAll(ids(page));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(25).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void contribution_should_move_the_listing_and_acceptance_should_remove_it() {
+        Microcredit microcredit = microcredit("a", 1000, 1000, 3, TransactionStatus.PENDING);
+        marketplace.update(microcredit);
+        marketplace.update(microcredit("b", 1000, 500, 3, TransactionStatus.PENDING));
+
+        microcredit.setRemainingAmount(BigDecimal.valueOf(100));
+        marketplace.update(microcredit);
+        assertThat(ids(marketplace.page(MarketplaceSort.REMAINING_AMOUNT, false, null, 10, NOW)))
+                .containsExactly("a", "b");
+
+        microcredit.setRemainingAmount(BigDecimal.ZERO);
+        microcredit.setTransactionStatus(TransactionStatus.ACCEPTED);
+        marketplace.update(microcredit);
+        assertThat(ids(marketplace.page(MarketplaceSort.REMAINING_AMOUNT, false, null, 10, NOW)))
+                .containsExactly("b");
+        assertThat(marketplace.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void expired_listings_should_NOT_be_offered() {
+        marketplace.update(microcredit("a", 1000, 1000, 3, TransactionStatus.PENDING));
+        marketplace.update(microcredit("b", 1000, 1000, 1, TransactionStatus.PENDING));
+
+        assertThat(ids(marketplace.page(MarketplaceSort.EXPIRATION_DATE, false, null, 10, NOW.plusDays(2))))
+                .containsExactly("a");
+    }
+
+    @Test
+    public void change_inside_a_transaction_should_apply_only_after_commit() {
+        TransactionSynchronizationManager.initSynchronization();
+        marketplace.update(microcredit("a", 1000, 1000, 3, TransactionStatus.PENDING));
+
+        assertThat(marketplace.size()).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(marketplace.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void commits_applied_out_of_order_should_keep_the_newest_contribution() {
+        TransactionSynchronizationManager.initSynchronization();
+        Microcredit first = microcredit("a", 1000, 800, 3, TransactionStatus.PENDING);
+        first.setContributionCount(1);
+        marketplace.update(first);
+        Microcredit second = microcredit("a", 1000, 500, 3, TransactionStatus.PENDING);
+        second.setContributionCount(2);
+        marketplace.update(second);
+
+        List<TransactionSynchronization> commits =
+                new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        commits.get(1).afterCommit();
+        commits.get(0).afterCommit();
+
+        assertThat(marketplace.page(MarketplaceSort.REMAINING_AMOUNT, false, null, 10, NOW).microcredits())
+                .singleElement()
+                .satisfies(listing -> assertThat(listing.remainingAmount()).isEqualByComparingTo("500"));
+    }
+
+    @Test
+    public void late_listing_should_NOT_bring_back_a_closed_microcredit() {
+        TransactionSynchronizationManager.initSynchronization();
+        Microcredit pending = microcredit("a", 1000, 100, 3, TransactionStatus.PENDING);
+        pending.setContributionCount(3);
+        marketplace.update(pending);
+        Microcredit accepted = microcredit("a", 1000, 0, 3, TransactionStatus.ACCEPTED);
+        accepted.setContributionCount(4);
+        marketplace.update(accepted);
+
+        List<TransactionSynchronization> commits =
+                new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        commits.get(1).afterCommit();
+        commits.get(0).afterCommit();
+
+        assertThat(marketplace.size()).isZero();
+    }
+
+    @Test
+    public void reload_should_replace_the_index_with_pending_microcredits() {
+        marketplace.update(microcredit("stale", 1000, 1000, 3, TransactionStatus.PENDING));
+        when(microcreditRepository.findByTransactionStatus(TransactionStatus.PENDING))
+                .thenReturn(List.of(microcredit("a", 1000, 1000, 3, TransactionStatus.PENDING)));
+
+        marketplace.reload();
+
+        assertThat(ids(marketplace.page(MarketplaceSort.EXPIRATION_DATE, false, null, 10, NOW)))
+                .containsExactly("a");
+    }
+
+    @Test
+    public void browsing_should_NOT_query_the_database() {
+        marketplace.update(microcredit("a", 1000, 1000, 3, TransactionStatus.PENDING));
+
+        for (MarketplaceSort sort : MarketplaceSort.values()) {
+            marketplace.page(sort, false, null, 10, NOW);
+            marketplace.page(sort, true, null, 10, NOW);
+        }
+
+        verifyNoInteractions(microcreditRepository);
+    }
+
+    @Test
+    public void invalid_cursor_should_be_rejected() {
+        assertThrows(InvalidDataException.class,
+                () -> marketplace.page(MarketplaceSort.REMAINING_AMOUNT, false, "no-es-un-cursor", 10, NOW));
+    }
+}
@@ -0,0 +1,316 @@
+package com.igrowker.nativo.unit.utils;
+
+import com.igrowker.nativo.entities.*;
+import com.igrowker.nativo.exceptions.DeniedTransactionException;
+import com.igrowker.nativo.exceptions.InsufficientFundsException;
+import com.igrowker.nativo.exceptions.ResourceNotFoundException;
+import com.igrowker.nativo.repositories.AccountRepository;
+import com.igrowker.nativo.repositories.ContributionRepository;
+import com.igrowker.nativo.repositories.MicrocreditRepository;
+import com.igrowker.nativo.repositories.UserRepository;
+import com.igrowker.nativo.utils.AccountActivityRecorder;
+import com.igrowker.nativo.utils.MicrocreditSettledEvent;
+import com.igrowker.nativo.utils.MicrocreditSettlement;
+import com.igrowker.nativo.utils.MicrocreditSettlementNotifier;
+import com.igrowker.nativo.utils.NotificationService;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MicrocreditSettlementTest {
+
+    private static final String BORROWER = "m-borrower";
+
+    private Microcredit microcredit;
+    private User borrowerUser;
+
+    @BeforeEach
+    public void setup() {
+        microcredit = new Microcredit();
+        microcredit.setId("microcredit-1");
+        microcredit.setBorrowerAccountId(BORROWER);
+        microcredit.setInterestRate(BigDecimal.TEN);
+        microcredit.setTotalOwed(new BigDecimal("3850.00"));
+        microcredit.setContributions(new ArrayList<>(List.of(
+                contribution("c-1", "a-lender", 1000),
+                contribution("c-2", "z-lender", 2000),
+                contribution("c-3", "a-lender", 500))));
+
+        borrowerUser = new User();
+        borrowerUser.setEmail("borrower@example.com");
+        borrowerUser.setName("John");
+        borrowerUser.setSurname("Doe");
+    }
+
+    private Contribution contribution(String id, String lenderAccountId, long amount) {
+        Contribution contribution = new Contribution();
+        contribution.setId(id);
+        contribution.setLenderAccountId(lenderAccountId);
+        contribution.setAmount(BigDecimal.valueOf(amount));
+        contribution.setTransactionStatus(TransactionStatus.ACCEPTED);
+        contribution.setMicrocredit(microcredit);
+        return contribution;
+    }
+
+    @Nested
+    class SettleTests {
+        @Mock
+        private MicrocreditRepository microcreditRepository;
+        @Mock
+        private AccountRepository accountRepository;
+        @Mock
+        private ContributionRepository contributionRepository;
+        @Mock
+        private AccountActivityRecorder activityRecorder;
+        @Mock
+        private JdbcTemplate jdbcTemplate;
+        @Mock
+        private ApplicationEventPublisher eventPublisher;
+        @InjectMocks
+        private MicrocreditSettlement settlement;
+
+        private void payable() {
+            when(microcreditRepository.transitionStatus(eq("microcredit-1"), anyCollection(), eq(TransactionStatus.COMPLETED)))
+                    .thenReturn(1);
+            when(contributionRepository.findByMicrocreditIdAndTransactionStatusNot("microcredit-1", TransactionStatus.COMPLETED))
+                    .thenAnswer(invocation -> List.copyOf(microcredit.getContributions()));
+        }
+
+        @Test
+        public void settle_should_debit_once_and_credit_each_lender_in_id_order() {
+            List<List<Object[]>> batches = new ArrayList<>();
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+                List<Object[]> batch = invocation.getArgument(1);
+                batches.add(batch);
+                return filledWithOnes(batch.size());
+            });
+            payable();
+            when(accountRepository.debitIfAvailable(BORROWER, new BigDecimal("3850.00"))).thenReturn(1);
+
+            BigDecimal total = settlement.settle(microcredit, borrowerUser);
+
+            assertThat(total).isEqualByComparingTo("3850");
+            assertThat(microcredit.getTransactionStatus()).isEqualTo(TransactionStatus.COMPLETED);
+            // El microcrédito se cierra antes de mover dinero; las cuentas menores que la del prestatario se acreditan
+            // antes del débito y las mayores después, como en GeneralTransactions.
+            InOrder order = inOrder(microcreditRepository, jdbcTemplate, accountRepository, contributionRepository,
+                    activityRecorder, eventPublisher);
+            order.verify(microcreditRepository).transitionStatus(eq("microcredit-1"),
+                    argThat(from -> !from.contains(TransactionStatus.COMPLETED)), eq(TransactionStatus.COMPLETED));
+            order.verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+            order.verify(accountRepository).debitIfAvailable(BORROWER, new BigDecimal("3850.00"));
+            order.verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+            order.verify(contributionRepository).updateStatusByIdIn(List.of("c-1", "c-2", "c-3"), TransactionStatus.COMPLETED);
+            order.verify(activityRecorder).updateStatus(List.of("c-1", "c-2", "c-3"), TransactionStatus.COMPLETED);
+            order.verify(microcreditRepository).reduceTotalOwed("microcredit-1", new BigDecimal("3850.00"));
+            order.verify(eventPublisher).publishEvent(any(MicrocreditSettledEvent.class));
+
+            assertThat(batches).hasSize(2);
+            assertThat(batches.get(0)).singleElement().satisfies(args -> {
+                assertThat((BigDecimal) args[0]).isEqualByComparingTo("1650");
+                assertThat(args[1]).isEqualTo("a-lender");
+            });
+            assertThat(batches.get(1)).singleElement().satisfies(args -> {
+                assertThat((BigDecimal) args[0]).isEqualByComparingTo("2200");
+                assertThat(args[1]).isEqualTo("z-lender");
+            });
+            verify(accountRepository, never()).addToBalance(any(), any());
+            verify(accountRepository, never()).findById(any());
+            verify(contributionRepository, never()).save(any());
+            verify(activityRecorder, never()).record(any(Contribution.class));
+        }
+
+        @Test
+        public void settle_should_publish_one_payout_per_contribution() {
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation ->
+                    filledWithOnes(invocation.<List<Object[]>>getArgument(1).size()));
+            payable();
+            when(accountRepository.debitIfAvailable(eq(BORROWER), any())).thenReturn(1);
+
+            settlement.settle(microcredit, borrowerUser);
+
+            ArgumentCaptor<MicrocreditSettledEvent> event = ArgumentCaptor.forClass(MicrocreditSettledEvent.class);
+            verify(eventPublisher).publishEvent(event.capture());
+            assertThat(event.getValue().borrowerEmail()).isEqualTo("borrower@example.com");
+            assertThat(event.getValue().borrowerFullname()).isEqualTo("John Doe");
+            assertThat(event.getValue().totalPaidAmount()).isEqualByComparingTo("3850");
+            assertThat(event.getValue().payouts()).containsExactly(
+                    new MicrocreditSettledEvent.Payout("a-lender", BigDecimal.valueOf(1000)),
+                    new MicrocreditSettledEvent.Payout("z-lender", BigDecimal.valueOf(2000)),
+                    new MicrocreditSettledEvent.Payout("a-lender", BigDecimal.valueOf(500)));
+        }
+
+        @Test
+        public void settle_should_fail_without_marking_anything_when_borrower_has_insufficient_funds() {
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+            payable();
+            when(accountRepository.debitIfAvailable(eq(BORROWER), any())).thenReturn(0);
+
+            InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
+                    () -> settlement.settle(microcredit, borrowerUser));
+
+            assertThat(exception.getMessage()).isEqualTo("Fondos insuficientes");
+            verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+            verify(contributionRepository, never()).updateStatusByIdIn(anyCollection(), any());
+            verify(microcreditRepository, never()).reduceTotalOwed(any(), any());
+            verifyNoInteractions(activityRecorder, eventPublisher);
+        }
+
+        @Test
+        public void settle_should_fail_when_a_lender_account_does_not_exist() {
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0});
+            payable();
+
+            assertThrows(ResourceNotFoundException.class, () -> settlement.settle(microcredit, borrowerUser));
+
+            verify(accountRepository, never()).debitIfAvailable(any(), any());
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        public void settle_should_NOT_move_what_the_borrower_returns_to_itself() {
+            microcredit.getContributions().add(contribution("c-4", BORROWER, 100));
+            microcredit.setTotalOwed(new BigDecimal("3960.00"));
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+            payable();
+            when(accountRepository.debitIfAvailable(BORROWER, new BigDecimal("3850.00"))).thenReturn(1);
+
+            BigDecimal total = settlement.settle(microcredit, borrowerUser);
+
+            assertThat(total).isEqualByComparingTo("3960");
+            verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        }
+
+        @Test
+        public void settle_should_be_denied_without_moving_money_when_already_completed() {
+            when(microcreditRepository.transitionStatus(eq("microcredit-1"), anyCollection(), eq(TransactionStatus.COMPLETED)))
+                    .thenReturn(0);
+
+            assertThrows(DeniedTransactionException.class, () -> settlement.settle(microcredit, borrowerUser));
+
+            verifyNoInteractions(accountRepository, contributionRepository, activityRecorder, jdbcTemplate, eventPublisher);
+        }
+
+        @Test
+        public void settle_should_only_repay_and_mark_contributions_not_yet_completed() {
+            when(microcreditRepository.transitionStatus(eq("microcredit-1"), anyCollection(), eq(TransactionStatus.COMPLETED)))
+                    .thenReturn(1);
+            when(contributionRepository.findByMicrocreditIdAndTransactionStatusNot("microcredit-1", TransactionStatus.COMPLETED))
+                    .thenReturn(List.of(microcredit.getContributions().get(1)));
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+            when(accountRepository.debitIfAvailable(BORROWER, new BigDecimal("2200.00"))).thenReturn(1);
+
+            BigDecimal total = settlement.settle(microcredit, borrowerUser);
+
+            assertThat(total).isEqualByComparingTo("2200");
+            verify(contributionRepository).updateStatusByIdIn(List.of("c-2"), TransactionStatus.COMPLETED);
+            verify(activityRecorder).updateStatus(List.of("c-2"), TransactionStatus.COMPLETED);
+            verify(microcreditRepository).reduceTotalOwed("microcredit-1", new BigDecimal("2200.00"));
+        }
+
+        @Test
+        public void settle_from_frozen_should_pay_from_the_frozen_amount_without_debiting_the_borrower() {
+            microcredit.getContributions().add(contribution("c-4", BORROWER, 100));
+            microcredit.setFrozenAmount(new BigDecimal("4000"));
+            microcredit.setPendingAmount(new BigDecimal("3960.00"));
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation ->
+                    filledWithOnes(invocation.<List<Object[]>>getArgument(1).size()));
+            payable();
+            when(microcreditRepository.releaseFrozenAmount("microcredit-1", new BigDecimal("3960.00"))).thenReturn(1);
+
+            BigDecimal total = settlement.settleFromFrozen(microcredit, borrowerUser);
+
+            // Lo congelado ya salió de la cuenta del prestatario: también se le devuelve lo que aportó.
+            assertThat(total).isEqualByComparingTo("3960");
+            assertThat(microcredit.getFrozenAmount()).isEqualByComparingTo("40");
+            assertThat(microcredit.getPendingAmount()).isEqualByComparingTo("0");
+            verify(jdbcTemplate, times(1)).batchUpdate(anyString(), argThat((List<Object[]> batch) -> batch.size() == 3));
+            verify(accountRepository, never()).debitIfAvailable(any(), any());
+            verify(contributionRepository).updateStatusByIdIn(List.of("c-1", "c-2", "c-3", "c-4"), TransactionStatus.COMPLETED);
+            verify(eventPublisher).publishEvent(any(MicrocreditSettledEvent.class));
+        }
+
+        @Test
+        public void settle_from_frozen_should_fail_when_the_frozen_amount_does_not_cover_the_repayment() {
+            payable();
+            when(microcreditRepository.releaseFrozenAmount(eq("microcredit-1"), any())).thenReturn(0);
+
+            assertThrows(InsufficientFundsException.class, () -> settlement.settleFromFrozen(microcredit, borrowerUser));
+
+            verifyNoInteractions(jdbcTemplate, accountRepository, activityRecorder, eventPublisher);
+            verify(contributionRepository, never()).updateStatusByIdIn(anyCollection(), any());
+        }
+    }
+
+    @Nested
+    class NotifierTests {
+        @Mock
+        private AccountRepository accountRepository;
+        @Mock
+        private UserRepository userRepository;
+        @Mock
+        private NotificationService notificationService;
+        @InjectMocks
+        private MicrocreditSettlementNotifier notifier;
+
+        @Test
+        public void notifier_should_resolve_lenders_in_bulk_and_keep_going_after_a_failed_mail() throws Exception {
+            Account first = new Account("a-lender", 1L, BigDecimal.ZERO, true, "user-a", BigDecimal.ZERO);
+            Account second = new Account("z-lender", 2L, BigDecimal.ZERO, true, "user-z", BigDecimal.ZERO);
+            when(accountRepository.findAllById(anyCollection())).thenReturn(List.of(first, second));
+            when(userRepository.findAllById(anyCollection())).thenReturn(List.of(user("user-a", "a@example.com"),
+                    user("user-z", "z@example.com")));
+            doThrow(new MessagingException("SMTP caído")).when(notificationService).sendPaymentNotification(
+                    eq("a@example.com"), anyString(), any(), anyString(), anyString(), anyString());
+
+            notifier.onMicrocreditSettled(new MicrocreditSettledEvent("microcredit-1", "borrower@example.com",
+                    "John Doe", BigDecimal.valueOf(3850), List.of(
+                    new MicrocreditSettledEvent.Payout("a-lender", BigDecimal.valueOf(1000)),
+                    new MicrocreditSettledEvent.Payout("z-lender", BigDecimal.valueOf(2000)))));
+
+            verify(accountRepository, times(1)).findAllById(anyCollection());
+            verify(userRepository, times(1)).findAllById(anyCollection());
+            verify(notificationService).sendPaymentNotification(eq("z@example.com"), eq("Name Surname"),
+                    eq(BigDecimal.valueOf(2000)), eq("Devolución cuota microcrédito"),
+                    contains("microcrédito con ID: microcredit-1"), anyString());
+            verify(notificationService).sendPaymentNotification(eq("borrower@example.com"), eq("John Doe"),
+                    eq(BigDecimal.valueOf(3850)), eq("Descuento cuota del microcrédito"),
+                    contains("microcrédito con ID: microcredit-1"), anyString());
+        }
+
+        private User user(String id, String email) {
+            User user = new User();
+            user.setId(id);
+            user.setEmail(email);
+            user.setName("Name");
+            user.setSurname("Surname");
+            return user;
+        }
+    }
+
+    private static int[] filledWithOnes(int size) {
+        int[] counts = new int[size];
+        Arrays.fill(counts, 1);
+        return counts;
+    }
+}
@@ -0,0 +1,61 @@
+package com.igrowker.nativo.unit.utils;
+
+import com.igrowker.nativo.entities.TransactionStatus;
+import com.igrowker.nativo.repositories.PaymentRepository;
+import com.igrowker.nativo.security.PaymentQrSigner;
+import com.igrowker.nativo.utils.AccountActivityRecorder;
+import com.igrowker.nativo.utils.PaymentExpirySweeper;
+import com.igrowker.nativo.utils.PaymentQrCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentExpirySweeperTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private AccountActivityRecorder activityRecorder;
+    @Mock
+    private PaymentQrCache paymentQrCache;
+    @InjectMocks
+    private PaymentExpirySweeper sweeper;
+
+    @Test
+    public void sweep_should_expire_stale_payments_with_their_activity_and_cached_qr() {
+        when(paymentRepository.lockStalePendingIds(any(), anyInt())).thenReturn(List.of("p-1", "p-2"));
+
+        LocalDateTime before = LocalDateTime.now().minusSeconds(PaymentQrSigner.VALIDITY_SECONDS);
+        sweeper.expireStale();
+
+        ArgumentCaptor<LocalDateTime> issuedBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(paymentRepository).lockStalePendingIds(issuedBefore.capture(), anyInt());
+        assertThat(issuedBefore.getValue()).isAfterOrEqualTo(before)
+                .isBefore(before.plusMinutes(1));
+        verify(paymentRepository).expireByIdIn(List.of("p-1", "p-2"));
+        verify(activityRecorder).updateStatus(List.of("p-1", "p-2"), TransactionStatus.EXPIRED);
+        verify(paymentQrCache).remove("p-1");
+        verify(paymentQrCache).remove("p-2");
+    }
+
+    @Test
+    public void sweep_should_do_nothing_when_no_payment_is_stale() {
+        when(paymentRepository.lockStalePendingIds(any(), anyInt())).thenReturn(List.of());
+
+        sweeper.expireStale();
+
+        verify(paymentRepository, never()).expireByIdIn(any());
+        verifyNoInteractions(activityRecorder, paymentQrCache);
+    }
+}
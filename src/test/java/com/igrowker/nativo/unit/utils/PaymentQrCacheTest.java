@@ -0,0 +1,71 @@
+package com.igrowker.nativo.unit.utils;
+
+import com.igrowker.nativo.dtos.payment.ResponseQrImageDto;
+import com.igrowker.nativo.utils.PaymentQrCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PaymentQrCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 10, 1, 12, 0);
+
+    private PaymentQrCache cache;
+
+    @BeforeEach
+    public void setup() {
+        cache = new PaymentQrCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 10);
+    }
+
+    private ResponseQrImageDto qrExpiringAt(LocalDateTime expiresAt) {
+        return new ResponseQrImageDto(new byte[]{1}, "hash", expiresAt);
+    }
+
+    @Test
+    public void cached_qr_should_be_returned_until_payment_expires() {
+        ResponseQrImageDto qr = qrExpiringAt(NOW.plusMinutes(10));
+        cache.put("paymentId", qr, NOW);
+
+        assertThat(cache.get("paymentId", NOW.plusMinutes(9))).isSameAs(qr);
+        assertThat(cache.get("paymentId", NOW.plusMinutes(10))).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void removed_qr_should_not_be_returned() {
+        cache.put("paymentId", qrExpiringAt(NOW.plusMinutes(10)), NOW);
+
+        cache.remove("paymentId");
+
+        assertThat(cache.get("paymentId", NOW)).isNull();
+    }
+
+    @Test
+    public void full_cache_should_drop_expired_entries_first() {
+        for (int i = 0; i < 9; i++) {
+            cache.put("expired-" + i, qrExpiringAt(NOW.plusMinutes(1)), NOW);
+        }
+        cache.put("live", qrExpiringAt(NOW.plusMinutes(10)), NOW);
+
+        cache.put("new", qrExpiringAt(NOW.plusMinutes(10)), NOW.plusMinutes(5));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("live", NOW.plusMinutes(5))).isNotNull();
+        assertThat(cache.get("new", NOW.plusMinutes(5))).isNotNull();
+    }
+
+    @Test
+    public void full_cache_should_stay_bounded() {
+        for (int i = 0; i < 100; i++) {
+            cache.put("payment-" + i, qrExpiringAt(NOW.plusMinutes(10)), NOW);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(cache.get("payment-99", NOW)).isNotNull();
+    }
+}
@@ -0,0 +1,74 @@
+package com.igrowker.nativo.unit.validations;
+
+import com.igrowker.nativo.entities.Account;
+import com.igrowker.nativo.entities.User;
+import com.igrowker.nativo.validations.AuthenticatedUserAccountResolver;
+import com.igrowker.nativo.validations.Validations;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthenticatedUserAccountResolverTest {
+
+    private AuthenticatedUserAccountResolver resolver;
+    private AtomicInteger loads;
+    private Supplier<Validations.UserAccountPair> loader;
+
+    @BeforeEach
+    public void setup() {
+        resolver = new AuthenticatedUserAccountResolver(new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return new Validations.UserAccountPair(new User(), new Account());
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void same_request_should_load_once_and_count_avoided_lookups() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        Validations.UserAccountPair first = resolver.resolve("email@gmail.com", loader);
+        Validations.UserAccountPair second = resolver.resolve("email@gmail.com", loader);
+        Validations.UserAccountPair third = resolver.resolve("email@gmail.com", loader);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second).isSameAs(first);
+        assertThat(third).isSameAs(first);
+        assertThat(resolver.getAvoidedLookups()).isEqualTo(2);
+    }
+
+    @Test
+    public void different_requests_should_not_share_pair() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        resolver.resolve("email@gmail.com", loader);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        resolver.resolve("email@gmail.com", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(resolver.getAvoidedLookups()).isZero();
+    }
+
+    @Test
+    public void outside_request_should_always_load() {
+        resolver.resolve("email@gmail.com", loader);
+        resolver.resolve("email@gmail.com", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}